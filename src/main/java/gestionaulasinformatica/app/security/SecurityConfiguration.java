@@ -1,10 +1,9 @@
 package gestionaulasinformatica.app.security;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.context.annotation.Scope;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.builders.WebSecurity;
@@ -15,9 +14,6 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.authentication.SavedRequestAwareAuthenticationSuccessHandler;
 
-import gestionaulasinformatica.backend.entity.Usuario;
-import gestionaulasinformatica.backend.repository.IUsuarioRepository;
-
 /**
  * Clase de configuración de seguridad.
  * 
@@ -55,14 +51,6 @@ public class SecurityConfiguration extends WebSecurityConfigurerAdapter {
 		return new BCryptPasswordEncoder();
 	}
 
-	@Bean
-	@Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
-	public CurrentUser currentUser(IUsuarioRepository usuarioRepository) {
-		final String username = SecurityUtils.getUsername();
-		Usuario usuario = username != null ? usuarioRepository.findByCorreoUsuarioIgnoreCase(username) : null;
-		return () -> usuario;
-	}
-
 	/**
 	 * REgistra el UserDetailsService propio y el codificador de contraseñas para
 	 * usar en el login.
@@ -93,6 +81,10 @@ public class SecurityConfiguration extends WebSecurityConfigurerAdapter {
 				// Permite todas las solicitudes internas de Vaadin
 				.requestMatchers(SecurityUtils::isFrameworkInternalRequest).permitAll()
 
+				// Permite el estado y las métricas de la aplicación, que se publican en un
+				// puerto de gestión sólo accesible desde la red interna
+				.requestMatchers(EndpointRequest.to("health", "prometheus")).permitAll()
+
 				// Permite todas las solicitudes de usuarios logeados
 				.anyRequest().authenticated()
 
@@ -0,0 +1,96 @@
+package gestionaulasinformatica.app.security;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.vaadin.flow.spring.annotation.SpringComponent;
+import com.vaadin.flow.spring.annotation.VaadinSessionScope;
+
+import gestionaulasinformatica.backend.cache.CacheDatosReferencia;
+import gestionaulasinformatica.backend.entity.PropietarioAula;
+import gestionaulasinformatica.backend.entity.Usuario;
+import gestionaulasinformatica.backend.service.PropietarioAulaService;
+import gestionaulasinformatica.backend.service.UsuarioService;
+
+/**
+ * Datos del usuario logeado que se guardan en su sesión de Vaadin: el usuario
+ * y los centros y departamentos de los que es responsable.
+ *
+ * Se consultan una sola vez por sesión y se recargan cuando se modifica algún
+ * usuario o propietario de aulas (ver CacheDatosReferencia), de forma que las
+ * ventanas no tienen que consultarlos cada vez que se abren o se actualizan.
+ *
+ * @author Lisa
+ *
+ */
+@SpringComponent
+@VaadinSessionScope
+public class UsuarioSesion implements CurrentUser {
+
+	private final UsuarioService usuarioService;
+	private final PropietarioAulaService propietarioAulaService;
+	private final CacheDatosReferencia cacheDatosReferencia;
+
+	private Usuario usuario;
+	private List<PropietarioAula> lstPropietarios;
+	private long version = -1;
+
+	/**
+	 * Constructor de la clase.
+	 *
+	 * @param usuarioService         Service de JPA de la entidad Usuario
+	 * @param propietarioAulaService Service de JPA de la entidad PropietarioAula
+	 * @param cacheDatosReferencia   Cache de los datos de referencia
+	 */
+	@Autowired
+	public UsuarioSesion(UsuarioService usuarioService, PropietarioAulaService propietarioAulaService,
+			CacheDatosReferencia cacheDatosReferencia) {
+		this.usuarioService = usuarioService;
+		this.propietarioAulaService = propietarioAulaService;
+		this.cacheDatosReferencia = cacheDatosReferencia;
+	}
+
+	/**
+	 * Función que devuelve el usuario logeado.
+	 *
+	 * @return Usuario logeado o null si no se ha logeado nadie
+	 */
+	@Override
+	public synchronized Usuario getUser() {
+		cargar();
+		return usuario;
+	}
+
+	/**
+	 * Función que devuelve los centros y departamentos de los que es responsable
+	 * el usuario logeado.
+	 *
+	 * @return Lista de propietarios de aulas del usuario logeado
+	 */
+	public synchronized List<PropietarioAula> getPropietarios() {
+		cargar();
+		return lstPropietarios;
+	}
+
+	/**
+	 * Función que consulta el usuario logeado y sus propietarios de aulas si no
+	 * se han consultado todavía o si se han modificado desde la última vez.
+	 */
+	private void cargar() {
+		long versionActual = cacheDatosReferencia.getVersionUsuarios();
+		String correoUsuario;
+
+		if (version == versionActual) {
+			return;
+		}
+
+		correoUsuario = SecurityUtils.getUsername();
+		usuario = correoUsuario != null ? usuarioService.findByCorreoUsuario(correoUsuario) : null;
+		lstPropietarios = usuario != null
+				? Collections.unmodifiableList(propietarioAulaService.findAllPropietariosResponsable(usuario))
+				: Collections.emptyList();
+		version = versionActual;
+	}
+}
@@ -0,0 +1,203 @@
+package gestionaulasinformatica.backend.busqueda;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.dialect.PostgreSQL81Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import gestionaulasinformatica.backend.cache.CacheDatosReferencia;
+import gestionaulasinformatica.backend.entity.PropietarioAula;
+import gestionaulasinformatica.backend.entity.Usuario;
+import gestionaulasinformatica.backend.repository.IPropietarioAulaRepository;
+import gestionaulasinformatica.backend.repository.IUsuarioRepository;
+
+/**
+ * Búsqueda por texto de los usuarios (por nombre y apellidos) y de los centros
+ * y departamentos (por nombre), con los resultados ordenados por relevancia y
+ * paginados.
+ *
+ * En PostgreSQL la búsqueda se hace en la BD, donde las columnas tienen
+ * índices de trigramas (pg_trgm) que permiten buscar subcadenas sin recorrer
+ * toda la tabla (ver la migración V4). En el resto de BD (H2 en los tests) se usa
+ * un índice de trigramas en memoria, que se carga la primera vez que se busca
+ * y se vuelve a cargar cuando se modifica algún usuario o propietario.
+ *
+ * @author Lisa
+ *
+ */
+@Component
+public class BusquedaTexto {
+	private final IUsuarioRepository usuarioRepository;
+	private final IPropietarioAulaRepository propietarioAulaRepository;
+	private final CacheDatosReferencia cacheDatosReferencia;
+	private final boolean trigramasBD;
+
+	private volatile IndiceNGramas<Integer> indiceUsuarios;
+	private volatile IndiceNGramas<String> indicePropietarios;
+	private volatile long versionIndiceUsuarios = -1;
+	private volatile long versionIndicePropietarios = -1;
+
+	/**
+	 * Constructor de la clase.
+	 *
+	 * @param usuarioRepository         Repositorio de la entidad Usuario
+	 * @param propietarioAulaRepository Repositorio de la entidad PropietarioAula
+	 * @param cacheDatosReferencia      Cache de los datos de referencia
+	 * @param entityManagerFactory      Factoría de EntityManager de JPA
+	 */
+	@Autowired
+	public BusquedaTexto(IUsuarioRepository usuarioRepository, IPropietarioAulaRepository propietarioAulaRepository,
+			CacheDatosReferencia cacheDatosReferencia, EntityManagerFactory entityManagerFactory) {
+		this.usuarioRepository = usuarioRepository;
+		this.propietarioAulaRepository = propietarioAulaRepository;
+		this.cacheDatosReferencia = cacheDatosReferencia;
+		this.trigramasBD = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices()
+				.getDialect() instanceof PostgreSQL81Dialect;
+	}
+
+	/**
+	 * Función que devuelve una página de los usuarios cuyo nombre y apellidos
+	 * contienen el filtro de texto, ordenados por relevancia.
+	 *
+	 * @param filtroTexto Filtro que se quiere aplicar
+	 * @param pageable    Página que se quiere obtener (sin orden)
+	 *
+	 * @return Página de los usuarios que contienen el filtro de texto
+	 */
+	public Page<Usuario> buscarUsuarios(String filtroTexto, Pageable pageable) {
+		String filtro = IndiceNGramas.normalizar(filtroTexto);
+
+		if (trigramasBD) {
+			return usuarioRepository.buscarUsuario(escaparLike(filtro), pageable);
+		}
+		return getPagina(getIndiceUsuarios().buscar(filtro), pageable, usuarioRepository::findAllById,
+				Usuario::getIdUsuario);
+	}
+
+	/**
+	 * Función que devuelve una página de los centros y departamentos cuyo nombre
+	 * contiene el filtro de texto, ordenados por relevancia.
+	 *
+	 * @param filtroTexto Filtro que se quiere aplicar
+	 * @param pageable    Página que se quiere obtener (sin orden)
+	 *
+	 * @return Página de los propietarios de aulas que contienen el filtro de
+	 *         texto
+	 */
+	public Page<PropietarioAula> buscarPropietarios(String filtroTexto, Pageable pageable) {
+		String filtro = IndiceNGramas.normalizar(filtroTexto);
+
+		if (trigramasBD) {
+			return propietarioAulaRepository.buscarPropietario(escaparLike(filtro), pageable);
+		}
+		return getPagina(getIndicePropietarios().buscar(filtro), pageable, propietarioAulaRepository::findAllById,
+				PropietarioAula::getIdPropietarioAula);
+	}
+
+	/**
+	 * Función que devuelve el índice en memoria de los usuarios, cargándolo de la
+	 * BD si no se ha cargado o si se han modificado los usuarios.
+	 *
+	 * @return Índice de los nombres y apellidos de los usuarios
+	 */
+	private IndiceNGramas<Integer> getIndiceUsuarios() {
+		long version = cacheDatosReferencia.getVersionUsuarios();
+		Map<Integer, String> textos;
+
+		if (indiceUsuarios == null || versionIndiceUsuarios != version) {
+			textos = new LinkedHashMap<>();
+			for (Usuario usuario : usuarioRepository.findAll()) {
+				textos.put(usuario.getIdUsuario(), IndiceNGramas
+						.normalizar(usuario.getNombreUsuario() + " " + usuario.getApellidosUsuario()));
+			}
+			indiceUsuarios = new IndiceNGramas<>(textos);
+			versionIndiceUsuarios = version;
+		}
+		return indiceUsuarios;
+	}
+
+	/**
+	 * Función que devuelve el índice en memoria de los propietarios de aulas,
+	 * cargándolo de la BD si no se ha cargado o si se han modificado.
+	 *
+	 * @return Índice de los nombres de los propietarios de aulas
+	 */
+	private IndiceNGramas<String> getIndicePropietarios() {
+		long version = cacheDatosReferencia.getVersionUsuarios();
+		Map<String, String> textos;
+
+		if (indicePropietarios == null || versionIndicePropietarios != version) {
+			textos = new LinkedHashMap<>();
+			for (PropietarioAula propietario : propietarioAulaRepository
+					.findAll(Sort.by(Sort.Direction.ASC, "nombrePropietarioAula"))) {
+				textos.put(propietario.getIdPropietarioAula(),
+						IndiceNGramas.normalizar(propietario.getNombrePropietarioAula()));
+			}
+			indicePropietarios = new IndiceNGramas<>(textos);
+			versionIndicePropietarios = version;
+		}
+		return indicePropietarios;
+	}
+
+	/**
+	 * Función que obtiene de la BD la página pedida de los resultados de una
+	 * búsqueda en memoria, en el orden de relevancia de la búsqueda.
+	 *
+	 * @param lstIds      IDs de los resultados ordenados por relevancia
+	 * @param pageable    Página que se quiere obtener
+	 * @param consultaIds Consulta de las entidades por sus IDs
+	 * @param getId       Función que devuelve el ID de una entidad
+	 *
+	 * @return Página de los resultados
+	 */
+	private static <T, K> Page<T> getPagina(List<K> lstIds, Pageable pageable,
+			Function<List<K>, Iterable<T>> consultaIds, Function<T, K> getId) {
+		List<K> lstIdsPagina = lstIds;
+		Map<K, T> entidades = new LinkedHashMap<>();
+		List<T> lstPagina;
+
+		if (pageable.isPaged()) {
+			lstIdsPagina = lstIds.subList(Math.min((int) pageable.getOffset(), lstIds.size()),
+					Math.min((int) pageable.getOffset() + pageable.getPageSize(), lstIds.size()));
+		}
+
+		for (K id : lstIdsPagina) {
+			entidades.put(id, null);
+		}
+		if (!lstIdsPagina.isEmpty()) {
+			consultaIds.apply(lstIdsPagina).forEach(entidad -> entidades.put(getId.apply(entidad), entidad));
+		}
+
+		lstPagina = new ArrayList<>(lstIdsPagina.size());
+		for (T entidad : entidades.values()) {
+			// Si se ha eliminado desde que se cargó el índice no se devuelve
+			if (entidad != null) {
+				lstPagina.add(entidad);
+			}
+		}
+		return new PageImpl<>(lstPagina, pageable, lstIds.size());
+	}
+
+	/**
+	 * Función que escapa los caracteres especiales de LIKE de un filtro.
+	 *
+	 * @param filtro Filtro de texto
+	 *
+	 * @return Filtro con '\', '%' y '_' escapados con '\'
+	 */
+	private static String escaparLike(String filtro) {
+		return filtro.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+	}
+}
@@ -0,0 +1,131 @@
+package gestionaulasinformatica.backend.busqueda;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Clase inmutable con un índice en memoria de los trigramas de unos textos,
+ * para buscar los que contienen un filtro sin recorrerlos todos.
+ *
+ * Cada trigrama tiene un BitSet con las posiciones de los textos en los que
+ * aparece. Los candidatos para un filtro son la intersección de los BitSet de
+ * sus trigramas, y sólo en ellos se comprueba que el texto contiene el filtro.
+ *
+ * @author Lisa
+ *
+ * @param <K> Tipo de la clave de los textos
+ */
+final class IndiceNGramas<K> {
+	static final int N = 3;
+
+	private final List<K> claves;
+	private final List<String> textos;
+	private final Map<String, BitSet> trigramas;
+
+	/**
+	 * Constructor de la clase.
+	 *
+	 * @param textos Textos que se indexan, por clave. Deben estar normalizados
+	 *               (ver normalizar)
+	 */
+	IndiceNGramas(Map<K, String> textos) {
+		this.claves = new ArrayList<>(textos.size());
+		this.textos = new ArrayList<>(textos.size());
+		this.trigramas = new HashMap<>();
+
+		for (Map.Entry<K, String> entrada : textos.entrySet()) {
+			int posicion = this.claves.size();
+			String texto = entrada.getValue();
+
+			this.claves.add(entrada.getKey());
+			this.textos.add(texto);
+
+			for (int i = 0; i + N <= texto.length(); i++) {
+				this.trigramas.computeIfAbsent(texto.substring(i, i + N), t -> new BitSet()).set(posicion);
+			}
+		}
+	}
+
+	/**
+	 * Función que normaliza un texto para indexarlo o buscarlo.
+	 *
+	 * @param texto Texto que se quiere normalizar
+	 *
+	 * @return Texto en minúsculas y sin espacios al principio ni al final
+	 */
+	static String normalizar(String texto) {
+		return texto == null ? "" : texto.trim().toLowerCase();
+	}
+
+	/**
+	 * Función que devuelve las claves de los textos que contienen el filtro,
+	 * ordenadas por relevancia: primero los que empiezan por el filtro, después
+	 * los que tienen una palabra que empieza por el filtro y después el resto, y
+	 * en cada grupo por orden alfabético.
+	 *
+	 * @param filtro Filtro normalizado
+	 *
+	 * @return Lista con las claves de los textos que contienen el filtro
+	 */
+	List<K> buscar(String filtro) {
+		List<Integer> lstPosiciones = new ArrayList<>();
+		List<K> lstClaves;
+		BitSet candidatos = null;
+
+		if (filtro.length() >= N) {
+			for (int i = 0; i + N <= filtro.length(); i++) {
+				BitSet posiciones = trigramas.get(filtro.substring(i, i + N));
+
+				if (posiciones == null) {
+					return Collections.emptyList();
+				}
+				if (candidatos == null) {
+					candidatos = (BitSet) posiciones.clone();
+				} else {
+					candidatos.and(posiciones);
+				}
+			}
+		} else {
+			// Con menos de N caracteres no hay trigramas: se comprueban todos los textos
+			candidatos = new BitSet(textos.size());
+			candidatos.set(0, textos.size());
+		}
+
+		for (int i = candidatos.nextSetBit(0); i >= 0; i = candidatos.nextSetBit(i + 1)) {
+			if (textos.get(i).contains(filtro)) {
+				lstPosiciones.add(i);
+			}
+		}
+
+		lstPosiciones.sort(Comparator.<Integer>comparingInt(i -> getRelevancia(textos.get(i), filtro))
+				.thenComparing(textos::get));
+
+		lstClaves = new ArrayList<>(lstPosiciones.size());
+		for (Integer posicion : lstPosiciones) {
+			lstClaves.add(claves.get(posicion));
+		}
+		return lstClaves;
+	}
+
+	/**
+	 * Función que devuelve la relevancia de un texto para un filtro (cuanto
+	 * menor, más relevante). Es la misma que se usa en las consultas de la BD.
+	 *
+	 * @param texto  Texto que contiene el filtro
+	 * @param filtro Filtro normalizado
+	 *
+	 * @return 0 si el texto empieza por el filtro, 1 si alguna de sus palabras
+	 *         empieza por el filtro y 2 en otro caso
+	 */
+	private static int getRelevancia(String texto, String filtro) {
+		if (texto.startsWith(filtro)) {
+			return 0;
+		}
+		return texto.contains(" " + filtro) ? 1 : 2;
+	}
+}
@@ -0,0 +1,128 @@
+package gestionaulasinformatica.backend.cache;
+
+import java.time.LocalDate;
+
+import gestionaulasinformatica.backend.entity.Aula;
+import gestionaulasinformatica.backend.entity.PropietarioAula;
+import gestionaulasinformatica.backend.entity.Reserva;
+import gestionaulasinformatica.backend.entity.ReservaPeriodica;
+
+/**
+ * Clase de sólo lectura con el rango de fechas, el aula y los propietarios a
+ * los que afecta el cambio de una reserva, con los que se eliminan de la cache
+ * de consultas públicas sólo los resultados que pueden haber cambiado.
+ *
+ * Los datos se copian al crearlo, de forma que se puede obtener de una reserva
+ * antes de modificarla.
+ *
+ * @author Lisa
+ *
+ */
+public final class AmbitoReservas {
+	private final LocalDate fechaDesde;
+	private final LocalDate fechaHasta;
+	private final Integer idAula;
+	private final String idPropietarioAula;
+	private final String idPropietarioResponsable;
+
+	/**
+	 * Constructor de la clase.
+	 *
+	 * @param fechaDesde             Primera fecha afectada
+	 * @param fechaHasta             Última fecha afectada
+	 * @param aula                   Aula de la reserva
+	 * @param propietarioResponsable Centro o departamento que ha realizado la
+	 *                               reserva
+	 */
+	private AmbitoReservas(LocalDate fechaDesde, LocalDate fechaHasta, Aula aula,
+			PropietarioAula propietarioResponsable) {
+		this.fechaDesde = fechaDesde;
+		this.fechaHasta = fechaHasta;
+		this.idAula = aula == null ? null : aula.getIdAula();
+		this.idPropietarioAula = aula == null || aula.getPropietarioAula() == null ? null
+				: aula.getPropietarioAula().getIdPropietarioAula();
+		this.idPropietarioResponsable = propietarioResponsable == null ? null
+				: propietarioResponsable.getIdPropietarioAula();
+	}
+
+	/**
+	 * Función que devuelve el ámbito de la reserva (o de la ocurrencia) pasada.
+	 *
+	 * @param reserva Reserva
+	 *
+	 * @return Ámbito de la reserva
+	 */
+	public static AmbitoReservas de(Reserva reserva) {
+		return new AmbitoReservas(reserva.getFecha(), reserva.getFecha(), reserva.getAula(),
+				reserva.getPropietarioResponsable());
+	}
+
+	/**
+	 * Función que devuelve el ámbito de la reserva periódica pasada, entre sus
+	 * fechas de inicio y de fin.
+	 *
+	 * @param reservaPeriodica Reserva periódica
+	 *
+	 * @return Ámbito de la reserva periódica
+	 */
+	public static AmbitoReservas de(ReservaPeriodica reservaPeriodica) {
+		return de(reservaPeriodica, reservaPeriodica.getFechaInicio(), reservaPeriodica.getFechaFin());
+	}
+
+	/**
+	 * Función que devuelve el ámbito de la reserva periódica pasada entre las
+	 * fechas pasadas (por ejemplo, el día de una ocurrencia).
+	 *
+	 * @param reservaPeriodica Reserva periódica
+	 * @param fechaDesde       Primera fecha afectada
+	 * @param fechaHasta       Última fecha afectada
+	 *
+	 * @return Ámbito de la reserva periódica entre las fechas pasadas
+	 */
+	public static AmbitoReservas de(ReservaPeriodica reservaPeriodica, LocalDate fechaDesde, LocalDate fechaHasta) {
+		return new AmbitoReservas(fechaDesde, fechaHasta, reservaPeriodica.getAula(),
+				reservaPeriodica.getPropietarioResponsable());
+	}
+
+	/**
+	 * Función que comprueba si el ámbito se solapa con el rango de fechas pasado.
+	 * Una fecha null se considera un rango abierto por ese lado.
+	 *
+	 * @param desde Fecha desde la que se consulta
+	 * @param hasta Fecha hasta la que se consulta
+	 *
+	 * @return Si alguna fecha del ámbito está dentro del rango
+	 */
+	boolean solapaFechas(LocalDate desde, LocalDate hasta) {
+		return (desde == null || fechaHasta == null || !fechaHasta.isBefore(desde))
+				&& (hasta == null || fechaDesde == null || !fechaDesde.isAfter(hasta));
+	}
+
+	/**
+	 * Función que devuelve el ID del aula de la reserva.
+	 *
+	 * @return ID del aula de la reserva
+	 */
+	Integer getIdAula() {
+		return this.idAula;
+	}
+
+	/**
+	 * Función que devuelve el ID del propietario del aula de la reserva.
+	 *
+	 * @return ID del propietario del aula de la reserva
+	 */
+	String getIdPropietarioAula() {
+		return this.idPropietarioAula;
+	}
+
+	/**
+	 * Función que devuelve el ID del centro o departamento que ha realizado la
+	 * reserva.
+	 *
+	 * @return ID del centro o departamento que ha realizado la reserva
+	 */
+	String getIdPropietarioResponsable() {
+		return this.idPropietarioResponsable;
+	}
+}
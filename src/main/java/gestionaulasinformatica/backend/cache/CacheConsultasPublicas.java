@@ -0,0 +1,352 @@
+package gestionaulasinformatica.backend.cache;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import gestionaulasinformatica.backend.data.AulaFila;
+import gestionaulasinformatica.backend.data.ReservaFila;
+import gestionaulasinformatica.backend.entity.PropietarioAula;
+
+/**
+ * Cache de los resultados de las consultas públicas de aulas disponibles y de
+ * reservas, que se repiten con los mismos filtros (por ejemplo, en las semanas
+ * de matrícula).
+ *
+ * Cada resultado se guarda con los filtros normalizados como clave, con un
+ * número máximo de resultados y una caducidad. Al guardar o eliminar reservas
+ * sólo se eliminan los resultados cuyo rango de fechas, aula o propietario
+ * puede verse afectado; al modificar aulas o propietarios se vacía la cache.
+ * Igual que en CacheDatosReferencia, si hay una transacción activa se vuelve
+ * a eliminar al confirmarla.
+ *
+ * Los resultados son filas de sólo lectura (AulaFila y ReservaFila), no
+ * entidades, y se devuelven como listas no modificables.
+ *
+ * @author Lisa
+ *
+ */
+@Component
+public class CacheConsultasPublicas {
+	private final boolean activa;
+	private final Cache<ConsultaAulas, List<AulaFila>> cacheAulas;
+	private final Cache<ConsultaReservas, List<ReservaFila>> cacheReservas;
+
+	/** Se incrementa con cada eliminación, para no guardar resultados leídos antes */
+	private final AtomicLong generacion = new AtomicLong();
+
+	/**
+	 * Constructor de la clase.
+	 *
+	 * @param activa            Si se guardan los resultados en la cache
+	 * @param tamanoMaximo      Número máximo de resultados de cada consulta
+	 * @param caducidadSegundos Segundos que se guarda cada resultado
+	 */
+	@Autowired
+	public CacheConsultasPublicas(@Value("${gestionaulas.cache-consultas.activa:true}") boolean activa,
+			@Value("${gestionaulas.cache-consultas.tamano-maximo:500}") long tamanoMaximo,
+			@Value("${gestionaulas.cache-consultas.caducidad-segundos:60}") long caducidadSegundos) {
+		this.activa = activa;
+		this.cacheAulas = Caffeine.newBuilder().maximumSize(tamanoMaximo)
+				.expireAfterWrite(Duration.ofSeconds(caducidadSegundos)).build();
+		this.cacheReservas = Caffeine.newBuilder().maximumSize(tamanoMaximo)
+				.expireAfterWrite(Duration.ofSeconds(caducidadSegundos)).build();
+	}
+
+	/**
+	 * Función que devuelve de la cache las filas de las aulas disponibles con los
+	 * filtros pasados o, si no están, las obtiene con la consulta pasada y las
+	 * guarda.
+	 *
+	 * @param fechaDesde     Fecha desde la que debe estar disponible el aula
+	 * @param fechaHasta     Fecha hasta la que debe estar disponible el aula
+	 * @param horaDesde      Hora desde la que debe estar disponible el aula
+	 * @param horaHasta      Hora hasta la que debe estar disponible el aula
+	 * @param capacidad      Capacidad mínima del aula
+	 * @param numOrdenadores Número de ordenadores mínimo que debe tener el aula
+	 * @param diaSemana      Día de la semana que debe estar disponible el aula
+	 * @param propietario    Propietario del aula
+	 * @param idAula         ID del aula que debe estar disponible
+	 * @param consulta       Consulta de las aulas disponibles en la BD
+	 *
+	 * @return Lista no modificable con las filas de las aulas disponibles
+	 */
+	public List<AulaFila> getAulasDisponibles(LocalDate fechaDesde, LocalDate fechaHasta, LocalTime horaDesde,
+			LocalTime horaHasta, Integer capacidad, Integer numOrdenadores, String diaSemana,
+			PropietarioAula propietario, Integer idAula, Supplier<List<AulaFila>> consulta) {
+		if (!activa) {
+			return consulta.get();
+		}
+		return get(cacheAulas, new ConsultaAulas(fechaDesde, fechaHasta, horaDesde, horaHasta, capacidad,
+				numOrdenadores, diaSemana, propietario, idAula), consulta);
+	}
+
+	/**
+	 * Función que devuelve de la cache las filas de las reservas con los filtros
+	 * pasados o, si no están, las obtiene con la consulta pasada y las guarda.
+	 *
+	 * @param fechaDesde           Fecha (de inicio) desde la que obtener las
+	 *                             reservas
+	 * @param fechaHasta           Fecha (de inicio) hasta la que obtener las
+	 *                             reservas
+	 * @param horaDesde            Hora (de inicio) de la reserva desde la que
+	 *                             obtener las reservas
+	 * @param horaHasta            Hora (de inicio) de la reserva hasta la que
+	 *                             obtener las reservas
+	 * @param diaSemana            Día de la semana del que obtener las reservas
+	 * @param lstPropietariosAulas Lista de posibles propietarios de los que
+	 *                             obtener las reservas
+	 * @param consulta             Consulta de las reservas en la BD
+	 *
+	 * @return Lista no modificable con las filas de las reservas
+	 */
+	public List<ReservaFila> getReservas(LocalDate fechaDesde, LocalDate fechaHasta, LocalTime horaDesde,
+			LocalTime horaHasta, String diaSemana, List<PropietarioAula> lstPropietariosAulas,
+			Supplier<List<ReservaFila>> consulta) {
+		if (!activa) {
+			return consulta.get();
+		}
+		return get(cacheReservas,
+				new ConsultaReservas(fechaDesde, fechaHasta, horaDesde, horaHasta, diaSemana, lstPropietariosAulas),
+				consulta);
+	}
+
+	/**
+	 * Función que elimina de la cache los resultados a los que pueden afectar los
+	 * cambios de reservas pasados.
+	 *
+	 * @param lstAmbitos Ámbitos de las reservas guardadas o eliminadas
+	 */
+	public void invalidar(Collection<AmbitoReservas> lstAmbitos) {
+		if (lstAmbitos.isEmpty()) {
+			return;
+		}
+		vaciar(() -> {
+			generacion.incrementAndGet();
+			cacheAulas.asMap().keySet().removeIf(c -> lstAmbitos.stream().anyMatch(c::afectadaPor));
+			cacheReservas.asMap().keySet().removeIf(c -> lstAmbitos.stream().anyMatch(c::afectadaPor));
+		});
+	}
+
+	/**
+	 * Función que elimina de la cache los resultados a los que puede afectar el
+	 * cambio de reserva pasado.
+	 *
+	 * @param ambito Ámbito de la reserva guardada o eliminada
+	 */
+	public void invalidar(AmbitoReservas ambito) {
+		invalidar(Collections.singletonList(ambito));
+	}
+
+	/**
+	 * Función que vacía la cache (cuando se modifican aulas o propietarios).
+	 */
+	public void invalidarTodo() {
+		vaciar(() -> {
+			generacion.incrementAndGet();
+			cacheAulas.invalidateAll();
+			cacheReservas.invalidateAll();
+		});
+	}
+
+	/**
+	 * Función que devuelve el resultado de la consulta pasada de la cache pasada
+	 * o, si no está, lo obtiene y lo guarda. Las consultas iguales que llegan a
+	 * la vez esperan al mismo resultado. Si la cache se ha vaciado mientras se
+	 * obtenía el resultado, se elimina, ya que puede ser anterior al cambio.
+	 *
+	 * @param cache    Cache de la consulta
+	 * @param clave    Filtros normalizados de la consulta
+	 * @param consulta Consulta en la BD
+	 *
+	 * @return Lista no modificable con el resultado de la consulta
+	 */
+	private <K, T> List<T> get(Cache<K, List<T>> cache, K clave, Supplier<List<T>> consulta) {
+		long generacionInicial = generacion.get();
+		List<T> lstResultado = cache.get(clave, c -> Collections.unmodifiableList(consulta.get()));
+
+		if (generacion.get() != generacionInicial) {
+			cache.invalidate(clave);
+		}
+		return lstResultado;
+	}
+
+	/**
+	 * Función que ejecuta el vaciado de la cache pasado ahora y, si hay una
+	 * transacción activa, otra vez al confirmarla.
+	 *
+	 * @param vaciado Vaciado de la cache
+	 */
+	private void vaciar(Runnable vaciado) {
+		vaciado.run();
+
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+				@Override
+				public void afterCommit() {
+					vaciado.run();
+				}
+			});
+		}
+	}
+
+	/**
+	 * Función que normaliza un filtro de texto (vacío es lo mismo que null).
+	 *
+	 * @param texto Filtro de texto
+	 *
+	 * @return Filtro normalizado
+	 */
+	private static String normalizar(String texto) {
+		return StringUtils.isEmpty(texto) ? null : texto;
+	}
+
+	/**
+	 * Filtros normalizados de una consulta de aulas disponibles.
+	 */
+	private static final class ConsultaAulas {
+		private final LocalDate fechaDesde;
+		private final LocalDate fechaHasta;
+		private final LocalTime horaDesde;
+		private final LocalTime horaHasta;
+		private final Integer capacidad;
+		private final Integer numOrdenadores;
+		private final String diaSemana;
+		private final String idPropietario;
+		private final Integer idAula;
+
+		private ConsultaAulas(LocalDate fechaDesde, LocalDate fechaHasta, LocalTime horaDesde, LocalTime horaHasta,
+				Integer capacidad, Integer numOrdenadores, String diaSemana, PropietarioAula propietario,
+				Integer idAula) {
+			this.fechaDesde = fechaDesde;
+			this.fechaHasta = fechaHasta;
+			this.horaDesde = horaDesde;
+			this.horaHasta = horaHasta;
+			this.capacidad = capacidad;
+			this.numOrdenadores = numOrdenadores;
+			this.diaSemana = normalizar(diaSemana);
+			this.idPropietario = propietario == null ? null : propietario.getIdPropietarioAula();
+			this.idAula = idAula;
+		}
+
+		/**
+		 * Función que comprueba si el resultado puede cambiar con el cambio de
+		 * reserva pasado: las fechas se solapan y el aula puede estar en el
+		 * resultado.
+		 *
+		 * @param ambito Ámbito de la reserva guardada o eliminada
+		 *
+		 * @return Si el resultado puede cambiar
+		 */
+		private boolean afectadaPor(AmbitoReservas ambito) {
+			return ambito.solapaFechas(fechaDesde, fechaHasta == null ? fechaDesde : fechaHasta)
+					&& (idAula == null || idAula.equals(ambito.getIdAula()))
+					&& (idPropietario == null || idPropietario.equals(ambito.getIdPropietarioAula()));
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			ConsultaAulas otra;
+
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof ConsultaAulas)) {
+				return false;
+			}
+			otra = (ConsultaAulas) obj;
+			return Objects.equals(fechaDesde, otra.fechaDesde) && Objects.equals(fechaHasta, otra.fechaHasta)
+					&& Objects.equals(horaDesde, otra.horaDesde) && Objects.equals(horaHasta, otra.horaHasta)
+					&& Objects.equals(capacidad, otra.capacidad)
+					&& Objects.equals(numOrdenadores, otra.numOrdenadores)
+					&& Objects.equals(diaSemana, otra.diaSemana) && Objects.equals(idPropietario, otra.idPropietario)
+					&& Objects.equals(idAula, otra.idAula);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(fechaDesde, fechaHasta, horaDesde, horaHasta, capacidad, numOrdenadores, diaSemana,
+					idPropietario, idAula);
+		}
+	}
+
+	/**
+	 * Filtros normalizados de una consulta de reservas. Los propietarios se
+	 * guardan por su ID y ordenados, de forma que el orden de la lista no cambia
+	 * la clave.
+	 */
+	private static final class ConsultaReservas {
+		private final LocalDate fechaDesde;
+		private final LocalDate fechaHasta;
+		private final LocalTime horaDesde;
+		private final LocalTime horaHasta;
+		private final String diaSemana;
+		private final Set<String> idPropietarios;
+
+		private ConsultaReservas(LocalDate fechaDesde, LocalDate fechaHasta, LocalTime horaDesde,
+				LocalTime horaHasta, String diaSemana, List<PropietarioAula> lstPropietariosAulas) {
+			this.fechaDesde = fechaDesde;
+			this.fechaHasta = fechaHasta;
+			this.horaDesde = horaDesde;
+			this.horaHasta = horaHasta;
+			this.diaSemana = normalizar(diaSemana);
+			this.idPropietarios = new TreeSet<>();
+			for (PropietarioAula propietario : lstPropietariosAulas) {
+				this.idPropietarios.add(propietario == null ? "" : propietario.getIdPropietarioAula());
+			}
+		}
+
+		/**
+		 * Función que comprueba si el resultado puede cambiar con el cambio de
+		 * reserva pasado: las fechas se solapan y la reserva es de alguno de los
+		 * propietarios consultados.
+		 *
+		 * @param ambito Ámbito de la reserva guardada o eliminada
+		 *
+		 * @return Si el resultado puede cambiar
+		 */
+		private boolean afectadaPor(AmbitoReservas ambito) {
+			return ambito.solapaFechas(fechaDesde, fechaHasta)
+					&& (idPropietarios.isEmpty() || idPropietarios.contains(ambito.getIdPropietarioResponsable()));
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			ConsultaReservas otra;
+
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof ConsultaReservas)) {
+				return false;
+			}
+			otra = (ConsultaReservas) obj;
+			return Objects.equals(fechaDesde, otra.fechaDesde) && Objects.equals(fechaHasta, otra.fechaHasta)
+					&& Objects.equals(horaDesde, otra.horaDesde) && Objects.equals(horaHasta, otra.horaHasta)
+					&& Objects.equals(diaSemana, otra.diaSemana) && idPropietarios.equals(otra.idPropietarios);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(fechaDesde, fechaHasta, horaDesde, horaHasta, diaSemana, idPropietarios);
+		}
+	}
+}
@@ -0,0 +1,130 @@
+package gestionaulasinformatica.backend.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import gestionaulasinformatica.backend.entity.Aula;
+import gestionaulasinformatica.backend.entity.PropietarioAula;
+import gestionaulasinformatica.backend.entity.Usuario;
+
+/**
+ * Regiones de la cache de segundo nivel de Hibernate en las que se guardan los
+ * datos de referencia (usuarios, centros, departamentos y aulas) y sus
+ * consultas, y funciones para vaciarlas cuando se modifican.
+ *
+ * Hibernate ya actualiza la cache con los cambios que hace él mismo, pero los
+ * services las vacían explícitamente al guardar o eliminar, ya que en la BD
+ * hay borrados en cascada (ON DELETE CASCADE) que Hibernate no ve. Si hay una
+ * transacción activa, las regiones se vacían también al confirmarla, para que
+ * no queden en la cache datos leídos antes de que se guardaran los cambios.
+ *
+ * Cada vez que se vacían los usuarios o los propietarios se incrementa una
+ * versión, con la que los datos guardados en la sesión del usuario logeado
+ * saben que deben recargarse.
+ *
+ * @author Lisa
+ *
+ */
+@Component
+public class CacheDatosReferencia {
+	public static final String REGION_USUARIOS = "usuarios";
+	public static final String REGION_PROPIETARIOS = "propietarios";
+	public static final String REGION_AULAS = "aulas";
+	public static final String REGION_CONSULTAS_PROPIETARIOS = "consultas-propietarios";
+	public static final String REGION_CONSULTAS_AULAS = "consultas-aulas";
+
+	private final Cache cache;
+	private final AtomicLong versionUsuarios = new AtomicLong();
+
+	/**
+	 * Constructor de la clase.
+	 *
+	 * @param entityManagerFactory Factoría de EntityManager de JPA
+	 */
+	@Autowired
+	public CacheDatosReferencia(EntityManagerFactory entityManagerFactory) {
+		this.cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+	}
+
+	/**
+	 * Función que vacía la cache de los usuarios y, como se eliminan en cascada
+	 * sus centros y departamentos, también la de los propietarios y aulas.
+	 */
+	public void invalidarUsuarios() {
+		vaciar(() -> {
+			cache.evictEntityData(Usuario.class);
+			vaciarPropietarios();
+		});
+	}
+
+	/**
+	 * Función que vacía la cache de los centros y departamentos y sus consultas y,
+	 * como se eliminan en cascada sus aulas, también la de las aulas.
+	 */
+	public void invalidarPropietarios() {
+		vaciar(this::vaciarPropietarios);
+	}
+
+	/**
+	 * Función que vacía la cache de las aulas y sus consultas.
+	 */
+	public void invalidarAulas() {
+		vaciar(this::vaciarAulas);
+	}
+
+	/**
+	 * Función que devuelve la versión de los usuarios y sus propietarios, que
+	 * cambia cada vez que se modifican.
+	 *
+	 * @return Versión de los usuarios y sus propietarios
+	 */
+	public long getVersionUsuarios() {
+		return versionUsuarios.get();
+	}
+
+	/**
+	 * Función que vacía las regiones de los centros y departamentos, sus
+	 * consultas y las de las aulas.
+	 */
+	private void vaciarPropietarios() {
+		versionUsuarios.incrementAndGet();
+		cache.evictEntityData(PropietarioAula.class);
+		cache.evictQueryRegion(REGION_CONSULTAS_PROPIETARIOS);
+		vaciarAulas();
+	}
+
+	/**
+	 * Función que vacía las regiones de las aulas y sus consultas.
+	 */
+	private void vaciarAulas() {
+		cache.evictEntityData(Aula.class);
+		cache.evictQueryRegion(REGION_CONSULTAS_AULAS);
+	}
+
+	/**
+	 * Función que ejecuta el vaciado de la cache pasado ahora y, si hay una
+	 * transacción activa, otra vez al confirmarla.
+	 *
+	 * @param vaciado Vaciado de las regiones de la cache
+	 */
+	private void vaciar(Runnable vaciado) {
+		vaciado.run();
+
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+				@Override
+				public void afterCommit() {
+					vaciado.run();
+				}
+			});
+		}
+	}
+}
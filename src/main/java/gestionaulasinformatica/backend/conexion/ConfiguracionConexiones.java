@@ -0,0 +1,109 @@
+package gestionaulasinformatica.backend.conexion;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Clase de configuración de las conexiones a la BD.
+ *
+ * Se crean dos pools contra la misma BD (spring.datasource): el de los usuarios
+ * autenticados, configurado con spring.datasource.hikari, y el de sólo lectura
+ * de las consultas públicas, configurado con gestionaulas.conexiones.publicas.
+ * De esta forma muchas consultas públicas a la vez no dejan sin conexiones a
+ * los responsables que guardan reservas. Además, se crea un pool de sólo
+ * lectura por cada réplica de la BD (gestionaulas.conexiones.replicas), para
+ * los métodos marcados con @LecturaReplica. JPA y Flyway usan el DataSource
+ * enrutado, que elige el pool según ContextoConexion.
+ *
+ * @author Lisa
+ *
+ */
+@Configuration
+public class ConfiguracionConexiones {
+
+	/**
+	 * Pool de conexiones de lectura y escritura de los usuarios autenticados.
+	 *
+	 * @param properties Propiedades spring.datasource
+	 *
+	 * @return Pool de conexiones de los usuarios autenticados
+	 */
+	@Bean
+	@ConfigurationProperties("spring.datasource.hikari")
+	public HikariDataSource dataSourceAutenticado(DataSourceProperties properties) {
+		return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+	}
+
+	/**
+	 * Pool de conexiones de sólo lectura de las consultas públicas.
+	 *
+	 * @param properties Propiedades spring.datasource
+	 *
+	 * @return Pool de conexiones de las consultas públicas
+	 */
+	@Bean
+	@ConfigurationProperties("gestionaulas.conexiones.publicas")
+	public HikariDataSource dataSourcePublico(DataSourceProperties properties) {
+		return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+	}
+
+	/**
+	 * Pools de conexiones de sólo lectura de las réplicas de la BD, uno por cada
+	 * URL de gestionaulas.conexiones.replicas.urls, con el usuario y la
+	 * contraseña de spring.datasource y configurados con
+	 * gestionaulas.conexiones.replicas.pool.
+	 *
+	 * @param properties   Propiedades spring.datasource
+	 * @param entorno      Entorno con las propiedades de la aplicación
+	 * @param urlsReplicas URLs de las réplicas (vacío si no hay réplicas)
+	 *
+	 * @return Pools de las réplicas
+	 */
+	@Bean
+	public PoolsReplicas poolsReplicas(DataSourceProperties properties, Environment entorno,
+			@Value("${gestionaulas.conexiones.replicas.urls:}") String[] urlsReplicas) {
+		List<HikariDataSource> lstPools = new ArrayList<>();
+		HikariDataSource pool;
+
+		for (String url : urlsReplicas) {
+			pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).url(url.trim()).build();
+			Binder.get(entorno).bind("gestionaulas.conexiones.replicas.pool", Bindable.ofInstance(pool));
+			pool.setPoolName("gestionaulas-replica-" + (lstPools.size() + 1));
+			pool.setReadOnly(true);
+			lstPools.add(pool);
+		}
+		return new PoolsReplicas(lstPools);
+	}
+
+	/**
+	 * DataSource que usa la aplicación, que obtiene las conexiones del pool que
+	 * corresponde al hilo actual.
+	 *
+	 * @param dataSourceAutenticado Pool de los usuarios autenticados
+	 * @param dataSourcePublico     Pool de las consultas públicas
+	 * @param poolsReplicas         Pools de las réplicas de la BD
+	 *
+	 * @return DataSource enrutado
+	 */
+	@Bean
+	@Primary
+	public DataSource dataSource(@Qualifier("dataSourceAutenticado") DataSource dataSourceAutenticado,
+			@Qualifier("dataSourcePublico") DataSource dataSourcePublico, PoolsReplicas poolsReplicas) {
+		return new DataSourceEnrutado(dataSourceAutenticado, dataSourcePublico, poolsReplicas.getPools());
+	}
+}
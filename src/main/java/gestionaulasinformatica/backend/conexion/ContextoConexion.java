@@ -0,0 +1,79 @@
+package gestionaulasinformatica.backend.conexion;
+
+import java.util.function.Supplier;
+
+/**
+ * Clase que guarda, para cada hilo, el pool del que se obtienen las conexiones
+ * a la BD. Por defecto se usa el pool de los usuarios autenticados.
+ *
+ * El pool se elige al obtener la conexión, por lo que se debe indicar antes de
+ * empezar la transacción o la consulta.
+ *
+ * @author Lisa
+ *
+ */
+public final class ContextoConexion {
+	private static final ThreadLocal<TipoConexion> TIPO_CONEXION = new ThreadLocal<>();
+
+	private ContextoConexion() {
+	}
+
+	/**
+	 * Función que devuelve el pool de conexiones del hilo actual.
+	 *
+	 * @return Pool de conexiones del hilo actual
+	 */
+	public static TipoConexion getTipoConexion() {
+		TipoConexion tipoConexion = TIPO_CONEXION.get();
+
+		return tipoConexion == null ? TipoConexion.AUTENTICADA : tipoConexion;
+	}
+
+	/**
+	 * Función que ejecuta la operación pasada con las conexiones del pool pasado
+	 * y, al terminar, vuelve al pool anterior.
+	 *
+	 * @param <T>          Tipo del resultado de la operación
+	 * @param tipoConexion Pool de conexiones que se quiere usar
+	 * @param operacion    Operación que se quiere ejecutar
+	 *
+	 * @return Resultado de la operación
+	 */
+	public static <T> T ejecutar(TipoConexion tipoConexion, Supplier<T> operacion) {
+		TipoConexion anterior = cambiar(tipoConexion);
+
+		try {
+			return operacion.get();
+		} finally {
+			restaurar(anterior);
+		}
+	}
+
+	/**
+	 * Función que cambia el pool de conexiones del hilo actual. Se debe llamar a
+	 * restaurar con el valor devuelto al terminar.
+	 *
+	 * @param tipoConexion Pool de conexiones que se quiere usar
+	 *
+	 * @return Pool indicado antes del cambio (null si no había ninguno)
+	 */
+	static TipoConexion cambiar(TipoConexion tipoConexion) {
+		TipoConexion anterior = TIPO_CONEXION.get();
+
+		TIPO_CONEXION.set(tipoConexion);
+		return anterior;
+	}
+
+	/**
+	 * Función que vuelve al pool de conexiones indicado antes de cambiarlo.
+	 *
+	 * @param anterior Pool devuelto por cambiar
+	 */
+	static void restaurar(TipoConexion anterior) {
+		if (anterior == null) {
+			TIPO_CONEXION.remove();
+		} else {
+			TIPO_CONEXION.set(anterior);
+		}
+	}
+}
@@ -0,0 +1,69 @@
+package gestionaulasinformatica.backend.conexion;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * DataSource que obtiene cada conexión del pool indicado en ContextoConexion
+ * para el hilo actual.
+ *
+ * Las lecturas en réplica se reparten por turnos entre las réplicas; si no hay
+ * ninguna, se usa el pool de los usuarios autenticados.
+ *
+ * @author Lisa
+ *
+ */
+public class DataSourceEnrutado extends AbstractRoutingDataSource {
+	private final List<DataSource> lstReplicas;
+	private final AtomicInteger turnoReplica = new AtomicInteger();
+
+	/**
+	 * Constructor de la clase.
+	 *
+	 * @param dataSourceAutenticado Pool de los usuarios autenticados, que se usa
+	 *                              por defecto
+	 * @param dataSourcePublico     Pool de sólo lectura de las consultas públicas
+	 * @param lstReplicas           Pools de sólo lectura de las réplicas de la BD
+	 */
+	public DataSourceEnrutado(DataSource dataSourceAutenticado, DataSource dataSourcePublico,
+			List<? extends DataSource> lstReplicas) {
+		Map<Object, Object> dataSources = new HashMap<>();
+
+		dataSources.put(TipoConexion.AUTENTICADA, dataSourceAutenticado);
+		dataSources.put(TipoConexion.PUBLICA, dataSourcePublico);
+		this.lstReplicas = new ArrayList<>(lstReplicas);
+
+		setTargetDataSources(dataSources);
+		setDefaultTargetDataSource(dataSourceAutenticado);
+		afterPropertiesSet();
+	}
+
+	/**
+	 * Función que indica si hay réplicas de la BD configuradas.
+	 *
+	 * @return Si hay réplicas de la BD
+	 */
+	public boolean hayReplicas() {
+		return !lstReplicas.isEmpty();
+	}
+
+	@Override
+	protected Object determineCurrentLookupKey() {
+		return ContextoConexion.getTipoConexion();
+	}
+
+	@Override
+	protected DataSource determineTargetDataSource() {
+		if (ContextoConexion.getTipoConexion() == TipoConexion.REPLICA && hayReplicas()) {
+			return lstReplicas.get(Math.floorMod(turnoReplica.getAndIncrement(), lstReplicas.size()));
+		}
+		return super.determineTargetDataSource();
+	}
+}
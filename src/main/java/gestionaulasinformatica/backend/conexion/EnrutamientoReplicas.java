@@ -0,0 +1,78 @@
+package gestionaulasinformatica.backend.conexion;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.After;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Aspecto que ejecuta los métodos marcados con @LecturaReplica contra las
+ * réplicas de la BD y registra las escrituras de los services (métodos save* y
+ * delete*) en EscriturasRecientes.
+ *
+ * Una lectura va a la BD principal si el usuario ha escrito datos hace poco, si
+ * ya hay una transacción activa (su conexión ya está elegida) o si se ejecuta
+ * dentro de una consulta pública, que tiene su propio pool. Se aplica antes que
+ * las transacciones para que el pool se elija antes de obtener la conexión.
+ *
+ * @author Lisa
+ *
+ */
+@Aspect
+@Component
+@Order(0)
+public class EnrutamientoReplicas {
+	private EscriturasRecientes escriturasRecientes;
+
+	/**
+	 * Constructor de la clase.
+	 *
+	 * @param escriturasRecientes Registro de los usuarios que han escrito datos
+	 *                            recientemente
+	 */
+	@Autowired
+	public EnrutamientoReplicas(EscriturasRecientes escriturasRecientes) {
+		this.escriturasRecientes = escriturasRecientes;
+	}
+
+	/**
+	 * Función que ejecuta el método de sólo lectura con las conexiones de las
+	 * réplicas, si corresponde.
+	 *
+	 * @param metodo Método marcado con @LecturaReplica
+	 *
+	 * @return Resultado del método
+	 *
+	 * @throws Throwable Excepción lanzada por el método
+	 */
+	@Around("@annotation(gestionaulasinformatica.backend.conexion.LecturaReplica)")
+	public Object leerDeReplica(ProceedingJoinPoint metodo) throws Throwable {
+		TipoConexion anterior;
+
+		if (ContextoConexion.getTipoConexion() != TipoConexion.AUTENTICADA
+				|| TransactionSynchronizationManager.isActualTransactionActive() || escriturasRecientes.isReciente()) {
+			return metodo.proceed();
+		}
+
+		anterior = ContextoConexion.cambiar(TipoConexion.REPLICA);
+		try {
+			return metodo.proceed();
+		} finally {
+			ContextoConexion.restaurar(anterior);
+		}
+	}
+
+	/**
+	 * Función que registra que el usuario actual ha guardado o eliminado datos,
+	 * tanto si la escritura termina bien como si no.
+	 */
+	@After("execution(public * gestionaulasinformatica.backend.service.*Service.save*(..)) "
+			+ "|| execution(public * gestionaulasinformatica.backend.service.*Service.delete*(..))")
+	public void registrarEscritura() {
+		escriturasRecientes.registrar();
+	}
+}
@@ -0,0 +1,80 @@
+package gestionaulasinformatica.backend.conexion;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Registro de los usuarios que han guardado o eliminado datos recientemente.
+ *
+ * Las réplicas de la BD van con algo de retraso, por lo que durante la ventana
+ * configurada después de cada escritura las lecturas del usuario se hacen en la
+ * BD principal y así ve sus propios cambios (por ejemplo, la reserva que acaba
+ * de hacer). Los usuarios sin autenticar no guardan datos y no se registran.
+ *
+ * @author Lisa
+ *
+ */
+@Component
+public class EscriturasRecientes {
+	private final Cache<String, Boolean> usuarios;
+
+	/**
+	 * Constructor de la clase.
+	 *
+	 * @param ventanaMs Milisegundos que las lecturas de un usuario van a la BD
+	 *                  principal después de cada escritura
+	 */
+	@Autowired
+	public EscriturasRecientes(
+			@Value("${gestionaulas.conexiones.replicas.ventana-escritura-ms:5000}") long ventanaMs) {
+		this.usuarios = Caffeine.newBuilder().expireAfterWrite(Duration.ofMillis(ventanaMs)).build();
+	}
+
+	/**
+	 * Función que registra que el usuario actual acaba de guardar o eliminar
+	 * datos.
+	 */
+	public void registrar() {
+		String usuario = getUsuarioActual();
+
+		if (usuario != null) {
+			usuarios.put(usuario, Boolean.TRUE);
+		}
+	}
+
+	/**
+	 * Función que indica si el usuario actual ha guardado o eliminado datos
+	 * dentro de la ventana configurada.
+	 *
+	 * @return Si el usuario actual ha escrito datos recientemente
+	 */
+	public boolean isReciente() {
+		String usuario = getUsuarioActual();
+
+		return usuario != null && usuarios.getIfPresent(usuario) != null;
+	}
+
+	/**
+	 * Función que devuelve el nombre del usuario autenticado del hilo actual.
+	 *
+	 * @return Nombre del usuario o null si no hay ningún usuario autenticado
+	 */
+	private static String getUsuarioActual() {
+		Authentication autenticacion = SecurityContextHolder.getContext().getAuthentication();
+
+		if (autenticacion == null || !autenticacion.isAuthenticated()
+				|| autenticacion instanceof AnonymousAuthenticationToken) {
+			return null;
+		}
+		return autenticacion.getName();
+	}
+}
@@ -0,0 +1,32 @@
+package gestionaulasinformatica.backend.conexion;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Anotación que marca los métodos de los services que sólo leen datos y se
+ * pueden ejecutar contra una réplica de la BD (ver EnrutamientoReplicas).
+ *
+ * No se deben marcar las comprobaciones que se hacen antes de guardar (por
+ * ejemplo, la disponibilidad de un aula), que deben leer la BD principal.
+ *
+ * Tampoco se deben marcar las lecturas de los datos de referencia (usuarios,
+ * propietarios y aulas, y las reservas, que cargan su aula y su propietario)
+ * ni las que usa UsuarioSesion: una réplica retrasada volvería a llenar la
+ * cache de segundo nivel, compartida por todos los usuarios, o el contexto de
+ * la sesión con datos anteriores a la escritura de otro usuario, y sólo el
+ * usuario que escribe lee de la BD principal (ver EscriturasRecientes). Sólo
+ * se marcan los listados pesados de entidades que no están en la cache, como
+ * el histórico de reservas.
+ *
+ * @author Lisa
+ *
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface LecturaReplica {
+}
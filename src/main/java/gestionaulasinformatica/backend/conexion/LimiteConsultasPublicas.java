@@ -0,0 +1,133 @@
+package gestionaulasinformatica.backend.conexion;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import gestionaulasinformatica.exceptions.ConsultasSaturadasException;
+import gestionaulasinformatica.ui.Mensajes;
+
+/**
+ * Límite de las consultas públicas que se ejecutan a la vez contra la BD.
+ *
+ * Cada consulta pública necesita un permiso y se ejecuta con el pool de
+ * conexiones de sólo lectura (TipoConexion.PUBLICA). Si no quedan permisos, la
+ * consulta espera su turno (en orden de llegada) un tiempo máximo; si hay
+ * demasiadas consultas esperando o se supera el tiempo, se rechaza con
+ * ConsultasSaturadasException en lugar de acumular peticiones.
+ *
+ * @author Lisa
+ *
+ */
+@Component
+public class LimiteConsultasPublicas {
+	private static final Logger LOGGER = LoggerFactory.getLogger(LimiteConsultasPublicas.class.getName());
+
+	private final Semaphore permisos;
+	private final int maximoConcurrentes;
+	private final int maximoEnEspera;
+	private final long esperaMaximaMs;
+	private final AtomicLong consultasRechazadas = new AtomicLong();
+
+	/**
+	 * Constructor de la clase.
+	 *
+	 * @param maximoConcurrentes Número máximo de consultas que se ejecutan a la
+	 *                           vez
+	 * @param maximoEnEspera     Número máximo de consultas esperando su turno
+	 * @param esperaMaximaMs     Milisegundos que una consulta espera su turno
+	 */
+	@Autowired
+	public LimiteConsultasPublicas(
+			@Value("${gestionaulas.consultas-publicas.maximo-concurrentes:3}") int maximoConcurrentes,
+			@Value("${gestionaulas.consultas-publicas.maximo-en-espera:20}") int maximoEnEspera,
+			@Value("${gestionaulas.consultas-publicas.espera-maxima-ms:2000}") long esperaMaximaMs) {
+		this.permisos = new Semaphore(maximoConcurrentes, true);
+		this.maximoConcurrentes = maximoConcurrentes;
+		this.maximoEnEspera = maximoEnEspera;
+		this.esperaMaximaMs = esperaMaximaMs;
+	}
+
+	/**
+	 * Función que ejecuta la consulta pública pasada con el pool de conexiones de
+	 * las consultas públicas, cuando haya un permiso libre.
+	 *
+	 * @param <T>      Tipo del resultado de la consulta
+	 * @param consulta Consulta que se quiere ejecutar
+	 *
+	 * @return Resultado de la consulta
+	 *
+	 * @throws ConsultasSaturadasException Si no se obtiene un permiso a tiempo
+	 */
+	public <T> T ejecutar(Supplier<T> consulta) {
+		if (!adquirir()) {
+			consultasRechazadas.incrementAndGet();
+			LOGGER.warn("Consulta pública rechazada: {} en curso y {} en espera.", getConsultasEnCurso(),
+					getConsultasEnEspera());
+			throw new ConsultasSaturadasException(Mensajes.MSG_CONSULTAS_SATURADAS.getMensaje());
+		}
+
+		try {
+			return ContextoConexion.ejecutar(TipoConexion.PUBLICA, consulta);
+		} finally {
+			permisos.release();
+		}
+	}
+
+	/**
+	 * Función que obtiene un permiso, esperando como máximo el tiempo
+	 * configurado.
+	 *
+	 * @return Si se ha obtenido el permiso
+	 */
+	private boolean adquirir() {
+		try {
+			if (permisos.tryAcquire(0, TimeUnit.MILLISECONDS)) {
+				return true;
+			}
+			if (permisos.getQueueLength() >= maximoEnEspera) {
+				return false;
+			}
+			return permisos.tryAcquire(esperaMaximaMs, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	/**
+	 * Función que devuelve el número de consultas públicas en curso.
+	 *
+	 * @return Número de consultas públicas en curso
+	 */
+	public int getConsultasEnCurso() {
+		return maximoConcurrentes - permisos.availablePermits();
+	}
+
+	/**
+	 * Función que devuelve el número (aproximado) de consultas públicas esperando
+	 * su turno.
+	 *
+	 * @return Número de consultas públicas en espera
+	 */
+	public int getConsultasEnEspera() {
+		return permisos.getQueueLength();
+	}
+
+	/**
+	 * Función que devuelve el número de consultas públicas rechazadas desde que
+	 * se inició la aplicación.
+	 *
+	 * @return Número de consultas públicas rechazadas
+	 */
+	public long getConsultasRechazadas() {
+		return consultasRechazadas.get();
+	}
+}
@@ -0,0 +1,43 @@
+package gestionaulasinformatica.backend.conexion;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Clase que contiene los pools de conexiones de sólo lectura de las réplicas
+ * de la BD, que se cierran al parar la aplicación.
+ *
+ * @author Lisa
+ *
+ */
+public class PoolsReplicas implements AutoCloseable {
+	private final List<HikariDataSource> lstPools;
+
+	/**
+	 * Constructor de la clase.
+	 *
+	 * @param lstPools Pools de las réplicas (puede estar vacía)
+	 */
+	public PoolsReplicas(List<HikariDataSource> lstPools) {
+		this.lstPools = Collections.unmodifiableList(new ArrayList<>(lstPools));
+	}
+
+	/**
+	 * Función que devuelve los pools de las réplicas.
+	 *
+	 * @return Lista no modificable con los pools de las réplicas
+	 */
+	public List<HikariDataSource> getPools() {
+		return this.lstPools;
+	}
+
+	@Override
+	public void close() {
+		for (HikariDataSource pool : lstPools) {
+			pool.close();
+		}
+	}
+}
@@ -0,0 +1,18 @@
+package gestionaulasinformatica.backend.conexion;
+
+/**
+ * Enumerado que define los pools de conexiones a la BD.
+ *
+ * @author Lisa
+ *
+ */
+public enum TipoConexion {
+	/** Pool de sólo lectura de las consultas públicas (sin autenticar) */
+	PUBLICA,
+
+	/** Pool de lectura y escritura de los usuarios autenticados */
+	AUTENTICADA,
+
+	/** Pools de sólo lectura de las réplicas de la BD (o la BD principal si no hay) */
+	REPLICA
+}
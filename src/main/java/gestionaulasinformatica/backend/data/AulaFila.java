@@ -0,0 +1,84 @@
+package gestionaulasinformatica.backend.data;
+
+import java.io.Serializable;
+
+/**
+ * Clase de sólo lectura con los datos de un aula que se muestran en los
+ * listados de consulta, obtenidos directamente de la BD sin cargar la entidad
+ * Aula ni sus asociaciones.
+ * 
+ * @author Lisa
+ *
+ */
+public class AulaFila implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private final Integer idAula;
+	private final String nombreAula;
+	private final String nombreCentro;
+	private final Integer capacidad;
+	private final Integer numOrdenadores;
+
+	/**
+	 * Constructor de la clase (se usa en las consultas de la BD).
+	 * 
+	 * @param idAula         ID del aula
+	 * @param nombreAula     Nombre del aula
+	 * @param nombreCentro   Nombre del centro en el que se encuentra el aula
+	 * @param capacidad      Capacidad del aula
+	 * @param numOrdenadores Número de ordenadores del aula
+	 */
+	public AulaFila(Integer idAula, String nombreAula, String nombreCentro, Integer capacidad,
+			Integer numOrdenadores) {
+		this.idAula = idAula;
+		this.nombreAula = nombreAula;
+		this.nombreCentro = nombreCentro;
+		this.capacidad = capacidad;
+		this.numOrdenadores = numOrdenadores;
+	}
+
+	/**
+	 * Función que devuelve el ID del aula.
+	 * 
+	 * @return ID del aula
+	 */
+	public Integer getIdAula() {
+		return this.idAula;
+	}
+
+	/**
+	 * Función que devuelve el nombre del aula.
+	 * 
+	 * @return Nombre del aula
+	 */
+	public String getNombreAula() {
+		return this.nombreAula;
+	}
+
+	/**
+	 * Función que devuelve el centro en el que se encuentra el aula.
+	 * 
+	 * @return Centro en el que se encuentra el aula
+	 */
+	public String getNombreCentro() {
+		return this.nombreCentro;
+	}
+
+	/**
+	 * Función que devuelve la capacidad del aula.
+	 * 
+	 * @return Capacidad del aula
+	 */
+	public Integer getCapacidad() {
+		return this.capacidad;
+	}
+
+	/**
+	 * Función que devuelve el número de ordenadores del aula.
+	 * 
+	 * @return Número de ordenadores del aula
+	 */
+	public Integer getNumOrdenadores() {
+		return this.numOrdenadores;
+	}
+}
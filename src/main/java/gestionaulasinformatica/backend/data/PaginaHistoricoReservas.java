@@ -0,0 +1,57 @@
+package gestionaulasinformatica.backend.data;
+
+import java.util.Collections;
+import java.util.List;
+
+import gestionaulasinformatica.backend.entity.HistoricoReservas;
+
+/**
+ * Clase que contiene un bloque de operaciones del histórico de reservas y el
+ * cursor con el que se obtiene el bloque siguiente.
+ * 
+ * @author Lisa
+ *
+ */
+public class PaginaHistoricoReservas {
+	private final List<HistoricoReservas> operaciones;
+	private final String cursorSiguiente;
+
+	/**
+	 * Constructor de la clase.
+	 * 
+	 * @param operaciones     Operaciones del bloque
+	 * @param cursorSiguiente Cursor del bloque siguiente (null si no hay más
+	 *                        operaciones)
+	 */
+	public PaginaHistoricoReservas(List<HistoricoReservas> operaciones, String cursorSiguiente) {
+		this.operaciones = Collections.unmodifiableList(operaciones);
+		this.cursorSiguiente = cursorSiguiente;
+	}
+
+	/**
+	 * Función que devuelve las operaciones del bloque.
+	 * 
+	 * @return Operaciones del bloque
+	 */
+	public List<HistoricoReservas> getOperaciones() {
+		return operaciones;
+	}
+
+	/**
+	 * Función que devuelve el cursor con el que se obtiene el bloque siguiente.
+	 * 
+	 * @return Cursor del bloque siguiente, o null si es el último bloque
+	 */
+	public String getCursorSiguiente() {
+		return cursorSiguiente;
+	}
+
+	/**
+	 * Función que indica si hay más operaciones después de este bloque.
+	 * 
+	 * @return Si hay un bloque siguiente o no
+	 */
+	public boolean hasSiguiente() {
+		return cursorSiguiente != null;
+	}
+}
@@ -0,0 +1,79 @@
+package gestionaulasinformatica.backend.data;
+
+import java.io.Serializable;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Petición de página a partir de una posición cualquiera, no necesariamente
+ * múltiplo del tamaño de la página, que es como piden los datos los grids con
+ * carga diferida.
+ * 
+ * @author Lisa
+ *
+ */
+public class PaginaPorPosicion implements Pageable, Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final long offset;
+	private final int limit;
+	private final Sort sort;
+
+	/**
+	 * Constructor de la clase.
+	 * 
+	 * @param offset Posición del primer elemento
+	 * @param limit  Número máximo de elementos
+	 * @param sort   Orden de los elementos
+	 */
+	public PaginaPorPosicion(long offset, int limit, Sort sort) {
+		if (offset < 0 || limit < 1) {
+			throw new IllegalArgumentException("Posición o tamaño de página no válidos");
+		}
+		this.offset = offset;
+		this.limit = limit;
+		this.sort = sort;
+	}
+
+	@Override
+	public int getPageNumber() {
+		return (int) (offset / limit);
+	}
+
+	@Override
+	public int getPageSize() {
+		return limit;
+	}
+
+	@Override
+	public long getOffset() {
+		return offset;
+	}
+
+	@Override
+	public Sort getSort() {
+		return sort;
+	}
+
+	@Override
+	public Pageable next() {
+		return new PaginaPorPosicion(offset + limit, limit, sort);
+	}
+
+	@Override
+	public Pageable previousOrFirst() {
+		return hasPrevious() ? new PaginaPorPosicion(Math.max(0, offset - limit), limit, sort) : first();
+	}
+
+	@Override
+	public Pageable first() {
+		return new PaginaPorPosicion(0, limit, sort);
+	}
+
+	@Override
+	public boolean hasPrevious() {
+		return offset > 0;
+	}
+}
@@ -0,0 +1,172 @@
+package gestionaulasinformatica.backend.data;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import gestionaulasinformatica.backend.entity.Reserva;
+
+/**
+ * Clase de sólo lectura con los datos de una reserva que se muestran en los
+ * listados de consulta, obtenidos directamente de la BD sin cargar la entidad
+ * Reserva ni sus asociaciones.
+ * 
+ * @author Lisa
+ *
+ */
+public class ReservaFila implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private final Integer idReserva;
+	private final LocalDate fecha;
+	private final String diaSemana;
+	private final LocalTime horaInicio;
+	private final LocalTime horaFin;
+	private final String nombreAula;
+	private final String nombreCentroAula;
+	private final String motivo;
+	private final String aCargoDe;
+	private final String usuarioResponsable;
+	private final String idPropietarioResponsable;
+
+	/**
+	 * Constructor de la clase (se usa en las consultas de la BD).
+	 * 
+	 * @param idReserva                ID de la reserva (null si es la ocurrencia
+	 *                                 de una reserva periódica)
+	 * @param fecha                    Fecha de la reserva
+	 * @param diaSemana                Día de la semana de la reserva
+	 * @param horaInicio               Hora de inicio de la reserva
+	 * @param horaFin                  Hora de fin de la reserva
+	 * @param nombreAula               Nombre del aula reservada
+	 * @param nombreCentroAula         Nombre del centro en el que se encuentra el
+	 *                                 aula
+	 * @param motivo                   Motivo de la reserva
+	 * @param aCargoDe                 Persona a cargo de la reserva
+	 * @param usuarioResponsable       Usuario que ha realizado la reserva
+	 * @param idPropietarioResponsable ID del centro o departamento que ha
+	 *                                 realizado la reserva
+	 */
+	public ReservaFila(Integer idReserva, LocalDate fecha, String diaSemana, LocalTime horaInicio, LocalTime horaFin,
+			String nombreAula, String nombreCentroAula, String motivo, String aCargoDe, String usuarioResponsable,
+			String idPropietarioResponsable) {
+		this.idReserva = idReserva;
+		this.fecha = fecha;
+		this.diaSemana = diaSemana;
+		this.horaInicio = horaInicio;
+		this.horaFin = horaFin;
+		this.nombreAula = nombreAula;
+		this.nombreCentroAula = nombreCentroAula;
+		this.motivo = motivo;
+		this.aCargoDe = aCargoDe;
+		this.usuarioResponsable = usuarioResponsable;
+		this.idPropietarioResponsable = idPropietarioResponsable;
+	}
+
+	/**
+	 * Función que crea la fila de una reserva ya cargada (por ejemplo, la
+	 * ocurrencia de una reserva periódica).
+	 * 
+	 * @param reserva Reserva de la que se crea la fila
+	 * 
+	 * @return Fila de la reserva
+	 */
+	public static ReservaFila de(Reserva reserva) {
+		return new ReservaFila(reserva.getIdReserva(), reserva.getFecha(), reserva.getDiaSemana(),
+				reserva.getHoraInicio(), reserva.getHoraFin(), reserva.getNombreAula(), reserva.getNombreCentroAula(),
+				reserva.getMotivo(), reserva.getACargoDe(), reserva.getUsuarioResponsable(),
+				reserva.getPropietarioResponsable().getIdPropietarioAula());
+	}
+
+	/**
+	 * Función que devuelve el ID de la reserva (null si es la ocurrencia de una
+	 * reserva periódica).
+	 * 
+	 * @return ID de la reserva
+	 */
+	public Integer getIdReserva() {
+		return this.idReserva;
+	}
+
+	/**
+	 * Función que devuelve la fecha de la reserva.
+	 * 
+	 * @return Fecha de la reserva
+	 */
+	public LocalDate getFecha() {
+		return this.fecha;
+	}
+
+	/**
+	 * Función que devuelve el día de la semana de la reserva.
+	 * 
+	 * @return Día de la semana de la reserva
+	 */
+	public String getDiaSemana() {
+		return this.diaSemana;
+	}
+
+	/**
+	 * Función que devuelve la hora de inicio de la reserva.
+	 * 
+	 * @return Hora de inicio de la reserva
+	 */
+	public LocalTime getHoraInicio() {
+		return this.horaInicio;
+	}
+
+	/**
+	 * Función que devuelve la hora de fin de la reserva.
+	 * 
+	 * @return Hora de fin de la reserva
+	 */
+	public LocalTime getHoraFin() {
+		return this.horaFin;
+	}
+
+	/**
+	 * Función que devuelve el nombre del aula reservada.
+	 * 
+	 * @return Nombre del aula reservada
+	 */
+	public String getNombreAula() {
+		return this.nombreAula;
+	}
+
+	/**
+	 * Función que devuelve el centro en el que se encuentra el aula de la reserva.
+	 * 
+	 * @return Centro en el que se encuentra el aula de la reserva
+	 */
+	public String getNombreCentroAula() {
+		return this.nombreCentroAula;
+	}
+
+	/**
+	 * Función que devuelve el motivo de la reserva.
+	 * 
+	 * @return Motivo de la reserva
+	 */
+	public String getMotivo() {
+		return this.motivo;
+	}
+
+	/**
+	 * Función que devuelve la persona a cargo de la reserva.
+	 * 
+	 * @return Persona a cargo de la reserva
+	 */
+	public String getACargoDe() {
+		return this.aCargoDe;
+	}
+
+	/**
+	 * Función que devuelve el usuario y el centro o departamento que han
+	 * registrado la reserva, con el mismo formato que en la entidad Reserva.
+	 * 
+	 * @return Usuario y centro o departamento que han registrado la reserva
+	 */
+	public String getRegistradaPor() {
+		return this.usuarioResponsable + " - " + this.idPropietarioResponsable;
+	}
+}
@@ -0,0 +1,101 @@
+package gestionaulasinformatica.backend.data;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resumen de los datos que dependen de un aula o de un propietario de aulas y
+ * que se eliminarían junto a él: aulas, reservas pendientes y reservas
+ * periódicas pendientes. Se muestra en el cuadro de diálogo de confirmación de
+ * la eliminación.
+ * 
+ * @author Lisa
+ *
+ */
+public class ResumenDependencias implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private final long numAulas;
+	private final long numReservas;
+	private final long numReservasPeriodicas;
+
+	/**
+	 * Constructor de la clase.
+	 * 
+	 * @param numAulas              Número de aulas
+	 * @param numReservas           Número de reservas pendientes
+	 * @param numReservasPeriodicas Número de reservas periódicas pendientes
+	 */
+	public ResumenDependencias(long numAulas, long numReservas, long numReservasPeriodicas) {
+		this.numAulas = numAulas;
+		this.numReservas = numReservas;
+		this.numReservasPeriodicas = numReservasPeriodicas;
+	}
+
+	/**
+	 * Función que devuelve el número de aulas.
+	 * 
+	 * @return Número de aulas
+	 */
+	public long getNumAulas() {
+		return this.numAulas;
+	}
+
+	/**
+	 * Función que devuelve el número de reservas pendientes.
+	 * 
+	 * @return Número de reservas pendientes
+	 */
+	public long getNumReservas() {
+		return this.numReservas;
+	}
+
+	/**
+	 * Función que devuelve el número de reservas periódicas pendientes.
+	 * 
+	 * @return Número de reservas periódicas pendientes
+	 */
+	public long getNumReservasPeriodicas() {
+		return this.numReservasPeriodicas;
+	}
+
+	/**
+	 * Función que indica si no hay ningún dato dependiente.
+	 * 
+	 * @return Si no hay aulas ni reservas pendientes
+	 */
+	public boolean isVacio() {
+		return numAulas == 0 && numReservas == 0 && numReservasPeriodicas == 0;
+	}
+
+	/**
+	 * Función que devuelve la descripción del resumen para mostrarla al usuario,
+	 * por ejemplo "2 aulas, 150 reservas pendientes y 1 reserva periódica
+	 * pendiente".
+	 * 
+	 * @return Descripción del resumen, vacía si no hay datos dependientes
+	 */
+	public String getDescripcion() {
+		List<String> lstPartes = new ArrayList<>();
+		int ultima;
+
+		if (numAulas > 0) {
+			lstPartes.add(numAulas + (numAulas == 1 ? " aula" : " aulas"));
+		}
+		if (numReservas > 0) {
+			lstPartes.add(numReservas + (numReservas == 1 ? " reserva pendiente" : " reservas pendientes"));
+		}
+		if (numReservasPeriodicas > 0) {
+			lstPartes.add(numReservasPeriodicas
+					+ (numReservasPeriodicas == 1 ? " reserva periódica pendiente" : " reservas periódicas pendientes"));
+		}
+
+		if (lstPartes.size() < 2) {
+			return String.join("", lstPartes);
+		}
+
+		ultima = lstPartes.size() - 1;
+		return String.join(", ", lstPartes.subList(0, ultima)) + " y " + lstPartes.get(ultima);
+	}
+}
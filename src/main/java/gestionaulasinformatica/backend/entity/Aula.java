@@ -3,6 +3,7 @@ package gestionaulasinformatica.backend.entity;
 import java.io.Serializable;
 import java.util.Set;
 
+import javax.persistence.Cacheable;
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
@@ -18,6 +19,11 @@ import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import gestionaulasinformatica.backend.cache.CacheDatosReferencia;
+
 /**
  * Entidad que identifica a la tabla Aula de la base de datos.
  * 
@@ -25,6 +31,8 @@ import javax.validation.constraints.Size;
  *
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheDatosReferencia.REGION_AULAS)
 @Table(name = "aula", schema = "public")
 public class Aula implements Serializable {
 	private static final long serialVersionUID = 1L;
@@ -81,6 +89,13 @@ public class Aula implements Serializable {
 	@OneToMany(mappedBy = "aula", cascade = CascadeType.ALL)
 	private Set<Reserva> lstReservas;
 
+	/**
+	 * Asociación bidireccional OneToMany con ReservaPeriodica para indicar las
+	 * reservas por rango de fechas hechas sobre el aula.
+	 */
+	@OneToMany(mappedBy = "aula", cascade = CascadeType.ALL)
+	private Set<ReservaPeriodica> lstReservasPeriodicas;
+
 	/**
 	 * Constructor vacío de la clase.
 	 */
@@ -284,6 +299,24 @@ public class Aula implements Serializable {
 		return reserva;
 	}
 
+	/**
+	 * Función que devuelve una lista de las reservas por rango de fechas del aula.
+	 * 
+	 * @return Lista de reservas por rango de fechas del aula
+	 */
+	public Set<ReservaPeriodica> getReservasPeriodicasAula() {
+		return this.lstReservasPeriodicas;
+	}
+
+	/**
+	 * Función que establece la lista de reservas por rango de fechas del aula.
+	 * 
+	 * @param reservas Lista de reservas por rango de fechas del aula
+	 */
+	public void setReservasPeriodicasAula(Set<ReservaPeriodica> reservas) {
+		this.lstReservasPeriodicas = reservas;
+	}
+
 	public boolean isPersisted() {
 		return idAula != null;
 	}
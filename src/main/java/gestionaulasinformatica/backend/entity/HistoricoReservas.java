@@ -12,6 +12,7 @@ import javax.persistence.Enumerated;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
@@ -30,7 +31,9 @@ public class HistoricoReservas implements Serializable {
 	private static final long serialVersionUID = 1L;
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "seq_historico_reservas")
+	@SequenceGenerator(name = "seq_historico_reservas", sequenceName = "historico_reservas_id_operacion_seq",
+			allocationSize = 50)
 	@Column(name = "id_operacion")
 	private Integer idOperacion;
 
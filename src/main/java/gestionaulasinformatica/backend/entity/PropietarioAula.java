@@ -3,6 +3,7 @@ package gestionaulasinformatica.backend.entity;
 import java.io.Serializable;
 import java.util.Set;
 
+import javax.persistence.Cacheable;
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.DiscriminatorColumn;
@@ -20,8 +21,11 @@ import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.Check;
 
+import gestionaulasinformatica.backend.cache.CacheDatosReferencia;
 import gestionaulasinformatica.backend.data.TipoPropietarioAula;
 
 /**
@@ -35,6 +39,8 @@ import gestionaulasinformatica.backend.data.TipoPropietarioAula;
  *
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheDatosReferencia.REGION_PROPIETARIOS)
 @Table(name = "propietario_aula", schema = "public")
 @Check(constraints = "tipo IN ('Centro','Departamento')")
 @Inheritance(strategy = InheritanceType.SINGLE_TABLE)
@@ -79,6 +85,14 @@ public class PropietarioAula implements Serializable {
 	@OneToMany(mappedBy = "propietarioResponsable", cascade = CascadeType.ALL, orphanRemoval = true)
 	private Set<Reserva> lstReservasPropietarioAula;
 
+	/**
+	 * Asociación bidireccional OnetoMany con ReservaPeriodica para indicar las
+	 * reservas por rango de fechas que ha realizado el responsable del centro o
+	 * departamento.
+	 */
+	@OneToMany(mappedBy = "propietarioResponsable", cascade = CascadeType.ALL, orphanRemoval = true)
+	private Set<ReservaPeriodica> lstReservasPeriodicasPropietarioAula;
+
 	/**
 	 * Constructor de la clase sin parámetros.
 	 */
@@ -243,6 +257,27 @@ public class PropietarioAula implements Serializable {
 		this.lstReservasPropietarioAula = reservas;
 	}
 
+	/**
+	 * Función que devuelve una lista de reservas por rango de fechas de las que es
+	 * responsable.
+	 * 
+	 * @return Lista de reservas por rango de fechas de las que es responsable
+	 */
+	public Set<ReservaPeriodica> getReservasPeriodicasPropietarioAula() {
+		return this.lstReservasPeriodicasPropietarioAula;
+	}
+
+	/**
+	 * Función que establece la lista de reservas por rango de fechas de las que es
+	 * responsable.
+	 * 
+	 * @param reservas Lista de reservas por rango de fechas de las que es
+	 *                 responsable
+	 */
+	public void setReservasPeriodicasPropietarioAula(Set<ReservaPeriodica> reservas) {
+		this.lstReservasPeriodicasPropietarioAula = reservas;
+	}
+
 	/**
 	 * Función que añade la reserva pasada a la lista de reservas de las que es
 	 * responsable.
@@ -11,7 +11,12 @@ import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
+import javax.persistence.NamedSubgraph;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
+import javax.persistence.Transient;
 import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
@@ -19,17 +24,29 @@ import javax.validation.constraints.Size;
 /**
  * Entidad que identifica a la tabla Reserva de la base de datos.
  * 
+ * El grafo "Reserva.listado" carga en la misma consulta el aula (con su centro
+ * y propietario) y el propietario responsable de la reserva, con sus
+ * responsables, que son los datos que se muestran en los grids de reservas.
+ * 
  * @author Lisa
  *
  */
 @Entity
+@NamedEntityGraph(name = "Reserva.listado", attributeNodes = {
+		@NamedAttributeNode(value = "aula", subgraph = "aula"),
+		@NamedAttributeNode(value = "propietarioResponsable", subgraph = "propietario") }, subgraphs = {
+				@NamedSubgraph(name = "aula", attributeNodes = {
+						@NamedAttributeNode(value = "ubicacionCentro", subgraph = "propietario"),
+						@NamedAttributeNode(value = "propietarioAula", subgraph = "propietario") }),
+				@NamedSubgraph(name = "propietario", attributeNodes = @NamedAttributeNode("usuarioResponsable")) })
 @Table(name = "reserva", schema = "public")
 public class Reserva implements Serializable {
 
 	private static final long serialVersionUID = 1L;
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "seq_reserva")
+	@SequenceGenerator(name = "seq_reserva", sequenceName = "reserva_id_reserva_seq", allocationSize = 50)
 	@Column(name = "id_reserva")
 	private Integer idReserva;
 
@@ -92,6 +109,20 @@ public class Reserva implements Serializable {
 	@JoinColumn(name = "propietario_responsable", referencedColumnName = "id_propietario_aula")
 	private PropietarioAula propietarioResponsable;
 
+	/**
+	 * Reserva periódica de la que es una ocurrencia (no se guarda en la BD), o
+	 * null si es una reserva de un solo día.
+	 */
+	@Transient
+	private ReservaPeriodica reservaPeriodica;
+
+	/**
+	 * Fecha original de la ocurrencia en la reserva periódica (no se guarda en la
+	 * BD).
+	 */
+	@Transient
+	private LocalDate fechaOcurrencia;
+
 	/**
 	 * Constructor de la clase sin parámetros.
 	 */
@@ -339,6 +370,59 @@ public class Reserva implements Serializable {
 		return this.usuarioResponsable + " - " + this.propietarioResponsable.getIdPropietarioAula();
 	}
 
+	/**
+	 * Función que devuelve la reserva periódica de la que es una ocurrencia la
+	 * reserva.
+	 * 
+	 * @return Reserva periódica, o null si es una reserva de un solo día
+	 */
+	public ReservaPeriodica getReservaPeriodica() {
+		return this.reservaPeriodica;
+	}
+
+	/**
+	 * Función que devuelve el ID de la reserva periódica de la que es una
+	 * ocurrencia la reserva.
+	 * 
+	 * @return ID de la reserva periódica, o null si es una reserva de un solo día
+	 */
+	public Integer getIdReservaPeriodica() {
+		return this.reservaPeriodica == null ? null : this.reservaPeriodica.getIdReservaPeriodica();
+	}
+
+	/**
+	 * Función que devuelve la fecha original de la ocurrencia en la reserva
+	 * periódica.
+	 * 
+	 * @return Fecha original de la ocurrencia
+	 */
+	public LocalDate getFechaOcurrencia() {
+		return this.fechaOcurrencia;
+	}
+
+	/**
+	 * Función que establece la reserva periódica de la que es una ocurrencia la
+	 * reserva y la fecha de la ocurrencia.
+	 * 
+	 * @param reservaPeriodica Reserva periódica, o null para que pase a ser una
+	 *                         reserva de un solo día
+	 * @param fecha            Fecha de la ocurrencia
+	 */
+	public void setOcurrenciaDe(ReservaPeriodica reservaPeriodica, LocalDate fecha) {
+		this.reservaPeriodica = reservaPeriodica;
+		this.fechaOcurrencia = fecha;
+	}
+
+	/**
+	 * Función que comprueba si la reserva es una ocurrencia de una reserva
+	 * periódica.
+	 * 
+	 * @return Si la reserva es una ocurrencia de una reserva periódica o no
+	 */
+	public boolean isOcurrencia() {
+		return this.reservaPeriodica != null;
+	}
+
 	public boolean isPersisted() {
 		return idReserva != null;
 	}
@@ -0,0 +1,544 @@
+package gestionaulasinformatica.backend.entity;
+
+import java.io.Serializable;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.persistence.CollectionTable;
+import javax.persistence.Column;
+import javax.persistence.ElementCollection;
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
+import javax.persistence.NamedSubgraph;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
+import org.springframework.util.StringUtils;
+
+/**
+ * Entidad que identifica a la tabla ReservaPeriodica de la base de datos.
+ * 
+ * Una reserva periódica (reserva por rango de fechas) se guarda una sola vez
+ * con su rango de fechas y los días de la semana en los que se repite, en lugar
+ * de guardar una reserva por cada día. Las reservas de cada día (ocurrencias)
+ * se obtienen al consultar, y los días que se cancelan se guardan como
+ * excepciones.
+ * 
+ * El grafo "ReservaPeriodica.listado" carga en la misma consulta el aula y los
+ * propietarios, igual que el de Reserva. Las excepciones de todas las reservas
+ * periódicas obtenidas se cargan en una sola consulta adicional.
+ * 
+ * @author Lisa
+ * 
+ */
+@Entity
+@NamedEntityGraph(name = "ReservaPeriodica.listado", attributeNodes = {
+		@NamedAttributeNode(value = "aula", subgraph = "aula"),
+		@NamedAttributeNode(value = "propietarioResponsable", subgraph = "propietario") }, subgraphs = {
+				@NamedSubgraph(name = "aula", attributeNodes = {
+						@NamedAttributeNode(value = "ubicacionCentro", subgraph = "propietario"),
+						@NamedAttributeNode(value = "propietarioAula", subgraph = "propietario") }),
+				@NamedSubgraph(name = "propietario", attributeNodes = @NamedAttributeNode("usuarioResponsable")) })
+@Table(name = "reserva_periodica", schema = "public")
+public class ReservaPeriodica implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/** Máscara con todos los días de la semana (bit 0 = lunes, bit 6 = domingo) */
+	public static final int TODOS_DIAS_SEMANA = 0x7F;
+
+	/** Nombres de los días de la semana, en el mismo orden que DayOfWeek */
+	private static final String[] NOMBRES_DIAS_SEMANA = { "Lunes", "Martes", "Miércoles", "Jueves", "Viernes",
+			"Sábado", "Domingo" };
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "seq_reserva_periodica")
+	@SequenceGenerator(name = "seq_reserva_periodica", sequenceName = "reserva_periodica_id_reserva_periodica_seq",
+			allocationSize = 50)
+	@Column(name = "id_reserva_periodica")
+	private Integer idReservaPeriodica;
+
+	@NotNull
+	@Column(name = "fecha_inicio")
+	private LocalDate fechaInicio;
+
+	@NotNull
+	@Column(name = "fecha_fin")
+	private LocalDate fechaFin;
+
+	/** Días de la semana en los que se repite la reserva (bit 0 = lunes) */
+	@NotNull
+	@Column(name = "dias_semana")
+	private Integer diasSemana = TODOS_DIAS_SEMANA;
+
+	@NotNull
+	@Column(name = "hora_inicio")
+	private LocalTime horaInicio;
+
+	@NotNull
+	@Column(name = "hora_fin")
+	private LocalTime horaFin;
+
+	/**
+	 * Asociación bidireccional ManyToOne con Aula para indicar el aula reservada.
+	 */
+	@NotNull
+	@ManyToOne
+	@JoinColumn(name = "id_aula", referencedColumnName = "id_aula")
+	private Aula aula;
+
+	/** Motivo de la reserva (examen, curso, reunión, etc) */
+	@NotNull
+	@NotEmpty
+	@Size(max = 50)
+	@Column(name = "motivo")
+	private String motivo = "";
+
+	/**
+	 * Persona que ha reservado el aula (no tiene por qué ser el responsable del
+	 * centro o departamento)
+	 */
+	@NotNull
+	@NotEmpty
+	@Size(max = 50)
+	@Column(name = "a_cargo_de")
+	private String aCargoDe = "";
+
+	/**
+	 * Nombre y apellidos del usuario logeado que ha registrado la reserva.
+	 */
+	@NotNull
+	@Size(max = 100)
+	@Column(name = "usuario_responsable")
+	private String usuarioResponsable;
+
+	/**
+	 * Asociación bidireccional ManyToOne con PropietarioAula para indicar el centro
+	 * o departamento responsable de hacer la reserva.
+	 */
+	@NotNull
+	@ManyToOne
+	@JoinColumn(name = "propietario_responsable", referencedColumnName = "id_propietario_aula")
+	private PropietarioAula propietarioResponsable;
+
+	/**
+	 * Fechas del rango en las que se ha cancelado (o modificado por separado) la
+	 * reserva.
+	 */
+	@ElementCollection(fetch = FetchType.EAGER)
+	@Fetch(FetchMode.SUBSELECT)
+	@CollectionTable(name = "reserva_periodica_excepcion", schema = "public",
+			joinColumns = @JoinColumn(name = "id_reserva_periodica", referencedColumnName = "id_reserva_periodica"))
+	@Column(name = "fecha")
+	private Set<LocalDate> excepciones = new HashSet<>();
+
+	/**
+	 * Constructor de la clase sin parámetros.
+	 */
+	public ReservaPeriodica() {
+	}
+
+	/**
+	 * Constructor de la clase con parámetros.
+	 * 
+	 * @param fechaInicio            Fecha de inicio del rango de la reserva
+	 * @param fechaFin               Fecha de fin del rango de la reserva
+	 * @param diasSemana             Máscara de los días de la semana en los que se
+	 *                               repite la reserva
+	 * @param horaInicio             Hora de inicio de la reserva
+	 * @param horaFin                Hora de fin de la reserva
+	 * @param aula                   Aula que se reserva
+	 * @param motivo                 Motivo de la reserva
+	 * @param aCargoDe               Persona a cargo de la reserva
+	 * @param usuarioResponsable     Usuario responsable de hacer la reserva
+	 * @param propietarioResponsable Centro o departamento responsable de hacer la
+	 *                               reserva
+	 */
+	public ReservaPeriodica(LocalDate fechaInicio, LocalDate fechaFin, Integer diasSemana, LocalTime horaInicio,
+			LocalTime horaFin, Aula aula, String motivo, String aCargoDe, String usuarioResponsable,
+			PropietarioAula propietarioResponsable) {
+		this.fechaInicio = fechaInicio;
+		this.fechaFin = fechaFin;
+		this.diasSemana = diasSemana;
+		this.horaInicio = horaInicio;
+		this.horaFin = horaFin;
+		this.aula = aula;
+		this.motivo = motivo;
+		this.aCargoDe = aCargoDe;
+		this.usuarioResponsable = usuarioResponsable;
+		this.propietarioResponsable = propietarioResponsable;
+	}
+
+	/**
+	 * Función que devuelve la máscara de días de la semana correspondiente al
+	 * nombre del día de la semana pasado ("Lunes", "Martes", etc).
+	 * 
+	 * @param diaSemana Nombre del día de la semana, o vacío para todos los días
+	 * 
+	 * @return Máscara de días de la semana
+	 */
+	public static int getMascaraDiaSemana(String diaSemana) {
+		if (StringUtils.isEmpty(diaSemana)) {
+			return TODOS_DIAS_SEMANA;
+		}
+
+		for (int i = 0; i < NOMBRES_DIAS_SEMANA.length; i++) {
+			if (NOMBRES_DIAS_SEMANA[i].equalsIgnoreCase(diaSemana)) {
+				return 1 << i;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Función que devuelve el nombre del día de la semana de la fecha pasada.
+	 * 
+	 * @param fecha Fecha
+	 * 
+	 * @return Nombre del día de la semana
+	 */
+	public static String getNombreDiaSemana(LocalDate fecha) {
+		return NOMBRES_DIAS_SEMANA[fecha.getDayOfWeek().getValue() - 1];
+	}
+
+	/**
+	 * Función que comprueba si hay reserva en la fecha pasada, es decir, si está
+	 * dentro del rango, es uno de los días de la semana de la reserva y no se ha
+	 * cancelado.
+	 * 
+	 * @param fecha Fecha que se quiere comprobar
+	 * 
+	 * @return Si hay reserva en la fecha pasada o no
+	 */
+	public boolean isOcurrencia(LocalDate fecha) {
+		return !fecha.isBefore(fechaInicio) && !fecha.isAfter(fechaFin) && incluyeDiaSemana(fecha.getDayOfWeek())
+				&& !excepciones.contains(fecha);
+	}
+
+	/**
+	 * Función que devuelve las fechas en las que hay reserva entre las fechas
+	 * pasadas.
+	 * 
+	 * @param desde Fecha desde la que obtener las fechas (null para el inicio del
+	 *              rango)
+	 * @param hasta Fecha hasta la que obtener las fechas (null para el fin del
+	 *              rango)
+	 * 
+	 * @return Lista de fechas en las que hay reserva
+	 */
+	public List<LocalDate> getFechas(LocalDate desde, LocalDate hasta) {
+		List<LocalDate> lstFechas = new ArrayList<>();
+		LocalDate fecha = (desde == null || desde.isBefore(fechaInicio)) ? fechaInicio : desde;
+		LocalDate fin = (hasta == null || hasta.isAfter(fechaFin)) ? fechaFin : hasta;
+
+		for (; !fecha.isAfter(fin); fecha = fecha.plusDays(1)) {
+			if (incluyeDiaSemana(fecha.getDayOfWeek()) && !excepciones.contains(fecha)) {
+				lstFechas.add(fecha);
+			}
+		}
+		return lstFechas;
+	}
+
+	/**
+	 * Función que devuelve las reservas de cada día (ocurrencias) entre las fechas
+	 * pasadas. Las reservas devueltas no se guardan en la BD, sino que quedan
+	 * asociadas a esta reserva periódica.
+	 * 
+	 * @param desde Fecha desde la que obtener las reservas (null para el inicio
+	 *              del rango)
+	 * @param hasta Fecha hasta la que obtener las reservas (null para el fin del
+	 *              rango)
+	 * 
+	 * @return Lista de reservas de cada día
+	 */
+	public List<Reserva> getOcurrencias(LocalDate desde, LocalDate hasta) {
+		List<Reserva> lstOcurrencias = new ArrayList<>();
+		Reserva ocurrencia;
+
+		for (LocalDate fecha : getFechas(desde, hasta)) {
+			ocurrencia = new Reserva(fecha, horaInicio, horaFin, getNombreDiaSemana(fecha), aula, motivo, aCargoDe,
+					usuarioResponsable, propietarioResponsable);
+			ocurrencia.setOcurrenciaDe(this, fecha);
+			lstOcurrencias.add(ocurrencia);
+		}
+		return lstOcurrencias;
+	}
+
+	/**
+	 * Función que comprueba si la reserva se repite el día de la semana pasado.
+	 * 
+	 * @param dia Día de la semana
+	 * 
+	 * @return Si la reserva se repite el día de la semana pasado o no
+	 */
+	public boolean incluyeDiaSemana(DayOfWeek dia) {
+		return (diasSemana & (1 << (dia.getValue() - 1))) != 0;
+	}
+
+	/**
+	 * Función que cancela la reserva en la fecha pasada (añade una excepción).
+	 * 
+	 * @param fecha Fecha que se cancela
+	 */
+	public void addExcepcion(LocalDate fecha) {
+		this.excepciones.add(fecha);
+	}
+
+	/**
+	 * Función que devuelve el id de la reserva periódica.
+	 * 
+	 * @return ID de la reserva periódica
+	 */
+	public Integer getIdReservaPeriodica() {
+		return this.idReservaPeriodica;
+	}
+
+	/**
+	 * Función que devuelve la fecha de inicio del rango de la reserva.
+	 * 
+	 * @return Fecha de inicio del rango de la reserva
+	 */
+	public LocalDate getFechaInicio() {
+		return this.fechaInicio;
+	}
+
+	/**
+	 * Función que establece la fecha de inicio del rango de la reserva.
+	 * 
+	 * @param fechaInicio Fecha de inicio del rango de la reserva
+	 */
+	public void setFechaInicio(LocalDate fechaInicio) {
+		this.fechaInicio = fechaInicio;
+	}
+
+	/**
+	 * Función que devuelve la fecha de fin del rango de la reserva.
+	 * 
+	 * @return Fecha de fin del rango de la reserva
+	 */
+	public LocalDate getFechaFin() {
+		return this.fechaFin;
+	}
+
+	/**
+	 * Función que establece la fecha de fin del rango de la reserva.
+	 * 
+	 * @param fechaFin Fecha de fin del rango de la reserva
+	 */
+	public void setFechaFin(LocalDate fechaFin) {
+		this.fechaFin = fechaFin;
+	}
+
+	/**
+	 * Función que devuelve la máscara de los días de la semana en los que se
+	 * repite la reserva.
+	 * 
+	 * @return Máscara de los días de la semana (bit 0 = lunes)
+	 */
+	public Integer getDiasSemana() {
+		return this.diasSemana;
+	}
+
+	/**
+	 * Función que establece la máscara de los días de la semana en los que se
+	 * repite la reserva.
+	 * 
+	 * @param diasSemana Máscara de los días de la semana (bit 0 = lunes)
+	 */
+	public void setDiasSemana(Integer diasSemana) {
+		this.diasSemana = diasSemana;
+	}
+
+	/**
+	 * Función que devuelve la hora de inicio de la reserva.
+	 * 
+	 * @return Hora de inicio de la reserva
+	 */
+	public LocalTime getHoraInicio() {
+		return this.horaInicio;
+	}
+
+	/**
+	 * Función que establece la hora de inicio de la reserva.
+	 * 
+	 * @param horaInicio Hora de inicio de la reserva
+	 */
+	public void setHoraInicio(LocalTime horaInicio) {
+		this.horaInicio = horaInicio;
+	}
+
+	/**
+	 * Función que devuelve la hora de fin de la reserva.
+	 * 
+	 * @return Hora de fin de la reserva
+	 */
+	public LocalTime getHoraFin() {
+		return this.horaFin;
+	}
+
+	/**
+	 * Función que establece la hora de fin de la reserva.
+	 * 
+	 * @param horaFin Hora de fin de la reserva
+	 */
+	public void setHoraFin(LocalTime horaFin) {
+		this.horaFin = horaFin;
+	}
+
+	/**
+	 * Función que devuelve el aula de la reserva.
+	 * 
+	 * @return Aula de la reserva
+	 */
+	public Aula getAula() {
+		return this.aula;
+	}
+
+	/**
+	 * Función que establece el aula de la reserva.
+	 * 
+	 * @param aula Aula de la reserva
+	 */
+	public void setAula(Aula aula) {
+		this.aula = aula;
+	}
+
+	/**
+	 * Función que devuelve el motivo de la reserva.
+	 * 
+	 * @return Motivo de la reserva
+	 */
+	public String getMotivo() {
+		return this.motivo;
+	}
+
+	/**
+	 * Función que establece el motivo de la reserva.
+	 * 
+	 * @param motivo Motivo de la reserva
+	 */
+	public void setMotivo(String motivo) {
+		this.motivo = motivo;
+	}
+
+	/**
+	 * Función que devuelve la persona que ha hecho la reserva.
+	 * 
+	 * @return Persona que ha hecho la reserva
+	 */
+	public String getACargoDe() {
+		return this.aCargoDe;
+	}
+
+	/**
+	 * Función que establece la persona que ha hecho la reserva.
+	 * 
+	 * @param aCargoDe Persona que ha hecho la reserva
+	 */
+	public void setACargoDe(String aCargoDe) {
+		this.aCargoDe = aCargoDe;
+	}
+
+	/**
+	 * Función que devuelve el usuario responsable de hacer la reserva.
+	 * 
+	 * @return Usuario responsable de hacer la reserva
+	 */
+	public String getUsuarioResponsable() {
+		return this.usuarioResponsable;
+	}
+
+	/**
+	 * Función que establece el usuario responsable de hacer la reserva.
+	 * 
+	 * @param usuario Usuario responsable de hacer la reserva
+	 */
+	public void setUsuarioResponsable(String usuario) {
+		this.usuarioResponsable = usuario;
+	}
+
+	/**
+	 * Función que devuelve el centro o departamento responsable de hacer la
+	 * reserva.
+	 * 
+	 * @return Centro o departamento responsable de hacer la reserva
+	 */
+	public PropietarioAula getPropietarioResponsable() {
+		return this.propietarioResponsable;
+	}
+
+	/**
+	 * Función que establece el centro o departamento responsable de hacer la
+	 * reserva.
+	 * 
+	 * @param responsable Centro o departamento responsable de hacer la reserva
+	 */
+	public void setPropietarioResponsable(PropietarioAula responsable) {
+		this.propietarioResponsable = responsable;
+	}
+
+	/**
+	 * Función que devuelve las fechas en las que se ha cancelado la reserva.
+	 * 
+	 * @return Fechas en las que se ha cancelado la reserva
+	 */
+	public Set<LocalDate> getExcepciones() {
+		return this.excepciones;
+	}
+
+	public boolean isPersisted() {
+		return idReservaPeriodica != null;
+	}
+
+	@Override
+	public int hashCode() {
+		if (getIdReservaPeriodica() != null) {
+			return getIdReservaPeriodica().hashCode();
+		}
+		return super.hashCode();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj == null) {
+			return false;
+		}
+		if (getClass() != obj.getClass()) {
+			return false;
+		}
+		ReservaPeriodica other = (ReservaPeriodica) obj;
+		if (getIdReservaPeriodica() == null || other.getIdReservaPeriodica() == null) {
+			return false;
+		}
+		return getIdReservaPeriodica().equals(other.getIdReservaPeriodica());
+	}
+
+	@Override
+	public String toString() {
+		return "Reserva periódica [Fechas - " + this.getFechaInicio() + "/" + this.getFechaFin() + ", Días semana - "
+				+ Integer.toBinaryString(this.getDiasSemana()) + ", Hora inicio - " + this.getHoraInicio()
+				+ ", Hora fin - " + this.getHoraFin() + ", " + this.getAula().getNombreAula() + ", Motivo - "
+				+ this.getMotivo() + ", A cargo de - " + this.getACargoDe() + " (" + this.getUsuarioResponsable()
+				+ " - " + this.getPropietarioResponsable().getNombrePropietarioAula() + ")]";
+	}
+}
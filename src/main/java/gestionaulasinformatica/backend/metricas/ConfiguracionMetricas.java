@@ -0,0 +1,66 @@
+package gestionaulasinformatica.backend.metricas;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import gestionaulasinformatica.backend.conexion.LimiteConsultasPublicas;
+import gestionaulasinformatica.backend.conexion.PoolsReplicas;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Clase de configuración de las métricas propias de la aplicación, que se
+ * publican junto a las de Spring Boot (pools de conexiones de los beans
+ * DataSource, estadísticas de Hibernate, JVM...) en /actuator/prometheus.
+ *
+ * @author Lisa
+ *
+ */
+@Configuration
+public class ConfiguracionMetricas {
+
+	/**
+	 * Métricas del límite de consultas públicas: consultas en curso, en espera y
+	 * rechazadas.
+	 *
+	 * @param limiteConsultasPublicas Límite de las consultas públicas
+	 *
+	 * @return Registro de las métricas del límite
+	 */
+	@Bean
+	public MeterBinder metricasLimiteConsultasPublicas(LimiteConsultasPublicas limiteConsultasPublicas) {
+		return registro -> {
+			Gauge.builder("gestionaulas.consultas.publicas.en.curso", limiteConsultasPublicas,
+					LimiteConsultasPublicas::getConsultasEnCurso)
+					.description("Consultas públicas que se están ejecutando").register(registro);
+			Gauge.builder("gestionaulas.consultas.publicas.en.espera", limiteConsultasPublicas,
+					LimiteConsultasPublicas::getConsultasEnEspera)
+					.description("Consultas públicas esperando su turno").register(registro);
+			FunctionCounter.builder("gestionaulas.consultas.publicas.rechazadas", limiteConsultasPublicas,
+					LimiteConsultasPublicas::getConsultasRechazadas)
+					.description("Consultas públicas rechazadas por haber demasiadas en curso").register(registro);
+		};
+	}
+
+	/**
+	 * Métricas de los pools de conexiones de las réplicas de la BD, que no son
+	 * beans y Spring Boot no las registra. Tienen los mismos nombres (hikaricp.*)
+	 * que los demás pools, con el nombre de cada réplica en la etiqueta pool.
+	 *
+	 * @param poolsReplicas Pools de las réplicas de la BD
+	 *
+	 * @return Registro de las métricas de los pools de las réplicas
+	 */
+	@Bean
+	public MeterBinder metricasPoolsReplicas(PoolsReplicas poolsReplicas) {
+		return registro -> {
+			for (HikariDataSource pool : poolsReplicas.getPools()) {
+				pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registro));
+			}
+		};
+	}
+}
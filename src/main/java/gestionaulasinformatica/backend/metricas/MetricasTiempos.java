@@ -0,0 +1,137 @@
+package gestionaulasinformatica.backend.metricas;
+
+import java.lang.reflect.Method;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Aspecto que mide el tiempo de las llamadas a los services y de las consultas
+ * con Specification de los repositorios, y los publica en Micrometer.
+ *
+ * - gestionaulas.service: cada método público de los services, con las
+ * etiquetas servicio, metodo y excepcion (none si termina bien). El número de
+ * llamadas de cada timer sirve de contador de llamadas y de errores.
+ *
+ * - gestionaulas.consultas: cada consulta de un repositorio que recibe una
+ * Specification, con las etiquetas especificacion (clase y función que la
+ * crea, por ejemplo ReservaSpecification.findByFilters) y metodo.
+ *
+ * Se aplica antes que el resto de aspectos y que las transacciones, para que el
+ * tiempo de los services incluya la confirmación de la transacción.
+ *
+ * @author Lisa
+ *
+ */
+@Aspect
+@Component
+@Order(-1)
+public class MetricasTiempos {
+	private static final String METRICA_SERVICES = "gestionaulas.service";
+	private static final String METRICA_CONSULTAS = "gestionaulas.consultas";
+	private static final String SIN_EXCEPCION = "none";
+	private static final String SIN_ESPECIFICACION = "ninguna";
+	private static final String ESPECIFICACION_COMPUESTA = "compuesta";
+
+	private MeterRegistry registro;
+
+	/**
+	 * Constructor de la clase.
+	 *
+	 * @param registro Registro de las métricas
+	 */
+	@Autowired
+	public MetricasTiempos(MeterRegistry registro) {
+		this.registro = registro;
+	}
+
+	/**
+	 * Función que mide el tiempo de un método público de un service.
+	 *
+	 * @param metodo Método del service
+	 *
+	 * @return Resultado del método
+	 *
+	 * @throws Throwable Excepción lanzada por el método
+	 */
+	@Around("execution(public * gestionaulasinformatica.backend.service.*Service.*(..))")
+	public Object medirService(ProceedingJoinPoint metodo) throws Throwable {
+		return medir(metodo, Timer.builder(METRICA_SERVICES).description("Tiempo de las llamadas a los services")
+				.tag("servicio", metodo.getSignature().getDeclaringType().getSimpleName())
+				.tag("metodo", metodo.getSignature().getName()));
+	}
+
+	/**
+	 * Función que mide el tiempo de una consulta con Specification de un
+	 * repositorio.
+	 *
+	 * @param metodo         Método del repositorio
+	 * @param especificacion Specification de la consulta
+	 *
+	 * @return Resultado de la consulta
+	 *
+	 * @throws Throwable Excepción lanzada por la consulta
+	 */
+	@Around("target(org.springframework.data.jpa.repository.JpaSpecificationExecutor) "
+			+ "&& execution(* *(org.springframework.data.jpa.domain.Specification, ..)) && args(especificacion, ..)")
+	public Object medirConsulta(ProceedingJoinPoint metodo, Specification<?> especificacion) throws Throwable {
+		return medir(metodo, Timer.builder(METRICA_CONSULTAS).description("Tiempo de las consultas con Specification")
+				.tag("especificacion", getNombre(especificacion)).tag("metodo", metodo.getSignature().getName()));
+	}
+
+	/**
+	 * Función que ejecuta el método pasado y registra su tiempo en el timer
+	 * pasado, con la excepción que ha lanzado como etiqueta.
+	 *
+	 * @param metodo Método que se quiere medir
+	 * @param timer  Timer (sin la etiqueta de la excepción)
+	 *
+	 * @return Resultado del método
+	 *
+	 * @throws Throwable Excepción lanzada por el método
+	 */
+	private Object medir(ProceedingJoinPoint metodo, Timer.Builder timer) throws Throwable {
+		Timer.Sample muestra = Timer.start(registro);
+		String excepcion = SIN_EXCEPCION;
+
+		try {
+			return metodo.proceed();
+		} catch (Throwable e) {
+			excepcion = e.getClass().getSimpleName();
+			throw e;
+		} finally {
+			muestra.stop(timer.tag("excepcion", excepcion).register(registro));
+		}
+	}
+
+	/**
+	 * Función que devuelve el nombre de la Specification pasada: la clase y la
+	 * función que la crean, o "compuesta" si se ha combinado con otras (con and,
+	 * or o where).
+	 *
+	 * @param especificacion Specification de la consulta
+	 *
+	 * @return Nombre de la Specification
+	 */
+	private static String getNombre(Specification<?> especificacion) {
+		Method funcion;
+
+		if (especificacion == null) {
+			return SIN_ESPECIFICACION;
+		}
+
+		funcion = especificacion.getClass().getEnclosingMethod();
+		if (funcion == null) {
+			return ESPECIFICACION_COMPUESTA;
+		}
+		return funcion.getDeclaringClass().getSimpleName() + "." + funcion.getName();
+	}
+}
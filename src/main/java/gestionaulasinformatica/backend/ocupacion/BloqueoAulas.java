@@ -0,0 +1,91 @@
+package gestionaulasinformatica.backend.ocupacion;
+
+import java.util.Collection;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Bloqueos por aula para guardar las reservas sin solapes.
+ *
+ * Comprobar la disponibilidad de un aula y guardar la reserva debe hacerse de
+ * forma atómica para cada aula. Los bloqueos se reparten en un número fijo de
+ * franjas según el ID del aula, de forma que dos reservas de la misma aula se
+ * guardan de una en una y las de aulas distintas (salvo que coincidan en la
+ * franja) se guardan en paralelo.
+ *
+ * El bloqueo se mantiene hasta que termina la transacción, después de que el
+ * índice de ocupación se haya actualizado con la reserva guardada.
+ *
+ * Los bloqueos son de esta instancia de la aplicación. Entre varias
+ * instancias, sólo la restricción de exclusión de PostgreSQL
+ * (gestionaulas.ocupacion.rangos-postgresql) impide los solapes, y únicamente
+ * entre reservas de un día, no con las reservas periódicas.
+ *
+ * @author Lisa
+ *
+ */
+@Component
+public class BloqueoAulas {
+	private static final int NUM_FRANJAS = 64;
+
+	private final ReentrantLock[] bloqueos;
+
+	/**
+	 * Constructor de la clase.
+	 */
+	public BloqueoAulas() {
+		bloqueos = new ReentrantLock[NUM_FRANJAS];
+		for (int i = 0; i < NUM_FRANJAS; i++) {
+			bloqueos[i] = new ReentrantLock();
+		}
+	}
+
+	/**
+	 * Función que bloquea las aulas pasadas hasta que termina la transacción
+	 * activa. Las franjas se bloquean siempre en el mismo orden para que dos
+	 * transacciones que reservan varias aulas no se bloqueen entre sí.
+	 *
+	 * @param idAulas IDs de las aulas que se quieren bloquear
+	 *
+	 * @throws IllegalStateException Si no hay una transacción activa
+	 */
+	public void bloquear(Collection<Integer> idAulas) {
+		TreeSet<Integer> franjas = new TreeSet<>();
+
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			throw new IllegalStateException("El bloqueo de las aulas necesita una transacción activa.");
+		}
+
+		for (Integer idAula : idAulas) {
+			franjas.add(getFranja(idAula));
+		}
+
+		for (Integer franja : franjas) {
+			bloqueos[franja].lock();
+		}
+
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+			@Override
+			public void afterCompletion(int estado) {
+				for (Integer franja : franjas.descendingSet()) {
+					bloqueos[franja].unlock();
+				}
+			}
+		});
+	}
+
+	/**
+	 * Función que devuelve la franja de bloqueo del aula pasada.
+	 *
+	 * @param idAula ID del aula
+	 *
+	 * @return Posición del bloqueo del aula
+	 */
+	private int getFranja(Integer idAula) {
+		return Math.floorMod(idAula.hashCode(), NUM_FRANJAS);
+	}
+}
@@ -0,0 +1,47 @@
+package gestionaulasinformatica.backend.ocupacion;
+
+import java.util.Arrays;
+
+import org.flywaydb.core.api.Location;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayConfigurationCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Clase de configuración de la ocupación de las aulas con los rangos de
+ * PostgreSQL (gestionaulas.ocupacion.rangos-postgresql).
+ *
+ * Sólo si está activa, Flyway aplica también las migraciones de
+ * db/rangos-postgresql, que añaden a las reservas la columna periodo y la
+ * restricción de exclusión "EXC_Reserva_Aula_Periodo" (PostgreSQL 12 o
+ * superior). La restricción sólo compara las reservas de un día entre sí, no
+ * con las ocurrencias de las reservas periódicas. La migración comprueba antes que no hay reservas que se solapan y
+ * si las hay falla indicándolo, sin cambiar el esquema.
+ *
+ * @author Lisa
+ *
+ */
+@Configuration
+@ConditionalOnProperty(name = "gestionaulas.ocupacion.rangos-postgresql", havingValue = "true")
+public class ConfiguracionRangosPostgreSQL {
+	/** Ubicación de las migraciones de los rangos de PostgreSQL */
+	public static final String MIGRACIONES = "classpath:db/rangos-postgresql";
+
+	/**
+	 * Función que añade las migraciones de los rangos de PostgreSQL a las
+	 * ubicaciones configuradas de Flyway.
+	 *
+	 * @return Personalización de la configuración de Flyway
+	 */
+	@Bean
+	public FlywayConfigurationCustomizer migracionesRangosPostgreSQL() {
+		return configuracion -> {
+			Location[] ubicaciones = Arrays.copyOf(configuracion.getLocations(),
+					configuracion.getLocations().length + 1);
+
+			ubicaciones[ubicaciones.length - 1] = new Location(MIGRACIONES);
+			configuracion.locations(ubicaciones);
+		};
+	}
+}
@@ -0,0 +1,92 @@
+package gestionaulasinformatica.backend.ocupacion;
+
+import java.time.LocalTime;
+
+/**
+ * Clase con las funciones para codificar un rango de horas de un día como un
+ * mapa de bits de franjas de 15 minutos.
+ *
+ * Un día tiene 96 franjas, que se guardan en dos long: las franjas 0-63 en la
+ * parte baja y las franjas 64-95 en la parte alta. Una franja se marca si el
+ * rango ocupa alguna parte de ella, por lo que si el AND de dos máscaras es 0
+ * los rangos no se solapan.
+ *
+ * @author Lisa
+ *
+ */
+final class FranjasHorarias {
+	static final int SEGUNDOS_FRANJA = 15 * 60;
+	static final int BITS_PARTE = Long.SIZE;
+
+	private FranjasHorarias() {
+	}
+
+	/**
+	 * Función que devuelve la parte baja (franjas 0-63) de la máscara del rango de
+	 * horas pasado.
+	 *
+	 * @param desde Hora de inicio del rango
+	 * @param hasta Hora de fin del rango
+	 *
+	 * @return Parte baja de la máscara
+	 */
+	static long parteBaja(LocalTime desde, LocalTime hasta) {
+		return bits(primeraFranja(desde), ultimaFranja(desde, hasta), 0);
+	}
+
+	/**
+	 * Función que devuelve la parte alta (franjas 64-95) de la máscara del rango de
+	 * horas pasado.
+	 *
+	 * @param desde Hora de inicio del rango
+	 * @param hasta Hora de fin del rango
+	 *
+	 * @return Parte alta de la máscara
+	 */
+	static long parteAlta(LocalTime desde, LocalTime hasta) {
+		return bits(primeraFranja(desde), ultimaFranja(desde, hasta), BITS_PARTE);
+	}
+
+	/**
+	 * Función que comprueba si el rango de horas pasado empieza y acaba justo en
+	 * el límite de una franja, en cuyo caso la máscara es exacta y compartir una
+	 * franja implica solaparse.
+	 *
+	 * @param desde Hora de inicio del rango
+	 * @param hasta Hora de fin del rango
+	 *
+	 * @return Si el rango está alineado con las franjas
+	 */
+	static boolean isAlineado(LocalTime desde, LocalTime hasta) {
+		return desde.isBefore(hasta) && desde.toSecondOfDay() % SEGUNDOS_FRANJA == 0
+				&& hasta.toSecondOfDay() % SEGUNDOS_FRANJA == 0;
+	}
+
+	private static int primeraFranja(LocalTime desde) {
+		return desde.toSecondOfDay() / SEGUNDOS_FRANJA;
+	}
+
+	private static int ultimaFranja(LocalTime desde, LocalTime hasta) {
+		int ultima = (hasta.toSecondOfDay() + SEGUNDOS_FRANJA - 1) / SEGUNDOS_FRANJA - 1;
+
+		// Un rango vacío (desde == hasta) ocupa al menos su franja de inicio
+		return Math.max(primeraFranja(desde), ultima);
+	}
+
+	/**
+	 * Función que devuelve los bits de las franjas [primera, ultima] que caen en
+	 * la parte que empieza en la franja "base".
+	 */
+	private static long bits(int primera, int ultima, int base) {
+		int inicio = Math.max(primera, base);
+		int fin = Math.min(ultima, base + BITS_PARTE - 1);
+		int numBits;
+
+		if (inicio > fin) {
+			return 0L;
+		}
+
+		numBits = fin - inicio + 1;
+		return (numBits == BITS_PARTE ? -1L : (1L << numBits) - 1) << (inicio - base);
+	}
+}
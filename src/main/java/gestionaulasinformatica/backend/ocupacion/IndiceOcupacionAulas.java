@@ -0,0 +1,341 @@
+package gestionaulasinformatica.backend.ocupacion;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import gestionaulasinformatica.backend.entity.Reserva;
+import gestionaulasinformatica.backend.entity.ReservaPeriodica;
+import gestionaulasinformatica.backend.repository.IReservaPeriodicaRepository;
+import gestionaulasinformatica.backend.repository.IReservaRepository;
+
+/**
+ * Índice en memoria de la ocupación de las aulas.
+ *
+ * Para cada aula (por su ID) se guarda la ocupación de cada día en el que tiene
+ * reservas, con sus intervalos y su mapa de bits de franjas de 15 minutos, de
+ * forma que la disponibilidad de un aula se resuelve sin consultar la BD. Las
+ * reservas periódicas se indexan con un intervalo por cada una de sus
+ * ocurrencias.
+ *
+ * La BD sólo se usa para cargar el índice la primera vez que se necesita;
+ * después se mantiene actualizado desde los services cuando se guardan o
+ * eliminan reservas.
+ *
+ * @author Lisa
+ *
+ */
+@Component
+public class IndiceOcupacionAulas {
+	private static final Logger LOGGER = LoggerFactory.getLogger(IndiceOcupacionAulas.class.getName());
+
+	private final IReservaRepository reservaRepository;
+	private final IReservaPeriodicaRepository reservaPeriodicaRepository;
+
+	/** Ocupación de cada aula (instancias inmutables, se sustituyen al modificarse) */
+	private final Map<Integer, OcupacionAula> ocupacionAulas = new ConcurrentHashMap<>();
+
+	/** Intervalo indexado de cada reserva, para poder quitarlo o moverlo */
+	private final Map<Integer, Intervalo> intervalosReservas = new ConcurrentHashMap<>();
+
+	/** Intervalos indexados de las ocurrencias de cada reserva periódica */
+	private final Map<Integer, List<Intervalo>> intervalosPeriodicas = new ConcurrentHashMap<>();
+
+	private volatile boolean cargado = false;
+
+	/**
+	 * Constructor de la clase.
+	 *
+	 * @param reservaRepository          Repositorio de la entidad Reserva
+	 * @param reservaPeriodicaRepository Repositorio de la entidad ReservaPeriodica
+	 */
+	@Autowired
+	public IndiceOcupacionAulas(IReservaRepository reservaRepository,
+			IReservaPeriodicaRepository reservaPeriodicaRepository) {
+		this.reservaRepository = reservaRepository;
+		this.reservaPeriodicaRepository = reservaPeriodicaRepository;
+	}
+
+	/**
+	 * Función que comprueba si el aula está libre entre las fechas y horas
+	 * pasadas.
+	 *
+	 * @param idAula            ID del aula
+	 * @param fechaDesde        Fecha desde la que debe estar disponible el aula
+	 * @param fechaHasta        Fecha hasta la que debe estar disponible el aula
+	 * @param horaDesde         Hora desde la que debe estar disponible el aula
+	 * @param horaHasta         Hora hasta la que debe estar disponible el aula
+	 * @param diaSemana         Día de la semana que debe estar disponible el aula
+	 * @param idReservaExcluida ID de la reserva que se está modificando, para
+	 *                          comprobar la disponibilidad del aula sin tener en
+	 *                          cuenta esta reserva
+	 *
+	 * @return Si el aula está disponible o no
+	 */
+	public boolean isDisponible(Integer idAula, LocalDate fechaDesde, LocalDate fechaHasta, LocalTime horaDesde,
+			LocalTime horaHasta, String diaSemana, Integer idReservaExcluida) {
+		return isDisponible(idAula, fechaDesde, fechaHasta, horaDesde, horaHasta, diaSemana, idReservaExcluida, null);
+	}
+
+	/**
+	 * Función que comprueba si el aula está libre entre las fechas y horas
+	 * pasadas, sin tener en cuenta la reserva ni la reserva periódica pasadas.
+	 *
+	 * @param idAula              ID del aula
+	 * @param fechaDesde          Fecha desde la que debe estar disponible el aula
+	 * @param fechaHasta          Fecha hasta la que debe estar disponible el aula
+	 * @param horaDesde           Hora desde la que debe estar disponible el aula
+	 * @param horaHasta           Hora hasta la que debe estar disponible el aula
+	 * @param diaSemana           Día de la semana que debe estar disponible el
+	 *                            aula
+	 * @param idReservaExcluida   ID de la reserva que se está modificando
+	 * @param idPeriodicaExcluida ID de la reserva periódica de la ocurrencia que
+	 *                            se está modificando
+	 *
+	 * @return Si el aula está disponible o no
+	 */
+	public boolean isDisponible(Integer idAula, LocalDate fechaDesde, LocalDate fechaHasta, LocalTime horaDesde,
+			LocalTime horaHasta, String diaSemana, Integer idReservaExcluida, Integer idPeriodicaExcluida) {
+		OcupacionAula ocupacionAula;
+
+		asegurarCargado();
+
+		ocupacionAula = ocupacionAulas.get(idAula);
+		return ocupacionAula == null || ocupacionAula.isDisponible(fechaDesde, fechaHasta, horaDesde, horaHasta,
+				diaSemana, idReservaExcluida, idPeriodicaExcluida);
+	}
+
+	/**
+	 * Función que añade al índice la reserva pasada (ya guardada en la BD). Si la
+	 * reserva ya estaba indexada (modificación), se sustituye su intervalo.
+	 *
+	 * @param reserva Reserva guardada
+	 */
+	public synchronized void registrar(Reserva reserva) {
+		if (!cargado || reserva == null || reserva.getIdReserva() == null) {
+			return;
+		}
+
+		quitar(reserva.getIdReserva());
+		indexar(new Intervalo(reserva));
+	}
+
+	/**
+	 * Función que quita del índice la reserva pasada (ya eliminada de la BD).
+	 *
+	 * @param reserva Reserva eliminada
+	 */
+	public synchronized void eliminar(Reserva reserva) {
+		if (!cargado || reserva == null || reserva.getIdReserva() == null) {
+			return;
+		}
+		quitar(reserva.getIdReserva());
+	}
+
+	/**
+	 * Función que añade al índice las ocurrencias de la reserva periódica pasada
+	 * (ya guardada en la BD). Si ya estaba indexada (modificación o nueva
+	 * excepción), se sustituyen todas sus ocurrencias.
+	 *
+	 * @param reservaPeriodica Reserva periódica guardada
+	 */
+	public synchronized void registrar(ReservaPeriodica reservaPeriodica) {
+		if (!cargado || reservaPeriodica == null || reservaPeriodica.getIdReservaPeriodica() == null) {
+			return;
+		}
+
+		quitarPeriodica(reservaPeriodica.getIdReservaPeriodica());
+		indexar(reservaPeriodica);
+	}
+
+	/**
+	 * Función que quita del índice las ocurrencias de la reserva periódica pasada
+	 * (ya eliminada de la BD).
+	 *
+	 * @param reservaPeriodica Reserva periódica eliminada
+	 */
+	public synchronized void eliminar(ReservaPeriodica reservaPeriodica) {
+		if (!cargado || reservaPeriodica == null || reservaPeriodica.getIdReservaPeriodica() == null) {
+			return;
+		}
+		quitarPeriodica(reservaPeriodica.getIdReservaPeriodica());
+	}
+
+	/**
+	 * Función que quita del índice todas las reservas del aula pasada (por ejemplo,
+	 * cuando se elimina el aula).
+	 *
+	 * @param idAula ID del aula
+	 */
+	public synchronized void eliminarAula(Integer idAula) {
+		if (!cargado || idAula == null) {
+			return;
+		}
+		ocupacionAulas.remove(idAula);
+		intervalosReservas.values().removeIf(intervalo -> idAula.equals(intervalo.getIdAula()));
+		intervalosPeriodicas.values().removeIf(intervalos -> idAula.equals(intervalos.get(0).getIdAula()));
+	}
+
+	/**
+	 * Función que vacía el índice para que se vuelva a cargar de la BD la próxima
+	 * vez que se consulte (por ejemplo, tras borrados en cascada).
+	 */
+	public synchronized void invalidar() {
+		cargado = false;
+		ocupacionAulas.clear();
+		intervalosReservas.clear();
+		intervalosPeriodicas.clear();
+	}
+
+	/**
+	 * Función que ejecuta la actualización del índice pasada. Si hay una
+	 * transacción activa se hace al confirmarla, para que el índice no refleje
+	 * cambios que finalmente no se guardan.
+	 *
+	 * @param actualizacion Actualización del índice
+	 */
+	public void alConfirmar(Runnable actualizacion) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			actualizacion.run();
+			return;
+		}
+
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+			@Override
+			public void afterCommit() {
+				actualizacion.run();
+			}
+		});
+	}
+
+	/**
+	 * Función que añade el intervalo pasado al índice.
+	 *
+	 * @param intervalo Intervalo de una reserva
+	 */
+	private void indexar(Intervalo intervalo) {
+		ocupacionAulas.compute(intervalo.getIdAula(),
+				(id, actual) -> actual == null ? OcupacionAula.de(intervalo) : actual.con(intervalo));
+		intervalosReservas.put(intervalo.getIdReserva(), intervalo);
+	}
+
+	/**
+	 * Función que añade las ocurrencias de la reserva periódica pasada al índice.
+	 *
+	 * @param reservaPeriodica Reserva periódica
+	 */
+	private void indexar(ReservaPeriodica reservaPeriodica) {
+		List<Intervalo> lstIntervalos = new ArrayList<>();
+
+		for (LocalDate fecha : reservaPeriodica.getFechas(null, null)) {
+			Intervalo intervalo = new Intervalo(reservaPeriodica, fecha);
+
+			ocupacionAulas.compute(intervalo.getIdAula(),
+					(id, actual) -> actual == null ? OcupacionAula.de(intervalo) : actual.con(intervalo));
+			lstIntervalos.add(intervalo);
+		}
+
+		if (!lstIntervalos.isEmpty()) {
+			intervalosPeriodicas.put(reservaPeriodica.getIdReservaPeriodica(), lstIntervalos);
+		}
+	}
+
+	/**
+	 * Función que quita el intervalo de la reserva pasada del índice.
+	 *
+	 * @param idReserva ID de la reserva
+	 */
+	private void quitar(Integer idReserva) {
+		Intervalo intervalo = intervalosReservas.remove(idReserva);
+
+		if (intervalo != null) {
+			ocupacionAulas.computeIfPresent(intervalo.getIdAula(), (id, actual) -> actual.sin(intervalo));
+		}
+	}
+
+	/**
+	 * Función que quita los intervalos de las ocurrencias de la reserva periódica
+	 * pasada del índice.
+	 *
+	 * @param idReservaPeriodica ID de la reserva periódica
+	 */
+	private void quitarPeriodica(Integer idReservaPeriodica) {
+		List<Intervalo> lstIntervalos = intervalosPeriodicas.remove(idReservaPeriodica);
+
+		if (lstIntervalos != null) {
+			for (Intervalo intervalo : lstIntervalos) {
+				ocupacionAulas.computeIfPresent(intervalo.getIdAula(), (id, actual) -> actual.sin(intervalo));
+			}
+		}
+	}
+
+	/**
+	 * Función que carga el índice de la BD si todavía no se ha cargado.
+	 */
+	private void asegurarCargado() {
+		if (!cargado) {
+			cargar();
+		}
+	}
+
+	/**
+	 * Función que carga en el índice todas las reservas que hay en la BD.
+	 */
+	private synchronized void cargar() {
+		Map<Integer, TreeMap<LocalDate, List<Intervalo>>> intervalosAulas;
+
+		if (cargado) {
+			return;
+		}
+
+		// Se agrupan los intervalos por aula y día para construir cada ocupación una
+		// sola vez
+		intervalosAulas = new HashMap<>();
+		for (Reserva reserva : reservaRepository.findAll()) {
+			Intervalo intervalo = new Intervalo(reserva);
+
+			intervalosAulas.computeIfAbsent(intervalo.getIdAula(), id -> new TreeMap<>())
+					.computeIfAbsent(intervalo.getFecha(), fecha -> new ArrayList<>()).add(intervalo);
+			intervalosReservas.put(intervalo.getIdReserva(), intervalo);
+		}
+
+		for (ReservaPeriodica reservaPeriodica : reservaPeriodicaRepository.findAll()) {
+			List<Intervalo> lstIntervalos = new ArrayList<>();
+
+			for (LocalDate fecha : reservaPeriodica.getFechas(null, null)) {
+				Intervalo intervalo = new Intervalo(reservaPeriodica, fecha);
+
+				intervalosAulas.computeIfAbsent(intervalo.getIdAula(), id -> new TreeMap<>())
+						.computeIfAbsent(fecha, f -> new ArrayList<>()).add(intervalo);
+				lstIntervalos.add(intervalo);
+			}
+
+			if (!lstIntervalos.isEmpty()) {
+				intervalosPeriodicas.put(reservaPeriodica.getIdReservaPeriodica(), lstIntervalos);
+			}
+		}
+
+		for (Map.Entry<Integer, TreeMap<LocalDate, List<Intervalo>>> intervalosAula : intervalosAulas.entrySet()) {
+			TreeMap<LocalDate, OcupacionDia> ocupacionDias = new TreeMap<>();
+
+			intervalosAula.getValue().forEach((fecha, intervalos) -> ocupacionDias.put(fecha, OcupacionDia.de(intervalos)));
+			ocupacionAulas.put(intervalosAula.getKey(), OcupacionAula.de(ocupacionDias));
+		}
+		cargado = true;
+
+		LOGGER.info("Índice de ocupación de aulas cargado con " + intervalosReservas.size() + " reservas y "
+				+ intervalosPeriodicas.size() + " reservas periódicas.");
+	}
+}
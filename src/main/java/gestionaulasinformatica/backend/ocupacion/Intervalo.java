@@ -0,0 +1,85 @@
+package gestionaulasinformatica.backend.ocupacion;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import gestionaulasinformatica.backend.entity.Reserva;
+import gestionaulasinformatica.backend.entity.ReservaPeriodica;
+
+/**
+ * Clase inmutable que representa el intervalo de horas ocupado por una reserva
+ * (o por una ocurrencia de una reserva periódica) dentro del índice de ocupación
+ * de las aulas.
+ *
+ * @author Lisa
+ *
+ */
+final class Intervalo {
+	private final Integer idReserva;
+	private final Integer idReservaPeriodica;
+	private final Integer idAula;
+	private final LocalDate fecha;
+	private final LocalTime horaInicio;
+	private final LocalTime horaFin;
+	private final String diaSemana;
+
+	/**
+	 * Constructor de la clase a partir de una reserva guardada en la BD.
+	 *
+	 * @param reserva Reserva de la que se obtiene el intervalo
+	 */
+	Intervalo(Reserva reserva) {
+		this.idReserva = reserva.getIdReserva();
+		this.idReservaPeriodica = null;
+		this.idAula = reserva.getAula().getIdAula();
+		this.fecha = reserva.getFecha();
+		this.horaInicio = reserva.getHoraInicio();
+		this.horaFin = reserva.getHoraFin();
+		this.diaSemana = reserva.getDiaSemana();
+	}
+
+	/**
+	 * Constructor de la clase a partir de una ocurrencia de una reserva periódica
+	 * guardada en la BD.
+	 *
+	 * @param reservaPeriodica Reserva periódica de la que se obtiene el intervalo
+	 * @param fecha            Fecha de la ocurrencia
+	 */
+	Intervalo(ReservaPeriodica reservaPeriodica, LocalDate fecha) {
+		this.idReserva = null;
+		this.idReservaPeriodica = reservaPeriodica.getIdReservaPeriodica();
+		this.idAula = reservaPeriodica.getAula().getIdAula();
+		this.fecha = fecha;
+		this.horaInicio = reservaPeriodica.getHoraInicio();
+		this.horaFin = reservaPeriodica.getHoraFin();
+		this.diaSemana = ReservaPeriodica.getNombreDiaSemana(fecha);
+	}
+
+	Integer getIdReserva() {
+		return idReserva;
+	}
+
+	Integer getIdReservaPeriodica() {
+		return idReservaPeriodica;
+	}
+
+	Integer getIdAula() {
+		return idAula;
+	}
+
+	LocalDate getFecha() {
+		return fecha;
+	}
+
+	LocalTime getHoraInicio() {
+		return horaInicio;
+	}
+
+	LocalTime getHoraFin() {
+		return horaFin;
+	}
+
+	String getDiaSemana() {
+		return diaSemana;
+	}
+}
@@ -0,0 +1,197 @@
+package gestionaulasinformatica.backend.ocupacion;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.SortedMap;
+
+import org.springframework.util.StringUtils;
+
+/**
+ * Clase inmutable con la ocupación de un aula en todos los días en los que
+ * tiene reservas.
+ *
+ * Los días se guardan ordenados (como día de época) en un array de long y sus
+ * máscaras de franjas en otro array de long (dos por día), de forma que
+ * comprobar la disponibilidad en un rango de varias semanas es un recorrido
+ * secuencial de arrays de tipos primitivos con un AND por día. Sólo cuando la
+ * máscara no basta para decidir se consulta la ocupación exacta del día.
+ *
+ * @author Lisa
+ *
+ */
+final class OcupacionAula {
+	private final long[] dias;
+	private final long[] mascaras;
+	private final boolean[] alineadas;
+	private final OcupacionDia[] ocupaciones;
+
+	/**
+	 * Constructor de la clase.
+	 *
+	 * @param dias        Días de época ordenados
+	 * @param ocupaciones Ocupación de cada uno de los días
+	 */
+	private OcupacionAula(long[] dias, OcupacionDia[] ocupaciones) {
+		this.dias = dias;
+		this.ocupaciones = ocupaciones;
+		this.mascaras = new long[dias.length * 2];
+		this.alineadas = new boolean[dias.length];
+
+		for (int i = 0; i < dias.length; i++) {
+			mascaras[2 * i] = ocupaciones[i].getMascaraBaja();
+			mascaras[2 * i + 1] = ocupaciones[i].getMascaraAlta();
+			alineadas[i] = ocupaciones[i].isAlineada();
+		}
+	}
+
+	/**
+	 * Función que crea la ocupación de un aula a partir de la ocupación de cada
+	 * día.
+	 *
+	 * @param ocupacionDias Ocupación de cada día, ordenada por fecha
+	 *
+	 * @return Ocupación del aula
+	 */
+	static OcupacionAula de(SortedMap<LocalDate, OcupacionDia> ocupacionDias) {
+		long[] dias = new long[ocupacionDias.size()];
+		OcupacionDia[] ocupaciones = new OcupacionDia[ocupacionDias.size()];
+		int i = 0;
+
+		for (Map.Entry<LocalDate, OcupacionDia> entrada : ocupacionDias.entrySet()) {
+			dias[i] = entrada.getKey().toEpochDay();
+			ocupaciones[i] = entrada.getValue();
+			i++;
+		}
+		return new OcupacionAula(dias, ocupaciones);
+	}
+
+	/**
+	 * Función que crea la ocupación de un aula con un único intervalo.
+	 *
+	 * @param intervalo Intervalo ocupado
+	 *
+	 * @return Ocupación del aula
+	 */
+	static OcupacionAula de(Intervalo intervalo) {
+		return new OcupacionAula(new long[] { intervalo.getFecha().toEpochDay() },
+				new OcupacionDia[] { OcupacionDia.de(intervalo) });
+	}
+
+	/**
+	 * Función que devuelve una copia de la ocupación del aula con el intervalo
+	 * pasado añadido.
+	 *
+	 * @param intervalo Intervalo que se quiere añadir
+	 *
+	 * @return Nueva ocupación del aula
+	 */
+	OcupacionAula con(Intervalo intervalo) {
+		long dia = intervalo.getFecha().toEpochDay();
+		int posicion = Arrays.binarySearch(dias, dia);
+		long[] nuevosDias;
+		OcupacionDia[] nuevasOcupaciones;
+
+		if (posicion >= 0) {
+			nuevasOcupaciones = ocupaciones.clone();
+			nuevasOcupaciones[posicion] = ocupaciones[posicion].con(intervalo);
+			return new OcupacionAula(dias, nuevasOcupaciones);
+		}
+
+		posicion = -posicion - 1;
+		nuevosDias = new long[dias.length + 1];
+		nuevasOcupaciones = new OcupacionDia[dias.length + 1];
+
+		System.arraycopy(dias, 0, nuevosDias, 0, posicion);
+		System.arraycopy(ocupaciones, 0, nuevasOcupaciones, 0, posicion);
+		nuevosDias[posicion] = dia;
+		nuevasOcupaciones[posicion] = OcupacionDia.de(intervalo);
+		System.arraycopy(dias, posicion, nuevosDias, posicion + 1, dias.length - posicion);
+		System.arraycopy(ocupaciones, posicion, nuevasOcupaciones, posicion + 1, dias.length - posicion);
+
+		return new OcupacionAula(nuevosDias, nuevasOcupaciones);
+	}
+
+	/**
+	 * Función que devuelve una copia de la ocupación del aula sin el intervalo
+	 * pasado.
+	 *
+	 * @param intervalo Intervalo que se quiere quitar
+	 *
+	 * @return Nueva ocupación del aula, o null si el aula queda sin reservas
+	 */
+	OcupacionAula sin(Intervalo intervalo) {
+		int posicion = Arrays.binarySearch(dias, intervalo.getFecha().toEpochDay());
+		OcupacionDia ocupacionDia;
+		OcupacionDia[] nuevasOcupaciones;
+		long[] nuevosDias;
+
+		if (posicion < 0) {
+			return this;
+		}
+
+		ocupacionDia = ocupaciones[posicion].sin(intervalo);
+
+		if (ocupacionDia != null) {
+			nuevasOcupaciones = ocupaciones.clone();
+			nuevasOcupaciones[posicion] = ocupacionDia;
+			return new OcupacionAula(dias, nuevasOcupaciones);
+		}
+
+		if (dias.length == 1) {
+			return null;
+		}
+
+		nuevosDias = new long[dias.length - 1];
+		nuevasOcupaciones = new OcupacionDia[dias.length - 1];
+
+		System.arraycopy(dias, 0, nuevosDias, 0, posicion);
+		System.arraycopy(ocupaciones, 0, nuevasOcupaciones, 0, posicion);
+		System.arraycopy(dias, posicion + 1, nuevosDias, posicion, dias.length - posicion - 1);
+		System.arraycopy(ocupaciones, posicion + 1, nuevasOcupaciones, posicion, dias.length - posicion - 1);
+
+		return new OcupacionAula(nuevosDias, nuevasOcupaciones);
+	}
+
+	/**
+	 * Función que comprueba si el aula está libre entre las fechas y horas
+	 * pasadas.
+	 *
+	 * @param fechaDesde          Fecha desde la que debe estar disponible el aula
+	 * @param fechaHasta          Fecha hasta la que debe estar disponible el aula
+	 * @param horaDesde           Hora desde la que debe estar disponible el aula
+	 * @param horaHasta           Hora hasta la que debe estar disponible el aula
+	 * @param diaSemana           Día de la semana que debe estar disponible el
+	 *                            aula
+	 * @param idReservaExcluida   ID de la reserva que no se tiene en cuenta
+	 * @param idPeriodicaExcluida ID de la reserva periódica que no se tiene en
+	 *                            cuenta
+	 *
+	 * @return Si el aula está disponible o no
+	 */
+	boolean isDisponible(LocalDate fechaDesde, LocalDate fechaHasta, LocalTime horaDesde, LocalTime horaHasta,
+			String diaSemana, Integer idReservaExcluida, Integer idPeriodicaExcluida) {
+		long consultaBaja = FranjasHorarias.parteBaja(horaDesde, horaHasta);
+		long consultaAlta = FranjasHorarias.parteAlta(horaDesde, horaHasta);
+		boolean consultaExacta = FranjasHorarias.isAlineado(horaDesde, horaHasta) && StringUtils.isEmpty(diaSemana)
+				&& idReservaExcluida == null && idPeriodicaExcluida == null;
+		long diaHasta = fechaHasta.toEpochDay();
+		int i = Arrays.binarySearch(dias, fechaDesde.toEpochDay());
+
+		for (i = i < 0 ? -i - 1 : i; i < dias.length && dias[i] <= diaHasta; i++) {
+			// Ninguna franja en común: no hay solape
+			if ((mascaras[2 * i] & consultaBaja) == 0 && (mascaras[2 * i + 1] & consultaAlta) == 0) {
+				continue;
+			}
+
+			// Con las máscaras exactas, compartir una franja implica solaparse
+			if ((consultaExacta && alineadas[i])
+					|| ocupaciones[i].haySolape(horaDesde, horaHasta, diaSemana, idReservaExcluida,
+							idPeriodicaExcluida)) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,216 @@
+package gestionaulasinformatica.backend.ocupacion;
+
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+
+import org.springframework.util.StringUtils;
+
+/**
+ * Clase inmutable con la ocupación de un aula en un día concreto.
+ *
+ * Los intervalos se guardan ordenados por hora de inicio junto con la hora de
+ * fin máxima acumulada (árbol de intervalos aumentado aplanado en un array), de
+ * forma que saber si hay algún solape con un rango de horas se resuelve con una
+ * búsqueda binaria. Además se guarda la máscara de franjas de 15 minutos
+ * ocupadas (ver {@link FranjasHorarias}), que permite descartar la mayoría de
+ * consultas con un AND sin recorrer los intervalos.
+ *
+ * Al ser inmutable, las consultas se pueden hacer desde varios hilos sin
+ * bloqueos; cada modificación genera una nueva instancia.
+ *
+ * @author Lisa
+ *
+ */
+final class OcupacionDia {
+	private static final Comparator<Intervalo> ORDEN_INICIO = Comparator.comparing(Intervalo::getHoraInicio);
+
+	private final Intervalo[] intervalos;
+	private final LocalTime[] maxHoraFin;
+	private final long mascaraBaja;
+	private final long mascaraAlta;
+	private final boolean alineada;
+
+	/**
+	 * Constructor de la clase.
+	 *
+	 * @param intervalos Intervalos ya ordenados por hora de inicio
+	 */
+	private OcupacionDia(Intervalo[] intervalos) {
+		long baja = 0L;
+		long alta = 0L;
+		boolean todosAlineados = true;
+
+		this.intervalos = intervalos;
+		this.maxHoraFin = new LocalTime[intervalos.length];
+
+		for (int i = 0; i < intervalos.length; i++) {
+			LocalTime inicio = intervalos[i].getHoraInicio();
+			LocalTime fin = intervalos[i].getHoraFin();
+
+			maxHoraFin[i] = (i > 0 && maxHoraFin[i - 1].isAfter(fin)) ? maxHoraFin[i - 1] : fin;
+
+			baja |= FranjasHorarias.parteBaja(inicio, fin);
+			alta |= FranjasHorarias.parteAlta(inicio, fin);
+			todosAlineados &= FranjasHorarias.isAlineado(inicio, fin);
+		}
+
+		this.mascaraBaja = baja;
+		this.mascaraAlta = alta;
+		this.alineada = todosAlineados;
+	}
+
+	/**
+	 * Función que crea la ocupación de un día con un único intervalo.
+	 *
+	 * @param intervalo Intervalo ocupado
+	 *
+	 * @return Ocupación del día
+	 */
+	static OcupacionDia de(Intervalo intervalo) {
+		return new OcupacionDia(new Intervalo[] { intervalo });
+	}
+
+	/**
+	 * Función que crea la ocupación de un día con los intervalos pasados.
+	 *
+	 * @param intervalos Intervalos ocupados
+	 *
+	 * @return Ocupación del día
+	 */
+	static OcupacionDia de(Collection<Intervalo> intervalos) {
+		Intervalo[] ordenados = intervalos.toArray(new Intervalo[0]);
+		Arrays.sort(ordenados, ORDEN_INICIO);
+
+		return new OcupacionDia(ordenados);
+	}
+
+	/**
+	 * Función que devuelve una copia de la ocupación del día con el intervalo
+	 * pasado añadido.
+	 *
+	 * @param intervalo Intervalo que se quiere añadir
+	 *
+	 * @return Nueva ocupación del día
+	 */
+	OcupacionDia con(Intervalo intervalo) {
+		Intervalo[] nuevos = Arrays.copyOf(intervalos, intervalos.length + 1);
+		nuevos[intervalos.length] = intervalo;
+		Arrays.sort(nuevos, ORDEN_INICIO);
+
+		return new OcupacionDia(nuevos);
+	}
+
+	/**
+	 * Función que devuelve una copia de la ocupación del día sin el intervalo
+	 * pasado.
+	 *
+	 * @param intervalo Intervalo que se quiere quitar (la misma instancia que se
+	 *                  añadió)
+	 *
+	 * @return Nueva ocupación del día, o null si el día queda libre
+	 */
+	OcupacionDia sin(Intervalo intervalo) {
+		Intervalo[] restantes = Arrays.stream(intervalos).filter(i -> i != intervalo).toArray(Intervalo[]::new);
+
+		if (restantes.length == 0) {
+			return null;
+		}
+		return new OcupacionDia(restantes);
+	}
+
+	/**
+	 * Función que comprueba si alguna reserva del día se solapa con el rango de
+	 * horas pasado (horaInicio < horaHasta AND horaFin > horaDesde).
+	 *
+	 * @param horaDesde           Hora desde la que debe estar libre el aula
+	 * @param horaHasta           Hora hasta la que debe estar libre el aula
+	 * @param diaSemana           Si no es vacío, sólo se tienen en cuenta las
+	 *                            reservas de ese día de la semana
+	 * @param idReservaExcluida   ID de la reserva que no se tiene en cuenta (la
+	 *                            que se está modificando), puede ser null
+	 * @param idPeriodicaExcluida ID de la reserva periódica que no se tiene en
+	 *                            cuenta, puede ser null
+	 *
+	 * @return Si hay solape o no
+	 */
+	boolean haySolape(LocalTime horaDesde, LocalTime horaHasta, String diaSemana, Integer idReservaExcluida,
+			Integer idPeriodicaExcluida) {
+		int candidatos = numIntervalosAntesDe(horaHasta);
+
+		// Ningún intervalo empieza antes de horaHasta o todos acaban antes de horaDesde
+		if (candidatos == 0 || !maxHoraFin[candidatos - 1].isAfter(horaDesde)) {
+			return false;
+		}
+
+		if (StringUtils.isEmpty(diaSemana) && idReservaExcluida == null && idPeriodicaExcluida == null) {
+			return true;
+		}
+
+		for (int i = 0; i < candidatos; i++) {
+			Intervalo intervalo = intervalos[i];
+
+			if (intervalo.getHoraFin().isAfter(horaDesde)
+					&& (StringUtils.isEmpty(diaSemana) || diaSemana.equals(intervalo.getDiaSemana()))
+					&& (idReservaExcluida == null || !idReservaExcluida.equals(intervalo.getIdReserva()))
+					&& (idPeriodicaExcluida == null || !idPeriodicaExcluida.equals(intervalo.getIdReservaPeriodica()))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Función que devuelve la parte baja (franjas 0-63) de la máscara de franjas
+	 * ocupadas del día.
+	 *
+	 * @return Parte baja de la máscara
+	 */
+	long getMascaraBaja() {
+		return mascaraBaja;
+	}
+
+	/**
+	 * Función que devuelve la parte alta (franjas 64-95) de la máscara de franjas
+	 * ocupadas del día.
+	 *
+	 * @return Parte alta de la máscara
+	 */
+	long getMascaraAlta() {
+		return mascaraAlta;
+	}
+
+	/**
+	 * Función que devuelve si todos los intervalos del día están alineados con las
+	 * franjas, es decir, si la máscara representa exactamente la ocupación.
+	 *
+	 * @return Si la máscara es exacta
+	 */
+	boolean isAlineada() {
+		return alineada;
+	}
+
+	/**
+	 * Función que devuelve el número de intervalos que empiezan antes de la hora
+	 * pasada (búsqueda binaria sobre los intervalos ordenados).
+	 *
+	 * @param hora Hora
+	 *
+	 * @return Número de intervalos que empiezan antes de la hora pasada
+	 */
+	private int numIntervalosAntesDe(LocalTime hora) {
+		int bajo = 0;
+		int alto = intervalos.length;
+
+		while (bajo < alto) {
+			int medio = (bajo + alto) >>> 1;
+			if (intervalos[medio].getHoraInicio().isBefore(hora)) {
+				bajo = medio + 1;
+			} else {
+				alto = medio;
+			}
+		}
+		return bajo;
+	}
+}
@@ -1,14 +1,26 @@
 package gestionaulasinformatica.backend.repository;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_CACHE_REGION;
+
 // Imports Java
+import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.List;
 
+import javax.persistence.QueryHint;
+
 // Imports SpringFramework
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import gestionaulasinformatica.backend.cache.CacheDatosReferencia;
 import gestionaulasinformatica.backend.entity.Aula;
 import gestionaulasinformatica.backend.entity.PropietarioAula;
 
@@ -18,10 +30,52 @@ import gestionaulasinformatica.backend.entity.PropietarioAula;
  * @author Lisa
  *
  */
-public interface IAulaRepository extends JpaRepository<Aula, Integer>, JpaSpecificationExecutor<Aula> {
+public interface IAulaRepository
+		extends JpaRepository<Aula, Integer>, JpaSpecificationExecutor<Aula>, IAulaRepositoryCustom {
+	@Override
+	@QueryHints({ @QueryHint(name = HINT_CACHEABLE, value = "true"),
+			@QueryHint(name = HINT_CACHE_REGION, value = CacheDatosReferencia.REGION_CONSULTAS_AULAS) })
+	List<Aula> findAll(Sort sort);
+
+	@QueryHints({ @QueryHint(name = HINT_CACHEABLE, value = "true"),
+			@QueryHint(name = HINT_CACHE_REGION, value = CacheDatosReferencia.REGION_CONSULTAS_AULAS) })
 	@Query("SELECT a FROM Aula a "
 			+ "WHERE lower(a.propietarioAula.idPropietarioAula) LIKE lower(:filtroPropietarioAula) ORDER BY nombreAula ASC")
 	List<Aula> findAllAulasPropietario(@Param("filtroPropietarioAula") PropietarioAula filtroPropietarioAula);
 	
+	@QueryHints({ @QueryHint(name = HINT_CACHEABLE, value = "true"),
+			@QueryHint(name = HINT_CACHE_REGION, value = CacheDatosReferencia.REGION_CONSULTAS_AULAS) })
+	List<Aula> findByPropietarioAulaAndNombreAulaStartingWithIgnoreCase(PropietarioAula propietarioAula,
+			String prefijoNombreAula, Pageable pageable);
+
+	@QueryHints({ @QueryHint(name = HINT_CACHEABLE, value = "true"),
+			@QueryHint(name = HINT_CACHE_REGION, value = CacheDatosReferencia.REGION_CONSULTAS_AULAS) })
+	long countByPropietarioAulaAndNombreAulaStartingWithIgnoreCase(PropietarioAula propietarioAula,
+			String prefijoNombreAula);
+
+	// Sólo PostgreSQL: el solape de rangos (&&) de cada día con la columna periodo
+	// usa el índice GiST de la restricción "EXC_Reserva_Aula_Periodo"
+	@Query(value = "SELECT DISTINCT r.id_aula FROM public.reserva r "
+			+ "JOIN generate_series(CAST(:fechaDesde AS date), CAST(:fechaHasta AS date), interval '1 day') AS d(dia) "
+			+ "ON r.periodo && tsrange(CAST(d.dia AS date) + CAST(:horaDesde AS time), "
+			+ "CAST(d.dia AS date) + CAST(:horaHasta AS time), '[)') "
+			+ "WHERE (:diaSemana = '' OR r.dia_semana = :diaSemana) AND r.id_reserva <> :idReservaExcluida",
+			nativeQuery = true)
+	List<Integer> findIdAulasOcupadasRangos(@Param("fechaDesde") LocalDate fechaDesde,
+			@Param("fechaHasta") LocalDate fechaHasta, @Param("horaDesde") LocalTime horaDesde,
+			@Param("horaHasta") LocalTime horaHasta, @Param("diaSemana") String diaSemana,
+			@Param("idReservaExcluida") Integer idReservaExcluida);
+
+	@Query("SELECT count(a) FROM Aula a WHERE a.ubicacionCentro = :propietarioP OR a.propietarioAula = :propietarioP")
+	long countAulasPropietario(@Param("propietarioP") PropietarioAula propietario);
+
 	Aula findByNombreAulaIgnoreCaseAndUbicacionCentro(String nombreAula, PropietarioAula ubicacionCentro);
+
+	@Modifying(flushAutomatically = true)
+	@Query("DELETE FROM Aula a WHERE a.idAula = :idAulaP")
+	int deleteAula(@Param("idAulaP") Integer idAula);
+
+	@Modifying(flushAutomatically = true)
+	@Query("DELETE FROM Aula a WHERE a.ubicacionCentro = :propietarioP OR a.propietarioAula = :propietarioP")
+	int deleteAllAulasPropietario(@Param("propietarioP") PropietarioAula propietario);
 }
@@ -0,0 +1,31 @@
+package gestionaulasinformatica.backend.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import gestionaulasinformatica.backend.data.AulaFila;
+import gestionaulasinformatica.backend.entity.Aula;
+
+/**
+ * Consultas propias del repositorio de la entidad Aula que no se pueden obtener
+ * con los métodos de Spring Data.
+ * 
+ * @author Lisa
+ *
+ */
+public interface IAulaRepositoryCustom {
+
+	/**
+	 * Función que devuelve las filas (sólo las columnas que se muestran en los
+	 * listados) de las aulas que cumplen con la especificación pasada, sin cargar
+	 * las entidades en el contexto de persistencia.
+	 * 
+	 * @param spec Especificación con los filtros
+	 * @param sort Orden de las aulas
+	 * 
+	 * @return Lista con las filas de las aulas
+	 */
+	List<AulaFila> findFilas(Specification<Aula> spec, Sort sort);
+}
@@ -0,0 +1,49 @@
+package gestionaulasinformatica.backend.repository;
+
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import gestionaulasinformatica.backend.data.AulaFila;
+import gestionaulasinformatica.backend.entity.Aula;
+import gestionaulasinformatica.backend.entity.PropietarioAula;
+
+/**
+ * Implementación de las consultas propias del repositorio de la entidad Aula.
+ * 
+ * @author Lisa
+ *
+ */
+public class IAulaRepositoryCustomImpl implements IAulaRepositoryCustom {
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Override
+	public List<AulaFila> findFilas(Specification<Aula> spec, Sort sort) {
+		CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+		CriteriaQuery<AulaFila> query = cb.createQuery(AulaFila.class);
+		Root<Aula> root = query.from(Aula.class);
+		Join<Aula, PropietarioAula> centro = root.join("ubicacionCentro");
+		Predicate predicate = spec == null ? null : spec.toPredicate(root, query, cb);
+
+		query.select(cb.construct(AulaFila.class, root.get("idAula"), root.get("nombreAula"),
+				centro.get("nombrePropietarioAula"), root.get("capacidad"), root.get("numOrdenadores")));
+		if (predicate != null) {
+			query.where(predicate);
+		}
+		query.orderBy(QueryUtils.toOrders(sort, root, cb));
+
+		return entityManager.createQuery(query).getResultList();
+	}
+}
@@ -12,6 +12,6 @@ import gestionaulasinformatica.backend.entity.HistoricoReservas;
  * @author Lisa
  *
  */
-public interface IHistoricoReservasRepository
-		extends JpaRepository<HistoricoReservas, Integer>, JpaSpecificationExecutor<HistoricoReservas> {
+public interface IHistoricoReservasRepository extends JpaRepository<HistoricoReservas, Integer>,
+		JpaSpecificationExecutor<HistoricoReservas>, IHistoricoReservasRepositoryCustom {
 }
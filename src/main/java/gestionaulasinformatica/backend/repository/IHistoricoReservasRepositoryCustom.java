@@ -0,0 +1,90 @@
+package gestionaulasinformatica.backend.repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import gestionaulasinformatica.backend.entity.HistoricoReservas;
+
+/**
+ * Consultas propias del repositorio de la entidad HistoricoReservas que no se
+ * pueden obtener con los métodos de Spring Data.
+ * 
+ * @author Lisa
+ *
+ */
+public interface IHistoricoReservasRepositoryCustom {
+
+	/**
+	 * Función que devuelve un bloque de las operaciones que cumplen con la
+	 * especificación pasada, sin ejecutar la consulta de recuento que hace
+	 * findAll(Specification, Pageable).
+	 * 
+	 * @param spec   Especificación con los filtros
+	 * @param offset Posición de la primera operación que se quiere obtener
+	 * @param limit  Número máximo de operaciones que se quieren obtener
+	 * @param sort   Orden de las operaciones
+	 * 
+	 * @return Lista con las operaciones del bloque
+	 */
+	List<HistoricoReservas> findAll(Specification<HistoricoReservas> spec, int offset, int limit, Sort sort);
+
+	/**
+	 * Función que recorre las operaciones que cumplen con la especificación pasada
+	 * sin cargarlas todas en memoria: se leen de la BD por bloques del tamaño
+	 * indicado, en modo de sólo lectura, y cada operación se separa del contexto
+	 * de persistencia al obtenerla. Se debe llamar dentro de una transacción y
+	 * cerrar el Stream al terminar.
+	 * 
+	 * @param spec      Especificación con los filtros
+	 * @param sort      Orden de las operaciones
+	 * @param fetchSize Número de filas que se leen de la BD en cada bloque
+	 * 
+	 * @return Stream con las operaciones
+	 */
+	Stream<HistoricoReservas> stream(Specification<HistoricoReservas> spec, Sort sort, int fetchSize);
+
+	/**
+	 * Función que guarda la operación de eliminación de las reservas (de un solo
+	 * día) del aula pasada, a partir de la fecha pasada, con una única sentencia
+	 * INSERT ... SELECT, sin leer las reservas.
+	 * 
+	 * Cada operación obtiene su ID de la secuencia con nextval, que devuelve un
+	 * valor que no se repite en los bloques de IDs que reserva Hibernate. Como la
+	 * secuencia avanza de 50 en 50, cada operación consume un bloque de 50 IDs.
+	 * 
+	 * @param idAula                      ID del aula de las reservas
+	 * @param fechaDesde                  Fecha desde la que se guardan las
+	 *                                    operaciones
+	 * @param fechaHoraOperacion          Fecha y hora de la operación
+	 * @param usuarioResponsableOperacion Usuario que realiza la operación
+	 * 
+	 * @return Número de operaciones guardadas
+	 */
+	int insertEliminacionReservasAula(Integer idAula, LocalDate fechaDesde, LocalDateTime fechaHoraOperacion,
+			String usuarioResponsableOperacion);
+
+	/**
+	 * Función que guarda la operación de eliminación de las reservas (de un solo
+	 * día) realizadas por el propietario pasado o de las aulas ubicadas en él o de
+	 * su propiedad, a partir de la fecha pasada, con una única sentencia INSERT
+	 * ... SELECT, sin leer las reservas.
+	 * 
+	 * Los IDs de las operaciones se obtienen igual que en
+	 * insertEliminacionReservasAula.
+	 * 
+	 * @param idPropietario               ID del propietario
+	 * @param fechaDesde                  Fecha desde la que se guardan las
+	 *                                    operaciones
+	 * @param fechaHoraOperacion          Fecha y hora de la operación
+	 * @param usuarioResponsableOperacion Usuario que realiza la operación
+	 * 
+	 * @return Número de operaciones guardadas
+	 */
+	int insertEliminacionReservasPropietario(String idPropietario, LocalDate fechaDesde,
+			LocalDateTime fechaHoraOperacion, String usuarioResponsableOperacion);
+}
@@ -0,0 +1,125 @@
+package gestionaulasinformatica.backend.repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+
+import org.hibernate.jpa.QueryHints;
+import org.hibernate.query.NativeQuery;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import gestionaulasinformatica.backend.data.TipoOperacionHR;
+import gestionaulasinformatica.backend.entity.HistoricoReservas;
+
+/**
+ * Implementación de las consultas propias del repositorio de la entidad
+ * HistoricoReservas.
+ * 
+ * @author Lisa
+ *
+ */
+public class IHistoricoReservasRepositoryCustomImpl implements IHistoricoReservasRepositoryCustom {
+	private static final String SQL_ELIMINACION_RESERVAS = "INSERT INTO public.historico_reservas (id_operacion, "
+			+ "fecha_operacion, tipo_operacion, motivo_reserva, fecha_reserva, hora_inicio_reserva, hora_fin_reserva, "
+			+ "lugar_reserva, a_cargo_de_reserva, usuario_responsable_operacion, propietario_responsable_operacion) "
+			+ "SELECT nextval('public.historico_reservas_id_operacion_seq'), :fechaHoraOperacion, :tipoOperacion, "
+			+ "r.motivo, r.fecha, r.hora_inicio, r.hora_fin, r.lugar, r.a_cargo_de, :usuario, r.propietario_aula FROM ";
+	private static final String SQL_RESERVAS = "SELECT r.motivo, r.fecha, r.hora_inicio, r.hora_fin, "
+			+ "a.nombre_aula || ' - ' || c.nombre_propietario_aula AS lugar, r.a_cargo_de, a.propietario_aula "
+			+ "FROM public.reserva r JOIN public.aula a ON a.id_aula = r.id_aula "
+			+ "JOIN public.propietario_aula c ON c.id_propietario_aula = a.ubicacion_centro "
+			+ "WHERE r.fecha >= :fechaDesde ";
+	private static final String SQL_ELIMINACION_RESERVAS_AULA = SQL_ELIMINACION_RESERVAS + "(" + SQL_RESERVAS
+			+ "AND r.id_aula = :idAula) r";
+	// Las reservas hechas por el propietario y las de sus aulas (hechas por otros)
+	// se obtienen por separado, para que cada parte use su índice
+	private static final String SQL_ELIMINACION_RESERVAS_PROPIETARIO = SQL_ELIMINACION_RESERVAS + "("
+			+ SQL_RESERVAS + "AND r.propietario_responsable = :idPropietario UNION ALL " + SQL_RESERVAS
+			+ "AND (a.ubicacion_centro = :idPropietario OR a.propietario_aula = :idPropietario) "
+			+ "AND r.propietario_responsable <> :idPropietario) r";
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Override
+	public List<HistoricoReservas> findAll(Specification<HistoricoReservas> spec, int offset, int limit, Sort sort) {
+		return crearConsulta(spec, sort).setFirstResult(offset).setMaxResults(limit).getResultList();
+	}
+
+	@Override
+	public Stream<HistoricoReservas> stream(Specification<HistoricoReservas> spec, Sort sort, int fetchSize) {
+		return crearConsulta(spec, sort).setHint(QueryHints.HINT_FETCH_SIZE, fetchSize)
+				.setHint(QueryHints.HINT_READONLY, true).getResultStream().peek(entityManager::detach);
+	}
+
+	@Override
+	public int insertEliminacionReservasAula(Integer idAula, LocalDate fechaDesde, LocalDateTime fechaHoraOperacion,
+			String usuarioResponsableOperacion) {
+		return crearInsercionEliminacion(SQL_ELIMINACION_RESERVAS_AULA, fechaDesde, fechaHoraOperacion,
+				usuarioResponsableOperacion).setParameter("idAula", idAula).executeUpdate();
+	}
+
+	@Override
+	public int insertEliminacionReservasPropietario(String idPropietario, LocalDate fechaDesde,
+			LocalDateTime fechaHoraOperacion, String usuarioResponsableOperacion) {
+		return crearInsercionEliminacion(SQL_ELIMINACION_RESERVAS_PROPIETARIO, fechaDesde, fechaHoraOperacion,
+				usuarioResponsableOperacion).setParameter("idPropietario", idPropietario).executeUpdate();
+	}
+
+	/**
+	 * Función que crea la sentencia de inserción de las operaciones de
+	 * eliminación pasada, con los parámetros comunes ya asignados.
+	 * 
+	 * @param sql                         Sentencia INSERT ... SELECT
+	 * @param fechaDesde                  Fecha desde la que se guardan las
+	 *                                    operaciones
+	 * @param fechaHoraOperacion          Fecha y hora de la operación
+	 * @param usuarioResponsableOperacion Usuario que realiza la operación
+	 * 
+	 * @return Sentencia de inserción
+	 */
+	private NativeQuery<?> crearInsercionEliminacion(String sql, LocalDate fechaDesde,
+			LocalDateTime fechaHoraOperacion, String usuarioResponsableOperacion) {
+		return entityManager.createNativeQuery(sql).unwrap(NativeQuery.class)
+				.addSynchronizedEntityClass(HistoricoReservas.class)
+				.setParameter("fechaHoraOperacion", fechaHoraOperacion)
+				.setParameter("tipoOperacion", TipoOperacionHR.ELIMINACIÓN.name())
+				.setParameter("usuario", usuarioResponsableOperacion)
+				.setParameter("fechaDesde", fechaDesde);
+	}
+
+	/**
+	 * Función que crea la consulta de las operaciones que cumplen con la
+	 * especificación pasada, en el orden indicado.
+	 * 
+	 * @param spec Especificación con los filtros
+	 * @param sort Orden de las operaciones
+	 * 
+	 * @return Consulta de las operaciones
+	 */
+	private TypedQuery<HistoricoReservas> crearConsulta(Specification<HistoricoReservas> spec, Sort sort) {
+		CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+		CriteriaQuery<HistoricoReservas> query = cb.createQuery(HistoricoReservas.class);
+		Root<HistoricoReservas> root = query.from(HistoricoReservas.class);
+		Predicate predicate = spec == null ? null : spec.toPredicate(root, query, cb);
+
+		if (predicate != null) {
+			query.where(predicate);
+		}
+		query.orderBy(QueryUtils.toOrders(sort, root, cb));
+
+		return entityManager.createQuery(query);
+	}
+}
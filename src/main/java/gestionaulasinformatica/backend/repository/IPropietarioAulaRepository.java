@@ -1,13 +1,24 @@
 package gestionaulasinformatica.backend.repository;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_CACHE_REGION;
+
 // Imports Java
 import java.util.List;
 
+import javax.persistence.QueryHint;
+
 // Imports SpringFramework
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import gestionaulasinformatica.backend.cache.CacheDatosReferencia;
 import gestionaulasinformatica.backend.entity.PropietarioAula;
 import gestionaulasinformatica.backend.entity.Usuario;
 
@@ -19,14 +30,44 @@ import gestionaulasinformatica.backend.entity.Usuario;
  *
  */
 public interface IPropietarioAulaRepository extends JpaRepository<PropietarioAula, String> {
-	@Query("SELECT p FROM PropietarioAula p "
-			+ "WHERE lower(p.nombrePropietarioAula) LIKE lower(concat('%', :filtroTexto, '%')) "
-			+ "ORDER BY nombrePropietarioAula ASC")
-	List<PropietarioAula> buscarPropietario(@Param("filtroTexto") String filtroTexto);
+	@Override
+	@QueryHints({ @QueryHint(name = HINT_CACHEABLE, value = "true"),
+			@QueryHint(name = HINT_CACHE_REGION, value = CacheDatosReferencia.REGION_CONSULTAS_PROPIETARIOS) })
+	List<PropietarioAula> findAll(Sort sort);
+
+	// Con pg_trgm el LIKE '%...%' sobre lower(nombre_propietario_aula) usa el
+	// índice GIN de trigramas "IDX_PropietarioAula_Nombre_Trgm"
+	@Query(value = "SELECT p.* FROM public.propietario_aula p "
+			+ "WHERE lower(p.nombre_propietario_aula) LIKE '%' || :filtro || '%' ESCAPE '\\' "
+			+ "ORDER BY CASE WHEN lower(p.nombre_propietario_aula) LIKE :filtro || '%' ESCAPE '\\' THEN 0 "
+			+ "WHEN lower(p.nombre_propietario_aula) LIKE '% ' || :filtro || '%' ESCAPE '\\' THEN 1 "
+			+ "ELSE 2 END, lower(p.nombre_propietario_aula)",
+			countQuery = "SELECT count(*) FROM public.propietario_aula p "
+					+ "WHERE lower(p.nombre_propietario_aula) LIKE '%' || :filtro || '%' ESCAPE '\\'",
+			nativeQuery = true)
+	Page<PropietarioAula> buscarPropietario(@Param("filtro") String filtro, Pageable pageable);
+
+	@QueryHints({ @QueryHint(name = HINT_CACHEABLE, value = "true"),
+			@QueryHint(name = HINT_CACHE_REGION, value = CacheDatosReferencia.REGION_CONSULTAS_PROPIETARIOS) })
+	List<PropietarioAula> findByNombrePropietarioAulaStartingWithIgnoreCase(String prefijoNombre, Pageable pageable);
 
+	@QueryHints({ @QueryHint(name = HINT_CACHEABLE, value = "true"),
+			@QueryHint(name = HINT_CACHE_REGION, value = CacheDatosReferencia.REGION_CONSULTAS_PROPIETARIOS) })
+	long countByNombrePropietarioAulaStartingWithIgnoreCase(String prefijoNombre);
+
+	@QueryHints({ @QueryHint(name = HINT_CACHEABLE, value = "true"),
+			@QueryHint(name = HINT_CACHE_REGION, value = CacheDatosReferencia.REGION_CONSULTAS_PROPIETARIOS) })
 	@Query("SELECT c FROM Centro c ORDER BY nombrePropietarioAula ASC")
 	List<PropietarioAula> findAllCentros();
 
+	@QueryHints({ @QueryHint(name = HINT_CACHEABLE, value = "true"),
+			@QueryHint(name = HINT_CACHE_REGION, value = CacheDatosReferencia.REGION_CONSULTAS_PROPIETARIOS) })
 	@Query("SELECT p FROM PropietarioAula p " + "WHERE p.usuarioResponsable = :usuarioLogeado " + "ORDER BY nombrePropietarioAula ASC")
 	List<PropietarioAula> findAllPropietariosResponsable(@Param("usuarioLogeado") Usuario usuarioLogeado);
+
+	boolean existsByUsuarioResponsable(Usuario usuarioResponsable);
+
+	@Modifying(flushAutomatically = true)
+	@Query("DELETE FROM PropietarioAula p WHERE p.idPropietarioAula = :idPropietarioP")
+	int deletePropietario(@Param("idPropietarioP") String idPropietario);
 }
@@ -0,0 +1,79 @@
+package gestionaulasinformatica.backend.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import gestionaulasinformatica.backend.entity.Aula;
+import gestionaulasinformatica.backend.entity.PropietarioAula;
+import gestionaulasinformatica.backend.entity.ReservaPeriodica;
+
+/**
+ * Repositorio para la entidad ReservaPeriodica con clave primaria de tipo
+ * Integer.
+ * 
+ * @author Lisa
+ *
+ */
+public interface IReservaPeriodicaRepository
+		extends JpaRepository<ReservaPeriodica, Integer>, JpaSpecificationExecutor<ReservaPeriodica> {
+
+	@Override
+	@EntityGraph("ReservaPeriodica.listado")
+	List<ReservaPeriodica> findAll(Specification<ReservaPeriodica> spec);
+
+	@EntityGraph("ReservaPeriodica.listado")
+	@Query("SELECT r FROM ReservaPeriodica r WHERE r.aula = :aulaP AND r.fechaFin >= :fechaP")
+	List<ReservaPeriodica> findAllReservasPeriodicasAulaAndFechaDesde(@Param("aulaP") Aula aula,
+			@Param("fechaP") LocalDate fecha);
+
+	@EntityGraph("ReservaPeriodica.listado")
+	@Query("SELECT r FROM ReservaPeriodica r WHERE r.fechaFin >= :fechaP AND (r.propietarioResponsable = :propietarioP "
+			+ "OR r.aula IN (SELECT a FROM Aula a WHERE a.ubicacionCentro = :propietarioP "
+			+ "OR a.propietarioAula = :propietarioP))")
+	List<ReservaPeriodica> findAllReservasPeriodicasPropietarioAndFechaDesde(
+			@Param("propietarioP") PropietarioAula propietario, @Param("fechaP") LocalDate fecha);
+
+	boolean existsByAulaAndFechaFinGreaterThanEqual(Aula aula, LocalDate fecha);
+
+	long countByAulaAndFechaFinGreaterThanEqual(Aula aula, LocalDate fecha);
+
+	@Query("SELECT count(r) FROM ReservaPeriodica r WHERE r.fechaFin >= :fechaP "
+			+ "AND (r.propietarioResponsable = :propietarioP OR r.aula IN (SELECT a FROM Aula a "
+			+ "WHERE a.ubicacionCentro = :propietarioP OR a.propietarioAula = :propietarioP))")
+	long countReservasPeriodicasPropietarioAndFechaDesde(@Param("propietarioP") PropietarioAula propietario,
+			@Param("fechaP") LocalDate fecha);
+
+	// Los días cancelados son una colección de la entidad y el DELETE de JPQL no
+	// los elimina, por lo que se eliminan antes que las reservas periódicas
+	@Modifying(flushAutomatically = true)
+	@Query(value = "DELETE FROM public.reserva_periodica_excepcion WHERE id_reserva_periodica IN "
+			+ "(SELECT r.id_reserva_periodica FROM public.reserva_periodica r WHERE r.id_aula = :idAula)",
+			nativeQuery = true)
+	int deleteAllExcepcionesAula(@Param("idAula") Integer idAula);
+
+	@Modifying(flushAutomatically = true)
+	@Query(value = "DELETE FROM public.reserva_periodica_excepcion WHERE id_reserva_periodica IN "
+			+ "(SELECT r.id_reserva_periodica FROM public.reserva_periodica r "
+			+ "WHERE r.propietario_responsable = :idPropietario OR r.id_aula IN (SELECT a.id_aula FROM public.aula a "
+			+ "WHERE a.ubicacion_centro = :idPropietario OR a.propietario_aula = :idPropietario))",
+			nativeQuery = true)
+	int deleteAllExcepcionesPropietario(@Param("idPropietario") String idPropietario);
+
+	@Modifying(flushAutomatically = true)
+	@Query("DELETE FROM ReservaPeriodica r WHERE r.aula = :aulaP")
+	int deleteAllReservasPeriodicasAula(@Param("aulaP") Aula aula);
+
+	@Modifying(flushAutomatically = true)
+	@Query("DELETE FROM ReservaPeriodica r WHERE r.propietarioResponsable = :propietarioP OR r.aula IN "
+			+ "(SELECT a FROM Aula a WHERE a.ubicacionCentro = :propietarioP OR a.propietarioAula = :propietarioP)")
+	int deleteAllReservasPeriodicasPropietario(@Param("propietarioP") PropietarioAula propietario);
+
+}
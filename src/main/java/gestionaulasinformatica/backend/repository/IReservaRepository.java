@@ -1,14 +1,20 @@
 package gestionaulasinformatica.backend.repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import gestionaulasinformatica.backend.entity.Aula;
+import gestionaulasinformatica.backend.entity.PropietarioAula;
 import gestionaulasinformatica.backend.entity.Reserva;
 
 /**
@@ -17,9 +23,46 @@ import gestionaulasinformatica.backend.entity.Reserva;
  * @author Lisa
  *
  */
-public interface IReservaRepository extends JpaRepository<Reserva, Integer>, JpaSpecificationExecutor<Reserva> {
+public interface IReservaRepository
+		extends JpaRepository<Reserva, Integer>, JpaSpecificationExecutor<Reserva>, IReservaRepositoryCustom {
 
+	@Override
+	@EntityGraph("Reserva.listado")
+	List<Reserva> findAll();
+
+	@Override
+	@EntityGraph("Reserva.listado")
+	List<Reserva> findAll(Specification<Reserva> spec, Sort sort);
+
+	@EntityGraph("Reserva.listado")
 	@Query("SELECT r FROM Reserva r WHERE r.aula = :aulaP AND r.fecha >= :fechaP")
 	List<Reserva> findAllReservasAulaAndFechaDesde(@Param("aulaP") Aula aula, @Param("fechaP") LocalDate fecha);
 
+	boolean existsByAulaAndFechaGreaterThanEqual(Aula aula, LocalDate fecha);
+
+	long countByAulaAndFechaGreaterThanEqual(Aula aula, LocalDate fecha);
+
+	@Query("SELECT count(r) FROM Reserva r WHERE r.fecha >= :fechaP AND (r.propietarioResponsable = :propietarioP "
+			+ "OR r.aula IN (SELECT a FROM Aula a WHERE a.ubicacionCentro = :propietarioP "
+			+ "OR a.propietarioAula = :propietarioP))")
+	long countReservasPropietarioAndFechaDesde(@Param("propietarioP") PropietarioAula propietario,
+			@Param("fechaP") LocalDate fecha);
+
+	@EntityGraph("Reserva.listado")
+	@Query("SELECT r FROM Reserva r WHERE r.idReserva IN :idsP")
+	List<Reserva> findAllReservasIds(@Param("idsP") Collection<Integer> ids);
+
+	@Modifying(flushAutomatically = true)
+	@Query("DELETE FROM Reserva r WHERE r.idReserva IN :idsP")
+	int deleteAllReservasIds(@Param("idsP") Collection<Integer> ids);
+
+	@Modifying(flushAutomatically = true)
+	@Query("DELETE FROM Reserva r WHERE r.aula = :aulaP")
+	int deleteAllReservasAula(@Param("aulaP") Aula aula);
+
+	@Modifying(flushAutomatically = true)
+	@Query("DELETE FROM Reserva r WHERE r.propietarioResponsable = :propietarioP OR r.aula IN "
+			+ "(SELECT a FROM Aula a WHERE a.ubicacionCentro = :propietarioP OR a.propietarioAula = :propietarioP)")
+	int deleteAllReservasPropietario(@Param("propietarioP") PropietarioAula propietario);
+
 }
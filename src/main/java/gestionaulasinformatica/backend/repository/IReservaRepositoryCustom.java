@@ -0,0 +1,31 @@
+package gestionaulasinformatica.backend.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import gestionaulasinformatica.backend.data.ReservaFila;
+import gestionaulasinformatica.backend.entity.Reserva;
+
+/**
+ * Consultas propias del repositorio de la entidad Reserva que no se pueden
+ * obtener con los métodos de Spring Data.
+ * 
+ * @author Lisa
+ *
+ */
+public interface IReservaRepositoryCustom {
+
+	/**
+	 * Función que devuelve las filas (sólo las columnas que se muestran en los
+	 * listados) de las reservas que cumplen con la especificación pasada, sin
+	 * cargar las entidades en el contexto de persistencia.
+	 * 
+	 * @param spec Especificación con los filtros
+	 * @param sort Orden de las reservas
+	 * 
+	 * @return Lista con las filas de las reservas
+	 */
+	List<ReservaFila> findFilas(Specification<Reserva> spec, Sort sort);
+}
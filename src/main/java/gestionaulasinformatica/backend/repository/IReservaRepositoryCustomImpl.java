@@ -0,0 +1,54 @@
+package gestionaulasinformatica.backend.repository;
+
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import gestionaulasinformatica.backend.data.ReservaFila;
+import gestionaulasinformatica.backend.entity.Aula;
+import gestionaulasinformatica.backend.entity.PropietarioAula;
+import gestionaulasinformatica.backend.entity.Reserva;
+
+/**
+ * Implementación de las consultas propias del repositorio de la entidad
+ * Reserva.
+ * 
+ * @author Lisa
+ *
+ */
+public class IReservaRepositoryCustomImpl implements IReservaRepositoryCustom {
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Override
+	public List<ReservaFila> findFilas(Specification<Reserva> spec, Sort sort) {
+		CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+		CriteriaQuery<ReservaFila> query = cb.createQuery(ReservaFila.class);
+		Root<Reserva> root = query.from(Reserva.class);
+		Join<Reserva, Aula> aula = root.join("aula");
+		Join<Aula, PropietarioAula> centro = aula.join("ubicacionCentro");
+		Predicate predicate = spec == null ? null : spec.toPredicate(root, query, cb);
+
+		query.select(cb.construct(ReservaFila.class, root.get("idReserva"), root.get("fecha"), root.get("diaSemana"),
+				root.get("horaInicio"), root.get("horaFin"), aula.get("nombreAula"),
+				centro.get("nombrePropietarioAula"), root.get("motivo"), root.get("aCargoDe"),
+				root.get("usuarioResponsable"), root.get("propietarioResponsable").get("idPropietarioAula")));
+		if (predicate != null) {
+			query.where(predicate);
+		}
+		query.orderBy(QueryUtils.toOrders(sort, root, cb));
+
+		return entityManager.createQuery(query).getResultList();
+	}
+}
@@ -21,9 +21,17 @@ public interface IUsuarioRepository extends JpaRepository<Usuario, Integer> {
 	long countByCorreoUsuarioLikeIgnoreCaseOrNombreUsuarioLikeIgnoreCaseOrApellidosUsuarioLikeIgnoreCaseOrRolUsuarioLikeIgnoreCase(
 			String correoUsuarioLike, String nombreUsuarioLike, String apellidosUsuarioLike, String rolUsuarioLike);
 
-	@Query("SELECT u FROM Usuario u " + "WHERE lower(u.nombreUsuario) LIKE lower(concat('%', :filtroTexto, '%'))"
-			+ "OR lower(u.apellidosUsuario) like lower(concat('%', :filtroTexto, '%'))" + "ORDER BY nombreUsuario ASC")
-	List<Usuario> buscarUsuario(@Param("filtroTexto") String filtroTexto);
+	// Con pg_trgm el LIKE '%...%' sobre lower(nombre || ' ' || apellidos) usa el
+	// índice GIN de trigramas "IDX_Usuario_NombreApellidos_Trgm"
+	@Query(value = "SELECT u.* FROM public.usuario u "
+			+ "WHERE lower(u.nombre || ' ' || u.apellidos) LIKE '%' || :filtro || '%' ESCAPE '\\' "
+			+ "ORDER BY CASE WHEN lower(u.nombre || ' ' || u.apellidos) LIKE :filtro || '%' ESCAPE '\\' THEN 0 "
+			+ "WHEN lower(u.nombre || ' ' || u.apellidos) LIKE '% ' || :filtro || '%' ESCAPE '\\' THEN 1 "
+			+ "ELSE 2 END, lower(u.nombre || ' ' || u.apellidos)",
+			countQuery = "SELECT count(*) FROM public.usuario u "
+					+ "WHERE lower(u.nombre || ' ' || u.apellidos) LIKE '%' || :filtro || '%' ESCAPE '\\'",
+			nativeQuery = true)
+	Page<Usuario> buscarUsuario(@Param("filtro") String filtro, Pageable pageable);
 
 	List<Usuario> findByRolUsuarioLikeIgnoreCase(String rolUsuario);
 }
\ No newline at end of file
@@ -2,18 +2,39 @@ package gestionaulasinformatica.backend.service;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import javax.transaction.Transactional;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
+import gestionaulasinformatica.backend.cache.CacheConsultasPublicas;
+import gestionaulasinformatica.backend.cache.CacheDatosReferencia;
+import gestionaulasinformatica.backend.conexion.LimiteConsultasPublicas;
+import gestionaulasinformatica.backend.data.AulaFila;
+import gestionaulasinformatica.backend.data.PaginaPorPosicion;
 import gestionaulasinformatica.backend.entity.Aula;
 import gestionaulasinformatica.backend.entity.PropietarioAula;
+import gestionaulasinformatica.backend.entity.ReservaPeriodica;
+import gestionaulasinformatica.backend.entity.Usuario;
+import gestionaulasinformatica.backend.ocupacion.IndiceOcupacionAulas;
 import gestionaulasinformatica.backend.repository.IAulaRepository;
+import gestionaulasinformatica.backend.repository.IReservaPeriodicaRepository;
+import gestionaulasinformatica.backend.repository.IReservaRepository;
 import gestionaulasinformatica.backend.specification.AulaSpecification;
+import gestionaulasinformatica.backend.specification.ReservaPeriodicaSpecification;
+import gestionaulasinformatica.exceptions.ConsultasSaturadasException;
 
 /**
  * Service para la entidad Aula.
@@ -24,16 +45,56 @@ import gestionaulasinformatica.backend.specification.AulaSpecification;
 @Service
 public class AulaService {
 	private static final Logger LOGGER = LoggerFactory.getLogger(AulaService.class.getName());
+	private static final Sort ORDEN_NOMBRE_AULA = Sort.by(Sort.Direction.ASC, "nombreAula");
 	private IAulaRepository aulaRepository;
+	private IReservaPeriodicaRepository reservaPeriodicaRepository;
+	private IReservaRepository reservaRepository;
+	private HistoricoReservasService historicoReservasService;
+	private IndiceOcupacionAulas indiceOcupacion;
+	private CacheDatosReferencia cacheDatosReferencia;
+	private CacheConsultasPublicas cacheConsultasPublicas;
+	private LimiteConsultasPublicas limiteConsultasPublicas;
+	private boolean usarIndiceOcupacion;
+	private boolean usarRangosPostgreSQL;
 
 	/**
 	 * Constructor del service.
 	 * 
-	 * @param aulaRepository Repositorio de la entidad Aula
+	 * @param aulaRepository             Repositorio de la entidad Aula
+	 * @param reservaPeriodicaRepository Repositorio de la entidad ReservaPeriodica
+	 * @param reservaRepository          Repositorio de la entidad Reserva
+	 * @param historicoReservasService   Service de la entidad HistoricoReservas
+	 * @param indiceOcupacion            Índice en memoria de la ocupación de las
+	 *                                   aulas
+	 * @param cacheDatosReferencia       Cache de los datos de referencia
+	 * @param cacheConsultasPublicas     Cache de los resultados de las consultas
+	 *                                   públicas
+	 * @param limiteConsultasPublicas    Límite de las consultas públicas que se
+	 *                                   ejecutan a la vez
+	 * @param usarIndiceOcupacion        Si la disponibilidad de las aulas se
+	 *                                   obtiene del índice en memoria (true) o de
+	 *                                   la BD (false)
+	 * @param usarRangosPostgreSQL       Si, al consultar la disponibilidad en la
+	 *                                   BD, se usa la columna periodo de las
+	 *                                   reservas (sólo PostgreSQL)
 	 */
 	@Autowired
-	public AulaService(IAulaRepository aulaRepository) {
+	public AulaService(IAulaRepository aulaRepository, IReservaPeriodicaRepository reservaPeriodicaRepository,
+			IReservaRepository reservaRepository, HistoricoReservasService historicoReservasService,
+			IndiceOcupacionAulas indiceOcupacion, CacheDatosReferencia cacheDatosReferencia,
+			CacheConsultasPublicas cacheConsultasPublicas, LimiteConsultasPublicas limiteConsultasPublicas,
+			@Value("${gestionaulas.ocupacion.indice-memoria:true}") boolean usarIndiceOcupacion,
+			@Value("${gestionaulas.ocupacion.rangos-postgresql:false}") boolean usarRangosPostgreSQL) {
 		this.aulaRepository = aulaRepository;
+		this.reservaPeriodicaRepository = reservaPeriodicaRepository;
+		this.reservaRepository = reservaRepository;
+		this.historicoReservasService = historicoReservasService;
+		this.indiceOcupacion = indiceOcupacion;
+		this.cacheDatosReferencia = cacheDatosReferencia;
+		this.cacheConsultasPublicas = cacheConsultasPublicas;
+		this.limiteConsultasPublicas = limiteConsultasPublicas;
+		this.usarIndiceOcupacion = usarIndiceOcupacion;
+		this.usarRangosPostgreSQL = usarRangosPostgreSQL;
 	}
 
 	/**
@@ -62,6 +123,71 @@ public class AulaService {
 		}
 	}
 
+	/**
+	 * Función que devuelve un bloque de las aulas del centro o departamento
+	 * seleccionado cuyo nombre empieza por el prefijo, ordenadas por nombre. Se
+	 * usa para cargar los desplegables de aulas según se despliegan o se escribe
+	 * en ellos.
+	 * 
+	 * @param propietarioAula Propietario del que se quieren obtener las aulas
+	 * @param prefijo         Prefijo del nombre del aula
+	 * @param offset          Posición de la primera aula del bloque
+	 * @param limit           Número máximo de aulas del bloque
+	 * 
+	 * @return Lista con las aulas del bloque, vacía si no hay propietario
+	 *         seleccionado
+	 */
+	public List<Aula> findAulasPropietario(PropietarioAula propietarioAula, String prefijo, int offset,
+			int limit) {
+		if (propietarioAula == null) {
+			return Collections.emptyList();
+		}
+		return aulaRepository.findByPropietarioAulaAndNombreAulaStartingWithIgnoreCase(propietarioAula,
+				prefijo == null ? "" : prefijo, new PaginaPorPosicion(offset, limit, ORDEN_NOMBRE_AULA));
+	}
+
+	/**
+	 * Función que devuelve el número de aulas del centro o departamento
+	 * seleccionado cuyo nombre empieza por el prefijo.
+	 * 
+	 * @param propietarioAula Propietario del que se quieren obtener las aulas
+	 * @param prefijo         Prefijo del nombre del aula
+	 * 
+	 * @return Número de aulas del propietario que empiezan por el prefijo, 0 si
+	 *         no hay propietario seleccionado
+	 */
+	public long countAulasPropietario(PropietarioAula propietarioAula, String prefijo) {
+		if (propietarioAula == null) {
+			return 0;
+		}
+		return aulaRepository.countByPropietarioAulaAndNombreAulaStartingWithIgnoreCase(propietarioAula,
+				prefijo == null ? "" : prefijo);
+	}
+
+	/**
+	 * Función que comprueba si el aula pasada está disponible el día y entre las
+	 * horas pasadas, en el índice en memoria o en la BD según la configuración.
+	 * 
+	 * @param idAula             ID del aula
+	 * @param fecha              Fecha en la que debe estar disponible el aula
+	 * @param horaDesde          Hora desde la que debe estar disponible el aula
+	 * @param horaHasta          Hora hasta la que debe estar disponible el aula
+	 * @param idReserva          ID de la reserva que se está modificando
+	 * @param idReservaPeriodica ID de la reserva periódica de la ocurrencia que
+	 *                           se está modificando
+	 * 
+	 * @return Si el aula está disponible o no
+	 */
+	public boolean isDisponible(Integer idAula, LocalDate fecha, LocalTime horaDesde, LocalTime horaHasta,
+			Integer idReserva, Integer idReservaPeriodica) {
+		if (usarIndiceOcupacion) {
+			return indiceOcupacion.isDisponible(idAula, fecha, fecha, horaDesde, horaHasta, null, idReserva,
+					idReservaPeriodica);
+		}
+		return !findAllAulasDisponiblesFiltros(fecha, fecha, horaDesde, horaHasta, null, null, null, null, idAula,
+				idReserva, idReservaPeriodica).isEmpty();
+	}
+
 	/**
 	 * Función que devuelve una lista con todas las aulas disponibles que hay en la
 	 * BD que cumplen con los filtros aplicados.
@@ -85,11 +211,236 @@ public class AulaService {
 	public List<Aula> findAllAulasDisponiblesFiltros(LocalDate fechaDesde, LocalDate fechaHasta, LocalTime horaDesde,
 			LocalTime horaHasta, Integer capacidad, Integer numOrdenadores, String diaSemana,
 			PropietarioAula propietario, Integer idAula, Integer idReserva) {
-		return aulaRepository
-				.findAll(
-						AulaSpecification.findByFilters(fechaDesde, fechaHasta, horaDesde, horaHasta, capacidad,
-								numOrdenadores, diaSemana, propietario, idAula, idReserva),
-						Sort.by(Sort.Direction.ASC, "nombreAula"));
+		return findAllAulasDisponiblesFiltros(fechaDesde, fechaHasta, horaDesde, horaHasta, capacidad, numOrdenadores,
+				diaSemana, propietario, idAula, idReserva, null);
+	}
+
+	/**
+	 * Función que devuelve una lista con todas las aulas disponibles que hay en la
+	 * BD que cumplen con los filtros aplicados, sin tener en cuenta la reserva
+	 * periódica pasada (cuando se modifica una de sus ocurrencias).
+	 * 
+	 * @param fechaDesde         Fecha desde la que debe estar disponible el aula
+	 * @param fechaHasta         Fecha hasta la que debe estar disponible el aula
+	 * @param horaDesde          Hora desde la que debe estar disponible el aula
+	 * @param horaHasta          Hora hasta la que debe estar disponible el aula
+	 * @param capacidad          Capacidad mínima del aula
+	 * @param numOrdenadores     Número de ordenadores mínimo que debe tener el
+	 *                           aula
+	 * @param diaSemana          Día de la semana que debe estar disponible el aula
+	 * @param propietario        Propietario del aula
+	 * @param idAula             ID del aula que debe estar disponible
+	 * @param idReserva          ID de la reserva que se está modificando
+	 * @param idReservaPeriodica ID de la reserva periódica de la ocurrencia que se
+	 *                           está modificando
+	 * 
+	 * @return Lista con todas las aulas disponibles que hay en la BD que cumplen
+	 *         con los filtros aplicados
+	 */
+	public List<Aula> findAllAulasDisponiblesFiltros(LocalDate fechaDesde, LocalDate fechaHasta, LocalTime horaDesde,
+			LocalTime horaHasta, Integer capacidad, Integer numOrdenadores, String diaSemana,
+			PropietarioAula propietario, Integer idAula, Integer idReserva, Integer idReservaPeriodica) {
+		return findAulasDisponibles(aulaRepository::findAll, Aula::getIdAula, fechaDesde, fechaHasta, horaDesde,
+				horaHasta, capacidad, numOrdenadores, diaSemana, propietario, idAula, idReserva, idReservaPeriodica);
+	}
+
+	/**
+	 * Función que devuelve las filas (sólo las columnas que se muestran en la
+	 * consulta pública de aulas) de las aulas disponibles que cumplen con los
+	 * filtros aplicados. Se comprueba la disponibilidad igual que en
+	 * findAllAulasDisponiblesFiltros, pero las aulas no se cargan como entidades.
+	 * 
+	 * Los resultados se guardan en la cache de consultas públicas, por lo que las
+	 * consultas repetidas con los mismos filtros no llegan a la BD.
+	 * 
+	 * Las que llegan a la BD usan el pool de conexiones de las consultas públicas
+	 * y esperan su turno si ya hay demasiadas en curso (LimiteConsultasPublicas).
+	 * 
+	 * @param fechaDesde     Fecha desde la que debe estar disponible el aula
+	 * @param fechaHasta     Fecha hasta la que debe estar disponible el aula
+	 * @param horaDesde      Hora desde la que debe estar disponible el aula
+	 * @param horaHasta      Hora hasta la que debe estar disponible el aula
+	 * @param capacidad      Capacidad mínima del aula
+	 * @param numOrdenadores Número de ordenadores mínimo que debe tener el aula
+	 * @param diaSemana      Día de la semana que debe estar disponible el aula
+	 * @param propietario    Propietario del aula
+	 * @param idAula         ID del aula que debe estar disponible
+	 * 
+	 * @return Lista no modificable con las filas de las aulas disponibles que
+	 *         cumplen con los filtros aplicados
+	 * 
+	 * @throws ConsultasSaturadasException Si hay demasiadas consultas públicas en
+	 *                                     curso
+	 */
+	public List<AulaFila> findAllFilasAulasDisponiblesFiltros(LocalDate fechaDesde, LocalDate fechaHasta,
+			LocalTime horaDesde, LocalTime horaHasta, Integer capacidad, Integer numOrdenadores, String diaSemana,
+			PropietarioAula propietario, Integer idAula) {
+		return cacheConsultasPublicas.getAulasDisponibles(fechaDesde, fechaHasta, horaDesde, horaHasta, capacidad,
+				numOrdenadores, diaSemana, propietario, idAula,
+				() -> limiteConsultasPublicas.ejecutar(() -> consultarFilasAulasDisponibles(fechaDesde, fechaHasta,
+						horaDesde, horaHasta, capacidad, numOrdenadores, diaSemana, propietario, idAula)));
+	}
+
+	/**
+	 * Función que obtiene de la BD (y del índice de ocupación) las filas de las
+	 * aulas disponibles que cumplen con los filtros aplicados.
+	 * 
+	 * @param fechaDesde     Fecha desde la que debe estar disponible el aula
+	 * @param fechaHasta     Fecha hasta la que debe estar disponible el aula
+	 * @param horaDesde      Hora desde la que debe estar disponible el aula
+	 * @param horaHasta      Hora hasta la que debe estar disponible el aula
+	 * @param capacidad      Capacidad mínima del aula
+	 * @param numOrdenadores Número de ordenadores mínimo que debe tener el aula
+	 * @param diaSemana      Día de la semana que debe estar disponible el aula
+	 * @param propietario    Propietario del aula
+	 * @param idAula         ID del aula que debe estar disponible
+	 * 
+	 * @return Lista con las filas de las aulas disponibles que cumplen con los
+	 *         filtros aplicados
+	 */
+	private List<AulaFila> consultarFilasAulasDisponibles(LocalDate fechaDesde, LocalDate fechaHasta,
+			LocalTime horaDesde, LocalTime horaHasta, Integer capacidad, Integer numOrdenadores, String diaSemana,
+			PropietarioAula propietario, Integer idAula) {
+		return findAulasDisponibles(aulaRepository::findFilas, AulaFila::getIdAula, fechaDesde, fechaHasta,
+				horaDesde, horaHasta, capacidad, numOrdenadores, diaSemana, propietario, idAula, null, null);
+	}
+
+	/**
+	 * Función que obtiene con la consulta pasada (de entidades o de filas) las
+	 * aulas disponibles que cumplen con los filtros aplicados. Es el único sitio
+	 * en el que se decide cómo se comprueba la disponibilidad:
+	 * 
+	 * - Con el índice en memoria, si está activo: en la BD sólo se filtran las
+	 * aulas por sus características.
+	 * 
+	 * - Con los rangos de PostgreSQL (columna periodo), si están activos: se
+	 * obtienen los IDs de las aulas ocupadas y se descartan.
+	 * 
+	 * - Si no, con la subconsulta de reservas de AulaSpecification, descartando
+	 * después las aulas ocupadas por reservas periódicas.
+	 * 
+	 * Si no se indica la fecha y las horas, sólo se filtra por las
+	 * características del aula.
+	 * 
+	 * @param <T>                Tipo de los resultados (Aula o AulaFila)
+	 * @param consulta           Consulta de las aulas por Specification y orden
+	 * @param getIdAula          Función que devuelve el ID del aula de un
+	 *                           resultado
+	 * @param fechaDesde         Fecha desde la que debe estar disponible el aula
+	 * @param fechaHasta         Fecha hasta la que debe estar disponible el aula
+	 * @param horaDesde          Hora desde la que debe estar disponible el aula
+	 * @param horaHasta          Hora hasta la que debe estar disponible el aula
+	 * @param capacidad          Capacidad mínima del aula
+	 * @param numOrdenadores     Número de ordenadores mínimo que debe tener el
+	 *                           aula
+	 * @param diaSemana          Día de la semana que debe estar disponible el aula
+	 * @param propietario        Propietario del aula
+	 * @param idAula             ID del aula que debe estar disponible
+	 * @param idReserva          ID de la reserva que se está modificando
+	 * @param idReservaPeriodica ID de la reserva periódica de la ocurrencia que se
+	 *                           está modificando
+	 * 
+	 * @return Lista con las aulas disponibles que cumplen con los filtros
+	 *         aplicados
+	 */
+	private <T> List<T> findAulasDisponibles(BiFunction<Specification<Aula>, Sort, List<T>> consulta,
+			Function<T, Integer> getIdAula, LocalDate fechaDesde, LocalDate fechaHasta, LocalTime horaDesde,
+			LocalTime horaHasta, Integer capacidad, Integer numOrdenadores, String diaSemana,
+			PropietarioAula propietario, Integer idAula, Integer idReserva, Integer idReservaPeriodica) {
+		List<T> lstAulas;
+		Set<Integer> lstIdAulasOcupadas;
+		LocalDate fechaHastaFranja = fechaHasta == null ? fechaDesde : fechaHasta;
+		boolean conFranja = fechaDesde != null && horaDesde != null && horaHasta != null;
+		Specification<Aula> especificacionCaracteristicas = AulaSpecification.findByFilters(null, null, null, null,
+				capacidad, numOrdenadores, null, propietario, idAula, null);
+
+		if (conFranja && usarIndiceOcupacion) {
+			lstAulas = consulta.apply(especificacionCaracteristicas, ORDEN_NOMBRE_AULA);
+			lstAulas.removeIf(aula -> !indiceOcupacion.isDisponible(getIdAula.apply(aula), fechaDesde,
+					fechaHastaFranja, horaDesde, horaHasta, diaSemana, idReserva, idReservaPeriodica));
+			return lstAulas;
+		}
+
+		if (conFranja && usarRangosPostgreSQL) {
+			lstAulas = consulta.apply(especificacionCaracteristicas, ORDEN_NOMBRE_AULA);
+			lstIdAulasOcupadas = findIdAulasOcupadasRangos(fechaDesde, fechaHastaFranja, horaDesde, horaHasta,
+					diaSemana, idAula, idReserva, idReservaPeriodica);
+		} else {
+			lstAulas = consulta.apply(AulaSpecification.findByFilters(fechaDesde, fechaHasta, horaDesde, horaHasta,
+					capacidad, numOrdenadores, diaSemana, propietario, idAula, idReserva), ORDEN_NOMBRE_AULA);
+			lstIdAulasOcupadas = conFranja
+					? findIdAulasOcupadasReservasPeriodicas(fechaDesde, fechaHastaFranja, horaDesde, horaHasta,
+							diaSemana, idAula, idReservaPeriodica)
+					: Collections.emptySet();
+		}
+
+		lstAulas.removeIf(aula -> lstIdAulasOcupadas.contains(getIdAula.apply(aula)));
+		return lstAulas;
+	}
+
+	/**
+	 * Función que devuelve los IDs de las aulas ocupadas entre las fechas y horas
+	 * pasadas. Las reservas de un solo día se comprueban en PostgreSQL con el
+	 * solape de su rango de fecha y hora (columna periodo, con índice GiST) con el
+	 * rango de cada uno de los días consultados.
+	 * 
+	 * @param fechaDesde         Fecha desde la que debe estar disponible el aula
+	 * @param fechaHasta         Fecha hasta la que debe estar disponible el aula
+	 * @param horaDesde          Hora desde la que debe estar disponible el aula
+	 * @param horaHasta          Hora hasta la que debe estar disponible el aula
+	 * @param diaSemana          Día de la semana que debe estar disponible el aula
+	 * @param idAula             ID del aula, o null para todas las aulas
+	 * @param idReserva          ID de la reserva que no se tiene en cuenta
+	 * @param idReservaPeriodica ID de la reserva periódica que no se tiene en
+	 *                           cuenta
+	 * 
+	 * @return IDs de las aulas ocupadas
+	 */
+	private Set<Integer> findIdAulasOcupadasRangos(LocalDate fechaDesde, LocalDate fechaHasta, LocalTime horaDesde,
+			LocalTime horaHasta, String diaSemana, Integer idAula, Integer idReserva, Integer idReservaPeriodica) {
+		Set<Integer> lstIdAulasOcupadas = new HashSet<>(aulaRepository.findIdAulasOcupadasRangos(fechaDesde,
+				fechaHasta, horaDesde, horaHasta, diaSemana == null ? "" : diaSemana,
+				idReserva == null ? -1 : idReserva));
+
+		lstIdAulasOcupadas.addAll(findIdAulasOcupadasReservasPeriodicas(fechaDesde, fechaHasta, horaDesde, horaHasta,
+				diaSemana, idAula, idReservaPeriodica));
+		return lstIdAulasOcupadas;
+	}
+
+	/**
+	 * Función que devuelve los IDs de las aulas ocupadas por alguna ocurrencia de
+	 * una reserva periódica entre las fechas y horas pasadas. En la BD se filtran
+	 * las reservas periódicas por rango de fechas y horas, y los días de la semana
+	 * y las excepciones se comprueban al obtener sus ocurrencias.
+	 * 
+	 * @param fechaDesde         Fecha desde la que debe estar disponible el aula
+	 * @param fechaHasta         Fecha hasta la que debe estar disponible el aula
+	 * @param horaDesde          Hora desde la que debe estar disponible el aula
+	 * @param horaHasta          Hora hasta la que debe estar disponible el aula
+	 * @param diaSemana          Día de la semana que debe estar disponible el aula
+	 * @param idAula             ID del aula, o null para todas las aulas
+	 * @param idReservaPeriodica ID de la reserva periódica que no se tiene en
+	 *                           cuenta
+	 * 
+	 * @return IDs de las aulas ocupadas por reservas periódicas
+	 */
+	private Set<Integer> findIdAulasOcupadasReservasPeriodicas(LocalDate fechaDesde, LocalDate fechaHasta,
+			LocalTime horaDesde, LocalTime horaHasta, String diaSemana, Integer idAula, Integer idReservaPeriodica) {
+		Set<Integer> lstIdAulasOcupadas = new HashSet<>();
+		int mascaraDiaSemana = ReservaPeriodica.getMascaraDiaSemana(diaSemana);
+
+		for (ReservaPeriodica reservaPeriodica : reservaPeriodicaRepository.findAll(
+				ReservaPeriodicaSpecification.findSolapadas(fechaDesde, fechaHasta, horaDesde, horaHasta, idAula))) {
+			if (reservaPeriodica.getIdReservaPeriodica().equals(idReservaPeriodica)) {
+				continue;
+			}
+
+			if (reservaPeriodica.getFechas(fechaDesde, fechaHasta).stream()
+					.anyMatch(fecha -> (mascaraDiaSemana & (1 << (fecha.getDayOfWeek().getValue() - 1))) != 0)) {
+				lstIdAulasOcupadas.add(reservaPeriodica.getAula().getIdAula());
+			}
+		}
+		return lstIdAulasOcupadas;
 	}
 
 	/**
@@ -106,12 +457,30 @@ public class AulaService {
 	}
 
 	/**
-	 * Función que elimina el aula pasada por parámetro de la BD.
+	 * Función que elimina el aula pasada por parámetro de la BD junto con todas sus
+	 * reservas, y guarda en el histórico la eliminación de las reservas a partir
+	 * de la fecha actual.
 	 * 
-	 * @param aula Aula que se quiere eliminar
+	 * Las reservas y el aula se eliminan con una sentencia DELETE por tabla, sin
+	 * cargar en memoria las colecciones de reservas del aula.
+	 * 
+	 * @param aula        Aula que se quiere eliminar
+	 * @param responsable Usuario que elimina el aula
 	 */
-	public void delete(Aula aula) {
-		aulaRepository.delete(aula);
+	@Transactional
+	public void delete(Aula aula, Usuario responsable) {
+		LocalDate hoy = LocalDate.now();
+
+		historicoReservasService.saveEliminacionReservas(aula.getIdAula(), null,
+				reservaPeriodicaRepository.findAllReservasPeriodicasAulaAndFechaDesde(aula, hoy), hoy, responsable);
+
+		reservaPeriodicaRepository.deleteAllExcepcionesAula(aula.getIdAula());
+		reservaPeriodicaRepository.deleteAllReservasPeriodicasAula(aula);
+		reservaRepository.deleteAllReservasAula(aula);
+		aulaRepository.deleteAula(aula.getIdAula());
+		indiceOcupacion.alConfirmar(() -> indiceOcupacion.eliminarAula(aula.getIdAula()));
+		cacheDatosReferencia.invalidarAulas();
+		cacheConsultasPublicas.invalidarTodo();
 	}
 
 	/**
@@ -125,6 +494,8 @@ public class AulaService {
 			return;
 		}
 		aulaRepository.save(aula);
+		cacheDatosReferencia.invalidarAulas();
+		cacheConsultasPublicas.invalidarTodo();
 	}
 
 }
@@ -0,0 +1,109 @@
+package gestionaulasinformatica.backend.service;
+
+import java.time.LocalDate;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import gestionaulasinformatica.backend.data.ResumenDependencias;
+import gestionaulasinformatica.backend.entity.Aula;
+import gestionaulasinformatica.backend.entity.PropietarioAula;
+import gestionaulasinformatica.backend.entity.Usuario;
+import gestionaulasinformatica.backend.repository.IAulaRepository;
+import gestionaulasinformatica.backend.repository.IPropietarioAulaRepository;
+import gestionaulasinformatica.backend.repository.IReservaPeriodicaRepository;
+import gestionaulasinformatica.backend.repository.IReservaRepository;
+
+/**
+ * Service para comprobar, antes de eliminar un aula, un propietario de aulas o
+ * un usuario, si hay datos que dependen de él.
+ * 
+ * Las comprobaciones se hacen con consultas EXISTS (que se detienen en la
+ * primera fila) o COUNT, sin cargar en memoria las entidades dependientes.
+ * 
+ * @author Lisa
+ *
+ */
+@Service
+public class DependenciasService {
+	private IAulaRepository aulaRepository;
+	private IPropietarioAulaRepository propietarioAulaRepository;
+	private IReservaRepository reservaRepository;
+	private IReservaPeriodicaRepository reservaPeriodicaRepository;
+
+	/**
+	 * Constructor del service.
+	 * 
+	 * @param aulaRepository             Repositorio de la entidad Aula
+	 * @param propietarioAulaRepository  Repositorio de la entidad PropietarioAula
+	 * @param reservaRepository          Repositorio de la entidad Reserva
+	 * @param reservaPeriodicaRepository Repositorio de la entidad ReservaPeriodica
+	 */
+	@Autowired
+	public DependenciasService(IAulaRepository aulaRepository, IPropietarioAulaRepository propietarioAulaRepository,
+			IReservaRepository reservaRepository, IReservaPeriodicaRepository reservaPeriodicaRepository) {
+		this.aulaRepository = aulaRepository;
+		this.propietarioAulaRepository = propietarioAulaRepository;
+		this.reservaRepository = reservaRepository;
+		this.reservaPeriodicaRepository = reservaPeriodicaRepository;
+	}
+
+	/**
+	 * Función que indica si el aula pasada tiene reservas (o reservas periódicas)
+	 * a partir de la fecha actual.
+	 * 
+	 * @param aula Aula que se quiere comprobar
+	 * 
+	 * @return Si el aula tiene reservas a partir de la fecha actual
+	 */
+	public boolean existsReservasAula(Aula aula) {
+		LocalDate hoy = LocalDate.now();
+
+		return reservaRepository.existsByAulaAndFechaGreaterThanEqual(aula, hoy)
+				|| reservaPeriodicaRepository.existsByAulaAndFechaFinGreaterThanEqual(aula, hoy);
+	}
+
+	/**
+	 * Función que devuelve el resumen de las reservas y reservas periódicas del
+	 * aula pasada a partir de la fecha actual, que se eliminarían junto al aula.
+	 * 
+	 * @param aula Aula de la que se quiere obtener el resumen
+	 * 
+	 * @return Resumen de las reservas pendientes del aula
+	 */
+	public ResumenDependencias getResumenAula(Aula aula) {
+		LocalDate hoy = LocalDate.now();
+
+		return new ResumenDependencias(0, reservaRepository.countByAulaAndFechaGreaterThanEqual(aula, hoy),
+				reservaPeriodicaRepository.countByAulaAndFechaFinGreaterThanEqual(aula, hoy));
+	}
+
+	/**
+	 * Función que devuelve el resumen de las aulas (ubicadas en el centro o de
+	 * propiedad del propietario) y de las reservas pendientes de esas aulas o
+	 * realizadas por el propietario, que se eliminarían junto al propietario.
+	 * 
+	 * @param propietario Propietario de aulas del que se quiere obtener el resumen
+	 * 
+	 * @return Resumen de las aulas y reservas pendientes del propietario
+	 */
+	public ResumenDependencias getResumenPropietario(PropietarioAula propietario) {
+		LocalDate hoy = LocalDate.now();
+
+		return new ResumenDependencias(aulaRepository.countAulasPropietario(propietario),
+				reservaRepository.countReservasPropietarioAndFechaDesde(propietario, hoy),
+				reservaPeriodicaRepository.countReservasPeriodicasPropietarioAndFechaDesde(propietario, hoy));
+	}
+
+	/**
+	 * Función que indica si el usuario pasado es responsable de algún centro o
+	 * departamento.
+	 * 
+	 * @param usuario Usuario que se quiere comprobar
+	 * 
+	 * @return Si el usuario es responsable de algún propietario de aulas
+	 */
+	public boolean existsPropietariosResponsable(Usuario usuario) {
+		return propietarioAulaRepository.existsByUsuarioResponsable(usuario);
+	}
+}
@@ -1,15 +1,37 @@
 package gestionaulasinformatica.backend.service;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
+
+import javax.transaction.Transactional;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
+import gestionaulasinformatica.backend.conexion.LecturaReplica;
+import gestionaulasinformatica.backend.data.PaginaHistoricoReservas;
+import gestionaulasinformatica.backend.data.TipoOperacionHR;
 import gestionaulasinformatica.backend.entity.HistoricoReservas;
+import gestionaulasinformatica.backend.entity.Reserva;
+import gestionaulasinformatica.backend.entity.ReservaPeriodica;
+import gestionaulasinformatica.backend.entity.Usuario;
 import gestionaulasinformatica.backend.repository.IHistoricoReservasRepository;
 import gestionaulasinformatica.backend.specification.HistoricoReservasSpecification;
 
@@ -22,6 +44,16 @@ import gestionaulasinformatica.backend.specification.HistoricoReservasSpecificat
 @Service
 public class HistoricoReservasService {
 	private static final Logger LOGGER = LoggerFactory.getLogger(HistoricoReservasService.class.getName());
+	private static final Sort ORDEN_POR_DEFECTO = Sort.by(Sort.Direction.DESC, "fechaHoraOperacion", "idOperacion");
+	private static final String SEPARADOR_CURSOR = ";";
+	private static final int FETCH_SIZE_EXPORTACION = 500;
+	private static final char SEPARADOR_CSV = ';';
+	/** Caracteres con los que una hoja de cálculo interpreta el valor como fórmula */
+	private static final String INICIO_FORMULA_CSV = "=+-@\t\r";
+	private static final String[] CABECERA_CSV = { "Fecha operación", "Operación", "Reserva", "Fecha reserva",
+			"Hora inicio", "Hora fin", "Lugar", "A cargo de", "Usuario responsable", "Propietario responsable" };
+	private static final DateTimeFormatter FORMATO_FECHA_HORA = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
+	private static final DateTimeFormatter FORMATO_FECHA = DateTimeFormatter.ofPattern("dd/MM/yyyy");
 	private IHistoricoReservasRepository historicoReservasRepository;
 
 	/**
@@ -42,6 +74,7 @@ public class HistoricoReservasService {
 	 * @return Lista con todas las operaciones realizadas sobre las reservas que hay
 	 *         en la BD
 	 */
+	@LecturaReplica
 	public List<HistoricoReservas> findAll() {
 		return historicoReservasRepository.findAll();
 	}
@@ -56,21 +89,280 @@ public class HistoricoReservasService {
 	 * @return Lista con todas las operaciones realizadas sobre las reservas que hay
 	 *         en la BD que cumplen con los filtros aplicados
 	 */
+	@LecturaReplica
 	public List<HistoricoReservas> findAll(LocalDate fechaDesde, LocalDate fechaHasta) {
 		return historicoReservasRepository.findAll(HistoricoReservasSpecification.findByFilters(fechaDesde, fechaHasta),
 				Sort.by(Sort.Direction.DESC, "fechaHoraOperacion"));
 	}
 
+	/**
+	 * Función que devuelve un bloque de las operaciones realizadas sobre las
+	 * reservas que cumplen con los filtros aplicados, para cargar el grid del
+	 * histórico de forma paginada.
+	 * 
+	 * @param fechaDesde Fecha desde la que obtener las operaciones
+	 * @param fechaHasta Fecha hasta la que obtener las operaciones
+	 * @param offset     Posición de la primera operación que se quiere obtener
+	 * @param limit      Número máximo de operaciones que se quieren obtener
+	 * @param sort       Orden de las operaciones (se añade el orden por fecha de
+	 *                   operación e ID descendente para que sea estable)
+	 * 
+	 * @return Lista con las operaciones del bloque
+	 */
+	@LecturaReplica
+	public List<HistoricoReservas> findAll(LocalDate fechaDesde, LocalDate fechaHasta, int offset, int limit,
+			Sort sort) {
+		return historicoReservasRepository.findAll(HistoricoReservasSpecification.findByFilters(fechaDesde, fechaHasta),
+				offset, limit, sort.and(ORDEN_POR_DEFECTO));
+	}
+
+	/**
+	 * Función que devuelve un bloque de las operaciones realizadas sobre las
+	 * reservas que cumplen con los filtros aplicados, ordenadas por fecha de
+	 * operación e ID descendentes, a partir del cursor pasado.
+	 * 
+	 * A diferencia de la consulta por posición, el bloque se obtiene buscando en
+	 * el índice la última operación del bloque anterior, de forma que el coste es
+	 * el mismo para el primer bloque que para los del final del histórico.
+	 * 
+	 * @param fechaDesde Fecha desde la que obtener las operaciones
+	 * @param fechaHasta Fecha hasta la que obtener las operaciones
+	 * @param cursor     Cursor devuelto en el bloque anterior (null para obtener
+	 *                   el primer bloque)
+	 * @param tamanio    Número máximo de operaciones del bloque
+	 * 
+	 * @return Bloque de operaciones con el cursor del bloque siguiente
+	 * 
+	 * @throws IllegalArgumentException Si el cursor no es válido
+	 */
+	@LecturaReplica
+	public PaginaHistoricoReservas findPagina(LocalDate fechaDesde, LocalDate fechaHasta, String cursor,
+			int tamanio) {
+		Specification<HistoricoReservas> spec = HistoricoReservasSpecification.findByFilters(fechaDesde, fechaHasta);
+		List<HistoricoReservas> lstOperaciones;
+		HistoricoReservas ultima;
+
+		if (cursor != null) {
+			spec = spec.and(getEspecificacionCursor(cursor));
+		}
+
+		// Se obtiene una operación de más para saber si hay un bloque siguiente
+		lstOperaciones = historicoReservasRepository.findAll(spec, 0, tamanio + 1, ORDEN_POR_DEFECTO);
+
+		if (lstOperaciones.size() <= tamanio) {
+			return new PaginaHistoricoReservas(lstOperaciones, null);
+		}
+
+		lstOperaciones = lstOperaciones.subList(0, tamanio);
+		ultima = lstOperaciones.get(tamanio - 1);
+		return new PaginaHistoricoReservas(lstOperaciones,
+				crearCursor(ultima.getFechaHoraOperacion(), ultima.getIdOperacionHR()));
+	}
+
+	/**
+	 * Función que codifica la posición de una operación en un cursor opaco.
+	 * 
+	 * @param fechaHoraOperacion Fecha y hora de la operación
+	 * @param idOperacion        ID de la operación
+	 * 
+	 * @return Cursor de la operación
+	 */
+	private String crearCursor(LocalDateTime fechaHoraOperacion, Integer idOperacion) {
+		String valor = fechaHoraOperacion + SEPARADOR_CURSOR + idOperacion;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Función que decodifica un cursor y devuelve la especificación de las
+	 * operaciones que van después de él.
+	 * 
+	 * @param cursor Cursor de la última operación obtenida
+	 * 
+	 * @return Especificación de las operaciones posteriores al cursor
+	 * 
+	 * @throws IllegalArgumentException Si el cursor no es válido
+	 */
+	private Specification<HistoricoReservas> getEspecificacionCursor(String cursor) {
+		String[] partes;
+		try {
+			partes = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+					.split(SEPARADOR_CURSOR);
+			if (partes.length != 2) {
+				throw new IllegalArgumentException("El cursor del histórico de reservas no es válido: " + cursor);
+			}
+			return HistoricoReservasSpecification.findDespuesDe(LocalDateTime.parse(partes[0]),
+					Integer.valueOf(partes[1]));
+		} catch (DateTimeParseException | NumberFormatException e) {
+			throw new IllegalArgumentException("El cursor del histórico de reservas no es válido: " + cursor, e);
+		}
+	}
+
+	/**
+	 * Función que escribe en formato CSV las operaciones realizadas sobre las
+	 * reservas que cumplen con los filtros aplicados, ordenadas por fecha de
+	 * operación descendente.
+	 * 
+	 * Las operaciones se leen de la BD por bloques y se escriben una a una, de
+	 * forma que la memoria usada no depende del número de operaciones exportadas.
+	 * El fichero se escribe en UTF-8 con BOM y separado por ';' para que Excel lo
+	 * abra directamente.
+	 * 
+	 * @param fechaDesde Fecha desde la que obtener las operaciones
+	 * @param fechaHasta Fecha hasta la que obtener las operaciones
+	 * @param salida     Stream en el que se escribe el CSV (no se cierra)
+	 * 
+	 * @throws IOException Si no se puede escribir en el stream de salida
+	 */
+	@LecturaReplica
+	@Transactional
+	public void exportarCsv(LocalDate fechaDesde, LocalDate fechaHasta, OutputStream salida) throws IOException {
+		Writer writer = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8));
+		Iterator<HistoricoReservas> iterador;
+		HistoricoReservas operacion;
+
+		writer.write('\uFEFF');
+		escribirLineaCsv(writer, CABECERA_CSV);
+
+		try (Stream<HistoricoReservas> operaciones = historicoReservasRepository.stream(
+				HistoricoReservasSpecification.findByFilters(fechaDesde, fechaHasta), ORDEN_POR_DEFECTO,
+				FETCH_SIZE_EXPORTACION)) {
+			iterador = operaciones.iterator();
+			while (iterador.hasNext()) {
+				operacion = iterador.next();
+				escribirLineaCsv(writer, operacion.getFechaHoraOperacion().format(FORMATO_FECHA_HORA),
+						operacion.getTipoOperacion().toString(), operacion.getMotivoReserva(),
+						operacion.getFechaReserva().format(FORMATO_FECHA), operacion.getHoraInicioReserva().toString(),
+						operacion.getHoraFinReserva().toString(), operacion.getLugarReserva(),
+						operacion.getACargoDeReserva(), operacion.getUsuarioResponsableOperacion(),
+						operacion.getPropietarioResponsableOperacion());
+			}
+		}
+		writer.flush();
+	}
+
+	/**
+	 * Función que escribe una línea del CSV, entrecomillando los valores que
+	 * contienen el separador, comillas o saltos de línea.
+	 * 
+	 * Los valores que empiezan por un carácter de fórmula (=, +, -, @, tabulador
+	 * o retorno de carro) se escriben precedidos de una comilla simple, para que
+	 * la hoja de cálculo los muestre como texto en lugar de ejecutarlos.
+	 * 
+	 * @param writer  Writer en el que se escribe la línea
+	 * @param valores Valores de la línea
+	 * 
+	 * @throws IOException Si no se puede escribir la línea
+	 */
+	private void escribirLineaCsv(Writer writer, String... valores) throws IOException {
+		String valor;
+
+		for (int i = 0; i < valores.length; i++) {
+			valor = valores[i] == null ? "" : valores[i];
+			if (!valor.isEmpty() && INICIO_FORMULA_CSV.indexOf(valor.charAt(0)) >= 0) {
+				valor = "'" + valor;
+			}
+			if (i > 0) {
+				writer.write(SEPARADOR_CSV);
+			}
+			if (valor.indexOf(SEPARADOR_CSV) >= 0 || valor.indexOf('"') >= 0 || valor.indexOf('\n') >= 0
+					|| valor.indexOf('\r') >= 0) {
+				valor = '"' + valor.replace("\"", "\"\"") + '"';
+			}
+			writer.write(valor);
+		}
+		writer.write("\r\n");
+	}
+
+	/**
+	 * Función que devuelve el número de operaciones realizadas sobre las reservas
+	 * que cumplen con los filtros aplicados.
+	 * 
+	 * @param fechaDesde Fecha desde la que obtener las operaciones
+	 * @param fechaHasta Fecha hasta la que obtener las operaciones
+	 * 
+	 * @return Número de operaciones que cumplen con los filtros aplicados
+	 */
+	@LecturaReplica
+	public long count(LocalDate fechaDesde, LocalDate fechaHasta) {
+		return historicoReservasRepository.count(HistoricoReservasSpecification.findByFilters(fechaDesde, fechaHasta));
+	}
+
 	/**
 	 * Función que devuelve el número de operaciones realizadas sobre las reservas
 	 * que hay en la BD.
 	 * 
 	 * @return Número de operaciones realizadas sobre las reservas que hay en la BD
 	 */
+	@LecturaReplica
 	public long count() {
 		return historicoReservasRepository.count();
 	}
 
+	/**
+	 * Función que crea la operación del histórico de reservas correspondiente a la
+	 * reserva pasada.
+	 * 
+	 * @param reserva            Reserva sobre la que se realiza la operación
+	 * @param tipoOperacion      Tipo de operación
+	 * @param fechaHoraOperacion Fecha y hora de la operación
+	 * @param responsable        Usuario que realiza la operación
+	 * 
+	 * @return Operación del histórico de reservas
+	 */
+	public HistoricoReservas crearOperacion(Reserva reserva, TipoOperacionHR tipoOperacion,
+			LocalDateTime fechaHoraOperacion, Usuario responsable) {
+		return new HistoricoReservas(fechaHoraOperacion, tipoOperacion, reserva.getMotivo(), reserva.getFecha(),
+				reserva.getHoraInicio(), reserva.getHoraFin(),
+				reserva.getAula().getNombreAula() + " - "
+						+ reserva.getAula().getUbicacionCentro().getNombrePropietarioAula(),
+				reserva.getACargoDe(), responsable.getNombreApellidosUsuario(),
+				reserva.getAula().getPropietarioAula().getIdPropietarioAula());
+	}
+
+	/**
+	 * Función que guarda en el histórico la operación de eliminación de las
+	 * reservas del aula o del propietario pasados, a partir de la fecha pasada,
+	 * antes de eliminarlas.
+	 * 
+	 * Las operaciones de las reservas de un solo día se crean en la BD con una
+	 * sola sentencia, sin leer las reservas; las de las ocurrencias de las
+	 * reservas periódicas (que no están en la BD) se crean a partir de cada
+	 * reserva periódica y se insertan por lotes.
+	 * 
+	 * @param idAula                ID del aula de las reservas (o null si se
+	 *                              elimina un propietario)
+	 * @param idPropietario         ID del propietario de las reservas, o del
+	 *                              centro o propietario de sus aulas (sólo si
+	 *                              idAula es null)
+	 * @param lstReservasPeriodicas Reservas periódicas que se eliminan
+	 * @param fechaDesde            Fecha desde la que se guardan las operaciones
+	 * @param responsable           Usuario que realiza la eliminación
+	 */
+	@Transactional
+	public void saveEliminacionReservas(Integer idAula, String idPropietario,
+			List<ReservaPeriodica> lstReservasPeriodicas, LocalDate fechaDesde, Usuario responsable) {
+		LocalDateTime fechaHoraOperacion = LocalDateTime.now();
+		List<HistoricoReservas> lstOperaciones = new ArrayList<>();
+
+		if (idAula != null) {
+			historicoReservasRepository.insertEliminacionReservasAula(idAula, fechaDesde, fechaHoraOperacion,
+					responsable.getNombreApellidosUsuario());
+		} else {
+			historicoReservasRepository.insertEliminacionReservasPropietario(idPropietario, fechaDesde,
+					fechaHoraOperacion, responsable.getNombreApellidosUsuario());
+		}
+
+		for (ReservaPeriodica reservaPeriodica : lstReservasPeriodicas) {
+			for (Reserva ocurrencia : reservaPeriodica.getOcurrencias(fechaDesde, null)) {
+				lstOperaciones.add(
+						crearOperacion(ocurrencia, TipoOperacionHR.ELIMINACIÓN, fechaHoraOperacion, responsable));
+			}
+		}
+		if (!lstOperaciones.isEmpty()) {
+			historicoReservasRepository.saveAll(lstOperaciones);
+		}
+	}
+
 	/**
 	 * Función que guarda la operación realizada sobre una reserva pasada por
 	 * parámetro en la BD si no es null.
@@ -84,4 +376,19 @@ public class HistoricoReservasService {
 		}
 		historicoReservasRepository.save(operacion);
 	}
+
+	/**
+	 * Función que guarda en la BD todas las operaciones realizadas sobre reservas
+	 * pasadas por parámetro (se insertan por lotes).
+	 * 
+	 * @param operaciones Operaciones realizadas sobre reservas que se quieren
+	 *                    guardar
+	 */
+	public void saveAll(List<HistoricoReservas> operaciones) {
+		if (operaciones == null || operaciones.isEmpty()) {
+			LOGGER.error("Las operaciones sobre reservas que se quieren guardar son nulas o están vacías.");
+			return;
+		}
+		historicoReservasRepository.saveAll(operaciones);
+	}
 }
@@ -1,17 +1,30 @@
 package gestionaulasinformatica.backend.service;
 
 import java.util.List;
+import java.time.LocalDate;
 import java.util.Optional;
 
+import javax.transaction.Transactional;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
+import gestionaulasinformatica.backend.busqueda.BusquedaTexto;
+import gestionaulasinformatica.backend.cache.CacheConsultasPublicas;
+import gestionaulasinformatica.backend.cache.CacheDatosReferencia;
+import gestionaulasinformatica.backend.data.PaginaPorPosicion;
 import gestionaulasinformatica.backend.entity.PropietarioAula;
 import gestionaulasinformatica.backend.entity.Usuario;
+import gestionaulasinformatica.backend.ocupacion.IndiceOcupacionAulas;
+import gestionaulasinformatica.backend.repository.IAulaRepository;
 import gestionaulasinformatica.backend.repository.IPropietarioAulaRepository;
+import gestionaulasinformatica.backend.repository.IReservaPeriodicaRepository;
+import gestionaulasinformatica.backend.repository.IReservaRepository;
 
 /**
  * Service para la entidad PropietarioAula.
@@ -23,15 +36,45 @@ import gestionaulasinformatica.backend.repository.IPropietarioAulaRepository;
 public class PropietarioAulaService {
 	private static final Logger LOGGER = LoggerFactory.getLogger(PropietarioAula.class.getName());
 	private IPropietarioAulaRepository propietarioAulaRepository;
+	private IAulaRepository aulaRepository;
+	private IReservaRepository reservaRepository;
+	private IReservaPeriodicaRepository reservaPeriodicaRepository;
+	private HistoricoReservasService historicoReservasService;
+	private IndiceOcupacionAulas indiceOcupacion;
+	private CacheDatosReferencia cacheDatosReferencia;
+	private CacheConsultasPublicas cacheConsultasPublicas;
+	private BusquedaTexto busquedaTexto;
 
 	/**
 	 * Constructor del service.
 	 * 
-	 * @param propietarioAulaRepository Repositorio de la entidad Aula
+	 * @param propietarioAulaRepository  Repositorio de la entidad Aula
+	 * @param aulaRepository             Repositorio de la entidad Aula
+	 * @param reservaRepository          Repositorio de la entidad Reserva
+	 * @param reservaPeriodicaRepository Repositorio de la entidad ReservaPeriodica
+	 * @param historicoReservasService   Service de la entidad HistoricoReservas
+	 * @param indiceOcupacion            Índice en memoria de la ocupación de las
+	 *                                   aulas
+	 * @param cacheDatosReferencia       Cache de los datos de referencia
+	 * @param cacheConsultasPublicas     Cache de los resultados de las consultas
+	 *                                   públicas
+	 * @param busquedaTexto              Búsqueda por texto de los propietarios
 	 */
 	@Autowired
-	public PropietarioAulaService(IPropietarioAulaRepository propietarioAulaRepository) {
+	public PropietarioAulaService(IPropietarioAulaRepository propietarioAulaRepository,
+			IAulaRepository aulaRepository, IReservaRepository reservaRepository,
+			IReservaPeriodicaRepository reservaPeriodicaRepository, HistoricoReservasService historicoReservasService,
+			IndiceOcupacionAulas indiceOcupacion, CacheDatosReferencia cacheDatosReferencia,
+			CacheConsultasPublicas cacheConsultasPublicas, BusquedaTexto busquedaTexto) {
 		this.propietarioAulaRepository = propietarioAulaRepository;
+		this.aulaRepository = aulaRepository;
+		this.reservaRepository = reservaRepository;
+		this.reservaPeriodicaRepository = reservaPeriodicaRepository;
+		this.historicoReservasService = historicoReservasService;
+		this.indiceOcupacion = indiceOcupacion;
+		this.cacheDatosReferencia = cacheDatosReferencia;
+		this.cacheConsultasPublicas = cacheConsultasPublicas;
+		this.busquedaTexto = busquedaTexto;
 	}
 
 	/**
@@ -59,10 +102,57 @@ public class PropietarioAulaService {
 		if (filtroTexto == null || filtroTexto.isEmpty()) {
 			return propietarioAulaRepository.findAll(Sort.by(Sort.Direction.ASC, "nombrePropietarioAula"));
 		} else {
-			return propietarioAulaRepository.buscarPropietario(filtroTexto);
+			return busquedaTexto.buscarPropietarios(filtroTexto, Pageable.unpaged()).getContent();
 		}
 	}
 
+	/**
+	 * Función que devuelve una página de los propietarios de aulas cuyo nombre
+	 * contenga el filtro de texto, ordenados por relevancia (primero los que
+	 * empiezan por el filtro). Se usa para buscar propietarios mientras se
+	 * escribe.
+	 * 
+	 * @param filtroTexto Filtro que se quiere aplicar
+	 * @param pageable    Página que se quiere obtener
+	 * 
+	 * @return Página de los propietarios de aulas cuyo nombre contenga el filtro
+	 *         de texto
+	 */
+	public Page<PropietarioAula> buscar(String filtroTexto, Pageable pageable) {
+		return busquedaTexto.buscarPropietarios(filtroTexto, pageable);
+	}
+
+	/**
+	 * Función que devuelve un bloque de los propietarios de aulas cuyo nombre
+	 * empieza por el prefijo, ordenados por nombre. Se usa para cargar los
+	 * desplegables de centros y departamentos según se despliegan o se escribe en
+	 * ellos.
+	 * 
+	 * @param prefijo Prefijo del nombre del propietario
+	 * @param offset  Posición del primer propietario del bloque
+	 * @param limit   Número máximo de propietarios del bloque
+	 * 
+	 * @return Lista con los propietarios de aulas del bloque
+	 */
+	public List<PropietarioAula> findAllPrefijo(String prefijo, int offset, int limit) {
+		return propietarioAulaRepository.findByNombrePropietarioAulaStartingWithIgnoreCase(
+				prefijo == null ? "" : prefijo,
+				new PaginaPorPosicion(offset, limit, Sort.by(Sort.Direction.ASC, "nombrePropietarioAula")));
+	}
+
+	/**
+	 * Función que devuelve el número de propietarios de aulas cuyo nombre empieza
+	 * por el prefijo.
+	 * 
+	 * @param prefijo Prefijo del nombre del propietario
+	 * 
+	 * @return Número de propietarios de aulas que empiezan por el prefijo
+	 */
+	public long countPrefijo(String prefijo) {
+		return propietarioAulaRepository.countByNombrePropietarioAulaStartingWithIgnoreCase(
+				prefijo == null ? "" : prefijo);
+	}
+
 	/**
 	 * Función que devuelve una lista con todos los propietarios de aulas cuyo
 	 * responsable sea el pasado por parámetro.
@@ -98,12 +188,37 @@ public class PropietarioAulaService {
 	}
 
 	/**
-	 * Función que elimina el propietario de aula pasado por parámetro de la BD.
+	 * Función que elimina el propietario de aula pasado por parámetro de la BD,
+	 * junto con sus aulas (las ubicadas en el centro y las que son de su
+	 * propiedad) y todas las reservas de esas aulas o realizadas por el
+	 * propietario, y guarda en el histórico la eliminación de las reservas a
+	 * partir de la fecha actual.
+	 * 
+	 * Se elimina con una sentencia DELETE por tabla, sin cargar en memoria las
+	 * colecciones de aulas y reservas del propietario.
 	 * 
 	 * @param propietario Propietario de aula que se quiere eliminar
+	 * @param responsable Usuario que elimina el propietario
 	 */
-	public void delete(PropietarioAula propietario) {
-		propietarioAulaRepository.delete(propietario);
+	@Transactional
+	public void delete(PropietarioAula propietario, Usuario responsable) {
+		LocalDate hoy = LocalDate.now();
+
+		historicoReservasService.saveEliminacionReservas(null, propietario.getIdPropietarioAula(),
+				reservaPeriodicaRepository.findAllReservasPeriodicasPropietarioAndFechaDesde(propietario, hoy), hoy,
+				responsable);
+
+		reservaPeriodicaRepository.deleteAllExcepcionesPropietario(propietario.getIdPropietarioAula());
+		reservaPeriodicaRepository.deleteAllReservasPeriodicasPropietario(propietario);
+		reservaRepository.deleteAllReservasPropietario(propietario);
+		aulaRepository.deleteAllAulasPropietario(propietario);
+		propietarioAulaRepository.deletePropietario(propietario.getIdPropietarioAula());
+
+		// Al eliminar el propietario se eliminan en cascada sus aulas y reservas. El
+		// índice se vacía al confirmar, para que no se recargue con datos anteriores
+		indiceOcupacion.alConfirmar(indiceOcupacion::invalidar);
+		cacheDatosReferencia.invalidarPropietarios();
+		cacheConsultasPublicas.invalidarTodo();
 	}
 
 	/**
@@ -118,5 +233,7 @@ public class PropietarioAulaService {
 			return;
 		}
 		propietarioAulaRepository.save(propietario);
+		cacheDatosReferencia.invalidarPropietarios();
+		cacheConsultasPublicas.invalidarTodo();
 	}
 }
@@ -1,20 +1,49 @@
 package gestionaulasinformatica.backend.service;
 
+import java.sql.SQLException;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.transaction.Transactional;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 
+import gestionaulasinformatica.backend.cache.AmbitoReservas;
+import gestionaulasinformatica.backend.cache.CacheConsultasPublicas;
+import gestionaulasinformatica.backend.conexion.LimiteConsultasPublicas;
+import gestionaulasinformatica.backend.data.ReservaFila;
+import gestionaulasinformatica.backend.data.TipoOperacionHR;
 import gestionaulasinformatica.backend.entity.Aula;
+import gestionaulasinformatica.backend.entity.HistoricoReservas;
 import gestionaulasinformatica.backend.entity.PropietarioAula;
 import gestionaulasinformatica.backend.entity.Reserva;
+import gestionaulasinformatica.backend.entity.ReservaPeriodica;
+import gestionaulasinformatica.backend.entity.Usuario;
+import gestionaulasinformatica.backend.ocupacion.BloqueoAulas;
+import gestionaulasinformatica.backend.ocupacion.IndiceOcupacionAulas;
+import gestionaulasinformatica.backend.repository.IReservaPeriodicaRepository;
 import gestionaulasinformatica.backend.repository.IReservaRepository;
+import gestionaulasinformatica.backend.specification.ReservaPeriodicaSpecification;
 import gestionaulasinformatica.backend.specification.ReservaSpecification;
+import gestionaulasinformatica.exceptions.ConsultasSaturadasException;
+import gestionaulasinformatica.exceptions.UserFriendlyDataException;
+import gestionaulasinformatica.ui.Mensajes;
 
 /**
  * Service para la entidad Reserva.
@@ -26,16 +55,50 @@ import gestionaulasinformatica.backend.specification.ReservaSpecification;
 public class ReservaService {
 	private static final Logger LOGGER = LoggerFactory.getLogger(ReservaService.class.getName());
 
+	private static final Comparator<Reserva> ORDEN_FECHA = Comparator.comparing(Reserva::getFecha);
+	private static final Comparator<ReservaFila> ORDEN_FECHA_FILAS = Comparator.comparing(ReservaFila::getFecha);
+
+	/** SQLSTATE de PostgreSQL al violar una restricción de exclusión (solape) */
+	private static final String SQLSTATE_EXCLUSION = "23P01";
+
 	private IReservaRepository reservaRepository;
+	private IReservaPeriodicaRepository reservaPeriodicaRepository;
+	private HistoricoReservasService historicoReservasService;
+	private IndiceOcupacionAulas indiceOcupacion;
+	private BloqueoAulas bloqueoAulas;
+	private AulaService aulaService;
+	private CacheConsultasPublicas cacheConsultasPublicas;
+	private LimiteConsultasPublicas limiteConsultasPublicas;
 
 	/**
 	 * Constructor del service.
 	 * 
-	 * @param reservaRepository Repositorio de la entidad Reserva
+	 * @param reservaRepository          Repositorio de la entidad Reserva
+	 * @param reservaPeriodicaRepository Repositorio de la entidad ReservaPeriodica
+	 * @param historicoReservasService   Service de la entidad HistoricoReservas
+	 * @param indiceOcupacion            Índice en memoria de la ocupación de las
+	 *                                   aulas
+	 * @param bloqueoAulas               Bloqueos por aula para guardar las
+	 *                                   reservas sin solapes
+	 * @param aulaService                Service de la entidad Aula
+	 * @param cacheConsultasPublicas     Cache de los resultados de las consultas
+	 *                                   públicas
+	 * @param limiteConsultasPublicas    Límite de las consultas públicas que se
+	 *                                   ejecutan a la vez
 	 */
 	@Autowired
-	public ReservaService(IReservaRepository reservaRepository) {
+	public ReservaService(IReservaRepository reservaRepository, IReservaPeriodicaRepository reservaPeriodicaRepository,
+			HistoricoReservasService historicoReservasService, IndiceOcupacionAulas indiceOcupacion,
+			BloqueoAulas bloqueoAulas, AulaService aulaService, CacheConsultasPublicas cacheConsultasPublicas,
+			LimiteConsultasPublicas limiteConsultasPublicas) {
 		this.reservaRepository = reservaRepository;
+		this.reservaPeriodicaRepository = reservaPeriodicaRepository;
+		this.historicoReservasService = historicoReservasService;
+		this.indiceOcupacion = indiceOcupacion;
+		this.bloqueoAulas = bloqueoAulas;
+		this.aulaService = aulaService;
+		this.cacheConsultasPublicas = cacheConsultasPublicas;
+		this.limiteConsultasPublicas = limiteConsultasPublicas;
 	}
 
 	/**
@@ -49,7 +112,8 @@ public class ReservaService {
 
 	/**
 	 * Función que devuelve una lista con todas las reservas que hay en la BD que
-	 * cumplen con los filtros aplicados.
+	 * cumplen con los filtros aplicados, incluidas las ocurrencias de las reservas
+	 * periódicas (que no se guardan en la BD).
 	 * 
 	 * @param fechaDesde           Fecha (de inicio) desde la que obtener las
 	 *                             reservas
@@ -68,13 +132,101 @@ public class ReservaService {
 	 */
 	public List<Reserva> findAllReservasFiltros(LocalDate fechaDesde, LocalDate fechaHasta, LocalTime horaDesde,
 			LocalTime horaHasta, String diaSemana, List<PropietarioAula> lstPropietariosAulas) {
-		return reservaRepository.findAll(ReservaSpecification.findByFilters(fechaDesde, fechaHasta, horaDesde,
-				horaHasta, diaSemana, lstPropietariosAulas), Sort.by(Sort.Direction.ASC, "fecha"));
+		List<Reserva> lstReservas = reservaRepository.findAll(ReservaSpecification.findByFilters(fechaDesde,
+				fechaHasta, horaDesde, horaHasta, diaSemana, lstPropietariosAulas), Sort.by(Sort.Direction.ASC, "fecha"));
+
+		for (ReservaPeriodica reservaPeriodica : reservaPeriodicaRepository.findAll(ReservaPeriodicaSpecification
+				.findByFilters(fechaDesde, fechaHasta, horaDesde, horaHasta, lstPropietariosAulas))) {
+			for (Reserva ocurrencia : reservaPeriodica.getOcurrencias(fechaDesde, fechaHasta)) {
+				if (StringUtils.isEmpty(diaSemana) || diaSemana.equals(ocurrencia.getDiaSemana())) {
+					lstReservas.add(ocurrencia);
+				}
+			}
+		}
+
+		lstReservas.sort(ORDEN_FECHA);
+		return lstReservas;
+	}
+
+	/**
+	 * Función que devuelve las filas (sólo las columnas que se muestran en la
+	 * consulta pública de reservas) de las reservas que cumplen con los filtros
+	 * aplicados, incluidas las ocurrencias de las reservas periódicas. Las
+	 * reservas se obtienen de la BD directamente como filas, sin cargar las
+	 * entidades ni sus asociaciones.
+	 * 
+	 * Los resultados se guardan en la cache de consultas públicas, por lo que las
+	 * consultas repetidas con los mismos filtros no llegan a la BD.
+	 * 
+	 * Las que llegan a la BD usan el pool de conexiones de las consultas públicas
+	 * y esperan su turno si ya hay demasiadas en curso (LimiteConsultasPublicas).
+	 * 
+	 * @param fechaDesde           Fecha (de inicio) desde la que obtener las
+	 *                             reservas
+	 * @param fechaHasta           Fecha (de inicio) hasta la que obtener las
+	 *                             reservas
+	 * @param horaDesde            Hora (de inicio) de la reserva desde la que
+	 *                             obtener las reservas
+	 * @param horaHasta            Hora (de inicio) de la reserva hasta la que
+	 *                             obtener las reservas
+	 * @param diaSemana            Día de la semana del que obtener las reservas
+	 * @param lstPropietariosAulas Lista de posibles propietarios del aula de la
+	 *                             reserva de los que obtener las reservas
+	 * 
+	 * @return Lista no modificable con las filas de las reservas que cumplen con
+	 *         los filtros aplicados
+	 * 
+	 * @throws ConsultasSaturadasException Si hay demasiadas consultas públicas en
+	 *                                     curso
+	 */
+	public List<ReservaFila> findAllFilasReservasFiltros(LocalDate fechaDesde, LocalDate fechaHasta,
+			LocalTime horaDesde, LocalTime horaHasta, String diaSemana, List<PropietarioAula> lstPropietariosAulas) {
+		return cacheConsultasPublicas.getReservas(fechaDesde, fechaHasta, horaDesde, horaHasta, diaSemana,
+				lstPropietariosAulas, () -> limiteConsultasPublicas.ejecutar(() -> consultarFilasReservas(fechaDesde,
+						fechaHasta, horaDesde, horaHasta, diaSemana, lstPropietariosAulas)));
+	}
+
+	/**
+	 * Función que obtiene de la BD las filas de las reservas que cumplen con los
+	 * filtros aplicados, incluidas las ocurrencias de las reservas periódicas.
+	 * 
+	 * @param fechaDesde           Fecha (de inicio) desde la que obtener las
+	 *                             reservas
+	 * @param fechaHasta           Fecha (de inicio) hasta la que obtener las
+	 *                             reservas
+	 * @param horaDesde            Hora (de inicio) de la reserva desde la que
+	 *                             obtener las reservas
+	 * @param horaHasta            Hora (de inicio) de la reserva hasta la que
+	 *                             obtener las reservas
+	 * @param diaSemana            Día de la semana del que obtener las reservas
+	 * @param lstPropietariosAulas Lista de posibles propietarios del aula de la
+	 *                             reserva de los que obtener las reservas
+	 * 
+	 * @return Lista con las filas de las reservas que cumplen con los filtros
+	 *         aplicados
+	 */
+	private List<ReservaFila> consultarFilasReservas(LocalDate fechaDesde, LocalDate fechaHasta,
+			LocalTime horaDesde, LocalTime horaHasta, String diaSemana, List<PropietarioAula> lstPropietariosAulas) {
+		List<ReservaFila> lstFilas = reservaRepository.findFilas(ReservaSpecification.findByFilters(fechaDesde,
+				fechaHasta, horaDesde, horaHasta, diaSemana, lstPropietariosAulas), Sort.by(Sort.Direction.ASC, "fecha"));
+
+		for (ReservaPeriodica reservaPeriodica : reservaPeriodicaRepository.findAll(ReservaPeriodicaSpecification
+				.findByFilters(fechaDesde, fechaHasta, horaDesde, horaHasta, lstPropietariosAulas))) {
+			for (Reserva ocurrencia : reservaPeriodica.getOcurrencias(fechaDesde, fechaHasta)) {
+				if (StringUtils.isEmpty(diaSemana) || diaSemana.equals(ocurrencia.getDiaSemana())) {
+					lstFilas.add(ReservaFila.de(ocurrencia));
+				}
+			}
+		}
+
+		lstFilas.sort(ORDEN_FECHA_FILAS);
+		return lstFilas;
 	}
 
 	/**
 	 * Función que devuelve una lista con todas las reservas que hay en la BD del
-	 * aula pasada y a partir de la fecha pasada.
+	 * aula pasada y a partir de la fecha pasada, incluidas las ocurrencias de las
+	 * reservas periódicas.
 	 * 
 	 * @param idAula Aula de la que obtener las reservas.
 	 * @param fecha  Fecha a partir de la cual obtener las reservas
@@ -83,28 +235,360 @@ public class ReservaService {
 	 *         partir de la fecha pasada
 	 */
 	public List<Reserva> findAllReservasAulaAndFechaDesde(Aula aula, LocalDate fecha) {
-		return reservaRepository.findAllReservasAulaAndFechaDesde(aula, fecha);
+		List<Reserva> lstReservas = reservaRepository.findAllReservasAulaAndFechaDesde(aula, fecha);
+
+		for (ReservaPeriodica reservaPeriodica : reservaPeriodicaRepository
+				.findAllReservasPeriodicasAulaAndFechaDesde(aula, fecha)) {
+			lstReservas.addAll(reservaPeriodica.getOcurrencias(fecha, null));
+		}
+		return lstReservas;
 	}
 
 	/**
-	 * Función que elimina la reserva pasada por parámetro de la BD.
+	 * Función que elimina la reserva pasada por parámetro de la BD. Si es una
+	 * ocurrencia de una reserva periódica, se cancela ese día de la reserva
+	 * periódica (se añade una excepción).
 	 * 
 	 * @param reserva Reserva que se quiere eliminar
 	 */
+	@Transactional
 	public void delete(Reserva reserva) {
+		ReservaPeriodica reservaPeriodica;
+
+		if (reserva.isOcurrencia()) {
+			reservaPeriodica = cancelarOcurrencia(reserva);
+			indiceOcupacion.alConfirmar(() -> indiceOcupacion.registrar(reservaPeriodica));
+			cacheConsultasPublicas.invalidar(AmbitoReservas.de(reserva));
+			return;
+		}
+
 		reservaRepository.delete(reserva);
+		indiceOcupacion.alConfirmar(() -> indiceOcupacion.eliminar(reserva));
+		cacheConsultasPublicas.invalidar(AmbitoReservas.de(reserva));
+	}
+
+	/**
+	 * Función que elimina la reserva pasada por parámetro de la BD y guarda la
+	 * operación de eliminación en el histórico de reservas, en la misma
+	 * transacción.
+	 * 
+	 * @param reserva     Reserva que se quiere eliminar
+	 * @param responsable Usuario que elimina la reserva
+	 */
+	@Transactional
+	public void delete(Reserva reserva, Usuario responsable) {
+		delete(reserva);
+		historicoReservasService.save(historicoReservasService.crearOperacion(reserva, TipoOperacionHR.ELIMINACIÓN,
+				LocalDateTime.now(), responsable));
+	}
+
+	/**
+	 * Función que elimina de la BD las reservas pasadas y guarda la operación de
+	 * eliminación de cada una en el histórico de reservas, todo en la misma
+	 * transacción. Las ocurrencias de reservas periódicas se cancelan añadiendo
+	 * una excepción a su reserva periódica.
+	 * 
+	 * Las reservas de un solo día se leen con una sola consulta para crear las
+	 * operaciones, que se insertan por lotes, y se eliminan con un único DELETE en
+	 * lugar de leer y eliminar cada reserva por separado.
+	 * 
+	 * @param reservas    Reservas que se quieren eliminar
+	 * @param responsable Usuario que elimina las reservas
+	 * 
+	 * @throws IllegalStateException Si la reserva periódica de alguna ocurrencia
+	 *                               ya no existe
+	 */
+	@Transactional
+	public void deleteAll(Collection<Reserva> reservas, Usuario responsable) {
+		List<Integer> lstIds = new ArrayList<>();
+		List<Reserva> lstOcurrencias = new ArrayList<>();
+		List<Reserva> lstEliminadas;
+		List<ReservaPeriodica> lstPeriodicas;
+		List<HistoricoReservas> lstOperaciones = new ArrayList<>();
+		List<AmbitoReservas> lstAmbitos = new ArrayList<>();
+		LocalDateTime fechaHoraOperacion;
+
+		if (reservas == null || reservas.isEmpty()) {
+			LOGGER.error("Las reservas que se quieren eliminar son nulas o están vacías.");
+			return;
+		}
+
+		for (Reserva reserva : reservas) {
+			if (reserva.isOcurrencia()) {
+				lstOcurrencias.add(reserva);
+			} else {
+				lstIds.add(reserva.getIdReserva());
+			}
+		}
+
+		lstEliminadas = lstIds.isEmpty() ? new ArrayList<>() : reservaRepository.findAllReservasIds(lstIds);
+		lstPeriodicas = cancelarOcurrencias(lstOcurrencias);
+
+		fechaHoraOperacion = LocalDateTime.now();
+		for (Reserva reserva : lstEliminadas) {
+			lstOperaciones.add(historicoReservasService.crearOperacion(reserva, TipoOperacionHR.ELIMINACIÓN,
+					fechaHoraOperacion, responsable));
+			lstAmbitos.add(AmbitoReservas.de(reserva));
+		}
+		for (Reserva ocurrencia : lstOcurrencias) {
+			lstOperaciones.add(historicoReservasService.crearOperacion(ocurrencia, TipoOperacionHR.ELIMINACIÓN,
+					fechaHoraOperacion, responsable));
+			lstAmbitos.add(AmbitoReservas.de(ocurrencia));
+		}
+
+		if (!lstEliminadas.isEmpty()) {
+			reservaRepository.deleteAllReservasIds(lstIds);
+		}
+		historicoReservasService.saveAll(lstOperaciones);
+
+		indiceOcupacion.alConfirmar(() -> {
+			lstEliminadas.forEach(indiceOcupacion::eliminar);
+			lstPeriodicas.forEach(indiceOcupacion::registrar);
+		});
+		cacheConsultasPublicas.invalidar(lstAmbitos);
 	}
 
 	/**
 	 * Función que guarda la reserva pasada por parámetro en la BD si no es null.
+	 * Si es una ocurrencia de una reserva periódica que se ha modificado, se
+	 * cancela ese día de la reserva periódica y la reserva se guarda como una
+	 * reserva de un solo día.
+	 * 
+	 * La disponibilidad del aula se comprueba con el aula bloqueada, en la misma
+	 * transacción en la que se guarda la reserva.
 	 * 
 	 * @param reserva Reserva que se quiere guardar
+	 * 
+	 * @throws UserFriendlyDataException Si el aula no está disponible
 	 */
+	@Transactional
 	public void save(Reserva reserva) {
+		ReservaPeriodica reservaPeriodica;
+		Reserva reservaGuardada;
+		LocalDate fechaOcurrencia;
+		List<AmbitoReservas> lstAmbitos = new ArrayList<>();
+
+		if (reserva == null) {
+			LOGGER.error("La reserva que se quiere guardar es nula.");
+			return;
+		}
+
+		bloqueoAulas.bloquear(Collections.singletonList(reserva.getAula().getIdAula()));
+		comprobarDisponible(reserva);
+
+		if (reserva.isOcurrencia()) {
+			fechaOcurrencia = reserva.getFechaOcurrencia();
+			reservaPeriodica = cancelarOcurrencia(reserva);
+			reserva.setOcurrenciaDe(null, null);
+			reservaGuardada = reservaRepository.save(reserva);
+			volcarReservas();
+
+			indiceOcupacion.alConfirmar(() -> {
+				indiceOcupacion.registrar(reservaPeriodica);
+				indiceOcupacion.registrar(reservaGuardada);
+			});
+			lstAmbitos.add(AmbitoReservas.de(reservaPeriodica, fechaOcurrencia, fechaOcurrencia));
+			lstAmbitos.add(AmbitoReservas.de(reservaGuardada));
+			cacheConsultasPublicas.invalidar(lstAmbitos);
+			return;
+		}
+
+		// Si se modifica una reserva, también cambian los resultados de su fecha, aula
+		// y propietario anteriores. La reserva guardada se lee igualmente al guardarla
+		if (reserva.getIdReserva() != null) {
+			reservaRepository.findById(reserva.getIdReserva()).map(AmbitoReservas::de).ifPresent(lstAmbitos::add);
+		}
+
+		reservaGuardada = reservaRepository.save(reserva);
+		volcarReservas();
+		indiceOcupacion.alConfirmar(() -> indiceOcupacion.registrar(reservaGuardada));
+		lstAmbitos.add(AmbitoReservas.de(reservaGuardada));
+		cacheConsultasPublicas.invalidar(lstAmbitos);
+	}
+
+	/**
+	 * Función que guarda la reserva pasada por parámetro en la BD y la operación
+	 * realizada en el histórico de reservas.
+	 * 
+	 * La operación se guarda en la misma transacción que la reserva, de forma que
+	 * sólo queda en el histórico si la reserva se guarda, y se envía a la BD junto
+	 * con ella al confirmar la transacción (en lugar de en una segunda transacción
+	 * después de guardar la reserva).
+	 * 
+	 * @param reserva       Reserva que se quiere guardar
+	 * @param tipoOperacion Tipo de operación (creación o modificación)
+	 * @param responsable   Usuario que realiza la operación
+	 * 
+	 * @throws UserFriendlyDataException Si el aula no está disponible
+	 */
+	@Transactional
+	public void save(Reserva reserva, TipoOperacionHR tipoOperacion, Usuario responsable) {
 		if (reserva == null) {
 			LOGGER.error("La reserva que se quiere guardar es nula.");
 			return;
 		}
-		reservaRepository.save(reserva);
+
+		save(reserva);
+		historicoReservasService.save(
+				historicoReservasService.crearOperacion(reserva, tipoOperacion, LocalDateTime.now(), responsable));
+	}
+
+	/**
+	 * Función que guarda en la BD la reserva periódica (reserva por rango de
+	 * fechas) pasada por parámetro, junto con la operación de creación de cada una
+	 * de sus ocurrencias en el histórico de reservas.
+	 * 
+	 * La reserva periódica se guarda en una sola fila; las reservas de cada día se
+	 * obtienen de ella al consultar.
+	 * 
+	 * @param reservaPeriodica Reserva periódica que se quiere guardar
+	 * @param responsable      Usuario que realiza la reserva
+	 * 
+	 * @throws UserFriendlyDataException Si el aula no está disponible alguno de
+	 *                                   los días
+	 */
+	@Transactional
+	public void savePeriodica(ReservaPeriodica reservaPeriodica, Usuario responsable) {
+		ReservaPeriodica reservaGuardada;
+		List<HistoricoReservas> lstOperaciones;
+		LocalDateTime fechaHoraOperacion;
+
+		if (reservaPeriodica == null || reservaPeriodica.getFechas(null, null).isEmpty()) {
+			LOGGER.error("La reserva periódica que se quiere guardar es nula o no tiene ningún día.");
+			return;
+		}
+
+		bloqueoAulas.bloquear(Collections.singletonList(reservaPeriodica.getAula().getIdAula()));
+		for (LocalDate fecha : reservaPeriodica.getFechas(null, null)) {
+			comprobarDisponible(reservaPeriodica.getAula(), fecha, reservaPeriodica.getHoraInicio(),
+					reservaPeriodica.getHoraFin(), null, null);
+		}
+
+		fechaHoraOperacion = LocalDateTime.now();
+		reservaGuardada = reservaPeriodicaRepository.save(reservaPeriodica);
+		lstOperaciones = new ArrayList<>();
+
+		for (Reserva ocurrencia : reservaGuardada.getOcurrencias(null, null)) {
+			lstOperaciones.add(historicoReservasService.crearOperacion(ocurrencia, TipoOperacionHR.CREACIÓN,
+					fechaHoraOperacion, responsable));
+		}
+		historicoReservasService.saveAll(lstOperaciones);
+
+		indiceOcupacion.alConfirmar(() -> indiceOcupacion.registrar(reservaGuardada));
+		cacheConsultasPublicas.invalidar(AmbitoReservas.de(reservaGuardada));
+	}
+
+	/**
+	 * Función que comprueba que el aula de la reserva pasada está disponible,
+	 * sin tener en cuenta la propia reserva (o la ocurrencia) si se está
+	 * modificando.
+	 * 
+	 * @param reserva Reserva que se quiere guardar
+	 * 
+	 * @throws UserFriendlyDataException Si el aula no está disponible
+	 */
+	private void comprobarDisponible(Reserva reserva) {
+		comprobarDisponible(reserva.getAula(), reserva.getFecha(), reserva.getHoraInicio(), reserva.getHoraFin(),
+				reserva.getIdReserva(), reserva.isOcurrencia() ? reserva.getIdReservaPeriodica() : null);
+	}
+
+	/**
+	 * Función que comprueba que el aula pasada está disponible el día y entre las
+	 * horas pasadas.
+	 * 
+	 * @param aula                Aula que se quiere reservar
+	 * @param fecha               Fecha de la reserva
+	 * @param horaInicio          Hora de inicio de la reserva
+	 * @param horaFin             Hora de fin de la reserva
+	 * @param idReservaExcluida   ID de la reserva que se está modificando
+	 * @param idPeriodicaExcluida ID de la reserva periódica de la ocurrencia que
+	 *                            se está modificando
+	 * 
+	 * @throws UserFriendlyDataException Si el aula no está disponible
+	 */
+	private void comprobarDisponible(Aula aula, LocalDate fecha, LocalTime horaInicio, LocalTime horaFin,
+			Integer idReservaExcluida, Integer idPeriodicaExcluida) {
+		if (!aulaService.isDisponible(aula.getIdAula(), fecha, horaInicio, horaFin, idReservaExcluida,
+				idPeriodicaExcluida)) {
+			throw new UserFriendlyDataException(Mensajes.MSG_AULA_NO_DISPONIBLE.getMensaje());
+		}
+	}
+
+	/**
+	 * Función que envía a la BD las reservas pendientes de guardar. En PostgreSQL
+	 * con gestionaulas.ocupacion.rangos-postgresql activo, la restricción de
+	 * exclusión "EXC_Reserva_Aula_Periodo" rechaza las reservas que se solapan
+	 * con otra reserva de un día del mismo aula (por ejemplo, guardada desde otra
+	 * instancia de la aplicación), y se informa igual que si el aula no estuviera
+	 * disponible.
+	 * 
+	 * La restricción sólo compara las filas de la tabla reserva: el solape de una
+	 * reserva de un día con una ocurrencia de una reserva periódica (o de dos
+	 * reservas periódicas) sólo lo impide BloqueoAulas, que no protege frente a
+	 * otras instancias de la aplicación.
+	 * 
+	 * @throws UserFriendlyDataException Si alguna reserva se solapa con otra
+	 */
+	private void volcarReservas() {
+		Throwable causa;
+
+		try {
+			reservaRepository.flush();
+		} catch (DataIntegrityViolationException e) {
+			causa = NestedExceptionUtils.getMostSpecificCause(e);
+			if (causa instanceof SQLException && SQLSTATE_EXCLUSION.equals(((SQLException) causa).getSQLState())) {
+				throw new UserFriendlyDataException(Mensajes.MSG_AULA_NO_DISPONIBLE.getMensaje());
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Función que cancela en la reserva periódica de la ocurrencia pasada el día
+	 * de la ocurrencia.
+	 * 
+	 * @param ocurrencia Ocurrencia de una reserva periódica
+	 * 
+	 * @return Reserva periódica guardada con la nueva excepción
+	 * 
+	 * @throws IllegalStateException Si la reserva periódica ya no existe
+	 */
+	private ReservaPeriodica cancelarOcurrencia(Reserva ocurrencia) {
+		return cancelarOcurrencias(Collections.singletonList(ocurrencia)).get(0);
+	}
+
+	/**
+	 * Función que cancela en las reservas periódicas de las ocurrencias pasadas
+	 * el día de cada ocurrencia. Las reservas periódicas se vuelven a leer de la
+	 * BD, con una sola consulta, para no perder excepciones añadidas desde que se
+	 * obtuvieron las ocurrencias.
+	 * 
+	 * @param ocurrencias Ocurrencias de reservas periódicas
+	 * 
+	 * @return Reservas periódicas guardadas con las nuevas excepciones
+	 * 
+	 * @throws IllegalStateException Si la reserva periódica de alguna ocurrencia
+	 *                               ya no existe
+	 */
+	private List<ReservaPeriodica> cancelarOcurrencias(List<Reserva> ocurrencias) {
+		Map<Integer, ReservaPeriodica> mapPeriodicas;
+		ReservaPeriodica reservaPeriodica;
+
+		if (ocurrencias.isEmpty()) {
+			return new ArrayList<>();
+		}
+
+		mapPeriodicas = reservaPeriodicaRepository
+				.findAllById(ocurrencias.stream().map(Reserva::getIdReservaPeriodica).collect(Collectors.toSet()))
+				.stream().collect(Collectors.toMap(ReservaPeriodica::getIdReservaPeriodica, Function.identity()));
+
+		for (Reserva ocurrencia : ocurrencias) {
+			reservaPeriodica = mapPeriodicas.get(ocurrencia.getIdReservaPeriodica());
+			if (reservaPeriodica == null) {
+				throw new IllegalStateException("La reserva periódica de la ocurrencia ya no existe.");
+			}
+			reservaPeriodica.addExcepcion(ocurrencia.getFechaOcurrencia());
+		}
+		return reservaPeriodicaRepository.saveAll(mapPeriodicas.values());
 	}
 }
@@ -8,6 +8,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
+import gestionaulasinformatica.backend.busqueda.BusquedaTexto;
+import gestionaulasinformatica.backend.cache.CacheDatosReferencia;
+import gestionaulasinformatica.backend.data.PaginaPorPosicion;
 import gestionaulasinformatica.backend.entity.Usuario;
 import gestionaulasinformatica.backend.repository.IUsuarioRepository;
 import gestionaulasinformatica.exceptions.UserFriendlyDataException;
@@ -21,36 +24,64 @@ import gestionaulasinformatica.ui.Mensajes;
  */
 @Service
 public class UsuarioService {
+	private static final Sort ORDEN_POR_DEFECTO = Sort.by(Sort.Direction.ASC, "nombreUsuario", "apellidosUsuario");
 
 	private final IUsuarioRepository usuarioRepository;
+	private final CacheDatosReferencia cacheDatosReferencia;
+	private final BusquedaTexto busquedaTexto;
 
 	/**
 	 * Constructor del service.
 	 * 
-	 * @param usuarioRepository Repositorio de la entidad usuario
+	 * @param usuarioRepository    Repositorio de la entidad usuario
+	 * @param cacheDatosReferencia Cache de los datos de referencia
+	 * @param busquedaTexto        Búsqueda por texto de los usuarios
 	 */
 	@Autowired
-	public UsuarioService(IUsuarioRepository usuarioRepository) {
+	public UsuarioService(IUsuarioRepository usuarioRepository, CacheDatosReferencia cacheDatosReferencia,
+			BusquedaTexto busquedaTexto) {
 		this.usuarioRepository = usuarioRepository;
+		this.cacheDatosReferencia = cacheDatosReferencia;
+		this.busquedaTexto = busquedaTexto;
 	}
 
 	/**
-	 * Función que devuelve una lista con todos los usuarios cuyo nombre o apellidos
-	 * contengan el filtro de texto, o todos los usuarios en caso de que el filtro
-	 * sea null, que hay en la BD.
+	 * Función que devuelve un bloque de los usuarios cuyo nombre y apellidos
+	 * contengan el filtro de texto, ordenados por relevancia (ver BusquedaTexto),
+	 * o de todos los usuarios en caso de que el filtro sea null, en el orden
+	 * pasado seguido del nombre y los apellidos.
 	 * 
 	 * @param filtroTexto Filtro que se quiere aplicar
+	 * @param offset      Posición del primer usuario del bloque
+	 * @param limit       Número máximo de usuarios del bloque
+	 * @param sort        Orden de los usuarios, si no hay filtro
 	 * 
-	 * @return Lista con todos los usuarios cuyo nombre o apellidos contengan el
-	 *         filtro de texto, o todos los usuarios en caso de que el filtro sea
-	 *         null, que hay en la BD
+	 * @return Lista con los usuarios del bloque
 	 */
-	public List<Usuario> findAll(String filtroTexto) {
+	public List<Usuario> findAll(String filtroTexto, int offset, int limit, Sort sort) {
 		if (filtroTexto == null || filtroTexto.isEmpty()) {
-			return usuarioRepository.findAll(Sort.by(Sort.Direction.ASC, "nombreUsuario"));
-		} else {
-			return usuarioRepository.buscarUsuario(filtroTexto);
+			return usuarioRepository.findAll(new PaginaPorPosicion(offset, limit, sort.and(ORDEN_POR_DEFECTO)))
+					.getContent();
 		}
+		return busquedaTexto.buscarUsuarios(filtroTexto, new PaginaPorPosicion(offset, limit, Sort.unsorted()))
+				.getContent();
+	}
+
+	/**
+	 * Función que devuelve el número de usuarios cuyo nombre y apellidos
+	 * contengan el filtro de texto, o de todos los usuarios en caso de que el
+	 * filtro sea null.
+	 * 
+	 * @param filtroTexto Filtro que se quiere aplicar
+	 * 
+	 * @return Número de usuarios que contienen el filtro de texto
+	 */
+	public long count(String filtroTexto) {
+		if (filtroTexto == null || filtroTexto.isEmpty()) {
+			return usuarioRepository.count();
+		}
+		return busquedaTexto.buscarUsuarios(filtroTexto, new PaginaPorPosicion(0, 1, Sort.unsorted()))
+				.getTotalElements();
 	}
 
 	/**
@@ -86,6 +117,7 @@ public class UsuarioService {
 		throwIfDeletingSelf(usuarioActual, usuarioEliminar);
 		throwIfUserLocked(usuarioEliminar);
 		usuarioRepository.delete(usuarioEliminar);
+		cacheDatosReferencia.invalidarUsuarios();
 	}
 
 	/**
@@ -95,6 +127,7 @@ public class UsuarioService {
 	 */
 	public void save(Usuario usuario) {
 		usuarioRepository.save(usuario);
+		cacheDatosReferencia.invalidarUsuarios();
 	}
 
 	/**
@@ -61,4 +61,33 @@ public class HistoricoReservasSpecification {
 			}
 		};
 	}
+
+	/**
+	 * Función que devuelve las operaciones posteriores (en el orden descendente
+	 * por fecha de operación e ID) a la operación pasada, para recorrer el
+	 * histórico por bloques sin tener que saltar las operaciones anteriores.
+	 * 
+	 * @param fechaHoraOperacion Fecha y hora de la última operación obtenida
+	 * @param idOperacion        ID de la última operación obtenida
+	 * 
+	 * @return Operaciones posteriores a la operación pasada
+	 */
+	public static Specification<HistoricoReservas> findDespuesDe(LocalDateTime fechaHoraOperacion,
+			Integer idOperacion) {
+		return new Specification<HistoricoReservas>() {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public Predicate toPredicate(Root<HistoricoReservas> root, CriteriaQuery<?> query, CriteriaBuilder cb) {
+				// fecha <= f AND (fecha < f OR (fecha = f AND id < i)). La primera condición
+				// sobra, pero la BD no usa el OR como límite del índice por (fecha, id): sin
+				// ella lo recorrería desde la operación más reciente y filtraría las filas
+				return cb.and(cb.lessThanOrEqualTo(root.get("fechaHoraOperacion"), fechaHoraOperacion),
+						cb.or(cb.lessThan(root.get("fechaHoraOperacion"), fechaHoraOperacion),
+								cb.and(cb.equal(root.get("fechaHoraOperacion"), fechaHoraOperacion),
+										cb.lessThan(root.get("idOperacion"), idOperacion))));
+			}
+		};
+	}
 }
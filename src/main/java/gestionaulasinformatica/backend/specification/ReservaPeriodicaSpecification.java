@@ -0,0 +1,127 @@
+package gestionaulasinformatica.backend.specification;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.util.StringUtils;
+
+import gestionaulasinformatica.backend.entity.PropietarioAula;
+import gestionaulasinformatica.backend.entity.ReservaPeriodica;
+
+/**
+ * Clase que contiene las especificaciones para filtrar las reservas periódicas
+ * (reservas por rango de fechas).
+ * 
+ * Las especificaciones sólo filtran por el rango de fechas, las horas y el aula
+ * o propietario; los días de la semana y las excepciones de cada reserva
+ * periódica se comprueban al obtener sus ocurrencias.
+ * 
+ * @author Lisa
+ *
+ */
+public class ReservaPeriodicaSpecification {
+
+	/**
+	 * Función que devuelve todas las reservas periódicas que tienen algún día en el
+	 * rango de fechas pasado y cumplen con los filtros aplicados (los mismos que
+	 * los de las reservas de un solo día).
+	 * 
+	 * @param fechaDesde           Fecha desde la que obtener las reservas
+	 * @param fechaHasta           Fecha hasta la que obtener las reservas
+	 * @param horaDesde            Hora (de inicio) de la reserva desde la que
+	 *                             obtener las reservas
+	 * @param horaHasta            Hora (de inicio) de la reserva hasta la que
+	 *                             obtener las reservas
+	 * @param lstPropietariosAulas Lista de posibles propietarios del aula de la
+	 *                             reserva de los que obtener las reservas
+	 * 
+	 * @return Reservas periódicas que cumplen con los filtros aplicados
+	 */
+	public static Specification<ReservaPeriodica> findByFilters(LocalDate fechaDesde, LocalDate fechaHasta,
+			LocalTime horaDesde, LocalTime horaHasta, List<PropietarioAula> lstPropietariosAulas) {
+		return new Specification<ReservaPeriodica>() {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public Predicate toPredicate(Root<ReservaPeriodica> root, CriteriaQuery<?> query, CriteriaBuilder cb) {
+				final List<Predicate> predicates = new ArrayList<>();
+
+				// Se obtienen las reservas cuyo rango acaba después de una fecha determinada
+				if (!StringUtils.isEmpty(fechaDesde)) {
+					predicates.add(cb.greaterThanOrEqualTo(root.get("fechaFin"), fechaDesde));
+				}
+
+				// Se obtienen las reservas cuyo rango empieza antes de una fecha determinada
+				if (!StringUtils.isEmpty(fechaHasta)) {
+					predicates.add(cb.lessThanOrEqualTo(root.get("fechaInicio"), fechaHasta));
+				}
+
+				// Se obtienen las reservas realizadas a partir de una hora (de inicio) del día
+				if (!StringUtils.isEmpty(horaDesde)) {
+					predicates.add(cb.greaterThanOrEqualTo(root.get("horaInicio"), horaDesde));
+				}
+
+				// Se obtienen las reservas realizadas hasta una hora (de inicio) del día
+				if (!StringUtils.isEmpty(horaHasta)) {
+					predicates.add(cb.lessThanOrEqualTo(root.get("horaInicio"), horaHasta));
+				}
+
+				// Se obtienen las reservas realizadas de el/los centro/s o departamento/s
+				if (lstPropietariosAulas != null && !lstPropietariosAulas.isEmpty()) {
+					predicates.add(root.get("propietarioResponsable").in(lstPropietariosAulas));
+				}
+
+				return cb.and(predicates.toArray(new Predicate[predicates.size()]));
+			}
+		};
+	}
+
+	/**
+	 * Función que devuelve todas las reservas periódicas que pueden ocupar un aula
+	 * entre las fechas y horas pasadas, es decir, cuyo rango de fechas y de horas
+	 * se solapa con el pasado.
+	 * 
+	 * @param fechaDesde Fecha desde la que debe estar disponible el aula
+	 * @param fechaHasta Fecha hasta la que debe estar disponible el aula
+	 * @param horaDesde  Hora desde la que debe estar disponible el aula
+	 * @param horaHasta  Hora hasta la que debe estar disponible el aula
+	 * @param idAula     ID del aula, o null para todas las aulas
+	 * 
+	 * @return Reservas periódicas que se solapan con las fechas y horas pasadas
+	 */
+	public static Specification<ReservaPeriodica> findSolapadas(LocalDate fechaDesde, LocalDate fechaHasta,
+			LocalTime horaDesde, LocalTime horaHasta, Integer idAula) {
+		return new Specification<ReservaPeriodica>() {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public Predicate toPredicate(Root<ReservaPeriodica> root, CriteriaQuery<?> query, CriteriaBuilder cb) {
+				final List<Predicate> predicates = new ArrayList<>();
+
+				// fechaInicio <= fechaHasta AND fechaFin >= fechaDesde
+				predicates.add(cb.lessThanOrEqualTo(root.get("fechaInicio"), fechaHasta));
+				predicates.add(cb.greaterThanOrEqualTo(root.get("fechaFin"), fechaDesde));
+
+				// horaHasta > horaInicio AND horaDesde < horaFin
+				predicates.add(cb.lessThan(root.get("horaInicio"), horaHasta));
+				predicates.add(cb.greaterThan(root.get("horaFin"), horaDesde));
+
+				if (!StringUtils.isEmpty(idAula)) {
+					predicates.add(cb.equal(root.get("aula").get("idAula"), idAula));
+				}
+
+				return cb.and(predicates.toArray(new Predicate[predicates.size()]));
+			}
+		};
+	}
+}
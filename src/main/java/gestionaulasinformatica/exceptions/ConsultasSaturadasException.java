@@ -0,0 +1,18 @@
+package gestionaulasinformatica.exceptions;
+
+/**
+ * Clase que define la excepción de consulta pública rechazada porque hay
+ * demasiadas consultas en curso.
+ *
+ * @author Lisa
+ *
+ */
+public class ConsultasSaturadasException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public ConsultasSaturadasException(String mensaje) {
+		super(mensaje);
+	}
+
+}
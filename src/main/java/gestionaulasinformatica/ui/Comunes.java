@@ -4,11 +4,21 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
+import java.util.stream.Collectors;
 
+import org.springframework.data.domain.Sort;
+
+import com.vaadin.flow.component.combobox.ComboBox;
 import com.vaadin.flow.component.html.Label;
 import com.vaadin.flow.component.notification.Notification;
 import com.vaadin.flow.component.notification.Notification.Position;
 import com.vaadin.flow.component.notification.NotificationVariant;
+import com.vaadin.flow.data.provider.QuerySortOrder;
+import com.vaadin.flow.data.provider.SortDirection;
+
+import gestionaulasinformatica.backend.entity.Aula;
+import gestionaulasinformatica.backend.entity.PropietarioAula;
+import gestionaulasinformatica.backend.service.AulaService;
 
 /**
  * Clase que contiene las funciones comunes para utilizar en cualquier clase.
@@ -98,4 +108,47 @@ public class Comunes {
 
 		return titulo;
 	}
+
+	/**
+	 * Función que convierte el orden de las columnas de un grid en el orden de la
+	 * consulta a la BD.
+	 * 
+	 * @param lstOrden Orden de las columnas del grid
+	 * 
+	 * @return Orden de la consulta
+	 */
+	public Sort getOrden(List<QuerySortOrder> lstOrden) {
+		return Sort.by(lstOrden.stream()
+				.map(orden -> new Sort.Order(
+						orden.getDirection() == SortDirection.ASCENDING ? Sort.Direction.ASC : Sort.Direction.DESC,
+						orden.getSorted()))
+				.collect(Collectors.toList()));
+	}
+
+	/**
+	 * Función que carga el desplegable de aulas con las aulas del centro o
+	 * departamento seleccionado en el desplegable de propietarios. Las aulas se
+	 * consultan por bloques según se despliega, filtradas por el prefijo que se
+	 * escribe, y al cambiar de propietario sólo se vuelve a consultar el bloque
+	 * visible.
+	 * 
+	 * @param comboAulas        Desplegable de aulas
+	 * @param comboPropietarios Desplegable de centros y departamentos
+	 * @param aulaService       Service de JPA de la entidad Aula
+	 */
+	public void setProveedorAulas(ComboBox<Aula> comboAulas, ComboBox<PropietarioAula> comboPropietarios,
+			AulaService aulaService) {
+		comboAulas.setDataProvider(
+				(prefijo, offset, limit) -> aulaService
+						.findAulasPropietario(comboPropietarios.getValue(), prefijo, offset, limit).stream(),
+				prefijo -> (int) aulaService.countAulasPropietario(comboPropietarios.getValue(), prefijo));
+
+		comboPropietarios.addValueChangeListener(e -> {
+			// Se mantiene el aula seleccionada si es del nuevo propietario (al editar)
+			if (!comboAulas.isEmpty() && !comboAulas.getValue().getPropietarioAula().equals(e.getValue())) {
+				comboAulas.clear();
+			}
+			comboAulas.getDataProvider().refreshAll();
+		});
+	}
 }
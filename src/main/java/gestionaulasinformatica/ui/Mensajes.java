@@ -51,6 +51,8 @@ public enum Mensajes {
 
 	MSG_ERROR_GUARDAR("Se ha producido un error al guardar, revise los campos"),
 
+	MSG_CONSULTAS_SATURADAS("Hay demasiadas consultas en curso, inténtelo de nuevo en unos segundos"),
+
 	MSG_LOGIN_INCORRECTO("El correo o la contraseña introducidos son incorrectos"),
 
 	// Varios
@@ -1,25 +1,33 @@
 package gestionaulasinformatica.ui.views.admin.historicoreservas;
 
-import java.util.List;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-
 import org.springframework.security.access.annotation.Secured;
 
 import com.vaadin.flow.component.button.Button;
 import com.vaadin.flow.component.button.ButtonVariant;
 import com.vaadin.flow.component.grid.Grid;
 import com.vaadin.flow.component.grid.GridVariant;
+import com.vaadin.flow.component.html.Anchor;
 import com.vaadin.flow.component.html.Div;
 import com.vaadin.flow.component.icon.Icon;
 import com.vaadin.flow.component.icon.VaadinIcon;
 import com.vaadin.flow.component.notification.NotificationVariant;
 import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
 import com.vaadin.flow.component.orderedlayout.VerticalLayout;
+import com.vaadin.flow.data.provider.DataProvider;
+import com.vaadin.flow.data.provider.Query;
 import com.vaadin.flow.data.renderer.LocalDateRenderer;
+import com.vaadin.flow.server.StreamResource;
 import com.vaadin.flow.router.PageTitle;
 import com.vaadin.flow.router.Route;
 
+import gestionaulasinformatica.backend.data.PaginaHistoricoReservas;
 import gestionaulasinformatica.backend.entity.HistoricoReservas;
 import gestionaulasinformatica.backend.service.HistoricoReservasService;
 import gestionaulasinformatica.ui.Comunes;
@@ -43,9 +51,14 @@ public class HistoricoReservasView extends VerticalLayout {
 	private Comunes comunes;
 
 	private Grid<HistoricoReservas> gridHistorico;
+	private DataProvider<HistoricoReservas, Void> proveedorHistorico;
 	private HistoricoReservasForm formulario;
 	private HorizontalLayout toolbar;
 
+	private LocalDate filtroFechaDesde;
+	private LocalDate filtroFechaHasta;
+	private Map<Integer, String> cursoresHistorico = new HashMap<>();
+
 	public HistoricoReservasView(HistoricoReservasService historicoReservasService) {
 		Div contenido;
 
@@ -82,6 +95,7 @@ public class HistoricoReservasView extends VerticalLayout {
 	private HorizontalLayout configurarToolbar() {
 		Button btnBuscar;
 		Button btnLimpiarFiltros;
+		Anchor exportar;
 
 		try {
 			btnBuscar = new Button("Buscar", event -> actualizarHR());
@@ -92,7 +106,14 @@ public class HistoricoReservasView extends VerticalLayout {
 			btnLimpiarFiltros.setIcon(new Icon(VaadinIcon.CLOSE));
 			btnLimpiarFiltros.addThemeVariants(ButtonVariant.LUMO_ICON);
 
-			toolbar = new HorizontalLayout(btnBuscar, btnLimpiarFiltros);
+			// El CSV se genera al descargarlo, con los filtros de la última búsqueda
+			exportar = new Anchor(new StreamResource("historico_reservas.csv",
+					(salida, sesion) -> historicoReservasService.exportarCsv(filtroFechaDesde, filtroFechaHasta, salida)),
+					"");
+			exportar.getElement().setAttribute("download", true);
+			exportar.add(new Button("Exportar CSV", new Icon(VaadinIcon.DOWNLOAD)));
+
+			toolbar = new HorizontalLayout(btnBuscar, btnLimpiarFiltros, exportar);
 			toolbar.addClassName("toolbar");
 
 			return toolbar;
@@ -105,6 +126,10 @@ public class HistoricoReservasView extends VerticalLayout {
 
 	/**
 	 * Función que configura el grid que muestra el histórico de reservas.
+	 * 
+	 * El grid se carga de forma paginada: sólo se obtienen de la BD las
+	 * operaciones que se muestran (ordenadas en la BD por la columna elegida) y el
+	 * número total de operaciones se obtiene con una consulta de recuento.
 	 */
 	private void configurarGridHistorico() {
 		try {
@@ -113,23 +138,31 @@ public class HistoricoReservasView extends VerticalLayout {
 			gridHistorico.setHeightFull();
 			
 			gridHistorico.addColumn(new LocalDateRenderer<>(HistoricoReservas::getFechaOperacion, "dd/MM/yyyy"))
-					.setHeader("Fecha").setKey("fechaOperacion");
-			gridHistorico.addColumn(HistoricoReservas::getTipoOperacion).setHeader("Operación").setKey("tipoOperacion");
-			gridHistorico.addColumn(HistoricoReservas::getMotivoReserva).setHeader("Reserva").setKey("motivoReserva");
+					.setHeader("Fecha").setKey("fechaOperacion").setSortProperty("fechaHoraOperacion");
+			gridHistorico.addColumn(HistoricoReservas::getTipoOperacion).setHeader("Operación").setKey("tipoOperacion")
+					.setSortProperty("tipoOperacion");
+			gridHistorico.addColumn(HistoricoReservas::getMotivoReserva).setHeader("Reserva").setKey("motivoReserva")
+					.setSortProperty("motivoReserva");
 			gridHistorico.addColumn(new LocalDateRenderer<>(HistoricoReservas::getFechaReserva, "dd/MM/yyyy"))
-					.setHeader("Fecha reserva").setKey("fechaReserva");
+					.setHeader("Fecha reserva").setKey("fechaReserva").setSortProperty("fechaReserva");
 			gridHistorico.addColumn(HistoricoReservas::getHoraInicioReserva).setHeader("Hora inicio")
-					.setKey("horaInicioReserva");
+					.setKey("horaInicioReserva").setSortProperty("horaInicioReserva");
 			gridHistorico.addColumn(HistoricoReservas::getHoraFinReserva).setHeader("Hora fin")
-					.setKey("horaFinReserva");
-			gridHistorico.addColumn(HistoricoReservas::getLugarReserva).setHeader("Lugar").setKey("lugarReserva");
+					.setKey("horaFinReserva").setSortProperty("horaFinReserva");
+			gridHistorico.addColumn(HistoricoReservas::getLugarReserva).setHeader("Lugar").setKey("lugarReserva")
+					.setSortProperty("lugarReserva");
 			gridHistorico.addColumn(HistoricoReservas::getACargoDeReserva).setHeader("A cargo de")
-					.setKey("aCargoDeReserva");
+					.setKey("aCargoDeReserva").setSortProperty("aCargoDeReserva");
 			gridHistorico.addColumn(HistoricoReservas::getRegistradaPor).setHeader("Registrada por")
-					.setKey("responsableOperacion");
+					.setKey("responsableOperacion")
+					.setSortProperty("usuarioResponsableOperacion", "propietarioResponsableOperacion");
 
 			gridHistorico.getColumns().forEach(columna -> columna.setAutoWidth(true));
 
+			proveedorHistorico = DataProvider.fromCallbacks(this::getOperacionesHR,
+					query -> (int) historicoReservasService.count(filtroFechaDesde, filtroFechaHasta));
+			gridHistorico.setDataProvider(proveedorHistorico);
+
 			gridHistorico.addThemeVariants(GridVariant.LUMO_NO_BORDER, GridVariant.LUMO_NO_ROW_BORDERS,
 					GridVariant.LUMO_ROW_STRIPES);
 		} catch (Exception e) {
@@ -138,6 +171,35 @@ public class HistoricoReservasView extends VerticalLayout {
 		}
 	}
 
+	/**
+	 * Función que devuelve el bloque de operaciones que pide el grid.
+	 * 
+	 * Si el grid no está ordenado por ninguna columna y el bloque empieza donde
+	 * acabó uno anterior, se obtiene con el cursor de ese bloque (paginación por
+	 * clave), de forma que recorrer el histórico hasta el final no se hace más
+	 * lento. En otro caso se obtiene por posición.
+	 * 
+	 * @param query Consulta del grid
+	 * 
+	 * @return Operaciones del bloque
+	 */
+	private Stream<HistoricoReservas> getOperacionesHR(Query<HistoricoReservas, Void> query) {
+		PaginaHistoricoReservas pagina;
+
+		if (!query.getSortOrders().isEmpty()
+				|| (query.getOffset() != 0 && !cursoresHistorico.containsKey(query.getOffset()))) {
+			return historicoReservasService.findAll(filtroFechaDesde, filtroFechaHasta, query.getOffset(),
+					query.getLimit(), comunes.getOrden(query.getSortOrders())).stream();
+		}
+
+		pagina = historicoReservasService.findPagina(filtroFechaDesde, filtroFechaHasta,
+				cursoresHistorico.get(query.getOffset()), query.getLimit());
+		if (pagina.hasSiguiente()) {
+			cursoresHistorico.put(query.getOffset() + pagina.getOperaciones().size(), pagina.getCursorSiguiente());
+		}
+		return pagina.getOperaciones().stream();
+	}
+
 	/**
 	 * Función que limpia los filtros aplicados y actualiza el grid.
 	 */
@@ -184,17 +246,17 @@ public class HistoricoReservasView extends VerticalLayout {
 	 * las reservas.
 	 */
 	private void actualizarHR() {
-		List<HistoricoReservas> lstOperacionesHR;
 		try {
 			gridHistorico.setVisible(false);
 
 			if (validarFiltrosHR()) {
-				lstOperacionesHR = historicoReservasService.findAll(formulario.fechaDesde.getValue(),
-						formulario.fechaHasta.getValue());
+				filtroFechaDesde = formulario.fechaDesde.getValue();
+				filtroFechaHasta = formulario.fechaHasta.getValue();
 
-				if (!lstOperacionesHR.isEmpty()) {
+				if (historicoReservasService.count(filtroFechaDesde, filtroFechaHasta) > 0) {
 					gridHistorico.setVisible(true);
-					gridHistorico.setItems(lstOperacionesHR);
+					cursoresHistorico.clear();
+					proveedorHistorico.refreshAll();
 				} else {
 					comunes.mostrarNotificacion(Mensajes.MSG_NO_OPERACIONES_HR.getMensaje(), 5000, null);
 				}
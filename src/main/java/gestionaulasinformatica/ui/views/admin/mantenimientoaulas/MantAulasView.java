@@ -1,6 +1,5 @@
 package gestionaulasinformatica.ui.views.admin.mantenimientoaulas;
 
-import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -24,11 +23,14 @@ import com.vaadin.flow.component.orderedlayout.VerticalLayout;
 import com.vaadin.flow.router.PageTitle;
 import com.vaadin.flow.router.Route;
 
+import gestionaulasinformatica.app.security.UsuarioSesion;
+import gestionaulasinformatica.backend.data.ResumenDependencias;
 import gestionaulasinformatica.backend.entity.Aula;
 import gestionaulasinformatica.backend.entity.PropietarioAula;
+import gestionaulasinformatica.backend.entity.Usuario;
 import gestionaulasinformatica.backend.service.AulaService;
+import gestionaulasinformatica.backend.service.DependenciasService;
 import gestionaulasinformatica.backend.service.PropietarioAulaService;
-import gestionaulasinformatica.backend.service.ReservaService;
 import gestionaulasinformatica.ui.Comunes;
 import gestionaulasinformatica.ui.MainLayout;
 import gestionaulasinformatica.ui.Mensajes;
@@ -46,7 +48,7 @@ public class MantAulasView extends VerticalLayout {
 
 	private AulaService aulaService;
 	private PropietarioAulaService propietarioAulaService;
-	private ReservaService reservaService;
+	private DependenciasService dependenciasService;
 	private Comunes comunes;
 
 	private MantAulasForm formulario;
@@ -54,16 +56,20 @@ public class MantAulasView extends VerticalLayout {
 	private ComboBox<PropietarioAula> filtroPropietarioAula;
 	private HorizontalLayout toolbar;
 
+	private Usuario usuarioLogeado;
+
 	public MantAulasView(AulaService aulaService, PropietarioAulaService propietarioAulaService,
-			ReservaService reservaService) {
+			DependenciasService dependenciasService, UsuarioSesion usuarioSesion) {
 		Div contenido;
 
 		try {
 			this.aulaService = aulaService;
 			this.propietarioAulaService = propietarioAulaService;
-			this.reservaService = reservaService;
+			this.dependenciasService = dependenciasService;
 			this.comunes = new Comunes();
 
+			usuarioLogeado = usuarioSesion.getUser();
+
 			addClassName("mant-aulas-view");
 			setSizeFull();
 
@@ -241,7 +247,7 @@ public class MantAulasView extends VerticalLayout {
 	 */
 	private void eliminarAula(Aula aula) {
 		try {
-			aulaService.delete(aula);
+			aulaService.delete(aula, usuarioLogeado);
 			actualizarAulas();
 			cerrarEditor();
 
@@ -260,6 +266,7 @@ public class MantAulasView extends VerticalLayout {
 	 */
 	private void confirmarEliminacionAula(MantAulasForm.DeleteEvent evt) {
 		Aula aula;
+		ResumenDependencias resumen;
 		Dialog confirmacion;
 		String mensajeConfirmacion;
 		String mensajeEliminado;
@@ -268,12 +275,13 @@ public class MantAulasView extends VerticalLayout {
 
 		try {
 			aula = evt.getAula();
+			resumen = dependenciasService.getResumenAula(aula);
 
 			// Si tiene reservas asociadas a partir de la fecha actual
-			if (!reservaService.findAllReservasAulaAndFechaDesde(aula, LocalDate.now()).isEmpty()) {
-				mensajeConfirmacion = "El aula " + aula.getNombreAula() + " de " + aula.getNombreCentro()
-						+ " tiene reservas asociadas, ¿desea eliminarla definitivamente junto a todas sus reservas? "
-						+ " Esta acción no se puede deshacer.";
+			if (!resumen.isVacio()) {
+				mensajeConfirmacion = "El aula " + aula.getNombreAula() + " de " + aula.getNombreCentro() + " tiene "
+						+ resumen.getDescripcion()
+						+ ", ¿desea eliminarla definitivamente junto a todas sus reservas? Esta acción no se puede deshacer.";
 			} else {
 				mensajeConfirmacion = "¿Desea eliminar " + aula.getNombreAula() + " de " + aula.getNombreCentro()
 						+ " definitivamente? Esta acción no se puede deshacer.";
@@ -21,12 +21,14 @@ import com.vaadin.flow.data.value.ValueChangeMode;
 import com.vaadin.flow.router.PageTitle;
 import com.vaadin.flow.router.Route;
 
+import gestionaulasinformatica.app.security.UsuarioSesion;
+import gestionaulasinformatica.backend.data.ResumenDependencias;
 import gestionaulasinformatica.backend.data.Rol;
 import gestionaulasinformatica.backend.entity.Centro;
 import gestionaulasinformatica.backend.entity.Departamento;
 import gestionaulasinformatica.backend.entity.PropietarioAula;
 import gestionaulasinformatica.backend.entity.Usuario;
-import gestionaulasinformatica.backend.service.AulaService;
+import gestionaulasinformatica.backend.service.DependenciasService;
 import gestionaulasinformatica.backend.service.PropietarioAulaService;
 import gestionaulasinformatica.backend.service.UsuarioService;
 import gestionaulasinformatica.ui.Comunes;
@@ -47,7 +49,7 @@ public class MantPropietariosView extends VerticalLayout {
 
 	private PropietarioAulaService propietarioAulaService;
 	private UsuarioService usuarioService;
-	private AulaService aulaService;
+	private DependenciasService dependenciasService;
 	private Comunes comunes;
 
 	private final MantPropietariosForm formulario;
@@ -55,22 +57,28 @@ public class MantPropietariosView extends VerticalLayout {
 	private TextField filtroTexto;
 	private HorizontalLayout toolbar;
 
+	private Usuario usuarioLogeado;
+
 	/**
 	 * Constructorde la clase.
 	 * 
 	 * @param propietarioAulaService Service de JPA de la entidad PropietarioAula
 	 * @param usuarioService         Service de JPA de la entidad Usuario
+	 * @param usuarioSesion          Datos del usuario logeado guardados en la
+	 *                               sesión
 	 */
 	public MantPropietariosView(PropietarioAulaService propietarioAulaService, UsuarioService usuarioService,
-			AulaService aulaService) {
+			DependenciasService dependenciasService, UsuarioSesion usuarioSesion) {
 		Div contenido;
 
 		try {
 			this.propietarioAulaService = propietarioAulaService;
 			this.usuarioService = usuarioService;
-			this.aulaService = aulaService;
+			this.dependenciasService = dependenciasService;
 			this.comunes = new Comunes();
 
+			usuarioLogeado = usuarioSesion.getUser();
+
 			addClassName("mant-propietarios-view");
 			setSizeFull();
 
@@ -279,7 +287,7 @@ public class MantPropietariosView extends VerticalLayout {
 	 */
 	private void eliminarPropietario(PropietarioAula propietario) {
 		try {
-			propietarioAulaService.delete(propietario);
+			propietarioAulaService.delete(propietario, usuarioLogeado);
 			actualizarPropietarios();
 			cerrarEditor();
 
@@ -298,6 +306,7 @@ public class MantPropietariosView extends VerticalLayout {
 	 */
 	private void confirmarEliminacionPropietario(MantPropietariosForm.DeleteEvent evt) {
 		PropietarioAula propietario;
+		ResumenDependencias resumen;
 		Dialog confirmacion;
 		String mensajeConfirmacion;
 		String mensajeEliminado;
@@ -306,10 +315,11 @@ public class MantPropietariosView extends VerticalLayout {
 
 		try {
 			propietario = evt.getPropietarioAula();
+			resumen = dependenciasService.getResumenPropietario(propietario);
 
-			if (!aulaService.findAllAulasPropietario(propietario).isEmpty()) {
-				mensajeConfirmacion = propietario.getNombrePropietarioAula()
-						+ " tiene aulas asignadas, ¿desea eliminarle definitivamente junto a todas sus aulas? Esta acción no se puede deshacer.";
+			if (!resumen.isVacio()) {
+				mensajeConfirmacion = propietario.getNombrePropietarioAula() + " tiene " + resumen.getDescripcion()
+						+ ", ¿desea eliminarle definitivamente junto a todas sus aulas y reservas? Esta acción no se puede deshacer.";
 			} else {
 				mensajeConfirmacion = "¿Desea eliminar " + propietario.getNombrePropietarioAula()
 						+ " definitivamente? Esta acción no se puede deshacer.";
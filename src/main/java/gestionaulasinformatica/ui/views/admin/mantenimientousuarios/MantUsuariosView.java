@@ -18,13 +18,14 @@ import com.vaadin.flow.component.notification.NotificationVariant;
 import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
 import com.vaadin.flow.component.orderedlayout.VerticalLayout;
 import com.vaadin.flow.component.textfield.TextField;
+import com.vaadin.flow.data.provider.DataProvider;
 import com.vaadin.flow.data.value.ValueChangeMode;
 import com.vaadin.flow.router.PageTitle;
 import com.vaadin.flow.router.Route;
 
-import gestionaulasinformatica.app.security.SecurityUtils;
+import gestionaulasinformatica.app.security.UsuarioSesion;
 import gestionaulasinformatica.backend.entity.Usuario;
-import gestionaulasinformatica.backend.service.PropietarioAulaService;
+import gestionaulasinformatica.backend.service.DependenciasService;
 import gestionaulasinformatica.backend.service.UsuarioService;
 import gestionaulasinformatica.exceptions.UserFriendlyDataException;
 import gestionaulasinformatica.ui.Comunes;
@@ -43,12 +44,13 @@ public class MantUsuariosView extends VerticalLayout {
 	private static final Logger LOGGER = LoggerFactory.getLogger(MantUsuariosView.class.getName());
 
 	private UsuarioService usuarioService;
-	private PropietarioAulaService propietarioAulaService;
+	private DependenciasService dependenciasService;
 	private PasswordEncoder passwordEncoder;
 	private Comunes comunes;
 
 	private final MantUsuariosForm formulario;
 	private Grid<Usuario> gridUsuarios;
+	private DataProvider<Usuario, Void> proveedorUsuarios;
 	private TextField filtroTexto;
 	private HorizontalLayout toolbar;
 
@@ -58,18 +60,19 @@ public class MantUsuariosView extends VerticalLayout {
 	 * Constructorde la clase.
 	 * 
 	 * @param passwordEncoder Codificador de contraseñas
+	 * @param usuarioSesion   Datos del usuario logeado guardados en la sesión
 	 */
-	public MantUsuariosView(UsuarioService usuarioService, PropietarioAulaService propietarioAulaService,
-			PasswordEncoder passwordEncoder) {
+	public MantUsuariosView(UsuarioService usuarioService, DependenciasService dependenciasService,
+			PasswordEncoder passwordEncoder, UsuarioSesion usuarioSesion) {
 		Div contenido;
 
 		try {
 			this.usuarioService = usuarioService;
-			this.propietarioAulaService = propietarioAulaService;
+			this.dependenciasService = dependenciasService;
 			this.passwordEncoder = passwordEncoder;
 			this.comunes = new Comunes();
 
-			usuarioLogeado = usuarioService.findByCorreoUsuario(SecurityUtils.getUsername());
+			usuarioLogeado = usuarioSesion.getUser();
 
 			addClassName("mant-usuarios-view");
 			setSizeFull();
@@ -108,16 +111,27 @@ public class MantUsuariosView extends VerticalLayout {
 			gridUsuarios.setHeightFull();
 
 			gridUsuarios.addColumn(Usuario::getNombreApellidosUsuario).setHeader("Usuario")
-					.setKey("nombreApellidosUsuario");
+					.setKey("nombreApellidosUsuario").setSortProperty("nombreUsuario", "apellidosUsuario");
 
-			gridUsuarios.addColumn(Usuario::getCorreoUsuario).setHeader("Correo").setKey("correoUsuario");
+			gridUsuarios.addColumn(Usuario::getCorreoUsuario).setHeader("Correo").setKey("correoUsuario")
+					.setSortProperty("correoUsuario");
 
-			gridUsuarios.addColumn(Usuario::getTelefonoUsuario).setHeader("Teléfono").setKey("telefonoUsuario");
+			gridUsuarios.addColumn(Usuario::getTelefonoUsuario).setHeader("Teléfono").setKey("telefonoUsuario")
+					.setSortProperty("telefonoUsuario");
 
-			gridUsuarios.addColumn(Usuario::getRolUsuario).setHeader("Rol").setKey("rolUsuario");
+			gridUsuarios.addColumn(Usuario::getRolUsuario).setHeader("Rol").setKey("rolUsuario")
+					.setSortProperty("rolUsuario");
 
 			gridUsuarios.getColumns().forEach(columna -> columna.setAutoWidth(true));
 
+			// Los usuarios se cargan de la BD por bloques según se desplaza el grid. Con
+			// filtro se ordenan por relevancia y el orden de las columnas no se aplica
+			proveedorUsuarios = DataProvider.fromCallbacks(
+					query -> usuarioService.findAll(filtroTexto.getValue(), query.getOffset(), query.getLimit(),
+							comunes.getOrden(query.getSortOrders())).stream(),
+					query -> (int) usuarioService.count(filtroTexto.getValue()));
+			gridUsuarios.setDataProvider(proveedorUsuarios);
+
 			gridUsuarios.addThemeVariants(GridVariant.LUMO_NO_BORDER, GridVariant.LUMO_NO_ROW_BORDERS,
 					GridVariant.LUMO_ROW_STRIPES);
 
@@ -307,7 +321,7 @@ public class MantUsuariosView extends VerticalLayout {
 
 				// Si el usuario tiene un centro o departamento bajo su responsabilidad se
 				// informa
-				if (!propietarioAulaService.findAllPropietariosResponsable(usuario).isEmpty()) {
+				if (dependenciasService.existsPropietariosResponsable(usuario)) {
 					mensajeConfirmacion = "El usuario " + usuario.getNombreApellidosUsuario()
 							+ " tiene bajo su responsabilidad algún centro o departamento, "
 							+ " reasígneles otro responsable primero";
@@ -353,7 +367,7 @@ public class MantUsuariosView extends VerticalLayout {
 	 */
 	private void actualizarUsuarios() {
 		try {
-			gridUsuarios.setItems(usuarioService.findAll(filtroTexto.getValue()));
+			proveedorUsuarios.refreshAll();
 
 		} catch (Exception e) {
 			LOGGER.error(e.getMessage());
@@ -1,7 +1,5 @@
 package gestionaulasinformatica.ui.views.consultaaulas;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Locale;
 
 import org.slf4j.Logger;
@@ -16,6 +14,7 @@ import com.vaadin.flow.component.timepicker.TimePicker;
 import gestionaulasinformatica.backend.entity.Aula;
 import gestionaulasinformatica.backend.entity.PropietarioAula;
 import gestionaulasinformatica.backend.service.AulaService;
+import gestionaulasinformatica.backend.service.PropietarioAulaService;
 import gestionaulasinformatica.ui.Comunes;
 
 /**
@@ -29,7 +28,7 @@ public class ConsultaAulasForm extends FormLayout {
 	private static final long serialVersionUID = 1L;
 	private static final Logger LOGGER = LoggerFactory.getLogger(ConsultaAulasForm.class.getName());
 
-	private List<PropietarioAula> lstPropietariosAulas;
+	private PropietarioAulaService propietarioAulaService;
 	private Comunes comunes;
 	private AulaService aulaService;
 
@@ -46,16 +45,19 @@ public class ConsultaAulasForm extends FormLayout {
 	/**
 	 * Constructor de la clase
 	 * 
-	 * @param propietarios Lista de responsables (PropietarioAula) que se muestra en
-	 *                     el desplegable de responsables
-	 * @param comunes      Objeto Comunes para tener acceso a las funciones comunes
-	 * @param aulaService  Service de JPA de la entidad Aula
+	 * @param propietarioAulaService Service de JPA de la entidad PropietarioAula,
+	 *                               con el que se carga el desplegable de
+	 *                               responsables
+	 * @param comunes                Objeto Comunes para tener acceso a las
+	 *                               funciones comunes
+	 * @param aulaService            Service de JPA de la entidad Aula
 	 */
-	public ConsultaAulasForm(List<PropietarioAula> propietarios, Comunes comunes, AulaService aulaService) {
+	public ConsultaAulasForm(PropietarioAulaService propietarioAulaService, Comunes comunes,
+			AulaService aulaService) {
 		try {
 			addClassName("consulta-aulas-form");
 
-			this.lstPropietariosAulas = propietarios;
+			this.propietarioAulaService = propietarioAulaService;
 			this.comunes = comunes;
 			this.aulaService = aulaService;
 
@@ -126,15 +128,17 @@ public class ConsultaAulasForm extends FormLayout {
 
 			propietario = new ComboBox<PropietarioAula>("Centro/Departamento");
 			propietario.setPlaceholder("Seleccione");
-			propietario.setItems(lstPropietariosAulas);
+			propietario.setDataProvider(
+					(prefijo, offset, limit) -> propietarioAulaService.findAllPrefijo(prefijo, offset, limit).stream(),
+					prefijo -> (int) propietarioAulaService.countPrefijo(prefijo));
 			propietario.setItemLabelGenerator(PropietarioAula::getNombrePropietarioAula);
-			propietario.addValueChangeListener(e -> cargarAulasPropietario());
 			propietario.setRequired(true); // Campo obligatorio
 			propietario.setRequiredIndicatorVisible(true);
 
 			aula = new ComboBox<Aula>("Aula");
 			aula.setPlaceholder("Seleccione");
 			aula.setItemLabelGenerator(Aula::getNombreAula);
+			comunes.setProveedorAulas(aula, propietario, aulaService);
 
 		} catch (Exception e) {
 			LOGGER.error(e.getMessage());
@@ -156,23 +160,6 @@ public class ConsultaAulasForm extends FormLayout {
 		}
 	}
 
-	/**
-	 * Carga las aulas del propietario seleccionado en el desplegable de
-	 * propietarios.
-	 */
-	private void cargarAulasPropietario() {
-		List<Aula> lstAulas;
-		try {
-			if (!propietario.isEmpty()) {
-				lstAulas = aulaService.findAllAulasPropietario(propietario.getValue());
-				aula.setItems(lstAulas);
-			}
-		} catch (Exception e) {
-			LOGGER.error(e.getMessage());
-			throw e;
-		}
-	}
-
 	/**
 	 * Función que limpia todos los filtros aplicados, elimina sus valores o
 	 * establece los de por defecto.
@@ -188,7 +175,6 @@ public class ConsultaAulasForm extends FormLayout {
 			diaSemana.clear();
 			propietario.clear();
 			aula.clear();
-			aula.setItems(new ArrayList<Aula>());
 			
 		} catch (Exception e) {
 			LOGGER.error(e.getMessage());
@@ -19,9 +19,10 @@ import com.vaadin.flow.component.orderedlayout.VerticalLayout;
 import com.vaadin.flow.router.PageTitle;
 import com.vaadin.flow.router.Route;
 
-import gestionaulasinformatica.backend.entity.Aula;
+import gestionaulasinformatica.backend.data.AulaFila;
 import gestionaulasinformatica.backend.service.AulaService;
 import gestionaulasinformatica.backend.service.PropietarioAulaService;
+import gestionaulasinformatica.exceptions.ConsultasSaturadasException;
 import gestionaulasinformatica.ui.Comunes;
 import gestionaulasinformatica.ui.MainLayout;
 import gestionaulasinformatica.ui.Mensajes;
@@ -40,7 +41,7 @@ public class ConsultaAulasView extends VerticalLayout {
 	protected PropietarioAulaService propietarioAulaService;
 	private Comunes comunes;
 
-	protected Grid<Aula> gridAulas;
+	protected Grid<AulaFila> gridAulas;
 	protected ConsultaAulasForm formulario;
 	protected HorizontalLayout toolbar;
 
@@ -64,7 +65,7 @@ public class ConsultaAulasView extends VerticalLayout {
 			configurarToolbar();
 			configurarGrid();
 
-			formulario = new ConsultaAulasForm(this.propietarioAulaService.findAll(), comunes, aulaService);
+			formulario = new ConsultaAulasForm(this.propietarioAulaService, comunes, aulaService);
 
 			contenido = new Div(comunes.getTituloVentana("Consulta de disponibilidad de aulas"), formulario, toolbar,
 					gridAulas);
@@ -122,10 +123,10 @@ public class ConsultaAulasView extends VerticalLayout {
 			gridAulas.addClassName("consulta-aulas-grid");
 			gridAulas.setHeightFull();
 
-			gridAulas.addColumn(Aula::getNombreAula).setHeader("Aula").setKey("nombreAula");
-			gridAulas.addColumn(Aula::getNombreCentro).setHeader("Centro").setKey("centro");
-			gridAulas.addColumn(Aula::getCapacidadInt).setHeader("Capacidad").setKey("capacidad");
-			gridAulas.addColumn(Aula::getNumOrdenadoresInt).setHeader("Número de ordenadores").setKey("numOrdenadores");
+			gridAulas.addColumn(AulaFila::getNombreAula).setHeader("Aula").setKey("nombreAula");
+			gridAulas.addColumn(AulaFila::getNombreCentro).setHeader("Centro").setKey("centro");
+			gridAulas.addColumn(AulaFila::getCapacidad).setHeader("Capacidad").setKey("capacidad");
+			gridAulas.addColumn(AulaFila::getNumOrdenadores).setHeader("Número de ordenadores").setKey("numOrdenadores");
 
 			gridAulas.getColumns().forEach(columna -> columna.setAutoWidth(true));
 
@@ -223,7 +224,7 @@ public class ConsultaAulasView extends VerticalLayout {
 		LocalDate fechaHasta;
 		Double capacidad;
 		Double numOrdenadores;
-		List<Aula> lstAulas;
+		List<AulaFila> lstAulas;
 
 		try {
 			gridAulas.setVisible(false);
@@ -243,15 +244,15 @@ public class ConsultaAulasView extends VerticalLayout {
 
 				// Si no se consulta por aula
 				if (formulario.aula.isEmpty()) {
-					lstAulas = aulaService.findAllAulasDisponiblesFiltros(fechaDesde, fechaHasta,
+					lstAulas = aulaService.findAllFilasAulasDisponiblesFiltros(fechaDesde, fechaHasta,
 							formulario.horaDesde.getValue(), formulario.horaHasta.getValue(), capacidad.intValue(),
 							numOrdenadores.intValue(), formulario.diaSemana.getValue(),
-							formulario.propietario.getValue(), null, null);
+							formulario.propietario.getValue(), null);
 				} else {
-					lstAulas = aulaService.findAllAulasDisponiblesFiltros(fechaDesde, fechaHasta,
+					lstAulas = aulaService.findAllFilasAulasDisponiblesFiltros(fechaDesde, fechaHasta,
 							formulario.horaDesde.getValue(), formulario.horaHasta.getValue(), capacidad.intValue(),
 							numOrdenadores.intValue(), formulario.diaSemana.getValue(),
-							formulario.propietario.getValue(), formulario.aula.getValue().getIdAula(), null);
+							formulario.propietario.getValue(), formulario.aula.getValue().getIdAula());
 				}
 
 				if (!lstAulas.isEmpty()) {
@@ -261,6 +262,10 @@ public class ConsultaAulasView extends VerticalLayout {
 					comunes.mostrarNotificacion(Mensajes.MSG_NO_CONSULTA_AULAS.getMensaje(), 3000, null);
 				}
 			}
+		} catch (ConsultasSaturadasException e) {
+			comunes.mostrarNotificacion(e.getMessage(), 3000, NotificationVariant.LUMO_ERROR);
+			LOGGER.warn(e.getMessage());
+
 		} catch (Exception e) {
 			LOGGER.error(e.getMessage());
 			throw e;
@@ -20,10 +20,11 @@ import com.vaadin.flow.data.renderer.LocalDateRenderer;
 import com.vaadin.flow.router.PageTitle;
 import com.vaadin.flow.router.Route;
 
+import gestionaulasinformatica.backend.data.ReservaFila;
 import gestionaulasinformatica.backend.entity.PropietarioAula;
-import gestionaulasinformatica.backend.entity.Reserva;
 import gestionaulasinformatica.backend.service.PropietarioAulaService;
 import gestionaulasinformatica.backend.service.ReservaService;
+import gestionaulasinformatica.exceptions.ConsultasSaturadasException;
 import gestionaulasinformatica.ui.Comunes;
 import gestionaulasinformatica.ui.MainLayout;
 import gestionaulasinformatica.ui.Mensajes;
@@ -42,7 +43,7 @@ public class ConsultaReservasView extends VerticalLayout {
 	private PropietarioAulaService propietarioAulaService;
 	private Comunes comunes;
 
-	private Grid<Reserva> gridReservas;
+	private Grid<ReservaFila> gridReservas;
 	private ConsultaReservasForm formulario;
 	private HorizontalLayout toolbar;
 
@@ -122,16 +123,16 @@ public class ConsultaReservasView extends VerticalLayout {
 			gridReservas.addClassName("consulta-reservas-grid");
 			gridReservas.setHeightFull();
 
-			gridReservas.addColumn(new LocalDateRenderer<>(Reserva::getFecha, "dd/MM/yyyy")).setHeader("Fecha")
+			gridReservas.addColumn(new LocalDateRenderer<>(ReservaFila::getFecha, "dd/MM/yyyy")).setHeader("Fecha")
 					.setKey("fecha");
-			gridReservas.addColumn(Reserva::getDiaSemana).setHeader("Día semana").setKey("diaSemana");
-			gridReservas.addColumn(Reserva::getHoraInicio).setHeader("Hora inicio").setKey("horaInicio");
-			gridReservas.addColumn(Reserva::getHoraFin).setHeader("Hora fin").setKey("horaFin");
-			gridReservas.addColumn(Reserva::getNombreAula).setHeader("Aula").setKey("aula");
-			gridReservas.addColumn(Reserva::getNombreCentroAula).setHeader("Centro").setKey("centro");
-			gridReservas.addColumn(Reserva::getMotivo).setHeader("Motivo").setKey("motivo");
-			gridReservas.addColumn(Reserva::getACargoDe).setHeader("A cargo de").setKey("aCargoDe");
-			gridReservas.addColumn(Reserva::getRegistradaPor).setHeader("Registrada por").setKey("registradaPor");
+			gridReservas.addColumn(ReservaFila::getDiaSemana).setHeader("Día semana").setKey("diaSemana");
+			gridReservas.addColumn(ReservaFila::getHoraInicio).setHeader("Hora inicio").setKey("horaInicio");
+			gridReservas.addColumn(ReservaFila::getHoraFin).setHeader("Hora fin").setKey("horaFin");
+			gridReservas.addColumn(ReservaFila::getNombreAula).setHeader("Aula").setKey("aula");
+			gridReservas.addColumn(ReservaFila::getNombreCentroAula).setHeader("Centro").setKey("centro");
+			gridReservas.addColumn(ReservaFila::getMotivo).setHeader("Motivo").setKey("motivo");
+			gridReservas.addColumn(ReservaFila::getACargoDe).setHeader("A cargo de").setKey("aCargoDe");
+			gridReservas.addColumn(ReservaFila::getRegistradaPor).setHeader("Registrada por").setKey("registradaPor");
 
 			gridReservas.getColumns().forEach(columna -> columna.setAutoWidth(true));
 
@@ -208,7 +209,7 @@ public class ConsultaReservasView extends VerticalLayout {
 	 * Función que permite consultar las reservas con los filtros aplicados.
 	 */
 	private void consultarReservas() {
-		List<Reserva> lstReservas;
+		List<ReservaFila> lstReservas;
 		List<PropietarioAula> propietario;
 
 		try {
@@ -218,7 +219,7 @@ public class ConsultaReservasView extends VerticalLayout {
 			propietario.add(formulario.propietario.getValue());
 
 			if (validarFiltrosConsultaReservas()) {
-				lstReservas = reservaService.findAllReservasFiltros(formulario.fechaDesde.getValue(),
+				lstReservas = reservaService.findAllFilasReservasFiltros(formulario.fechaDesde.getValue(),
 						formulario.fechaHasta.getValue(), formulario.horaDesde.getValue(),
 						formulario.horaHasta.getValue(), formulario.diaSemana.getValue(), propietario);
 
@@ -229,6 +230,10 @@ public class ConsultaReservasView extends VerticalLayout {
 					comunes.mostrarNotificacion(Mensajes.MSG_NO_CONSULTA_RESERVAS.getMensaje(), 3000, null);
 				}
 			}
+		} catch (ConsultasSaturadasException e) {
+			comunes.mostrarNotificacion(e.getMessage(), 3000, NotificationVariant.LUMO_ERROR);
+			LOGGER.warn(e.getMessage());
+
 		} catch (Exception e) {
 			LOGGER.error(e.getMessage());
 			throw e;
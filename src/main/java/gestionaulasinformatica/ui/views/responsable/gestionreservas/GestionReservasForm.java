@@ -127,11 +127,11 @@ public class GestionReservasForm extends FormLayout {
 			propietarioAula.setPlaceholder("Seleccione");
 			propietarioAula.setItems(lstPropietarios);
 			propietarioAula.setItemLabelGenerator(PropietarioAula::getNombrePropietarioAula);
-			propietarioAula.addValueChangeListener(e -> cargarAulasPropietario());
 
 			aula = new ComboBox<Aula>("Aula");
 			aula.setPlaceholder("Seleccione");
 			aula.setItemLabelGenerator(Aula::getNombreAula);
+			comunes.setProveedorAulas(aula, propietarioAula, aulaService);
 
 			diaSemana = new TextField("Día de la semana");
 			diaSemana.setEnabled(false);
@@ -196,23 +196,6 @@ public class GestionReservasForm extends FormLayout {
 		}
 	}
 
-	/**
-	 * Carga las aulas del propietario seleccionado en el desplegable de
-	 * propietarios.
-	 */
-	private void cargarAulasPropietario() {
-		List<Aula> lstAulas;
-		try {
-			if (!propietarioAula.isEmpty()) {
-				lstAulas = aulaService.findAllAulasPropietario(propietarioAula.getValue());
-				aula.setItems(lstAulas);
-			}
-		} catch (Exception e) {
-			LOGGER.error(e.getMessage());
-			throw e;
-		}
-	}
-
 	/**
 	 * Cambia el día de la semana según la fecha seleccionada que se muestra en para
 	 * almacenarlo.
@@ -297,7 +280,8 @@ public class GestionReservasForm extends FormLayout {
 			// Se busca si el aula está en esa fecha y horas en otra reserva
 			aulaConsulta = aulaService.findAllAulasDisponiblesFiltros(fecha.getValue(), fecha.getValue(),
 					horaInicio.getValue(), horaFin.getValue(), aulaReserva.getCapacidadInt(),
-					aulaReserva.getNumOrdenadoresInt(), null, null, aulaReserva.getIdAula(), reserva.getIdReserva());
+					aulaReserva.getNumOrdenadoresInt(), null, null, aulaReserva.getIdAula(), reserva.getIdReserva(),
+					reserva.getIdReservaPeriodica());
 
 			if (aulaConsulta.contains(aulaReserva)) {
 				valida = true;
@@ -1,7 +1,6 @@
 package gestionaulasinformatica.ui.views.responsable.gestionreservas;
 
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Set;
 
@@ -26,16 +25,13 @@ import com.vaadin.flow.data.renderer.LocalDateRenderer;
 import com.vaadin.flow.router.PageTitle;
 import com.vaadin.flow.router.Route;
 
-import gestionaulasinformatica.app.security.SecurityUtils;
+import gestionaulasinformatica.app.security.UsuarioSesion;
 import gestionaulasinformatica.backend.data.TipoOperacionHR;
-import gestionaulasinformatica.backend.entity.HistoricoReservas;
 import gestionaulasinformatica.backend.entity.Reserva;
 import gestionaulasinformatica.backend.entity.Usuario;
 import gestionaulasinformatica.backend.service.AulaService;
-import gestionaulasinformatica.backend.service.HistoricoReservasService;
-import gestionaulasinformatica.backend.service.PropietarioAulaService;
 import gestionaulasinformatica.backend.service.ReservaService;
-import gestionaulasinformatica.backend.service.UsuarioService;
+import gestionaulasinformatica.exceptions.UserFriendlyDataException;
 import gestionaulasinformatica.ui.Comunes;
 import gestionaulasinformatica.ui.MainLayout;
 import gestionaulasinformatica.ui.Mensajes;
@@ -53,9 +49,7 @@ public class GestionReservasView extends VerticalLayout {
 
 	private ReservaService reservaService;
 	private AulaService aulaService;
-	private HistoricoReservasService historicoReservasService;
-	private UsuarioService usuarioService;
-	private PropietarioAulaService propietarioAulaService;
+	private UsuarioSesion usuarioSesion;
 	private Comunes comunes;
 
 	private GestionReservasBusquedaForm formularioBusqueda;
@@ -65,20 +59,16 @@ public class GestionReservasView extends VerticalLayout {
 
 	private Usuario responsableLogeado;
 
-	public GestionReservasView(ReservaService reservaService, AulaService aulaService,
-			HistoricoReservasService historicoReservasService, UsuarioService usuarioService,
-			PropietarioAulaService propietarioAulaService) {
+	public GestionReservasView(ReservaService reservaService, AulaService aulaService, UsuarioSesion usuarioSesion) {
 		Div contenido;
 
 		try {
 			this.reservaService = reservaService;
 			this.aulaService = aulaService;
-			this.historicoReservasService = historicoReservasService;
-			this.usuarioService = usuarioService;
-			this.propietarioAulaService = propietarioAulaService;
+			this.usuarioSesion = usuarioSesion;
 			comunes = new Comunes();
 
-			responsableLogeado = this.usuarioService.findByCorreoUsuario(SecurityUtils.getUsername());
+			responsableLogeado = this.usuarioSesion.getUser();
 
 			addClassName("gestion-reservas-view");
 			setSizeFull();
@@ -88,8 +78,8 @@ public class GestionReservasView extends VerticalLayout {
 
 			formularioBusqueda = new GestionReservasBusquedaForm(comunes);
 
-			formularioEdicion = new GestionReservasForm(this.aulaService,
-					this.propietarioAulaService.findAllPropietariosResponsable(responsableLogeado), comunes);
+			formularioEdicion = new GestionReservasForm(this.aulaService, this.usuarioSesion.getPropietarios(),
+					comunes);
 			formularioEdicion.addListener(GestionReservasForm.SaveEvent.class, this::guardarReserva);
 			formularioEdicion.addListener(GestionReservasForm.CloseEvent.class, e -> cerrarEditor());
 
@@ -268,7 +258,7 @@ public class GestionReservasView extends VerticalLayout {
 				lstReservas = reservaService.findAllReservasFiltros(formularioBusqueda.fechaDesde.getValue(),
 						formularioBusqueda.fechaHasta.getValue(), formularioBusqueda.horaDesde.getValue(),
 						formularioBusqueda.horaHasta.getValue(), formularioBusqueda.diaSemana.getValue(),
-						propietarioAulaService.findAllPropietariosResponsable(responsableLogeado));
+						usuarioSesion.getPropietarios());
 
 				if (!lstReservas.isEmpty()) {
 					gridReservas.setItems(lstReservas);
@@ -359,20 +349,10 @@ public class GestionReservasView extends VerticalLayout {
 	 */
 	private void guardarReserva(GestionReservasForm.SaveEvent evt) {
 		Reserva reserva;
-		String lugarReserva;
-		HistoricoReservas operacionReserva;
 
 		try {
 			reserva = evt.getReserva();
-			reservaService.save(reserva);
-
-			lugarReserva = reserva.getAula().getNombreAula() + " - "
-					+ reserva.getAula().getUbicacionCentro().getNombrePropietarioAula();
-			operacionReserva = new HistoricoReservas(LocalDateTime.now(), TipoOperacionHR.MODIFICACIÓN,
-					reserva.getMotivo(), reserva.getFecha(), reserva.getHoraInicio(), reserva.getHoraFin(),
-					lugarReserva, reserva.getACargoDe(), responsableLogeado.getNombreApellidosUsuario(),
-					reserva.getAula().getPropietarioAula().getIdPropietarioAula());
-			historicoReservasService.save(operacionReserva);
+			reservaService.save(reserva, TipoOperacionHR.MODIFICACIÓN, responsableLogeado);
 			
 			comunes.mostrarNotificacion(Mensajes.MSG_GUARDADO_CORRECTO.getMensaje(), 3000, NotificationVariant.LUMO_SUCCESS);
 
@@ -380,6 +360,10 @@ public class GestionReservasView extends VerticalLayout {
 			actualizarReservas();
 			cerrarEditor();
 			
+		} catch (UserFriendlyDataException e) {
+			comunes.mostrarNotificacion(e.getMessage(), 3000, NotificationVariant.LUMO_ERROR);
+			LOGGER.error(e.getMessage());
+
 		} catch (Exception e) {
 			comunes.mostrarNotificacion(Mensajes.MSG_ERROR_ACCION.getMensaje(), 3000, NotificationVariant.LUMO_ERROR);
 			LOGGER.error(e.getMessage());
@@ -447,23 +431,14 @@ public class GestionReservasView extends VerticalLayout {
 	 * guarda la operación de eliminación en el histórico de reservas en la base de
 	 * datos, y actualiza el listado.
 	 * 
+	 * Todas las reservas se eliminan en una sola transacción; las ocurrencias de
+	 * reservas periódicas se cancelan en su reserva periódica.
+	 * 
 	 * @param reservas Reservas que eliminar
 	 */
 	private void eliminarReservas(Set<Reserva> reservas) {
-		String lugarReserva;
-		HistoricoReservas operacionReserva;
 		try {
-			for (Reserva reserva : reservas) {
-				reservaService.delete(reserva);
-
-				lugarReserva = reserva.getAula().getNombreAula() + " - "
-						+ reserva.getAula().getUbicacionCentro().getNombrePropietarioAula();
-				operacionReserva = new HistoricoReservas(LocalDateTime.now(), TipoOperacionHR.ELIMINACIÓN,
-						reserva.getMotivo(), reserva.getFecha(), reserva.getHoraInicio(), reserva.getHoraFin(),
-						lugarReserva, reserva.getACargoDe(), responsableLogeado.getNombreApellidosUsuario(),
-						reserva.getAula().getPropietarioAula().getIdPropietarioAula());
-				historicoReservasService.save(operacionReserva);
-			}
+			reservaService.deleteAll(reservas, responsableLogeado);
 
 			formularioBusqueda.limpiarFiltros();
 			actualizarReservas();
@@ -486,7 +461,7 @@ public class GestionReservasView extends VerticalLayout {
 			gridReservas.setVisible(false);
 
 			lstReservas = reservaService.findAllReservasFiltros(LocalDate.now(), null, null, null, null,
-					propietarioAulaService.findAllPropietariosResponsable(responsableLogeado));
+					usuarioSesion.getPropietarios());
 
 			if (!lstReservas.isEmpty()) {
 				gridReservas.setVisible(true);
@@ -2,7 +2,6 @@ package gestionaulasinformatica.ui.views.responsable.reservaaulas;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
-import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -29,6 +28,7 @@ import com.vaadin.flow.shared.Registration;
 import gestionaulasinformatica.backend.entity.Aula;
 import gestionaulasinformatica.backend.entity.PropietarioAula;
 import gestionaulasinformatica.backend.entity.Reserva;
+import gestionaulasinformatica.backend.entity.ReservaPeriodica;
 import gestionaulasinformatica.backend.entity.Usuario;
 import gestionaulasinformatica.backend.service.AulaService;
 import gestionaulasinformatica.ui.Comunes;
@@ -153,13 +153,12 @@ public class ReservaAulasForm extends FormLayout {
 			propietarioAula.setPlaceholder("Seleccione");
 			propietarioAula.setItems(lstPropietarios);
 			propietarioAula.setItemLabelGenerator(PropietarioAula::getNombrePropietarioAula);
-			propietarioAula.addValueChangeListener(e -> cargarAulasPropietario());
 			propietarioAula.setRequiredIndicatorVisible(true);
 
 			aula = new ComboBox<Aula>("Aula");
 			aula.setPlaceholder("Seleccione");
 			aula.setItemLabelGenerator(Aula::getNombreAula);
-			aula.setItems(new ArrayList<Aula>());
+			comunes.setProveedorAulas(aula, propietarioAula, aulaService);
 
 			diasCombo = new ArrayList<String>();
 			diasCombo.add("Seleccione");
@@ -213,22 +212,6 @@ public class ReservaAulasForm extends FormLayout {
 		}
 	}
 
-	/**
-	 * Carga las aulas del propietario seleccionado en el desplegable de
-	 * propietarios.
-	 */
-	private void cargarAulasPropietario() {
-		List<Aula> lstAulas;
-		try {
-			if (!propietarioAula.isEmpty()) {
-				lstAulas = aulaService.findAllAulasPropietario(propietarioAula.getValue());
-				aula.setItems(lstAulas);
-			}
-		} catch (Exception e) {
-			throw e;
-		}
-	}
-
 	/**
 	 * Función que comprueba si la fecha escogida es la fecha actual para establecer
 	 * la hora de inicio mínima (hora actual). Si no, no hay hora mínima.
@@ -298,7 +281,6 @@ public class ReservaAulasForm extends FormLayout {
 			horaFin.clear();
 			propietarioAula.clear();
 			aula.clear();
-			aula.setItems(new ArrayList<Aula>());
 			diaSemana.setValue("Seleccione");
 			motivo.clear();
 			aCargoDe.clear();
@@ -425,16 +407,13 @@ public class ReservaAulasForm extends FormLayout {
 	 * 
 	 * Si es una reserva por rango de fechas:
 	 * 
-	 * 1. Se crea una lista de reservas (una por cada día del rango o por cada día
-	 * de la semana elegido de ese rango).
+	 * 1. Se crea una reserva periódica con el rango de fechas y los días de la
+	 * semana en los que se repite (todos o el día de la semana elegido).
 	 * 
 	 * 2. Se lanza el evento de guardado de rango (SaveRangeEvent).
 	 */
 	private void validarGuardar() {
-		List<Reserva> lstReservasGuardar;
-		long diasReserva;
-		Reserva reservaG;
-		LocalDate fecha;
+		ReservaPeriodica reservaPeriodica;
 		String diaSemanaG = "";
 		try {
 			if (validarCamposReserva() & validarReserva()) {
@@ -446,36 +425,17 @@ public class ReservaAulasForm extends FormLayout {
 					fireEvent(new SaveEvent(this, reserva));
 
 				} else {
-					lstReservasGuardar = new ArrayList<Reserva>();
-					diasReserva = ChronoUnit.DAYS.between(fechaInicio.getValue(), fechaFin.getValue()) + 1;
-					fecha = fechaInicio.getValue();
-
 					// Si se ha seleccionado un día de la semana para reservar
 					if (!diaSemana.getValue().equalsIgnoreCase("Seleccione")) {
 						diaSemanaG = diaSemana.getValue();
 					}
 
-					for (int i = 1; i <= diasReserva; i++) {
-						// Si se ha seleccionado un día de la semana para reservar
-						if (!diaSemanaG.isEmpty()) {
-							if (comunes.getDiaSemana(fecha.getDayOfWeek().getValue()).equals(diaSemanaG)) {
-								reservaG = new Reserva(fecha, horaInicio.getValue(), horaFin.getValue(), diaSemanaG,
-										aula.getValue(), motivo.getValue(), aCargoDe.getValue(),
-										responsableLogeado.getNombreApellidosUsuario(), propietarioAula.getValue());
-								lstReservasGuardar.add(reservaG);
-							}
-						} else {
-							reservaG = new Reserva(fecha, horaInicio.getValue(), horaFin.getValue(),
-									comunes.getDiaSemana(fecha.getDayOfWeek().getValue()), aula.getValue(),
-									motivo.getValue(), aCargoDe.getValue(),
-									responsableLogeado.getNombreApellidosUsuario(), propietarioAula.getValue());
-
-							lstReservasGuardar.add(reservaG);
-						}
-						fecha = fecha.plusDays(1);
-					}
+					reservaPeriodica = new ReservaPeriodica(fechaInicio.getValue(), fechaFin.getValue(),
+							ReservaPeriodica.getMascaraDiaSemana(diaSemanaG), horaInicio.getValue(),
+							horaFin.getValue(), aula.getValue(), motivo.getValue(), aCargoDe.getValue(),
+							responsableLogeado.getNombreApellidosUsuario(), propietarioAula.getValue());
 
-					fireEvent(new SaveRangeEvent(this, lstReservasGuardar));
+					fireEvent(new SaveRangeEvent(this, reservaPeriodica));
 				}
 			}
 		} catch (ValidationException e) {
@@ -493,7 +453,7 @@ public class ReservaAulasForm extends FormLayout {
 	public static abstract class ReservaAulasFormEvent extends ComponentEvent<ReservaAulasForm> {
 		private static final long serialVersionUID = 1L;
 		private Reserva reserva;
-		private List<Reserva> lstReservas;
+		private ReservaPeriodica reservaPeriodica;
 
 		/**
 		 * Constructor de la clase.
@@ -509,12 +469,12 @@ public class ReservaAulasForm extends FormLayout {
 		/**
 		 * Constructor de la clase.
 		 * 
-		 * @param source   Origen
-		 * @param reservas Lista de reservas
+		 * @param source           Origen
+		 * @param reservaPeriodica Reserva periódica (reserva por rango de fechas)
 		 */
-		protected ReservaAulasFormEvent(ReservaAulasForm source, List<Reserva> reservas) {
+		protected ReservaAulasFormEvent(ReservaAulasForm source, ReservaPeriodica reservaPeriodica) {
 			super(source, false);
-			this.lstReservas = reservas;
+			this.reservaPeriodica = reservaPeriodica;
 		}
 
 		/**
@@ -527,12 +487,12 @@ public class ReservaAulasForm extends FormLayout {
 		}
 
 		/**
-		 * Función que devuelve la lista de reservas asociada a la clase.
+		 * Función que devuelve la reserva periódica asociada a la clase.
 		 * 
-		 * @return Lista de reservas asociada a la clase
+		 * @return Reserva periódica asociada a la clase
 		 */
-		public List<Reserva> getReservas() {
-			return lstReservas;
+		public ReservaPeriodica getReservaPeriodica() {
+			return reservaPeriodica;
 		}
 	}
 
@@ -561,8 +521,8 @@ public class ReservaAulasForm extends FormLayout {
 	public static class SaveRangeEvent extends ReservaAulasFormEvent {
 		private static final long serialVersionUID = 1L;
 
-		SaveRangeEvent(ReservaAulasForm source, List<Reserva> reservas) {
-			super(source, reservas);
+		SaveRangeEvent(ReservaAulasForm source, ReservaPeriodica reservaPeriodica) {
+			super(source, reservaPeriodica);
 		}
 	}
 
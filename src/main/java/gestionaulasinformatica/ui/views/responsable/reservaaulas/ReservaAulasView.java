@@ -1,8 +1,5 @@
 package gestionaulasinformatica.ui.views.responsable.reservaaulas;
 
-import java.time.LocalDateTime;
-import java.util.List;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.security.access.annotation.Secured;
@@ -18,16 +15,13 @@ import com.vaadin.flow.component.orderedlayout.VerticalLayout;
 import com.vaadin.flow.router.PageTitle;
 import com.vaadin.flow.router.Route;
 
-import gestionaulasinformatica.app.security.SecurityUtils;
+import gestionaulasinformatica.app.security.UsuarioSesion;
 import gestionaulasinformatica.backend.data.TipoOperacionHR;
-import gestionaulasinformatica.backend.entity.HistoricoReservas;
 import gestionaulasinformatica.backend.entity.Reserva;
 import gestionaulasinformatica.backend.entity.Usuario;
 import gestionaulasinformatica.backend.service.AulaService;
-import gestionaulasinformatica.backend.service.HistoricoReservasService;
-import gestionaulasinformatica.backend.service.PropietarioAulaService;
 import gestionaulasinformatica.backend.service.ReservaService;
-import gestionaulasinformatica.backend.service.UsuarioService;
+import gestionaulasinformatica.exceptions.UserFriendlyDataException;
 import gestionaulasinformatica.ui.Comunes;
 import gestionaulasinformatica.ui.MainLayout;
 import gestionaulasinformatica.ui.Mensajes;
@@ -44,10 +38,8 @@ public class ReservaAulasView extends VerticalLayout {
 	private static final Logger LOGGER = LoggerFactory.getLogger(ReservaAulasView.class.getName());
 
 	private ReservaService reservaService;
-	private PropietarioAulaService propietarioAulaService;
 	private AulaService aulaService;
-	private HistoricoReservasService historicoReservasService;
-	private UsuarioService usuarioService;
+	private UsuarioSesion usuarioSesion;
 	private Comunes comunes;
 
 	private ReservaAulasForm formulario;
@@ -58,29 +50,25 @@ public class ReservaAulasView extends VerticalLayout {
 	/**
 	 * Constructor de la clase.
 	 * 
-	 * @param reservaService         Service de JPA de la entidad Reserva
-	 * @param propietarioAulaService Service de JPA de la entidad PropietarioAula
-	 * @param aulaService            Service de JPA de la entidad Aula
+	 * @param reservaService Service de JPA de la entidad Reserva
+	 * @param aulaService    Service de JPA de la entidad Aula
+	 * @param usuarioSesion  Datos del usuario logeado guardados en la sesión
 	 */
-	public ReservaAulasView(ReservaService reservaService, PropietarioAulaService propietarioAulaService,
-			AulaService aulaService, HistoricoReservasService historicoReservasService, UsuarioService usuarioService) {
+	public ReservaAulasView(ReservaService reservaService, AulaService aulaService, UsuarioSesion usuarioSesion) {
 		Div contenido;
 
 		try {
 			this.reservaService = reservaService;
-			this.propietarioAulaService = propietarioAulaService;
 			this.aulaService = aulaService;
-			this.historicoReservasService = historicoReservasService;
-			this.usuarioService = usuarioService;
+			this.usuarioSesion = usuarioSesion;
 			this.comunes = new Comunes();
 
-			responsableLogeado = this.usuarioService.findByCorreoUsuario(SecurityUtils.getUsername());
+			responsableLogeado = this.usuarioSesion.getUser();
 
 			addClassName("reserva-aulas-view");
 			setSizeFull();
 
-			formulario = new ReservaAulasForm(this.aulaService,
-					this.propietarioAulaService.findAllPropietariosResponsable(responsableLogeado), comunes,
+			formulario = new ReservaAulasForm(this.aulaService, this.usuarioSesion.getPropietarios(), comunes,
 					responsableLogeado);
 			formulario.addListener(ReservaAulasForm.SaveEvent.class, this::guardarReserva);
 			formulario.addListener(ReservaAulasForm.SaveRangeEvent.class, this::guardarReservaRango);
@@ -148,20 +136,10 @@ public class ReservaAulasView extends VerticalLayout {
 	 */
 	private void guardarReserva(ReservaAulasForm.SaveEvent evt) {
 		Reserva reserva;
-		String lugarReserva;
-		HistoricoReservas operacionReserva;
 		try {
 			reserva = evt.getReserva();
 			reserva.setDiaSemana(comunes.getDiaSemana(reserva.getFecha().getDayOfWeek().getValue()));
-			reservaService.save(reserva);
-
-			lugarReserva = reserva.getAula().getNombreAula() + " - "
-					+ reserva.getAula().getUbicacionCentro().getNombrePropietarioAula();
-			operacionReserva = new HistoricoReservas(LocalDateTime.now(), TipoOperacionHR.CREACIÓN, reserva.getMotivo(),
-					reserva.getFecha(), reserva.getHoraInicio(), reserva.getHoraFin(), lugarReserva,
-					reserva.getACargoDe(), responsableLogeado.getNombreApellidosUsuario(),
-					reserva.getAula().getPropietarioAula().getIdPropietarioAula());
-			historicoReservasService.save(operacionReserva);
+			reservaService.save(reserva, TipoOperacionHR.CREACIÓN, responsableLogeado);
 
 			comunes.mostrarNotificacion(Mensajes.MSG_RESERVA_CORRECTA.getMensaje(), 3000, NotificationVariant.LUMO_SUCCESS);
 			
@@ -169,6 +147,10 @@ public class ReservaAulasView extends VerticalLayout {
 			formulario.setVisible(false);
 			toolbar.setVisible(true);
 
+		} catch (UserFriendlyDataException e) {
+			comunes.mostrarNotificacion(e.getMessage(), 3000, NotificationVariant.LUMO_ERROR);
+			LOGGER.error(e.getMessage());
+
 		} catch (Exception e) {
 			comunes.mostrarNotificacion(Mensajes.MSG_ERROR_ACCION.getMensaje(), 3000, NotificationVariant.LUMO_ERROR);
 			LOGGER.error(e.getMessage());
@@ -177,36 +159,25 @@ public class ReservaAulasView extends VerticalLayout {
 	}
 
 	/**
-	 * Función que guarda las reservas de rango, y la operación de creación en el
-	 * histórico de reservas, en la base de datos.
+	 * Función que guarda la reserva de rango (reserva periódica), y la operación de
+	 * creación de cada día en el histórico de reservas, en la base de datos.
 	 * 
 	 * @param evt Evento de guardado
 	 */
 	private void guardarReservaRango(ReservaAulasForm.SaveRangeEvent evt) {
-		List<Reserva> lstReservas;
-		String lugarReserva;
-		HistoricoReservas operacionReserva;
 		try {
-			lstReservas = evt.getReservas();
-
-			for (Reserva reserva : lstReservas) {
-				reservaService.save(reserva);
-
-				lugarReserva = reserva.getAula().getNombreAula() + " - "
-						+ reserva.getAula().getUbicacionCentro().getNombrePropietarioAula();
-				operacionReserva = new HistoricoReservas(LocalDateTime.now(), TipoOperacionHR.CREACIÓN,
-						reserva.getMotivo(), reserva.getFecha(), reserva.getHoraInicio(), reserva.getHoraFin(),
-						lugarReserva, reserva.getACargoDe(), responsableLogeado.getNombreApellidosUsuario(),
-						reserva.getAula().getPropietarioAula().getIdPropietarioAula());
-				historicoReservasService.save(operacionReserva);
-			}
-			
+			reservaService.savePeriodica(evt.getReservaPeriodica(), responsableLogeado);
+
 			comunes.mostrarNotificacion(Mensajes.MSG_RESERVA_CORRECTA.getMensaje(), 3000, NotificationVariant.LUMO_SUCCESS);
 
 			formulario.setReserva(null, false);
 			formulario.setVisible(false);
 			toolbar.setVisible(true);
 
+		} catch (UserFriendlyDataException e) {
+			comunes.mostrarNotificacion(e.getMessage(), 3000, NotificationVariant.LUMO_ERROR);
+			LOGGER.error(e.getMessage());
+
 		} catch (Exception e) {
 			comunes.mostrarNotificacion(Mensajes.MSG_ERROR_ACCION.getMensaje(), 3000, NotificationVariant.LUMO_ERROR);
 			LOGGER.error(e.getMessage());
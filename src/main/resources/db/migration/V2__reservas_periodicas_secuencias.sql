@@ -0,0 +1,46 @@
+-- Tablas y secuencias que se anaden al esquema inicial (V1, el script original de la BD).
+
+-- Hibernate reserva los IDs de 50 en 50 (allocationSize) para poder insertar por lotes
+ALTER SEQUENCE public.reserva_id_reserva_seq INCREMENT BY 50;
+
+-- Reservas por rango de fechas: una sola fila con los dias de la semana en los que
+-- se repite (dias_semana: bit 0 = lunes ... bit 6 = domingo)
+CREATE TABLE public."reserva_periodica" (
+	id_reserva_periodica SERIAL,
+    fecha_inicio date NOT NULL,
+    fecha_fin date NOT NULL,
+    dias_semana integer NOT NULL,
+    hora_inicio time without time zone NOT NULL,
+    hora_fin time without time zone NOT NULL,
+    id_aula integer NOT NULL,
+    motivo character varying(50) NOT NULL,
+    a_cargo_de character varying(50) NOT NULL,
+    usuario_responsable character varying(100) NOT NULL,
+    propietario_responsable character varying(30) NOT NULL,
+    CONSTRAINT "PK_ReservaPeriodica" PRIMARY KEY (id_reserva_periodica),
+    CONSTRAINT "FK_ReservaPeriodica_Aula_Aula" FOREIGN KEY (id_aula)
+        REFERENCES public."aula" (id_aula)
+        ON UPDATE CASCADE
+        ON DELETE CASCADE,
+    CONSTRAINT "FK_ReservaPeriodica_PropietarioAula_Responsable" FOREIGN KEY (propietario_responsable)
+        REFERENCES public."propietario_aula" (id_propietario_aula)
+        ON UPDATE CASCADE
+        ON DELETE CASCADE,
+    CONSTRAINT "CHK_ReservaPeriodica_Fechas" CHECK(fecha_inicio <= fecha_fin),
+    CONSTRAINT "CHK_ReservaPeriodica_DiasSemana" CHECK(dias_semana BETWEEN 1 AND 127)
+);
+
+ALTER SEQUENCE public.reserva_periodica_id_reserva_periodica_seq INCREMENT BY 50;
+
+-- Dias cancelados (o modificados por separado) de una reserva periodica
+CREATE TABLE public."reserva_periodica_excepcion" (
+	id_reserva_periodica integer NOT NULL,
+    fecha date NOT NULL,
+    CONSTRAINT "PK_ReservaPeriodicaExcepcion" PRIMARY KEY (id_reserva_periodica, fecha),
+    CONSTRAINT "FK_ReservaPeriodicaExcepcion_ReservaPeriodica" FOREIGN KEY (id_reserva_periodica)
+        REFERENCES public."reserva_periodica" (id_reserva_periodica)
+        ON UPDATE CASCADE
+        ON DELETE CASCADE
+);
+
+ALTER SEQUENCE public.historico_reservas_id_operacion_seq INCREMENT BY 50;
@@ -0,0 +1,27 @@
+-- Indices para los filtros de las consultas de reservas y del historico. Se escriben
+-- en SQL portable (tambien se aplican sobre H2 en el test del plan de consultas).
+
+-- Disponibilidad de las aulas (subconsulta de AulaSpecification): rango de fechas y
+-- solape de horas; con id_aula en el indice la subconsulta no lee la tabla
+CREATE INDEX IF NOT EXISTS "IDX_Reserva_Fecha_Horas_Aula"
+    ON public.reserva (fecha, hora_inicio, hora_fin, id_aula);
+
+-- Reservas de un aula a partir de una fecha y borrado en cascada de las aulas
+CREATE INDEX IF NOT EXISTS "IDX_Reserva_Aula_Fecha"
+    ON public.reserva (id_aula, fecha);
+
+-- Listado de reservas de los propietarios del responsable (ReservaSpecification)
+CREATE INDEX IF NOT EXISTS "IDX_Reserva_Propietario_Fecha"
+    ON public.reserva (propietario_responsable, fecha, hora_inicio);
+
+-- Reservas periodicas que se solapan con un rango de fechas (ReservaPeriodicaSpecification)
+CREATE INDEX IF NOT EXISTS "IDX_ReservaPeriodica_FechaFin_Aula"
+    ON public.reserva_periodica (fecha_fin, fecha_inicio, id_aula);
+
+CREATE INDEX IF NOT EXISTS "IDX_ReservaPeriodica_Propietario_FechaFin"
+    ON public.reserva_periodica (propietario_responsable, fecha_fin);
+
+-- Historico por rango de fechas y recorrido por paginas (de la operacion mas reciente
+-- a la mas antigua)
+CREATE INDEX IF NOT EXISTS "IDX_HistoricoReservas_FechaOperacion"
+    ON public.historico_reservas (fecha_operacion DESC, id_operacion DESC);
@@ -0,0 +1,10 @@
+-- Cambios que solo existen en PostgreSQL
+
+-- Busqueda por subcadenas de usuarios y propietarios (LIKE '%...%') con indices de trigramas
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS "IDX_Usuario_NombreApellidos_Trgm"
+    ON public."usuario" USING gin (lower(nombre || ' ' || apellidos) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS "IDX_PropietarioAula_Nombre_Trgm"
+    ON public."propietario_aula" USING gin (lower(nombre_propietario_aula) gin_trgm_ops);
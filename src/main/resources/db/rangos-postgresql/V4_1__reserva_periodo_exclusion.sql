@@ -0,0 +1,37 @@
+-- Migracion opcional: solo se aplica con gestionaulas.ocupacion.rangos-postgresql=true
+-- (ver ConfiguracionRangosPostgreSQL). Necesita PostgreSQL 12 o superior (columnas generadas).
+
+-- Se comprueba antes de cambiar nada que la BD lo admite y que no hay reservas que se solapan,
+-- que harian fallar la restriccion de exclusion con un error poco claro
+DO $$
+DECLARE
+    solapes integer;
+BEGIN
+    IF current_setting('server_version_num')::integer < 120000 THEN
+        RAISE EXCEPTION 'gestionaulas.ocupacion.rangos-postgresql necesita PostgreSQL 12 o superior'
+            USING DETAIL = 'Version actual: ' || current_setting('server_version');
+    END IF;
+
+    SELECT count(*) INTO solapes
+        FROM public."reserva" r1
+        JOIN public."reserva" r2 ON r2.id_aula = r1.id_aula AND r2.fecha = r1.fecha
+            AND r2.id_reserva > r1.id_reserva AND r2.hora_inicio < r1.hora_fin AND r1.hora_inicio < r2.hora_fin;
+    IF solapes > 0 THEN
+        RAISE EXCEPTION 'Hay % pares de reservas del mismo aula que se solapan', solapes
+            USING HINT = 'Elimine o modifique esas reservas, o desactive gestionaulas.ocupacion.rangos-postgresql';
+    END IF;
+END $$;
+
+-- Restricciones de exclusion que combinan igualdad (id_aula) y solape de rangos (periodo)
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+-- periodo: rango de fecha y hora de la reserva, calculado por la BD.
+-- La restriccion de exclusion impide que se guarden dos reservas del mismo aula que se solapan
+-- (solo filas de reserva: no compara con las ocurrencias de reserva_periodica)
+-- y su indice GiST es el que usa la consulta de disponibilidad por rangos
+ALTER TABLE public."reserva"
+    ADD COLUMN IF NOT EXISTS periodo tsrange
+        GENERATED ALWAYS AS (tsrange(fecha + hora_inicio, fecha + hora_fin, '[)')) STORED;
+
+ALTER TABLE public."reserva"
+    ADD CONSTRAINT "EXC_Reserva_Aula_Periodo" EXCLUDE USING gist (id_aula WITH =, periodo WITH &&);
@@ -0,0 +1,201 @@
+package gestionaulasinformatica.backend;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import gestionaulasinformatica.backend.busqueda.BusquedaTexto;
+import gestionaulasinformatica.backend.cache.CacheDatosReferencia;
+import gestionaulasinformatica.backend.data.Rol;
+import gestionaulasinformatica.backend.entity.Centro;
+import gestionaulasinformatica.backend.entity.Departamento;
+import gestionaulasinformatica.backend.entity.PropietarioAula;
+import gestionaulasinformatica.backend.entity.Usuario;
+import gestionaulasinformatica.backend.repository.IPropietarioAulaRepository;
+import gestionaulasinformatica.backend.repository.IUsuarioRepository;
+import gestionaulasinformatica.backend.service.UsuarioService;
+
+/**
+ * Clase para testear la búsqueda por texto de los usuarios y los propietarios
+ * de aulas, tanto con el índice en memoria como con las consultas de la BD.
+ *
+ * @author Lisa
+ *
+ */
+@DataJpaTest
+@Import({ BusquedaTexto.class, CacheDatosReferencia.class, UsuarioService.class })
+public class BusquedaTextoTest {
+	private static final int NUM_USUARIOS = 200;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private BusquedaTexto busquedaTexto;
+
+	@Autowired
+	private CacheDatosReferencia cacheDatosReferencia;
+
+	@Autowired
+	private UsuarioService usuarioService;
+
+	@Autowired
+	private IUsuarioRepository usuarioRepository;
+
+	@Autowired
+	private IPropietarioAulaRepository propietarioAulaRepository;
+
+	private int numUsuarios;
+
+	/**
+	 * Se crean los datos de prueba, que se revierten y se recrean para cada test.
+	 */
+	@BeforeEach
+	public void establecerDatos() {
+		Usuario responsable;
+
+		numUsuarios = 0;
+		responsable = crearUsuario("Ana", "García");
+
+		crearUsuario("Mariana", "López");
+		crearUsuario("Juan", "Anaya");
+		crearUsuario("Pedro", "Ruiz");
+		for (int i = 0; i < NUM_USUARIOS; i++) {
+			crearUsuario("Usuario " + i, "Apellido " + i);
+		}
+
+		entityManager.persist(new Centro("Centro 1", "Escuela de Informática", responsable));
+		entityManager.persist(new Departamento("DPTO 1", "Informática", responsable));
+		entityManager.persist(new Departamento("DPTO 2", "Matemáticas", responsable));
+
+		cacheDatosReferencia.invalidarUsuarios();
+	}
+
+	/**
+	 * Test que comprueba que los usuarios se devuelven ordenados por relevancia:
+	 * primero los que empiezan por el filtro, después los que tienen una palabra
+	 * que empieza por el filtro y después el resto.
+	 */
+	@Test
+	public void buscarUsuariosRelevancia() {
+		Assert.assertEquals("Ana García, Juan Anaya, Mariana López",
+				getNombres(busquedaTexto.buscarUsuarios("ANA", PageRequest.of(0, 10)).getContent()));
+		Assert.assertEquals(getNombres(busquedaTexto.buscarUsuarios("ana", PageRequest.of(0, 10)).getContent()),
+				getNombres(usuarioRepository.buscarUsuario("ana", PageRequest.of(0, 10)).getContent()));
+	}
+
+	/**
+	 * Test que comprueba la paginación de los resultados y el total.
+	 */
+	@Test
+	public void buscarUsuariosPaginado() {
+		Page<Usuario> pagina = busquedaTexto.buscarUsuarios("usuario", PageRequest.of(3, 50));
+		Page<Usuario> paginaBD = usuarioRepository.buscarUsuario("usuario", PageRequest.of(3, 50));
+
+		Assert.assertEquals(NUM_USUARIOS, pagina.getTotalElements());
+		Assert.assertEquals(50, pagina.getContent().size());
+		Assert.assertEquals(NUM_USUARIOS, paginaBD.getTotalElements());
+		Assert.assertEquals(getNombres(paginaBD.getContent()), getNombres(pagina.getContent()));
+		Assert.assertTrue(busquedaTexto.buscarUsuarios("usuario", PageRequest.of(5, 50)).getContent().isEmpty());
+	}
+
+	/**
+	 * Test que comprueba que los caracteres especiales de LIKE se buscan como
+	 * texto y que el índice en memoria se recarga al añadir un usuario.
+	 */
+	@Test
+	public void buscarUsuariosEscapeYRecarga() {
+		Assert.assertEquals(0, busquedaTexto.buscarUsuarios("%", PageRequest.of(0, 10)).getTotalElements());
+		Assert.assertEquals(0, usuarioRepository.buscarUsuario("\\%", PageRequest.of(0, 10)).getTotalElements());
+		Assert.assertEquals(0, busquedaTexto.buscarUsuarios("100%", PageRequest.of(0, 10)).getTotalElements());
+
+		crearUsuario("Usuario", "100%");
+		cacheDatosReferencia.invalidarUsuarios();
+
+		Assert.assertEquals(1, busquedaTexto.buscarUsuarios("100%", PageRequest.of(0, 10)).getTotalElements());
+		Assert.assertEquals(1, usuarioRepository.buscarUsuario("100\\%", PageRequest.of(0, 10)).getTotalElements());
+	}
+
+	/**
+	 * Test que comprueba los bloques de usuarios que se cargan en el grid de
+	 * mantenimiento de usuarios, con posiciones que no son múltiplo del tamaño del
+	 * bloque: con filtro, ordenados por relevancia como en la búsqueda por texto
+	 * y, sin filtro, ordenados por una columna.
+	 */
+	@Test
+	public void findAllUsuariosPorBloques() {
+		List<Usuario> lstBloque = usuarioService.findAll("apellido 1", 5, 10,
+				Sort.by(Sort.Direction.DESC, "correoUsuario"));
+
+		// Apellido 1, 10..19 y 100..199
+		Assert.assertEquals(111, usuarioService.count("apellido 1"));
+		Assert.assertEquals(10, lstBloque.size());
+		Assert.assertEquals(
+				getNombres(busquedaTexto.buscarUsuarios("apellido 1", PageRequest.of(0, 15)).getContent()
+						.subList(5, 15)),
+				getNombres(lstBloque));
+
+		// Los caracteres especiales de LIKE se buscan como texto
+		Assert.assertEquals(0, usuarioService.count("%"));
+		Assert.assertTrue(usuarioService.findAll("_", 0, 10, Sort.unsorted()).isEmpty());
+
+		lstBloque = usuarioService.findAll(null, 0, 3, Sort.by(Sort.Direction.DESC, "nombreUsuario"));
+		Assert.assertEquals(NUM_USUARIOS + 4, usuarioService.count(null));
+		Assert.assertEquals("Usuario 99, Usuario 98, Usuario 97",
+				lstBloque.stream().map(Usuario::getNombreUsuario).collect(Collectors.joining(", ")));
+	}
+
+	/**
+	 * Test que comprueba la búsqueda de los centros y departamentos.
+	 */
+	@Test
+	public void buscarPropietarios() {
+		List<PropietarioAula> lstPropietarios = busquedaTexto.buscarPropietarios("informá", PageRequest.of(0, 10))
+				.getContent();
+
+		Assert.assertEquals(2, lstPropietarios.size());
+		Assert.assertEquals("DPTO 1", lstPropietarios.get(0).getIdPropietarioAula());
+		Assert.assertEquals("Centro 1", lstPropietarios.get(1).getIdPropietarioAula());
+		Assert.assertEquals(lstPropietarios,
+				propietarioAulaRepository.buscarPropietario("informá", PageRequest.of(0, 10)).getContent());
+	}
+
+	/**
+	 * Función que crea y guarda un usuario.
+	 *
+	 * @param nombre    Nombre del usuario
+	 * @param apellidos Apellidos del usuario
+	 *
+	 * @return Usuario guardado
+	 */
+	private Usuario crearUsuario(String nombre, String apellidos) {
+		Usuario usuario = new Usuario("usuario" + (numUsuarios++) + "@gmail.com", "12345", nombre, apellidos,
+				"547854126", Rol.RESPONSABLE);
+
+		entityManager.persist(usuario);
+		return usuario;
+	}
+
+	/**
+	 * Función que devuelve los nombres y apellidos de los usuarios separados por
+	 * comas.
+	 *
+	 * @param lstUsuarios Lista de usuarios
+	 *
+	 * @return Nombres y apellidos de los usuarios
+	 */
+	private static String getNombres(List<Usuario> lstUsuarios) {
+		return lstUsuarios.stream().map(u -> u.getNombreUsuario() + " " + u.getApellidosUsuario())
+				.collect(Collectors.joining(", "));
+	}
+}
@@ -0,0 +1,228 @@
+package gestionaulasinformatica.backend;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Assert;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import gestionaulasinformatica.backend.cache.CacheConsultasPublicas;
+import gestionaulasinformatica.backend.cache.CacheDatosReferencia;
+import gestionaulasinformatica.backend.conexion.LimiteConsultasPublicas;
+import gestionaulasinformatica.backend.data.AulaFila;
+import gestionaulasinformatica.backend.data.ReservaFila;
+import gestionaulasinformatica.backend.data.Rol;
+import gestionaulasinformatica.backend.entity.Aula;
+import gestionaulasinformatica.backend.entity.Centro;
+import gestionaulasinformatica.backend.entity.Departamento;
+import gestionaulasinformatica.backend.entity.PropietarioAula;
+import gestionaulasinformatica.backend.entity.Reserva;
+import gestionaulasinformatica.backend.entity.Usuario;
+import gestionaulasinformatica.backend.ocupacion.BloqueoAulas;
+import gestionaulasinformatica.backend.ocupacion.IndiceOcupacionAulas;
+import gestionaulasinformatica.backend.service.AulaService;
+import gestionaulasinformatica.backend.service.HistoricoReservasService;
+import gestionaulasinformatica.backend.service.ReservaService;
+
+/**
+ * Clase para testear la cache de los resultados de las consultas públicas de
+ * aulas disponibles y de reservas.
+ *
+ * @author Lisa
+ *
+ */
+@DataJpaTest(properties = { "spring.jpa.properties.hibernate.generate_statistics=true",
+		"gestionaulas.cache-consultas.activa=true" })
+@Import({ ReservaService.class, HistoricoReservasService.class, IndiceOcupacionAulas.class, BloqueoAulas.class,
+		AulaService.class, CacheDatosReferencia.class, CacheConsultasPublicas.class, LimiteConsultasPublicas.class })
+public class CacheConsultasPublicasTest {
+	private static final LocalDate SEMANA1 = LocalDate.of(2020, 9, 7);
+	private static final LocalDate SEMANA3 = SEMANA1.plusWeeks(2);
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private ReservaService reservaService;
+
+	@Autowired
+	private AulaService aulaService;
+
+	@Autowired
+	private IndiceOcupacionAulas indiceOcupacion;
+
+	@Autowired
+	private CacheConsultasPublicas cacheConsultasPublicas;
+
+	private Statistics estadisticas;
+	private PropietarioAula dpto1;
+	private PropietarioAula dpto2;
+	private Aula aula1;
+
+	/**
+	 * Se crean los datos de prueba, que se revierten y se recrean para cada test,
+	 * y se vacía la cache.
+	 *
+	 * El aula 1 es del departamento 1 y el aula 2 del departamento 2. Cada
+	 * departamento tiene una reserva en su aula el lunes de la semana 1 y otra el
+	 * lunes de la semana 3.
+	 */
+	@BeforeEach
+	public void establecerDatos() {
+		Usuario responsable;
+		PropietarioAula centro1;
+		Aula aula2;
+
+		responsable = new Usuario("rspCentro1@gmail.com", "12345", "Responsable", "Centro 1", "547854126",
+				Rol.RESPONSABLE);
+		entityManager.persist(responsable);
+
+		centro1 = new Centro("Centro 1", "Centro 1", responsable);
+		dpto1 = new Departamento("DPTO 1", "Departamento 1", responsable);
+		dpto2 = new Departamento("DPTO 2", "Departamento 2", responsable);
+		entityManager.persist(centro1);
+		entityManager.persist(dpto1);
+		entityManager.persist(dpto2);
+
+		aula1 = new Aula("Aula 1", 50, 25, centro1, dpto1);
+		aula2 = new Aula("Aula 2", 50, 25, centro1, dpto2);
+		entityManager.persist(aula1);
+		entityManager.persist(aula2);
+
+		for (LocalDate fecha : Arrays.asList(SEMANA1, SEMANA3)) {
+			entityManager.persist(new Reserva(fecha, LocalTime.of(9, 00), LocalTime.of(11, 00), "Lunes", aula1,
+					"Curso", "Persona 1", responsable.getNombreApellidosUsuario(), dpto1));
+			entityManager.persist(new Reserva(fecha, LocalTime.of(9, 00), LocalTime.of(11, 00), "Lunes", aula2,
+					"Curso", "Persona 2", responsable.getNombreApellidosUsuario(), dpto2));
+		}
+
+		entityManager.flush();
+		entityManager.clear();
+
+		estadisticas = entityManager.getEntityManager().getEntityManagerFactory().unwrap(SessionFactory.class)
+				.getStatistics();
+		indiceOcupacion.invalidar();
+		cacheConsultasPublicas.invalidarTodo();
+	}
+
+	/**
+	 * Test que comprueba que una consulta repetida con los mismos filtros (aunque
+	 * los propietarios vengan en otro orden o el día de la semana vacío en lugar
+	 * de null) no llega a la BD.
+	 */
+	@Test
+	public void consultasRepetidas() {
+		List<ReservaFila> lstReservas;
+		List<AulaFila> lstAulas;
+
+		lstReservas = reservaService.findAllFilasReservasFiltros(SEMANA1, SEMANA1.plusDays(6), null, null, null,
+				Arrays.asList(dpto1, dpto2));
+		lstAulas = aulaService.findAllFilasAulasDisponiblesFiltros(SEMANA1, SEMANA1, LocalTime.of(10, 00),
+				LocalTime.of(12, 00), 0, 0, null, null, null);
+		Assert.assertEquals(2, lstReservas.size());
+		Assert.assertEquals(0, lstAulas.size());
+
+		estadisticas.clear();
+		Assert.assertSame(lstReservas, reservaService.findAllFilasReservasFiltros(SEMANA1, SEMANA1.plusDays(6),
+				null, null, "", Arrays.asList(dpto2, dpto1)));
+		Assert.assertSame(lstAulas, aulaService.findAllFilasAulasDisponiblesFiltros(SEMANA1, SEMANA1,
+				LocalTime.of(10, 00), LocalTime.of(12, 00), 0, 0, "", null, null));
+		Assert.assertEquals(0, estadisticas.getPrepareStatementCount());
+	}
+
+	/**
+	 * Test que comprueba que al guardar y eliminar una reserva sólo se vuelven a
+	 * consultar los resultados de sus fechas y su propietario.
+	 */
+	@Test
+	public void invalidacionPorFechasYPropietario() {
+		Reserva reserva = new Reserva(SEMANA1.plusDays(1), LocalTime.of(9, 00), LocalTime.of(11, 00), "Martes",
+				aula1, "Examen", "Persona 1", "Responsable Centro 1", dpto1);
+
+		consultarReservas(SEMANA1, dpto1);
+		consultarReservas(SEMANA3, dpto1);
+		consultarReservas(SEMANA1, dpto2);
+		consultarAulas(SEMANA1.plusDays(1));
+		consultarAulas(SEMANA3.plusDays(1));
+
+		reservaService.save(reserva);
+		entityManager.flush();
+		indiceOcupacion.invalidar();
+
+		estadisticas.clear();
+		Assert.assertEquals(2, consultarReservas(SEMANA1, dpto1).size());
+		Assert.assertEquals(1, consultarAulas(SEMANA1.plusDays(1)).size());
+		Assert.assertTrue(estadisticas.getPrepareStatementCount() > 0);
+
+		estadisticas.clear();
+		Assert.assertEquals(1, consultarReservas(SEMANA3, dpto1).size());
+		Assert.assertEquals(1, consultarReservas(SEMANA1, dpto2).size());
+		Assert.assertEquals(2, consultarAulas(SEMANA3.plusDays(1)).size());
+		Assert.assertEquals(0, estadisticas.getPrepareStatementCount());
+
+		reservaService.delete(reserva);
+		entityManager.flush();
+
+		Assert.assertEquals(1, consultarReservas(SEMANA1, dpto1).size());
+	}
+
+	/**
+	 * Test que comprueba que al cambiar de fecha una reserva se vuelven a
+	 * consultar tanto los resultados de la fecha anterior como los de la nueva.
+	 */
+	@Test
+	public void invalidacionModificacion() {
+		Reserva reserva;
+
+		consultarReservas(SEMANA1, dpto1);
+		consultarReservas(SEMANA3, dpto1);
+
+		reserva = reservaService.findAllReservasFiltros(SEMANA1, SEMANA1, null, null, null,
+				Collections.singletonList(dpto1)).get(0);
+		entityManager.clear();
+		reserva.setFecha(SEMANA3.plusDays(1));
+		reserva.setDiaSemana("Martes");
+		reservaService.save(reserva);
+		entityManager.flush();
+
+		Assert.assertEquals(0, consultarReservas(SEMANA1, dpto1).size());
+		Assert.assertEquals(2, consultarReservas(SEMANA3, dpto1).size());
+	}
+
+	/**
+	 * Función que consulta las filas de las reservas de la semana y el
+	 * propietario pasados.
+	 *
+	 * @param semana      Lunes de la semana
+	 * @param propietario Propietario de las reservas
+	 *
+	 * @return Filas de las reservas
+	 */
+	private List<ReservaFila> consultarReservas(LocalDate semana, PropietarioAula propietario) {
+		return reservaService.findAllFilasReservasFiltros(semana, semana.plusDays(6), null, null, null,
+				Collections.singletonList(propietario));
+	}
+
+	/**
+	 * Función que consulta las filas de las aulas disponibles el día pasado de 10
+	 * a 12.
+	 *
+	 * @param fecha Fecha de la consulta
+	 *
+	 * @return Filas de las aulas disponibles
+	 */
+	private List<AulaFila> consultarAulas(LocalDate fecha) {
+		return aulaService.findAllFilasAulasDisponiblesFiltros(fecha, fecha, LocalTime.of(10, 00),
+				LocalTime.of(12, 00), 0, 0, null, null, null);
+	}
+}
@@ -0,0 +1,115 @@
+package gestionaulasinformatica.backend;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Assert;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import gestionaulasinformatica.backend.busqueda.BusquedaTexto;
+import gestionaulasinformatica.backend.cache.CacheConsultasPublicas;
+import gestionaulasinformatica.backend.cache.CacheDatosReferencia;
+import gestionaulasinformatica.backend.data.Rol;
+import gestionaulasinformatica.backend.entity.Centro;
+import gestionaulasinformatica.backend.entity.Usuario;
+import gestionaulasinformatica.backend.ocupacion.IndiceOcupacionAulas;
+import gestionaulasinformatica.backend.repository.IPropietarioAulaRepository;
+import gestionaulasinformatica.backend.repository.IUsuarioRepository;
+import gestionaulasinformatica.backend.service.HistoricoReservasService;
+import gestionaulasinformatica.backend.service.PropietarioAulaService;
+
+/**
+ * Clase para testear la cache de segundo nivel de los datos de referencia.
+ *
+ * Las consultas cacheadas sólo se guardan fuera de la transacción que modifica
+ * los datos, por lo que los tests no son transaccionales y los datos de prueba
+ * se eliminan al acabar cada test.
+ *
+ * @author Lisa
+ *
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({ PropietarioAulaService.class, CacheDatosReferencia.class, CacheConsultasPublicas.class,
+		IndiceOcupacionAulas.class, BusquedaTexto.class, HistoricoReservasService.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class CacheDatosReferenciaTest {
+
+	@Autowired
+	private PropietarioAulaService propietarioAulaService;
+
+	@Autowired
+	private IPropietarioAulaRepository propietarioAulaRepository;
+
+	@Autowired
+	private IUsuarioRepository usuarioRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private SessionFactory sessionFactory;
+	private Statistics estadisticas;
+	private Usuario responsable;
+
+	/**
+	 * Se crean los datos de prueba, que se eliminan al acabar cada test.
+	 */
+	@BeforeEach
+	public void establecerDatos() {
+		sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+		sessionFactory.getCache().evictAllRegions();
+		estadisticas = sessionFactory.getStatistics();
+
+		responsable = new Usuario("rspCentro1@gmail.com", "12345", "Responsable", "Centro 1", "547854126",
+				Rol.RESPONSABLE);
+		usuarioRepository.save(responsable);
+		propietarioAulaService.save(new Centro("Centro 1", "Centro 1", responsable));
+	}
+
+	/**
+	 * Se eliminan los datos de prueba.
+	 */
+	@AfterEach
+	public void eliminarDatos() {
+		propietarioAulaRepository.deleteAll();
+		usuarioRepository.deleteAll();
+		sessionFactory.getCache().evictAllRegions();
+	}
+
+	/**
+	 * Test que comprueba que la segunda consulta de los centros se resuelve desde
+	 * la cache sin ejecutar ninguna sentencia en la BD.
+	 */
+	@Test
+	public void consultaCentrosCacheada() {
+		Assert.assertEquals(1, propietarioAulaService.findAllCentros().size());
+
+		estadisticas.clear();
+		Assert.assertEquals(1, propietarioAulaService.findAllCentros().size());
+
+		Assert.assertEquals(0, estadisticas.getPrepareStatementCount());
+		Assert.assertEquals(1, estadisticas.getQueryCacheHitCount());
+	}
+
+	/**
+	 * Test que comprueba que al guardar un centro se invalida la consulta
+	 * cacheada y el nuevo centro aparece en la siguiente consulta.
+	 */
+	@Test
+	public void invalidacionAlGuardar() {
+		Assert.assertEquals(1, propietarioAulaService.findAllCentros().size());
+
+		propietarioAulaService.save(new Centro("Centro 2", "Centro 2", responsable));
+
+		estadisticas.clear();
+		Assert.assertEquals(2, propietarioAulaService.findAllCentros().size());
+		Assert.assertEquals(0, estadisticas.getQueryCacheHitCount());
+	}
+}
@@ -0,0 +1,163 @@
+package gestionaulasinformatica.backend;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.Assert;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import gestionaulasinformatica.backend.conexion.ContextoConexion;
+import gestionaulasinformatica.backend.conexion.DataSourceEnrutado;
+import gestionaulasinformatica.backend.conexion.LimiteConsultasPublicas;
+import gestionaulasinformatica.backend.conexion.TipoConexion;
+import gestionaulasinformatica.exceptions.ConsultasSaturadasException;
+
+/**
+ * Clase para testear la elección del pool de conexiones de las consultas
+ * públicas y el límite de consultas públicas a la vez.
+ *
+ * @author Lisa
+ *
+ */
+public class ConexionesPublicasTest {
+	private DataSource dataSource;
+
+	/**
+	 * Se crea un DataSource enrutado sobre dos BD H2 en memoria, una para cada
+	 * pool.
+	 */
+	@BeforeEach
+	public void establecerDatos() {
+		dataSource = new DataSourceEnrutado(crearDataSource("autenticado"), crearDataSource("publico"),
+				Collections.emptyList());
+	}
+
+	/**
+	 * Test que comprueba que por defecto se usa el pool de los usuarios
+	 * autenticados y, dentro de una consulta pública, el de las consultas
+	 * públicas.
+	 */
+	@Test
+	public void eleccionPool() {
+		LimiteConsultasPublicas limite = new LimiteConsultasPublicas(1, 1, 100);
+
+		Assert.assertEquals(TipoConexion.AUTENTICADA, ContextoConexion.getTipoConexion());
+		Assert.assertTrue(getUrl().contains("autenticado"));
+		Assert.assertTrue(limite.ejecutar(this::getUrl).contains("publico"));
+		Assert.assertTrue(getUrl().contains("autenticado"));
+		Assert.assertEquals(0, limite.getConsultasEnCurso());
+	}
+
+	/**
+	 * Test que comprueba que, si no quedan permisos, una consulta pública espera
+	 * el tiempo máximo y se rechaza, y que al liberarse el permiso se vuelven a
+	 * ejecutar.
+	 */
+	@Test
+	public void limiteConsultas() throws Exception {
+		LimiteConsultasPublicas limite = new LimiteConsultasPublicas(1, 1, 100);
+		ExecutorService ejecutor = Executors.newSingleThreadExecutor();
+		CountDownLatch iniciada = new CountDownLatch(1);
+		CountDownLatch terminar = new CountDownLatch(1);
+		Future<Boolean> consultaLenta;
+
+		try {
+			consultaLenta = ejecutor.submit(() -> limite.ejecutar(() -> {
+				iniciada.countDown();
+				try {
+					return terminar.await(10, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					return false;
+				}
+			}));
+			Assert.assertTrue(iniciada.await(10, TimeUnit.SECONDS));
+			Assert.assertEquals(1, limite.getConsultasEnCurso());
+
+			try {
+				limite.ejecutar(() -> true);
+				Assert.fail("La consulta debería haberse rechazado");
+			} catch (ConsultasSaturadasException e) {
+				Assert.assertEquals(1, limite.getConsultasRechazadas());
+			}
+
+			terminar.countDown();
+			Assert.assertTrue(consultaLenta.get(10, TimeUnit.SECONDS));
+			Assert.assertTrue(limite.ejecutar(() -> true));
+			Assert.assertEquals(0, limite.getConsultasEnCurso());
+		} finally {
+			ejecutor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Test que comprueba que, si ya hay el máximo de consultas esperando, una
+	 * consulta pública se rechaza sin esperar.
+	 */
+	@Test
+	public void limiteEnEspera() throws Exception {
+		LimiteConsultasPublicas limite = new LimiteConsultasPublicas(1, 0, 10000);
+		CountDownLatch terminar = new CountDownLatch(1);
+		Thread hilo = new Thread(() -> limite.ejecutar(() -> {
+			try {
+				return terminar.await(10, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				return false;
+			}
+		}));
+		long inicio;
+
+		hilo.start();
+		while (limite.getConsultasEnCurso() == 0) {
+			Thread.sleep(10);
+		}
+
+		inicio = System.nanoTime();
+		try {
+			limite.ejecutar(() -> true);
+			Assert.fail("La consulta debería haberse rechazado");
+		} catch (ConsultasSaturadasException e) {
+			Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio) < 5000);
+		} finally {
+			terminar.countDown();
+			hilo.join();
+		}
+	}
+
+	/**
+	 * Función que devuelve la URL de la BD de una conexión del DataSource
+	 * enrutado.
+	 *
+	 * @return URL de la BD
+	 */
+	private String getUrl() {
+		try (Connection conexion = dataSource.getConnection()) {
+			return conexion.getMetaData().getURL();
+		} catch (SQLException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Función que crea un DataSource de una BD H2 en memoria.
+	 *
+	 * @param nombre Nombre de la BD
+	 *
+	 * @return DataSource de la BD
+	 */
+	private static DataSource crearDataSource(String nombre) {
+		JdbcDataSource dataSourceH2 = new JdbcDataSource();
+
+		dataSourceH2.setURL("jdbc:h2:mem:" + nombre);
+		return dataSourceH2;
+	}
+}
@@ -9,7 +9,10 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Sort;
 
+import gestionaulasinformatica.backend.data.AulaFila;
+import gestionaulasinformatica.backend.data.PaginaPorPosicion;
 import gestionaulasinformatica.backend.data.Rol;
 import gestionaulasinformatica.backend.entity.Aula;
 import gestionaulasinformatica.backend.entity.Centro;
@@ -175,4 +178,48 @@ public class ConsultaAulasTest {
 			e.printStackTrace();
 		}
 	}
+
+	/**
+	 * Test que comprueba que las filas de las aulas disponibles el día 21-07-2020
+	 * de 10:30 a 11:30 se obtienen con los datos que se muestran en la consulta.
+	 */
+	@Test
+	public void filasAulasDisponiblesFechaHoras() {
+		List<AulaFila> lstFilas;
+
+		establecerDatos();
+
+		lstFilas = aulaRepository.findFilas(
+				AulaSpecification.findByFilters(LocalDate.of(2020, 07, 21), LocalDate.of(2020, 07, 21),
+						LocalTime.of(10, 30), LocalTime.of(11, 30), null, null, null, null, null, null),
+				Sort.by(Sort.Direction.ASC, "nombreAula"));
+
+		Assert.assertEquals(1, lstFilas.size());
+		Assert.assertEquals(aula2.getIdAula(), lstFilas.get(0).getIdAula());
+		Assert.assertEquals("Aula 2", lstFilas.get(0).getNombreAula());
+		Assert.assertEquals("Centro 1", lstFilas.get(0).getNombreCentro());
+		Assert.assertEquals(Integer.valueOf(100), lstFilas.get(0).getCapacidad());
+		Assert.assertEquals(Integer.valueOf(0), lstFilas.get(0).getNumOrdenadores());
+	}
+
+	/**
+	 * Test que comprueba que las aulas de un propietario se obtienen por bloques
+	 * filtrando por el principio de su nombre.
+	 */
+	@Test
+	public void aulasPropietarioPorPrefijo() {
+		Sort orden = Sort.by(Sort.Direction.ASC, "nombreAula");
+		List<Aula> lstAulas;
+
+		establecerDatos();
+
+		Assert.assertEquals(2, aulaRepository.countByPropietarioAulaAndNombreAulaStartingWithIgnoreCase(dpto1, "aula"));
+		Assert.assertEquals(0, aulaRepository.countByPropietarioAulaAndNombreAulaStartingWithIgnoreCase(dpto1, "1"));
+
+		lstAulas = aulaRepository.findByPropietarioAulaAndNombreAulaStartingWithIgnoreCase(dpto1, "AULA",
+				new PaginaPorPosicion(1, 1, orden));
+
+		Assert.assertEquals(1, lstAulas.size());
+		Assert.assertEquals(aula2, lstAulas.get(0));
+	}
 }
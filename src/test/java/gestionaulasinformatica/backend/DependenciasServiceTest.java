@@ -0,0 +1,160 @@
+package gestionaulasinformatica.backend;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Assert;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import gestionaulasinformatica.backend.data.ResumenDependencias;
+import gestionaulasinformatica.backend.data.Rol;
+import gestionaulasinformatica.backend.entity.Aula;
+import gestionaulasinformatica.backend.entity.Centro;
+import gestionaulasinformatica.backend.entity.Departamento;
+import gestionaulasinformatica.backend.entity.PropietarioAula;
+import gestionaulasinformatica.backend.entity.Reserva;
+import gestionaulasinformatica.backend.entity.ReservaPeriodica;
+import gestionaulasinformatica.backend.entity.Usuario;
+import gestionaulasinformatica.backend.service.DependenciasService;
+
+/**
+ * Clase para testear las comprobaciones de los datos que dependen de un aula,
+ * un propietario de aulas o un usuario antes de eliminarlos.
+ *
+ * @author Lisa
+ *
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(DependenciasService.class)
+public class DependenciasServiceTest {
+	private static final int NUM_DIAS = 100;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private DependenciasService dependenciasService;
+
+	private Usuario responsable;
+	private Usuario administrador;
+	private PropietarioAula centro1;
+	private PropietarioAula dpto1;
+	private PropietarioAula dpto2;
+	private Aula aula1;
+	private Aula aula2;
+
+	/**
+	 * Se crean los datos de prueba, que se revierten y se recrean para cada test.
+	 *
+	 * El aula 1 es del departamento 1 y tiene una reserva por día desde hace 50
+	 * días y una reserva periódica que ya ha terminado. El aula 2 es del
+	 * departamento 2 y no tiene reservas. Ambas están ubicadas en el centro 1.
+	 */
+	@BeforeEach
+	public void establecerDatos() {
+		LocalDate fecha = LocalDate.now().minusDays(NUM_DIAS / 2);
+
+		responsable = new Usuario("rspCentro1@gmail.com", "12345", "Responsable", "Centro 1", "547854126",
+				Rol.RESPONSABLE);
+		administrador = new Usuario("admin@gmail.com", "12345", "Administrador", "Admin", "547854127",
+				Rol.ADMIN);
+		entityManager.persist(responsable);
+		entityManager.persist(administrador);
+
+		centro1 = new Centro("Centro 1", "Centro 1", responsable);
+		dpto1 = new Departamento("DPTO 1", "Departamento 1", responsable);
+		dpto2 = new Departamento("DPTO 2", "Departamento 2", responsable);
+		entityManager.persist(centro1);
+		entityManager.persist(dpto1);
+		entityManager.persist(dpto2);
+
+		aula1 = new Aula("Aula 1", 50, 25, centro1, dpto1);
+		aula2 = new Aula("Aula 2", 50, 25, centro1, dpto2);
+		entityManager.persist(aula1);
+		entityManager.persist(aula2);
+
+		for (int i = 0; i < NUM_DIAS; i++) {
+			entityManager.persist(new Reserva(fecha.plusDays(i), LocalTime.of(9, 00), LocalTime.of(11, 00), "Lunes",
+					aula1, "Curso", "Persona 1", responsable.getNombreApellidosUsuario(), dpto1));
+		}
+		entityManager.persist(new ReservaPeriodica(fecha, fecha.plusDays(7),
+				ReservaPeriodica.getMascaraDiaSemana("Lunes"), LocalTime.of(16, 00), LocalTime.of(18, 00), aula1,
+				"Curso", "Persona 1", responsable.getNombreApellidosUsuario(), dpto1));
+
+		entityManager.flush();
+		entityManager.clear();
+	}
+
+	/**
+	 * Test que comprueba que el resumen de un aula cuenta sólo las reservas a
+	 * partir de hoy sin cargar ninguna entidad.
+	 */
+	@Test
+	public void resumenAula() {
+		Statistics estadisticas = getEstadisticas();
+		ResumenDependencias resumen;
+
+		estadisticas.clear();
+		resumen = dependenciasService.getResumenAula(aula1);
+
+		Assert.assertEquals(0, estadisticas.getEntityLoadCount());
+		Assert.assertEquals(0, resumen.getNumAulas());
+		Assert.assertEquals(NUM_DIAS / 2, resumen.getNumReservas());
+		Assert.assertEquals(0, resumen.getNumReservasPeriodicas());
+		Assert.assertEquals(NUM_DIAS / 2 + " reservas pendientes", resumen.getDescripcion());
+
+		Assert.assertTrue(dependenciasService.existsReservasAula(aula1));
+		Assert.assertFalse(dependenciasService.existsReservasAula(aula2));
+		Assert.assertTrue(dependenciasService.getResumenAula(aula2).isVacio());
+	}
+
+	/**
+	 * Test que comprueba que el resumen de un centro cuenta las aulas ubicadas en
+	 * él y sus reservas, y el de un departamento sólo sus aulas y reservas.
+	 */
+	@Test
+	public void resumenPropietario() {
+		Statistics estadisticas = getEstadisticas();
+		ResumenDependencias resumenCentro;
+		ResumenDependencias resumenDpto;
+
+		estadisticas.clear();
+		resumenCentro = dependenciasService.getResumenPropietario(centro1);
+		resumenDpto = dependenciasService.getResumenPropietario(dpto2);
+
+		Assert.assertEquals(0, estadisticas.getEntityLoadCount());
+		Assert.assertEquals(2, resumenCentro.getNumAulas());
+		Assert.assertEquals(NUM_DIAS / 2, resumenCentro.getNumReservas());
+		Assert.assertEquals("2 aulas y " + NUM_DIAS / 2 + " reservas pendientes", resumenCentro.getDescripcion());
+		Assert.assertEquals(1, resumenDpto.getNumAulas());
+		Assert.assertEquals(0, resumenDpto.getNumReservas());
+		Assert.assertEquals("1 aula", resumenDpto.getDescripcion());
+	}
+
+	/**
+	 * Test que comprueba si un usuario es responsable de algún centro o
+	 * departamento.
+	 */
+	@Test
+	public void propietariosResponsable() {
+		Assert.assertTrue(dependenciasService.existsPropietariosResponsable(responsable));
+		Assert.assertFalse(dependenciasService.existsPropietariosResponsable(administrador));
+	}
+
+	/**
+	 * Función que devuelve las estadísticas de Hibernate.
+	 *
+	 * @return Estadísticas de Hibernate
+	 */
+	private Statistics getEstadisticas() {
+		return entityManager.getEntityManager().getEntityManagerFactory().unwrap(SessionFactory.class)
+				.getStatistics();
+	}
+}
@@ -0,0 +1,243 @@
+package gestionaulasinformatica.backend;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Assert;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import gestionaulasinformatica.backend.busqueda.BusquedaTexto;
+import gestionaulasinformatica.backend.cache.CacheConsultasPublicas;
+import gestionaulasinformatica.backend.cache.CacheDatosReferencia;
+import gestionaulasinformatica.backend.conexion.LimiteConsultasPublicas;
+import gestionaulasinformatica.backend.data.Rol;
+import gestionaulasinformatica.backend.data.TipoOperacionHR;
+import gestionaulasinformatica.backend.entity.Aula;
+import gestionaulasinformatica.backend.entity.Centro;
+import gestionaulasinformatica.backend.entity.Departamento;
+import gestionaulasinformatica.backend.entity.PropietarioAula;
+import gestionaulasinformatica.backend.entity.Reserva;
+import gestionaulasinformatica.backend.entity.ReservaPeriodica;
+import gestionaulasinformatica.backend.entity.Usuario;
+import gestionaulasinformatica.backend.ocupacion.IndiceOcupacionAulas;
+import gestionaulasinformatica.backend.repository.IAulaRepository;
+import gestionaulasinformatica.backend.repository.IHistoricoReservasRepository;
+import gestionaulasinformatica.backend.repository.IPropietarioAulaRepository;
+import gestionaulasinformatica.backend.repository.IReservaPeriodicaRepository;
+import gestionaulasinformatica.backend.repository.IReservaRepository;
+import gestionaulasinformatica.backend.service.AulaService;
+import gestionaulasinformatica.backend.service.HistoricoReservasService;
+import gestionaulasinformatica.backend.service.PropietarioAulaService;
+
+/**
+ * Clase para testear la eliminación de aulas y de propietarios de aulas junto
+ * con todas sus reservas.
+ *
+ * @author Lisa
+ *
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({ AulaService.class, PropietarioAulaService.class, HistoricoReservasService.class,
+		IndiceOcupacionAulas.class, CacheDatosReferencia.class, CacheConsultasPublicas.class, BusquedaTexto.class,
+		LimiteConsultasPublicas.class })
+public class EliminacionAulasPropietariosTest {
+	private static final int NUM_DIAS = 100;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private AulaService aulaService;
+
+	@Autowired
+	private PropietarioAulaService propietarioAulaService;
+
+	@Autowired
+	private IReservaRepository reservaRepository;
+
+	@Autowired
+	private IReservaPeriodicaRepository reservaPeriodicaRepository;
+
+	@Autowired
+	private IHistoricoReservasRepository historicoReservasRepository;
+
+	@Autowired
+	private IAulaRepository aulaRepository;
+
+	@Autowired
+	private IPropietarioAulaRepository propietarioAulaRepository;
+
+	@Autowired
+	private IndiceOcupacionAulas indiceOcupacion;
+
+	private Usuario responsable;
+	private PropietarioAula centro1;
+	private PropietarioAula dpto1;
+	private PropietarioAula dpto2;
+	private Aula aula1;
+	private Aula aula2;
+
+	/**
+	 * Se crean los datos de prueba, que se revierten y se recrean para cada test.
+	 *
+	 * El aula 1 es del departamento 1 y el aula 2 del departamento 2, ambas
+	 * ubicadas en el centro 1. Cada aula tiene una reserva por día desde hace 50
+	 * días y una reserva periódica de los lunes, y el departamento 1 tiene además
+	 * reservas en el aula 2.
+	 */
+	@BeforeEach
+	public void establecerDatos() {
+		LocalDate fecha = LocalDate.now().minusDays(NUM_DIAS / 2);
+		ReservaPeriodica reservaPeriodica;
+
+		responsable = new Usuario("rspCentro1@gmail.com", "12345", "Responsable", "Centro 1", "547854126",
+				Rol.RESPONSABLE);
+		entityManager.persist(responsable);
+
+		centro1 = new Centro("Centro 1", "Centro 1", responsable);
+		dpto1 = new Departamento("DPTO 1", "Departamento 1", responsable);
+		dpto2 = new Departamento("DPTO 2", "Departamento 2", responsable);
+		entityManager.persist(centro1);
+		entityManager.persist(dpto1);
+		entityManager.persist(dpto2);
+
+		aula1 = new Aula("Aula 1", 50, 25, centro1, dpto1);
+		aula2 = new Aula("Aula 2", 50, 25, centro1, dpto2);
+		entityManager.persist(aula1);
+		entityManager.persist(aula2);
+
+		for (int i = 0; i < NUM_DIAS; i++) {
+			entityManager.persist(new Reserva(fecha.plusDays(i), LocalTime.of(9, 00), LocalTime.of(11, 00), "Lunes",
+					aula1, "Curso", "Persona 1", responsable.getNombreApellidosUsuario(), dpto1));
+			entityManager.persist(new Reserva(fecha.plusDays(i), LocalTime.of(9, 00), LocalTime.of(11, 00), "Lunes",
+					aula2, "Curso", "Persona 2", responsable.getNombreApellidosUsuario(), dpto2));
+			entityManager.persist(new Reserva(fecha.plusDays(i), LocalTime.of(12, 00), LocalTime.of(13, 00), "Lunes",
+					aula2, "Examen", "Persona 1", responsable.getNombreApellidosUsuario(), dpto1));
+		}
+
+		reservaPeriodica = new ReservaPeriodica(fecha, fecha.plusDays(NUM_DIAS - 1),
+				ReservaPeriodica.getMascaraDiaSemana("Lunes"), LocalTime.of(16, 00), LocalTime.of(18, 00), aula1,
+				"Curso", "Persona 1", responsable.getNombreApellidosUsuario(), dpto1);
+		reservaPeriodica.addExcepcion(reservaPeriodica.getFechas(null, null).get(0));
+		entityManager.persist(reservaPeriodica);
+		entityManager.persist(new ReservaPeriodica(fecha, fecha.plusDays(NUM_DIAS - 1),
+				ReservaPeriodica.getMascaraDiaSemana("Lunes"), LocalTime.of(16, 00), LocalTime.of(18, 00), aula2,
+				"Curso", "Persona 2", responsable.getNombreApellidosUsuario(), dpto2));
+
+		entityManager.flush();
+		entityManager.clear();
+	}
+
+	/**
+	 * Test que comprueba que al eliminar un aula se eliminan todas sus reservas
+	 * con una sentencia por tabla, y que en el histórico se guarda la eliminación
+	 * de las reservas a partir de hoy (incluidas las ocurrencias de las reservas
+	 * periódicas). El índice de ocupación no cambia hasta que se confirma la
+	 * transacción.
+	 */
+	@Test
+	public void eliminarAula() {
+		Statistics estadisticas = getEstadisticas();
+		LocalDate hoy = LocalDate.now();
+		long numOcurrencias = reservaPeriodicaRepository.findAllReservasPeriodicasAulaAndFechaDesde(aula1, hoy)
+				.get(0).getOcurrencias(hoy, null).size();
+
+		Assert.assertFalse(indiceOcupacion.isDisponible(aula1.getIdAula(), hoy, hoy, LocalTime.of(9, 00),
+				LocalTime.of(11, 00), null, null));
+
+		estadisticas.clear();
+		aulaService.delete(aula1, responsable);
+		entityManager.flush();
+
+		Assert.assertFalse(indiceOcupacion.isDisponible(aula1.getIdAula(), hoy, hoy, LocalTime.of(9, 00),
+				LocalTime.of(11, 00), null, null));
+
+		// Las reservas del aula no se cargan en memoria (sólo la reserva periódica)
+		Assert.assertTrue(estadisticas.getEntityLoadCount() < 10);
+		Assert.assertTrue(estadisticas.getPrepareStatementCount() < 15);
+
+		Assert.assertFalse(aulaRepository.existsById(aula1.getIdAula()));
+		Assert.assertEquals(2 * NUM_DIAS, reservaRepository.count());
+		Assert.assertEquals(1, reservaPeriodicaRepository.count());
+		Assert.assertEquals(0, contarExcepciones());
+		Assert.assertEquals(NUM_DIAS / 2 + numOcurrencias, historicoReservasRepository.count());
+		Assert.assertTrue(historicoReservasRepository.findAll().stream()
+				.allMatch(o -> o.getTipoOperacion() == TipoOperacionHR.ELIMINACIÓN
+						&& o.getLugarReserva().equals("Aula 1 - Centro 1")
+						&& !o.getFechaReserva().isBefore(LocalDate.now())));
+	}
+
+	/**
+	 * Test que comprueba que al eliminar un departamento se eliminan sus aulas y
+	 * todas las reservas de sus aulas o realizadas por él en otras aulas, sin
+	 * eliminar el resto. En el histórico se guarda una sola vez la eliminación de
+	 * cada reserva a partir de hoy, aunque la haya hecho el departamento en una de
+	 * sus aulas.
+	 */
+	@Test
+	public void eliminarDepartamento() {
+		LocalDate hoy = LocalDate.now();
+		long numOcurrencias = reservaPeriodicaRepository.findAllReservasPeriodicasAulaAndFechaDesde(aula1, hoy)
+				.get(0).getOcurrencias(hoy, null).size();
+
+		propietarioAulaService.delete(dpto1, responsable);
+		entityManager.flush();
+		entityManager.clear();
+
+		Assert.assertFalse(propietarioAulaRepository.existsById(dpto1.getIdPropietarioAula()));
+		Assert.assertFalse(aulaRepository.existsById(aula1.getIdAula()));
+		Assert.assertTrue(aulaRepository.existsById(aula2.getIdAula()));
+		Assert.assertEquals(NUM_DIAS, reservaRepository.count());
+		Assert.assertTrue(reservaRepository.findAll().stream()
+				.allMatch(r -> r.getPropietarioResponsable().equals(dpto2) && r.getAula().equals(aula2)));
+		Assert.assertEquals(1, reservaPeriodicaRepository.count());
+		Assert.assertEquals(0, contarExcepciones());
+		Assert.assertEquals(NUM_DIAS + numOcurrencias, historicoReservasRepository.count());
+	}
+
+	/**
+	 * Test que comprueba que al eliminar un centro se eliminan todas las aulas
+	 * ubicadas en él y todas sus reservas.
+	 */
+	@Test
+	public void eliminarCentro() {
+		propietarioAulaService.delete(centro1, responsable);
+		entityManager.flush();
+		entityManager.clear();
+
+		Assert.assertFalse(propietarioAulaRepository.existsById(centro1.getIdPropietarioAula()));
+		Assert.assertTrue(propietarioAulaRepository.existsById(dpto1.getIdPropietarioAula()));
+		Assert.assertEquals(0, aulaRepository.count());
+		Assert.assertEquals(0, reservaRepository.count());
+		Assert.assertEquals(0, reservaPeriodicaRepository.count());
+	}
+
+	/**
+	 * Función que devuelve las estadísticas de Hibernate.
+	 *
+	 * @return Estadísticas de Hibernate
+	 */
+	private Statistics getEstadisticas() {
+		return entityManager.getEntityManager().getEntityManagerFactory().unwrap(SessionFactory.class)
+				.getStatistics();
+	}
+
+	/**
+	 * Función que devuelve el número de días cancelados de reservas periódicas que
+	 * hay en la BD.
+	 *
+	 * @return Número de días cancelados de reservas periódicas
+	 */
+	private long contarExcepciones() {
+		return ((Number) entityManager.getEntityManager()
+				.createNativeQuery("SELECT count(*) FROM public.reserva_periodica_excepcion").getSingleResult())
+						.longValue();
+	}
+}
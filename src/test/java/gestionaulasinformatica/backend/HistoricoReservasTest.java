@@ -0,0 +1,175 @@
+package gestionaulasinformatica.backend;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Sort;
+
+import gestionaulasinformatica.backend.data.PaginaHistoricoReservas;
+import gestionaulasinformatica.backend.data.TipoOperacionHR;
+import gestionaulasinformatica.backend.entity.HistoricoReservas;
+import gestionaulasinformatica.backend.service.HistoricoReservasService;
+
+/**
+ * Clase para testear la consulta paginada del histórico de reservas.
+ *
+ * @author Lisa
+ *
+ */
+@DataJpaTest
+@Import(HistoricoReservasService.class)
+public class HistoricoReservasTest {
+	private static final int NUM_OPERACIONES = 120;
+
+	@Autowired
+	private HistoricoReservasService historicoReservasService;
+
+	private LocalDate fechaDesde;
+	private LocalDate fechaHasta;
+
+	/**
+	 * Se crean los datos de prueba, que se revierten y se recrean para cada test.
+	 */
+	@BeforeEach
+	public void establecerDatos() {
+		LocalDateTime fechaHora = LocalDateTime.of(2020, 9, 1, 10, 00);
+		List<HistoricoReservas> lstOperaciones = new ArrayList<>();
+
+		// Varias operaciones en el mismo instante para comprobar que el orden es
+		// estable entre bloques
+		for (int i = 0; i < NUM_OPERACIONES; i++) {
+			lstOperaciones.add(new HistoricoReservas(fechaHora.plusHours(i / 3), TipoOperacionHR.CREACIÓN,
+					"Reserva " + i, fechaHora.toLocalDate(), LocalTime.of(9, 00), LocalTime.of(11, 00), "Aula 1",
+					"Persona " + (i % 7), "Responsable; Apellido", "DPTO 1"));
+		}
+		historicoReservasService.saveAll(lstOperaciones);
+
+		fechaDesde = fechaHora.toLocalDate();
+		fechaHasta = fechaHora.plusHours(NUM_OPERACIONES / 3).toLocalDate();
+	}
+
+	/**
+	 * Test que comprueba que al recorrer el histórico por bloques se obtienen
+	 * todas las operaciones una sola vez y en orden descendente de fecha.
+	 */
+	@Test
+	public void recorrerHistoricoPorBloques() {
+		List<HistoricoReservas> lstRecorrido = new ArrayList<>();
+		List<HistoricoReservas> lstBloque;
+		int offset = 0;
+
+		Assert.assertEquals(NUM_OPERACIONES, historicoReservasService.count(fechaDesde, fechaHasta));
+
+		do {
+			lstBloque = historicoReservasService.findAll(fechaDesde, fechaHasta, offset, 50, Sort.unsorted());
+			lstRecorrido.addAll(lstBloque);
+			offset += lstBloque.size();
+		} while (!lstBloque.isEmpty());
+
+		Assert.assertEquals(NUM_OPERACIONES, lstRecorrido.size());
+		Assert.assertEquals(NUM_OPERACIONES, lstRecorrido.stream().map(HistoricoReservas::getIdOperacionHR).distinct()
+				.count());
+		for (int i = 1; i < lstRecorrido.size(); i++) {
+			Assert.assertFalse(lstRecorrido.get(i).getFechaHoraOperacion()
+					.isAfter(lstRecorrido.get(i - 1).getFechaHoraOperacion()));
+		}
+	}
+
+	/**
+	 * Test que comprueba que el orden de la columna elegida se aplica en la BD y
+	 * que los filtros de fechas se tienen en cuenta en el recuento.
+	 */
+	@Test
+	public void ordenYFiltrosHistorico() {
+		List<HistoricoReservas> lstBloque = historicoReservasService.findAll(fechaDesde, fechaHasta, 0, 10,
+				Sort.by(Sort.Direction.ASC, "aCargoDeReserva"));
+
+		Assert.assertEquals(10, lstBloque.size());
+		Assert.assertTrue(lstBloque.stream().allMatch(o -> o.getACargoDeReserva().equals("Persona 0")));
+		Assert.assertEquals(42, historicoReservasService.count(fechaDesde, fechaDesde));
+	}
+
+	/**
+	 * Test que comprueba que al recorrer el histórico con cursores se obtienen las
+	 * mismas operaciones y en el mismo orden que por posición.
+	 */
+	@Test
+	public void recorrerHistoricoConCursor() {
+		List<HistoricoReservas> lstRecorrido = new ArrayList<>();
+		PaginaHistoricoReservas pagina = null;
+		int numPaginas = 0;
+
+		do {
+			pagina = historicoReservasService.findPagina(fechaDesde, fechaHasta,
+					pagina == null ? null : pagina.getCursorSiguiente(), 50);
+			lstRecorrido.addAll(pagina.getOperaciones());
+			numPaginas++;
+		} while (pagina.hasSiguiente());
+
+		Assert.assertEquals(3, numPaginas);
+		Assert.assertEquals(
+				historicoReservasService.findAll(fechaDesde, fechaHasta, 0, NUM_OPERACIONES, Sort.unsorted()),
+				lstRecorrido);
+		Assert.assertFalse(historicoReservasService.findPagina(fechaDesde, fechaHasta, null, NUM_OPERACIONES)
+				.hasSiguiente());
+		Assertions.assertThrows(IllegalArgumentException.class,
+				() -> historicoReservasService.findPagina(fechaDesde, fechaHasta, "no-es-un-cursor", 50));
+	}
+
+	/**
+	 * Test que comprueba que la exportación a CSV escribe la cabecera y una línea
+	 * por operación, entrecomillando los valores que contienen el separador.
+	 * 
+	 * @throws IOException Si no se puede escribir el CSV
+	 */
+	@Test
+	public void exportarHistoricoCsv() throws IOException {
+		ByteArrayOutputStream salida = new ByteArrayOutputStream();
+		String[] lineas;
+
+		historicoReservasService.exportarCsv(fechaDesde, fechaHasta, salida);
+		lineas = new String(salida.toByteArray(), StandardCharsets.UTF_8).split("\r\n");
+
+		Assert.assertEquals(NUM_OPERACIONES + 1, lineas.length);
+		Assert.assertTrue(lineas[0].startsWith("\uFEFFFecha operación;Operación;Reserva"));
+		Assert.assertTrue(lineas[1].startsWith("03/09/2020 01:00:00;CREACIÓN;Reserva 119;"));
+		Assert.assertTrue(lineas[1].endsWith(";\"Responsable; Apellido\";DPTO 1"));
+	}
+
+	/**
+	 * Test que comprueba que la exportación a CSV escribe como texto los valores
+	 * que una hoja de cálculo interpretaría como fórmulas.
+	 * 
+	 * @throws IOException Si no se puede escribir el CSV
+	 */
+	@Test
+	public void exportarHistoricoCsvFormulas() throws IOException {
+		ByteArrayOutputStream salida = new ByteArrayOutputStream();
+		String[] lineas;
+
+		historicoReservasService.saveAll(Collections.singletonList(new HistoricoReservas(
+				LocalDateTime.of(2020, 9, 3, 12, 00), TipoOperacionHR.CREACIÓN, "=HYPERLINK(\"http://x\";\"Ver\")",
+				fechaDesde, LocalTime.of(9, 00), LocalTime.of(11, 00), "Aula 1", "+34 600 000 000", "@Responsable",
+				"-DPTO 1")));
+
+		historicoReservasService.exportarCsv(fechaDesde, fechaHasta, salida);
+		lineas = new String(salida.toByteArray(), StandardCharsets.UTF_8).split("\r\n");
+
+		Assert.assertEquals("03/09/2020 12:00:00;CREACIÓN;\"'=HYPERLINK(\"\"http://x\"\";\"\"Ver\"\")\";01/09/2020;"
+				+ "09:00;11:00;Aula 1;'+34 600 000 000;'@Responsable;'-DPTO 1", lineas[1]);
+	}
+}
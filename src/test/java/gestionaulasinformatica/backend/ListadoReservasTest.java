@@ -0,0 +1,187 @@
+package gestionaulasinformatica.backend;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Assert;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import gestionaulasinformatica.backend.cache.CacheConsultasPublicas;
+import gestionaulasinformatica.backend.cache.CacheDatosReferencia;
+import gestionaulasinformatica.backend.conexion.LimiteConsultasPublicas;
+import gestionaulasinformatica.backend.data.ReservaFila;
+import gestionaulasinformatica.backend.data.Rol;
+import gestionaulasinformatica.backend.entity.Aula;
+import gestionaulasinformatica.backend.entity.Centro;
+import gestionaulasinformatica.backend.entity.Departamento;
+import gestionaulasinformatica.backend.entity.PropietarioAula;
+import gestionaulasinformatica.backend.entity.Reserva;
+import gestionaulasinformatica.backend.entity.ReservaPeriodica;
+import gestionaulasinformatica.backend.entity.Usuario;
+import gestionaulasinformatica.backend.ocupacion.BloqueoAulas;
+import gestionaulasinformatica.backend.ocupacion.IndiceOcupacionAulas;
+import gestionaulasinformatica.backend.service.AulaService;
+import gestionaulasinformatica.backend.service.HistoricoReservasService;
+import gestionaulasinformatica.backend.service.ReservaService;
+
+/**
+ * Clase para testear que los listados de reservas se obtienen con un número de
+ * consultas que no depende del número de reservas, y las filas de la consulta
+ * pública sin cargar las entidades.
+ *
+ * @author Lisa
+ *
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({ ReservaService.class, HistoricoReservasService.class, IndiceOcupacionAulas.class, BloqueoAulas.class,
+		AulaService.class, CacheDatosReferencia.class, CacheConsultasPublicas.class, LimiteConsultasPublicas.class })
+public class ListadoReservasTest {
+	private static final LocalDate LUNES = LocalDate.of(2020, 9, 7);
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private ReservaService reservaService;
+
+	private Statistics estadisticas;
+	private int numAulas;
+
+	/**
+	 * Se preparan las estadísticas de Hibernate para contar las consultas.
+	 */
+	@BeforeEach
+	public void establecerDatos() {
+		SessionFactory sessionFactory = entityManager.getEntityManager().getEntityManagerFactory()
+				.unwrap(SessionFactory.class);
+
+		// Se vacía la cache de segundo nivel para contar todas las consultas
+		sessionFactory.getCache().evictAllRegions();
+		estadisticas = sessionFactory.getStatistics();
+		numAulas = 0;
+	}
+
+	/**
+	 * Función que crea aulas, cada una con su centro, departamento y responsable
+	 * distintos, con una reserva y una reserva periódica en cada aula.
+	 * 
+	 * @param num Número de aulas que se crean
+	 */
+	private void crearAulasConReservas(int num) {
+		Usuario responsable;
+		PropietarioAula centro;
+		PropietarioAula dpto;
+		Aula aula;
+		ReservaPeriodica reservaPeriodica;
+
+		for (int i = numAulas; i < numAulas + num; i++) {
+			responsable = new Usuario("rsp" + i + "@gmail.com", "12345", "Responsable", "Aula " + i, "600000000",
+					Rol.RESPONSABLE);
+			entityManager.persist(responsable);
+
+			centro = new Centro("CTR " + i, "Centro " + i, responsable);
+			dpto = new Departamento("DPTO " + i, "Departamento " + i, responsable);
+			entityManager.persist(centro);
+			entityManager.persist(dpto);
+
+			aula = new Aula("Aula " + i, 50, 25, centro, dpto);
+			entityManager.persist(aula);
+
+			entityManager.persist(new Reserva(LUNES, LocalTime.of(9, 00), LocalTime.of(11, 00), "Lunes", aula,
+					"Examen " + i, "Persona " + i, responsable.getNombreApellidosUsuario(), dpto));
+
+			reservaPeriodica = new ReservaPeriodica(LUNES, LUNES.plusWeeks(3),
+					ReservaPeriodica.getMascaraDiaSemana("Martes"), LocalTime.of(9, 00), LocalTime.of(11, 00), aula,
+					"Curso " + i, "Persona " + i, responsable.getNombreApellidosUsuario(), centro);
+			reservaPeriodica.addExcepcion(LUNES.plusDays(8));
+			entityManager.persist(reservaPeriodica);
+		}
+		numAulas += num;
+
+		// Se vacía el contexto de persistencia para que las entidades se lean de la BD
+		entityManager.flush();
+		entityManager.clear();
+	}
+
+	/**
+	 * Función que obtiene el listado de reservas como lo hacen los grids,
+	 * recorriendo las asociaciones que se muestran en sus columnas, y devuelve el
+	 * número de consultas ejecutadas.
+	 * 
+	 * @return Número de consultas ejecutadas para obtener el listado
+	 */
+	private long contarConsultasListado() {
+		List<Reserva> lstReservas;
+
+		estadisticas.clear();
+		lstReservas = reservaService.findAllReservasFiltros(LUNES, LUNES.plusWeeks(3), null, null, null,
+				Collections.emptyList());
+
+		Assert.assertEquals(numAulas * 3, lstReservas.size());
+		lstReservas.forEach(reserva -> {
+			reserva.getNombreCentroAula();
+			reserva.getRegistradaPor();
+			reserva.getAula().getPropietarioAula().getUsuarioResponsable().getNombreApellidosUsuario();
+			reserva.getPropietarioResponsable().getUsuarioResponsable().getNombreApellidosUsuario();
+		});
+		return estadisticas.getPrepareStatementCount();
+	}
+
+	/**
+	 * Test que comprueba que el número de consultas del listado de reservas es el
+	 * mismo con 2 aulas que con 20, cada una con asociaciones distintas.
+	 */
+	@Test
+	public void consultasListadoConstantes() {
+		long consultasPocas;
+		long consultasMuchas;
+
+		crearAulasConReservas(2);
+		consultasPocas = contarConsultasListado();
+
+		crearAulasConReservas(18);
+		consultasMuchas = contarConsultasListado();
+
+		// Reservas, reservas periódicas y excepciones de las reservas periódicas
+		Assert.assertEquals(3, consultasPocas);
+		Assert.assertEquals(consultasPocas, consultasMuchas);
+	}
+
+	/**
+	 * Test que comprueba que las filas de la consulta pública de reservas tienen
+	 * los mismos datos que el listado de entidades, sin cargar ninguna entidad
+	 * Reserva en el contexto de persistencia.
+	 */
+	@Test
+	public void filasConsultaReservas() {
+		List<ReservaFila> lstFilas;
+		List<Reserva> lstReservas;
+
+		crearAulasConReservas(5);
+
+		estadisticas.clear();
+		lstFilas = reservaService.findAllFilasReservasFiltros(LUNES, LUNES.plusWeeks(3), null, null, null,
+				Collections.emptyList());
+		Assert.assertEquals(0, estadisticas.getEntityStatistics(Reserva.class.getName()).getLoadCount());
+
+		lstReservas = reservaService.findAllReservasFiltros(LUNES, LUNES.plusWeeks(3), null, null, null,
+				Collections.emptyList());
+
+		Assert.assertEquals(numAulas * 3, lstFilas.size());
+		Assert.assertEquals(
+				lstReservas.stream().map(r -> r.getFecha() + " " + r.getNombreAula() + " " + r.getNombreCentroAula()
+						+ " " + r.getMotivo() + " " + r.getRegistradaPor()).sorted().collect(Collectors.toList()),
+				lstFilas.stream().map(f -> f.getFecha() + " " + f.getNombreAula() + " " + f.getNombreCentroAula()
+						+ " " + f.getMotivo() + " " + f.getRegistradaPor()).sorted().collect(Collectors.toList()));
+	}
+}
@@ -0,0 +1,79 @@
+package gestionaulasinformatica.backend;
+
+import java.time.LocalDate;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.aop.AopAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import gestionaulasinformatica.backend.metricas.MetricasTiempos;
+import gestionaulasinformatica.backend.service.HistoricoReservasService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Clase para testear las métricas de tiempos de los services y de las consultas
+ * con Specification.
+ *
+ * @author Lisa
+ *
+ */
+@DataJpaTest
+@ImportAutoConfiguration(AopAutoConfiguration.class)
+@Import({ HistoricoReservasService.class, MetricasTiempos.class, SimpleMeterRegistry.class })
+public class MetricasTest {
+	private static final LocalDate DESDE = LocalDate.of(2020, 9, 1);
+	private static final LocalDate HASTA = LocalDate.of(2020, 9, 30);
+
+	@Autowired
+	private HistoricoReservasService historicoReservasService;
+
+	@Autowired
+	private MeterRegistry registro;
+
+	/**
+	 * Test que comprueba que se mide el tiempo de la llamada al service y el de la
+	 * consulta con la Specification que la crea.
+	 */
+	@Test
+	public void tiemposServiceYConsulta() {
+		Timer service;
+		Timer consulta;
+
+		historicoReservasService.count(DESDE, HASTA);
+
+		service = registro.find("gestionaulas.service").tag("servicio", "HistoricoReservasService")
+				.tag("metodo", "count").tag("excepcion", "none").timer();
+		Assert.assertNotNull(service);
+		Assert.assertEquals(1, service.count());
+
+		consulta = registro.find("gestionaulas.consultas")
+				.tag("especificacion", "HistoricoReservasSpecification.findByFilters").tag("metodo", "count").timer();
+		Assert.assertNotNull(consulta);
+		Assert.assertEquals(1, consulta.count());
+	}
+
+	/**
+	 * Test que comprueba que las llamadas que terminan con una excepción se miden
+	 * con la excepción como etiqueta.
+	 */
+	@Test
+	public void tiempoConExcepcion() {
+		Timer service;
+
+		try {
+			historicoReservasService.findPagina(DESDE, HASTA, "cursor-no-valido", 10);
+			Assert.fail("El cursor debería haberse rechazado");
+		} catch (IllegalArgumentException e) {
+			service = registro.find("gestionaulas.service").tag("servicio", "HistoricoReservasService")
+					.tag("metodo", "findPagina").tag("excepcion", "IllegalArgumentException").timer();
+			Assert.assertNotNull(service);
+			Assert.assertEquals(1, service.count());
+		}
+	}
+}
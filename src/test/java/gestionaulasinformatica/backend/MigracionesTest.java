@@ -0,0 +1,204 @@
+package gestionaulasinformatica.backend;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.FlywayException;
+import org.flywaydb.core.api.MigrationInfo;
+import org.flywaydb.core.api.MigrationType;
+import org.flywaydb.core.api.configuration.FluentConfiguration;
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import gestionaulasinformatica.backend.ocupacion.ConfiguracionRangosPostgreSQL;
+
+/**
+ * Clase para testear las migraciones de Flyway contra las entidades sobre una
+ * BD PostgreSQL (el resto de tests usan H2 sin Flyway).
+ *
+ * Al arrancar, la BD se deja como antes de usar Flyway (sólo con el esquema
+ * inicial, V1) y se migra marcándola como versión 1. Después Hibernate
+ * comprueba que las entidades coinciden con el esquema (validate), por lo que
+ * si el contexto arranca las migraciones son correctas para una BD existente.
+ *
+ * Sólo se ejecuta si la variable de entorno GESTIONAULAS_TEST_POSTGRESQL_URL
+ * tiene la URL JDBC de una BD de pruebas, que se vacía por completo. El
+ * usuario y la contraseña se indican en GESTIONAULAS_TEST_POSTGRESQL_USUARIO y
+ * GESTIONAULAS_TEST_POSTGRESQL_CONTRASENA.
+ *
+ * @author Lisa
+ *
+ */
+@DataJpaTest(properties = { "spring.datasource.url=${GESTIONAULAS_TEST_POSTGRESQL_URL}",
+		"spring.datasource.username=${GESTIONAULAS_TEST_POSTGRESQL_USUARIO:postgres}",
+		"spring.datasource.password=${GESTIONAULAS_TEST_POSTGRESQL_CONTRASENA:}", "spring.flyway.enabled=true",
+		"spring.jpa.hibernate.ddl-auto=validate" })
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@EnabledIfEnvironmentVariable(named = "GESTIONAULAS_TEST_POSTGRESQL_URL", matches = ".+")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class MigracionesTest {
+	private static final String ESQUEMA_INICIAL = "db/migration/V1__esquema_inicial.sql";
+	private static final String VERSION_ACTUAL = "4";
+	private static final String VERSION_RANGOS = "4.1";
+
+	private static final String SQL_COLUMNAS = "SELECT table_name, column_name, data_type, is_nullable "
+			+ "FROM information_schema.columns WHERE table_schema = 'public' AND table_name <> 'flyway_schema_history' "
+			+ "ORDER BY table_name, column_name";
+	private static final String SQL_RESERVA = "INSERT INTO public.reserva (fecha, hora_inicio, hora_fin, id_aula, "
+			+ "dia_semana, motivo, a_cargo_de, usuario_responsable, propietario_responsable) "
+			+ "VALUES ('2020-09-01', ?, ?, 1, 'Martes', 'Clase', 'Profesor', 'responsable@gmail.com', 'C1')";
+	private static final String SQL_SECUENCIAS = "SELECT sequence_name, increment FROM information_schema.sequences "
+			+ "WHERE sequence_schema = 'public' ORDER BY sequence_name";
+
+	@Autowired
+	private Flyway flyway;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private DataSource dataSource;
+
+	/**
+	 * Configuración que deja la BD sólo con el esquema inicial antes de que
+	 * Flyway la migre al arrancar el contexto.
+	 */
+	@TestConfiguration
+	static class Configuracion {
+		@Bean
+		public FlywayMigrationStrategy migracionDesdeEsquemaInicial(DataSource dataSource) {
+			return flyway -> migrarDesdeEsquemaInicial(flyway, dataSource);
+		}
+	}
+
+	/**
+	 * Función que vacía la BD, crea las tablas del esquema inicial fuera de
+	 * Flyway, como en una BD creada con el script original, y la migra.
+	 *
+	 * @param flyway     Flyway configurado con las migraciones de la aplicación
+	 * @param dataSource DataSource de la BD de pruebas
+	 */
+	private static void migrarDesdeEsquemaInicial(Flyway flyway, DataSource dataSource) {
+		flyway.clean();
+		try (Connection conexion = dataSource.getConnection()) {
+			ScriptUtils.executeSqlScript(conexion, new ClassPathResource(ESQUEMA_INICIAL));
+		} catch (SQLException e) {
+			throw new IllegalStateException("No se ha podido crear el esquema inicial", e);
+		}
+		flyway.migrate();
+	}
+
+	/**
+	 * Test que comprueba que una BD existente se marca como versión 1 y se le
+	 * aplican el resto de migraciones, con las secuencias de los IDs de 50 en
+	 * 50 como los allocationSize de las entidades.
+	 */
+	@Test
+	public void migrarBDExistente() {
+		MigrationInfo[] aplicadas;
+
+		aplicadas = flyway.info().applied();
+		Assert.assertEquals("1", aplicadas[0].getVersion().getVersion());
+		Assert.assertEquals(MigrationType.BASELINE, aplicadas[0].getType());
+		Assert.assertEquals(VERSION_ACTUAL, flyway.info().current().getVersion().getVersion());
+		Assert.assertEquals(0, flyway.info().pending().length);
+
+		for (Map<String, Object> secuencia : jdbcTemplate.queryForList(SQL_SECUENCIAS)) {
+			if (secuencia.get("sequence_name").toString().startsWith("reserva")
+					|| secuencia.get("sequence_name").toString().startsWith("historico_reservas")) {
+				Assert.assertEquals(secuencia.get("sequence_name").toString(), "50", secuencia.get("increment"));
+			}
+		}
+	}
+
+	/**
+	 * Test que comprueba que una BD vacía migrada desde V1 termina con el mismo
+	 * esquema que la BD existente que Hibernate ha validado al arrancar.
+	 */
+	@Test
+	public void migrarBDVacia() {
+		List<Map<String, Object>> columnasBDExistente;
+		List<Map<String, Object>> secuenciasBDExistente;
+
+		columnasBDExistente = jdbcTemplate.queryForList(SQL_COLUMNAS);
+		secuenciasBDExistente = jdbcTemplate.queryForList(SQL_SECUENCIAS);
+
+		try {
+			flyway.clean();
+			flyway.migrate();
+
+			Assert.assertEquals(MigrationType.SQL, flyway.info().applied()[0].getType());
+			Assert.assertEquals(VERSION_ACTUAL, flyway.info().current().getVersion().getVersion());
+			Assert.assertEquals(columnasBDExistente, jdbcTemplate.queryForList(SQL_COLUMNAS));
+			Assert.assertEquals(secuenciasBDExistente, jdbcTemplate.queryForList(SQL_SECUENCIAS));
+		} finally {
+			migrarDesdeEsquemaInicial(flyway, dataSource);
+		}
+	}
+
+	/**
+	 * Test que comprueba que la migración opcional de los rangos de PostgreSQL
+	 * falla sin cambiar el esquema si hay reservas que se solapan y, una vez
+	 * corregidas, añade la restricción de exclusión.
+	 */
+	@Test
+	public void migrarRangosPostgreSQL() {
+		FluentConfiguration configuracion = Flyway.configure().configuration(flyway.getConfiguration());
+		Flyway flywayRangos;
+
+		new ConfiguracionRangosPostgreSQL().migracionesRangosPostgreSQL().customize(configuracion);
+		flywayRangos = configuracion.load();
+		try {
+			jdbcTemplate.update("INSERT INTO public.usuario (correo, contrasena, nombre, apellidos, rol, bloqueado, "
+					+ "telefono) VALUES ('responsable@gmail.com', 'x', 'Responsable', 'Uno', 'Responsable', false, "
+					+ "'600000000')");
+			jdbcTemplate.update("INSERT INTO public.propietario_aula VALUES ('C1', 'Centro 1', "
+					+ "(SELECT max(id_usuario) FROM public.usuario), 'Centro')");
+			jdbcTemplate.update("INSERT INTO public.aula (id_aula, nombre_aula, ubicacion_centro, propietario_aula) "
+					+ "VALUES (1, 'Aula 1', 'C1', 'C1')");
+			jdbcTemplate.update(SQL_RESERVA, LocalTime.of(10, 0), LocalTime.of(12, 0));
+			jdbcTemplate.update(SQL_RESERVA, LocalTime.of(11, 0), LocalTime.of(13, 0));
+
+			try {
+				flywayRangos.migrate();
+				Assert.fail("La migración debería fallar con reservas que se solapan");
+			} catch (FlywayException e) {
+				Assert.assertTrue(e.getMessage(), e.getMessage().contains("reservas del mismo aula que se solapan"));
+				Assert.assertEquals(VERSION_ACTUAL, flyway.info().current().getVersion().getVersion());
+			}
+
+			jdbcTemplate.update("UPDATE public.reserva SET hora_inicio = '12:00' WHERE hora_inicio = '11:00'");
+			flywayRangos.migrate();
+			Assert.assertEquals(VERSION_RANGOS, flywayRangos.info().current().getVersion().getVersion());
+
+			try {
+				jdbcTemplate.update(SQL_RESERVA, LocalTime.of(9, 0), LocalTime.of(10, 30));
+				Assert.fail("La restricción de exclusión debería rechazar la reserva");
+			} catch (DataIntegrityViolationException e) {
+				Assert.assertTrue(e.getMessage().contains("EXC_Reserva_Aula_Periodo"));
+			}
+		} finally {
+			migrarDesdeEsquemaInicial(flyway, dataSource);
+		}
+	}
+}
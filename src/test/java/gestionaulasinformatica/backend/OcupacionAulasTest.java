@@ -0,0 +1,183 @@
+package gestionaulasinformatica.backend;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import gestionaulasinformatica.backend.data.Rol;
+import gestionaulasinformatica.backend.entity.Aula;
+import gestionaulasinformatica.backend.entity.Centro;
+import gestionaulasinformatica.backend.entity.Departamento;
+import gestionaulasinformatica.backend.entity.PropietarioAula;
+import gestionaulasinformatica.backend.entity.Reserva;
+import gestionaulasinformatica.backend.entity.ReservaPeriodica;
+import gestionaulasinformatica.backend.entity.Usuario;
+import gestionaulasinformatica.backend.ocupacion.IndiceOcupacionAulas;
+
+/**
+ * Clase para testear el índice en memoria de la ocupación de las aulas.
+ *
+ * @author Lisa
+ *
+ */
+@DataJpaTest
+@Import(IndiceOcupacionAulas.class)
+public class OcupacionAulasTest {
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private IndiceOcupacionAulas indiceOcupacion;
+
+	private Aula aula1;
+	private PropietarioAula dpto1;
+	private Reserva reserva1;
+	private Reserva reserva2;
+
+	/**
+	 * Se crean los datos de prueba, que se revierten y se recrean para cada test.
+	 */
+	@BeforeEach
+	public void establecerDatos() {
+		Usuario responsable = new Usuario("rspCentro1@gmail.com", "12345", "Responsable", "Centro 1", "547854126",
+				Rol.RESPONSABLE);
+		entityManager.persist(responsable);
+
+		PropietarioAula centro1 = new Centro("Centro 1", "Centro 1", responsable);
+		dpto1 = new Departamento("DPTO 1", "Departamento 1", responsable);
+		entityManager.persist(centro1);
+		entityManager.persist(dpto1);
+
+		aula1 = new Aula("Aula 1", 50, 25, centro1, dpto1);
+		entityManager.persist(aula1);
+
+		reserva1 = new Reserva(LocalDate.of(2020, 07, 20), LocalTime.of(11, 00), LocalTime.of(12, 00), "Lunes",
+				aula1, "Examen 1", "Persona 1", responsable.getNombreApellidosUsuario(), dpto1);
+		reserva2 = new Reserva(LocalDate.of(2020, 07, 21), LocalTime.of(9, 00), LocalTime.of(10, 00), "Martes", aula1,
+				"Examen 2", "Persona 2", responsable.getNombreApellidosUsuario(), dpto1);
+		entityManager.persist(reserva1);
+		entityManager.persist(reserva2);
+
+		indiceOcupacion.invalidar();
+	}
+
+	/**
+	 * Test que comprueba que el aula 1 no está disponible cuando se solapa con una
+	 * reserva y sí lo está justo al acabar la reserva.
+	 */
+	@Test
+	public void aula1DisponibilidadSolape() {
+		Assert.assertFalse(indiceOcupacion.isDisponible(aula1.getIdAula(), LocalDate.of(2020, 07, 20),
+				LocalDate.of(2020, 07, 20), LocalTime.of(11, 30), LocalTime.of(12, 30), null, null));
+		Assert.assertTrue(indiceOcupacion.isDisponible(aula1.getIdAula(), LocalDate.of(2020, 07, 20),
+				LocalDate.of(2020, 07, 20), LocalTime.of(12, 00), LocalTime.of(13, 00), null, null));
+	}
+
+	/**
+	 * Test que comprueba los filtros de día de la semana y de reserva excluida en
+	 * un rango de fechas.
+	 */
+	@Test
+	public void aula1DisponibilidadRangoFiltros() {
+		LocalDate desde = LocalDate.of(2020, 07, 19);
+		LocalDate hasta = LocalDate.of(2020, 07, 26);
+
+		Assert.assertFalse(indiceOcupacion.isDisponible(aula1.getIdAula(), desde, hasta, LocalTime.of(9, 30),
+				LocalTime.of(11, 30), null, null));
+		Assert.assertTrue(indiceOcupacion.isDisponible(aula1.getIdAula(), desde, hasta, LocalTime.of(9, 30),
+				LocalTime.of(11, 30), "Miércoles", null));
+		Assert.assertFalse(indiceOcupacion.isDisponible(aula1.getIdAula(), desde, hasta, LocalTime.of(9, 30),
+				LocalTime.of(11, 30), null, reserva1.getIdReserva()));
+		Assert.assertTrue(indiceOcupacion.isDisponible(aula1.getIdAula(), desde, hasta, LocalTime.of(10, 00),
+				LocalTime.of(11, 30), null, reserva1.getIdReserva()));
+	}
+
+	/**
+	 * Test que comprueba la disponibilidad con horas que no coinciden con el
+	 * límite de las franjas de 15 minutos del mapa de bits.
+	 */
+	@Test
+	public void aula1DisponibilidadFranjasNoAlineadas() {
+		LocalDate fecha = LocalDate.of(2020, 07, 21);
+
+		reserva2.setHoraInicio(LocalTime.of(9, 05));
+		reserva2.setHoraFin(LocalTime.of(9, 20));
+		entityManager.persist(reserva2);
+		indiceOcupacion.invalidar();
+
+		// Comparten la franja 9:15-9:30 pero no se solapan
+		Assert.assertTrue(indiceOcupacion.isDisponible(aula1.getIdAula(), fecha, fecha, LocalTime.of(9, 20),
+				LocalTime.of(9, 45), null, null));
+		Assert.assertTrue(indiceOcupacion.isDisponible(aula1.getIdAula(), fecha, fecha, LocalTime.of(8, 00),
+				LocalTime.of(9, 05), null, null));
+		Assert.assertFalse(indiceOcupacion.isDisponible(aula1.getIdAula(), fecha, fecha, LocalTime.of(9, 00),
+				LocalTime.of(9, 15), null, null));
+		Assert.assertFalse(indiceOcupacion.isDisponible(aula1.getIdAula(), fecha, fecha, LocalTime.of(9, 19),
+				LocalTime.of(23, 59), null, null));
+	}
+
+	/**
+	 * Test que comprueba que el índice se actualiza al modificar y eliminar
+	 * reservas.
+	 */
+	@Test
+	public void actualizacionIndice() {
+		LocalDate fecha = LocalDate.of(2020, 07, 20);
+
+		Assert.assertFalse(indiceOcupacion.isDisponible(aula1.getIdAula(), fecha, fecha, LocalTime.of(11, 00),
+				LocalTime.of(12, 00), null, null));
+
+		reserva1.setHoraInicio(LocalTime.of(16, 00));
+		reserva1.setHoraFin(LocalTime.of(17, 00));
+		indiceOcupacion.registrar(reserva1);
+
+		Assert.assertTrue(indiceOcupacion.isDisponible(aula1.getIdAula(), fecha, fecha, LocalTime.of(11, 00),
+				LocalTime.of(12, 00), null, null));
+		Assert.assertFalse(indiceOcupacion.isDisponible(aula1.getIdAula(), fecha, fecha, LocalTime.of(16, 30),
+				LocalTime.of(18, 00), null, null));
+
+		indiceOcupacion.eliminar(reserva1);
+
+		Assert.assertTrue(indiceOcupacion.isDisponible(aula1.getIdAula(), fecha, fecha, LocalTime.of(16, 30),
+				LocalTime.of(18, 00), null, null));
+	}
+
+	/**
+	 * Test que comprueba que las ocurrencias de una reserva periódica ocupan el
+	 * aula, salvo los días cancelados y cuando se excluye la reserva periódica.
+	 */
+	@Test
+	public void aula1DisponibilidadReservaPeriodica() {
+		LocalDate lunes = LocalDate.of(2020, 9, 7);
+		ReservaPeriodica reservaPeriodica = new ReservaPeriodica(lunes, LocalDate.of(2020, 12, 18),
+				ReservaPeriodica.getMascaraDiaSemana("Lunes"), LocalTime.of(16, 00), LocalTime.of(18, 00), aula1,
+				"Curso", "Persona 1", "Responsable Centro 1", dpto1);
+
+		reservaPeriodica.addExcepcion(lunes.plusWeeks(2));
+		entityManager.persist(reservaPeriodica);
+		indiceOcupacion.invalidar();
+
+		Assert.assertFalse(indiceOcupacion.isDisponible(aula1.getIdAula(), lunes.plusWeeks(1), lunes.plusWeeks(1),
+				LocalTime.of(17, 00), LocalTime.of(19, 00), null, null));
+		Assert.assertTrue(indiceOcupacion.isDisponible(aula1.getIdAula(), lunes.plusWeeks(2), lunes.plusWeeks(2),
+				LocalTime.of(17, 00), LocalTime.of(19, 00), null, null));
+		Assert.assertTrue(indiceOcupacion.isDisponible(aula1.getIdAula(), lunes.plusDays(1), lunes.plusDays(6),
+				LocalTime.of(17, 00), LocalTime.of(19, 00), null, null));
+		Assert.assertTrue(indiceOcupacion.isDisponible(aula1.getIdAula(), lunes.plusWeeks(1), lunes.plusWeeks(1),
+				LocalTime.of(17, 00), LocalTime.of(19, 00), null, null, reservaPeriodica.getIdReservaPeriodica()));
+
+		reservaPeriodica.addExcepcion(lunes.plusWeeks(1));
+		indiceOcupacion.registrar(reservaPeriodica);
+
+		Assert.assertTrue(indiceOcupacion.isDisponible(aula1.getIdAula(), lunes.plusWeeks(1), lunes.plusWeeks(1),
+				LocalTime.of(17, 00), LocalTime.of(19, 00), null, null));
+	}
+}
@@ -0,0 +1,239 @@
+package gestionaulasinformatica.backend;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import gestionaulasinformatica.backend.data.Rol;
+import gestionaulasinformatica.backend.data.TipoOperacionHR;
+import gestionaulasinformatica.backend.entity.Aula;
+import gestionaulasinformatica.backend.entity.Centro;
+import gestionaulasinformatica.backend.entity.Departamento;
+import gestionaulasinformatica.backend.entity.HistoricoReservas;
+import gestionaulasinformatica.backend.entity.PropietarioAula;
+import gestionaulasinformatica.backend.entity.Reserva;
+import gestionaulasinformatica.backend.entity.ReservaPeriodica;
+import gestionaulasinformatica.backend.entity.Usuario;
+import gestionaulasinformatica.backend.repository.IAulaRepository;
+import gestionaulasinformatica.backend.repository.IHistoricoReservasRepository;
+import gestionaulasinformatica.backend.repository.IPropietarioAulaRepository;
+import gestionaulasinformatica.backend.repository.IReservaPeriodicaRepository;
+import gestionaulasinformatica.backend.repository.IReservaRepository;
+import gestionaulasinformatica.backend.repository.IUsuarioRepository;
+
+/**
+ * Clase para testear que las consultas con los filtros de las Specifications
+ * de reservas, reservas periódicas e histórico usan los índices de la
+ * migración V3 en lugar de recorrer las tablas.
+ *
+ * H2 sólo elige entre índices parecidos con las estadísticas de las tablas, y
+ * calcularlas confirma la transacción, por lo que los tests no son
+ * transaccionales y los datos de prueba se eliminan al acabar cada test.
+ *
+ * @author Lisa
+ *
+ */
+@DataJpaTest
+@Sql("classpath:db/migration/V3__indices_rendimiento.sql")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class PlanConsultasTest {
+	private static final int NUM_RESERVAS = 200;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private IHistoricoReservasRepository historicoReservasRepository;
+
+	@Autowired
+	private IReservaPeriodicaRepository reservaPeriodicaRepository;
+
+	@Autowired
+	private IReservaRepository reservaRepository;
+
+	@Autowired
+	private IAulaRepository aulaRepository;
+
+	@Autowired
+	private IPropietarioAulaRepository propietarioAulaRepository;
+
+	@Autowired
+	private IUsuarioRepository usuarioRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	/**
+	 * Se crean los datos de prueba y se calculan las estadísticas de las tablas.
+	 */
+	@BeforeEach
+	public void establecerDatos() {
+		new TransactionTemplate(transactionManager).execute(estado -> {
+			Usuario responsable = new Usuario("rspDpto1@gmail.com", "12345", "Responsable", "Departamento 1",
+					"247863221", Rol.RESPONSABLE);
+			PropietarioAula centro1;
+			PropietarioAula dpto1;
+			Aula aula1;
+			LocalDate fecha = LocalDate.of(2020, 9, 7);
+
+			entityManager.persist(responsable);
+
+			centro1 = new Centro("Centro 1", "Centro 1", responsable);
+			dpto1 = new Departamento("DPTO 1", "Departamento 1", responsable);
+			entityManager.persist(centro1);
+			entityManager.persist(dpto1);
+
+			aula1 = new Aula("Aula 1", 50, 25, centro1, dpto1);
+			entityManager.persist(aula1);
+
+			for (int i = 0; i < NUM_RESERVAS; i++) {
+				entityManager.persist(new Reserva(fecha.plusDays(i), LocalTime.of(9, 00), LocalTime.of(11, 00),
+						"Lunes", aula1, "Curso", "Persona 1", responsable.getNombreApellidosUsuario(), dpto1));
+				entityManager.persist(new HistoricoReservas(LocalDateTime.of(fecha.plusDays(i), LocalTime.of(8, 00)),
+						TipoOperacionHR.CREACIÓN, "Curso", fecha.plusDays(i), LocalTime.of(9, 00), LocalTime.of(11, 00),
+						"Aula 1 - Centro 1", "Persona 1", responsable.getNombreApellidosUsuario(),
+						dpto1.getIdPropietarioAula()));
+			}
+			entityManager.persist(new ReservaPeriodica(fecha, fecha.plusMonths(3),
+					ReservaPeriodica.getMascaraDiaSemana("Martes"), LocalTime.of(16, 00), LocalTime.of(18, 00), aula1,
+					"Curso", "Persona 1", responsable.getNombreApellidosUsuario(), dpto1));
+			return null;
+		});
+
+		new TransactionTemplate(transactionManager).execute(
+				estado -> entityManager.getEntityManager().createNativeQuery("ANALYZE").executeUpdate());
+	}
+
+	/**
+	 * Se eliminan los datos de prueba.
+	 */
+	@AfterEach
+	public void eliminarDatos() {
+		historicoReservasRepository.deleteAll();
+		reservaPeriodicaRepository.deleteAll();
+		reservaRepository.deleteAll();
+		aulaRepository.deleteAll();
+		propietarioAulaRepository.deleteAll();
+		usuarioRepository.deleteAll();
+	}
+
+	/**
+	 * Test que comprueba que la subconsulta de disponibilidad de las aulas
+	 * (AulaSpecification) se resuelve con el índice por fecha y horas.
+	 */
+	@Test
+	public void planDisponibilidadAulas() {
+		assertUsaIndice("IDX_Reserva_Fecha_Horas_Aula",
+				"SELECT r.id_aula FROM public.reserva r WHERE r.fecha BETWEEN DATE '2020-09-14' AND DATE '2020-09-18' "
+						+ "AND r.hora_inicio < TIME '12:00:00' AND r.hora_fin > TIME '10:00:00'");
+	}
+
+	/**
+	 * Test que comprueba que las reservas de un aula a partir de una fecha se
+	 * obtienen con el índice por aula y fecha.
+	 */
+	@Test
+	public void planReservasAula() {
+		assertUsaIndice("IDX_Reserva_Aula_Fecha", "SELECT r.* FROM public.reserva r "
+				+ "WHERE r.id_aula = 1 AND r.fecha >= DATE '2021-03-01'");
+	}
+
+	/**
+	 * Test que comprueba que el listado de reservas de los propietarios
+	 * (ReservaSpecification) usa el índice por propietario y fecha.
+	 */
+	@Test
+	public void planListadoReservas() {
+		assertUsaIndice("IDX_Reserva_Propietario_Fecha", "SELECT r.* FROM public.reserva r "
+				+ "WHERE r.propietario_responsable IN ('DPTO 1') AND r.fecha >= DATE '2021-03-01' "
+				+ "AND r.fecha <= DATE '2021-03-31' ORDER BY r.fecha");
+	}
+
+	/**
+	 * Test que comprueba que las reservas periódicas que se solapan con un rango
+	 * de fechas (ReservaPeriodicaSpecification) se obtienen con el índice por
+	 * fecha de fin.
+	 */
+	@Test
+	public void planReservasPeriodicasSolapadas() {
+		assertUsaIndice("IDX_ReservaPeriodica_FechaFin_Aula", "SELECT rp.* FROM public.reserva_periodica rp "
+				+ "WHERE rp.fecha_fin >= DATE '2021-03-01' AND rp.fecha_inicio <= DATE '2021-03-31'");
+	}
+
+	/**
+	 * Test que comprueba que el histórico de reservas entre dos fechas
+	 * (HistoricoReservasSpecification) se recorre con el índice por fecha de la
+	 * operación y que, para obtener el siguiente bloque (findDespuesDe), el
+	 * recorrido empieza en la última operación obtenida.
+	 */
+	@Test
+	public void planHistoricoReservas() {
+		assertUsaIndice("IDX_HistoricoReservas_FechaOperacion", "SELECT h.* FROM public.historico_reservas h "
+				+ "WHERE h.fecha_operacion >= TIMESTAMP '2021-03-01 00:00:00' "
+				+ "AND h.fecha_operacion <= TIMESTAMP '2021-03-31 23:59:59' "
+				+ "ORDER BY h.fecha_operacion DESC, h.id_operacion DESC");
+		assertRecorreIndice("IDX_HistoricoReservas_FechaOperacion",
+				"FECHA_OPERACION <= TIMESTAMP '2021-03-20 10:00:00'",
+				"SELECT h.* FROM public.historico_reservas h "
+						+ "WHERE h.fecha_operacion >= TIMESTAMP '2021-03-01 00:00:00' "
+						+ "AND h.fecha_operacion <= TIMESTAMP '2021-03-31 23:59:59' "
+						+ "AND h.fecha_operacion <= TIMESTAMP '2021-03-20 10:00:00' "
+						+ "AND (h.fecha_operacion < TIMESTAMP '2021-03-20 10:00:00' "
+						+ "OR (h.fecha_operacion = TIMESTAMP '2021-03-20 10:00:00' AND h.id_operacion < 100)) "
+						+ "ORDER BY h.fecha_operacion DESC, h.id_operacion DESC");
+	}
+
+	/**
+	 * Función que comprueba que el plan de la consulta pasada usa el índice
+	 * pasado.
+	 *
+	 * @param indice   Nombre del índice
+	 * @param consulta Consulta SQL
+	 */
+	private void assertUsaIndice(String indice, String consulta) {
+		String plan = getPlan(consulta);
+
+		Assert.assertTrue(plan, plan.contains(indice));
+	}
+
+	/**
+	 * Función que comprueba que el plan de la consulta pasada recorre el índice
+	 * pasado limitado por la condición pasada (y no sólo filtra las filas con
+	 * ella).
+	 *
+	 * @param indice    Nombre del índice
+	 * @param condicion Condición del recorrido del índice, como aparece en el plan
+	 * @param consulta  Consulta SQL
+	 */
+	private void assertRecorreIndice(String indice, String condicion, String consulta) {
+		String plan = getPlan(consulta);
+		int inicio = plan.indexOf(indice);
+
+		Assert.assertTrue(plan, inicio >= 0 && plan.substring(inicio, plan.indexOf("*/", inicio)).contains(condicion));
+	}
+
+	/**
+	 * Función que devuelve el plan de la consulta pasada.
+	 *
+	 * @param consulta Consulta SQL
+	 *
+	 * @return Plan de la consulta
+	 */
+	private String getPlan(String consulta) {
+		return new TransactionTemplate(transactionManager).execute(estado -> String.valueOf(
+				entityManager.getEntityManager().createNativeQuery("EXPLAIN " + consulta).getSingleResult()));
+	}
+}
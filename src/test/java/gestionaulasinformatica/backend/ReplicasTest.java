@@ -0,0 +1,243 @@
+package gestionaulasinformatica.backend;
+
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.Assert;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import gestionaulasinformatica.backend.conexion.DataSourceEnrutado;
+import gestionaulasinformatica.backend.conexion.EnrutamientoReplicas;
+import gestionaulasinformatica.backend.conexion.EscriturasRecientes;
+import gestionaulasinformatica.backend.conexion.LecturaReplica;
+import gestionaulasinformatica.backend.service.AulaService;
+import gestionaulasinformatica.backend.service.PropietarioAulaService;
+import gestionaulasinformatica.backend.service.ReservaService;
+import gestionaulasinformatica.backend.service.UsuarioService;
+
+/**
+ * Clase para testear el reparto de las lecturas entre las réplicas de la BD,
+ * con una BD H2 en memoria como principal y otras dos como réplicas.
+ *
+ * @author Lisa
+ *
+ */
+public class ReplicasTest {
+	private static final long VENTANA_MS = 300;
+
+	private EscriturasRecientes escriturasRecientes;
+	private Consultas consultas;
+	private List<DataSource> lstDataSources;
+
+	/**
+	 * Clase con una consulta de sólo lectura y otra que no lo está, que devuelven
+	 * la URL de la BD de la que se ha obtenido la conexión.
+	 */
+	public static class Consultas {
+		private DataSource dataSource;
+
+		public Consultas() {
+		}
+
+		public Consultas(DataSource dataSource) {
+			this.dataSource = dataSource;
+		}
+
+		@LecturaReplica
+		public String leer() {
+			return getUrl();
+		}
+
+		public String leerPrincipal() {
+			return getUrl();
+		}
+
+		@LecturaReplica
+		public String leerNombreAula() {
+			return getNombreAula();
+		}
+
+		public String leerNombreAulaPrincipal() {
+			return getNombreAula();
+		}
+
+		private String getNombreAula() {
+			try (Connection conexion = dataSource.getConnection();
+					Statement sentencia = conexion.createStatement();
+					ResultSet resultado = sentencia.executeQuery("SELECT nombre_aula FROM aula")) {
+				return resultado.next() ? resultado.getString(1) : null;
+			} catch (SQLException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+
+		private String getUrl() {
+			try (Connection conexion = dataSource.getConnection()) {
+				return conexion.getMetaData().getURL();
+			} catch (SQLException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+	}
+
+	/**
+	 * Se crea el DataSource enrutado y se aplica el aspecto de las réplicas a las
+	 * consultas de prueba, sin usuario autenticado.
+	 */
+	@BeforeEach
+	public void establecerDatos() {
+		DataSource principal = crearDataSource("principal");
+		AspectJProxyFactory fabrica;
+
+		lstDataSources = Arrays.asList(principal, crearDataSource("replica1"), crearDataSource("replica2"));
+		for (DataSource dataSource : lstDataSources) {
+			ejecutar(dataSource, "DROP TABLE IF EXISTS aula");
+			ejecutar(dataSource, "CREATE TABLE aula (nombre_aula VARCHAR(20))");
+			ejecutar(dataSource, "INSERT INTO aula VALUES ('Aula 1')");
+		}
+
+		escriturasRecientes = new EscriturasRecientes(VENTANA_MS);
+		fabrica = new AspectJProxyFactory(new Consultas(
+				new DataSourceEnrutado(principal, principal, lstDataSources.subList(1, lstDataSources.size()))));
+		fabrica.setProxyTargetClass(true);
+		fabrica.addAspect(new EnrutamientoReplicas(escriturasRecientes));
+		consultas = fabrica.getProxy();
+
+		SecurityContextHolder.clearContext();
+	}
+
+	/**
+	 * Test que comprueba que las lecturas marcadas se reparten entre las réplicas
+	 * y las demás van a la BD principal.
+	 */
+	@Test
+	public void lecturaReplicas() {
+		String replica = consultas.leer();
+
+		Assert.assertTrue(replica.contains("replica"));
+		Assert.assertNotEquals(replica, consultas.leer());
+		Assert.assertEquals(replica, consultas.leer());
+		Assert.assertTrue(consultas.leerPrincipal().contains("principal"));
+	}
+
+	/**
+	 * Test que comprueba que, después de una escritura, las lecturas del usuario
+	 * que la ha hecho van a la BD principal durante la ventana configurada y las
+	 * de los demás usuarios siguen yendo a las réplicas.
+	 */
+	@Test
+	public void lecturaEscrituraReciente() throws InterruptedException {
+		autenticar("responsable1@gmail.com");
+		escriturasRecientes.registrar();
+		Assert.assertTrue(consultas.leer().contains("principal"));
+
+		autenticar("responsable2@gmail.com");
+		Assert.assertTrue(consultas.leer().contains("replica"));
+
+		autenticar("responsable1@gmail.com");
+		Thread.sleep(VENTANA_MS * 2);
+		Assert.assertTrue(consultas.leer().contains("replica"));
+	}
+
+	/**
+	 * Test que comprueba que, con las réplicas retrasadas respecto a una
+	 * escritura, sólo el usuario que escribe lee el dato nuevo en las lecturas
+	 * marcadas; los demás usuarios leen el dato anterior en las réplicas y el
+	 * nuevo en las lecturas sin marcar, que son las de los datos de referencia.
+	 */
+	@Test
+	public void lecturaReplicaRetrasada() {
+		autenticar("admin@gmail.com");
+		ejecutar(lstDataSources.get(0), "UPDATE aula SET nombre_aula = 'Aula 2'");
+		escriturasRecientes.registrar();
+		Assert.assertEquals("Aula 2", consultas.leerNombreAula());
+
+		autenticar("responsable1@gmail.com");
+		Assert.assertEquals("Aula 1", consultas.leerNombreAula());
+		Assert.assertEquals("Aula 2", consultas.leerNombreAulaPrincipal());
+	}
+
+	/**
+	 * Test que comprueba que los services de los datos de referencia (que llenan
+	 * la cache de segundo nivel y el contexto de UsuarioSesion) y de las reservas
+	 * no tienen lecturas marcadas para las réplicas.
+	 */
+	@Test
+	public void datosReferenciaSinReplicas() {
+		for (Class<?> service : Arrays.asList(UsuarioService.class, PropietarioAulaService.class,
+				AulaService.class, ReservaService.class)) {
+			for (Method metodo : service.getDeclaredMethods()) {
+				Assert.assertFalse(service.getSimpleName() + "." + metodo.getName(),
+						metodo.isAnnotationPresent(LecturaReplica.class));
+			}
+		}
+	}
+
+	/**
+	 * Test que comprueba que dentro de una transacción activa las lecturas no
+	 * cambian de BD.
+	 */
+	@Test
+	public void lecturaEnTransaccion() {
+		TransactionSynchronizationManager.setActualTransactionActive(true);
+		try {
+			Assert.assertTrue(consultas.leer().contains("principal"));
+		} finally {
+			TransactionSynchronizationManager.setActualTransactionActive(false);
+		}
+	}
+
+	/**
+	 * Función que autentica al usuario pasado en el hilo actual.
+	 *
+	 * @param usuario Correo del usuario
+	 */
+	private static void autenticar(String usuario) {
+		SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(usuario, null,
+				Collections.singletonList(new SimpleGrantedAuthority("RESPONSABLE"))));
+	}
+
+	/**
+	 * Función que ejecuta una sentencia en la BD del DataSource pasado.
+	 *
+	 * @param dataSource DataSource de la BD
+	 * @param sql        Sentencia que se quiere ejecutar
+	 */
+	private static void ejecutar(DataSource dataSource, String sql) {
+		try (Connection conexion = dataSource.getConnection(); Statement sentencia = conexion.createStatement()) {
+			sentencia.execute(sql);
+		} catch (SQLException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Función que crea un DataSource de una BD H2 en memoria, que se mantiene
+	 * mientras dure la JVM.
+	 *
+	 * @param nombre Nombre de la BD
+	 *
+	 * @return DataSource de la BD
+	 */
+	private static DataSource crearDataSource(String nombre) {
+		JdbcDataSource dataSourceH2 = new JdbcDataSource();
+
+		dataSourceH2.setURL("jdbc:h2:mem:" + nombre + ";DB_CLOSE_DELAY=-1");
+		return dataSourceH2;
+	}
+}
@@ -0,0 +1,241 @@
+package gestionaulasinformatica.backend;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import gestionaulasinformatica.backend.cache.CacheConsultasPublicas;
+import gestionaulasinformatica.backend.cache.CacheDatosReferencia;
+import gestionaulasinformatica.backend.conexion.LimiteConsultasPublicas;
+import gestionaulasinformatica.backend.data.Rol;
+import gestionaulasinformatica.backend.entity.Aula;
+import gestionaulasinformatica.backend.entity.Centro;
+import gestionaulasinformatica.backend.entity.Departamento;
+import gestionaulasinformatica.backend.entity.PropietarioAula;
+import gestionaulasinformatica.backend.entity.Reserva;
+import gestionaulasinformatica.backend.entity.Usuario;
+import gestionaulasinformatica.backend.ocupacion.BloqueoAulas;
+import gestionaulasinformatica.backend.ocupacion.IndiceOcupacionAulas;
+import gestionaulasinformatica.backend.repository.IAulaRepository;
+import gestionaulasinformatica.backend.repository.IPropietarioAulaRepository;
+import gestionaulasinformatica.backend.repository.IReservaRepository;
+import gestionaulasinformatica.backend.repository.IUsuarioRepository;
+import gestionaulasinformatica.backend.service.AulaService;
+import gestionaulasinformatica.backend.service.HistoricoReservasService;
+import gestionaulasinformatica.backend.service.ReservaService;
+import gestionaulasinformatica.exceptions.UserFriendlyDataException;
+
+/**
+ * Clase para testear el guardado de reservas concurrentes de la misma aula.
+ *
+ * Cada reserva se guarda en su propia transacción desde varios hilos, por lo
+ * que los tests no son transaccionales y los datos de prueba se eliminan al
+ * acabar cada test.
+ *
+ * @author Lisa
+ *
+ */
+@DataJpaTest
+@Import({ ReservaService.class, HistoricoReservasService.class, IndiceOcupacionAulas.class, BloqueoAulas.class,
+		AulaService.class, CacheDatosReferencia.class, CacheConsultasPublicas.class, LimiteConsultasPublicas.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ReservaConcurrenteTest {
+	private static final int NUM_HILOS = 16;
+	private static final int NUM_DIAS = 10;
+
+	@Autowired
+	private ReservaService reservaService;
+
+	@Autowired
+	private BloqueoAulas bloqueoAulas;
+
+	@Autowired
+	private IndiceOcupacionAulas indiceOcupacion;
+
+	@Autowired
+	private IReservaRepository reservaRepository;
+
+	@Autowired
+	private IAulaRepository aulaRepository;
+
+	@Autowired
+	private IPropietarioAulaRepository propietarioAulaRepository;
+
+	@Autowired
+	private IUsuarioRepository usuarioRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private PropietarioAula dpto1;
+	private Aula aula1;
+	private Aula aula2;
+	private ExecutorService hilos;
+
+	/**
+	 * Se crean los datos de prueba, que se eliminan al acabar cada test.
+	 */
+	@BeforeEach
+	public void establecerDatos() {
+		Usuario responsable;
+		PropietarioAula centro1;
+
+		responsable = usuarioRepository.save(new Usuario("rspDpto1@gmail.com", "12345", "Responsable",
+				"Departamento 1", "247863221", Rol.RESPONSABLE));
+		centro1 = propietarioAulaRepository.save(new Centro("Centro 1", "Centro 1", responsable));
+		dpto1 = propietarioAulaRepository.save(new Departamento("DPTO 1", "Departamento 1", responsable));
+		aula1 = aulaRepository.save(new Aula("Aula 1", 50, 25, centro1, dpto1));
+		aula2 = aulaRepository.save(new Aula("Aula 2", 50, 25, centro1, dpto1));
+
+		indiceOcupacion.invalidar();
+		hilos = Executors.newFixedThreadPool(NUM_HILOS);
+	}
+
+	/**
+	 * Se eliminan los datos de prueba.
+	 */
+	@AfterEach
+	public void eliminarDatos() {
+		hilos.shutdownNow();
+		reservaRepository.deleteAll();
+		aulaRepository.deleteAll();
+		propietarioAulaRepository.deleteAll();
+		usuarioRepository.deleteAll();
+		indiceOcupacion.invalidar();
+	}
+
+	/**
+	 * Test que comprueba que, con muchos hilos reservando a la vez la misma aula
+	 * en horas que se solapan, sólo se guarda una reserva por día y ninguna de las
+	 * reservas guardadas se solapa con otra.
+	 *
+	 * @throws Exception Si algún hilo falla por un motivo distinto de que el aula
+	 *                   no está disponible
+	 */
+	@Test
+	public void reservasConcurrentesSinSolapes() throws Exception {
+		CountDownLatch salida = new CountDownLatch(1);
+		AtomicInteger rechazadas = new AtomicInteger();
+		List<Future<?>> lstTareas = new ArrayList<>();
+		List<Reserva> lstGuardadas;
+
+		for (int i = 0; i < NUM_HILOS; i++) {
+			// Cada hilo empieza media hora más tarde (en ciclos de dos horas) y reserva
+			// dos horas, por lo que todas las reservas de un mismo día se solapan
+			LocalTime horaInicio = LocalTime.of(9, 00).plusMinutes(30 * (i % 4));
+
+			lstTareas.add(hilos.submit(() -> {
+				salida.await();
+				for (int dia = 0; dia < NUM_DIAS; dia++) {
+					try {
+						reservaService.save(crearReserva(aula1, LocalDate.of(2020, 9, 7).plusDays(dia), horaInicio,
+								horaInicio.plusHours(2)));
+					} catch (UserFriendlyDataException e) {
+						rechazadas.incrementAndGet();
+					}
+				}
+				return null;
+			}));
+		}
+
+		salida.countDown();
+		for (Future<?> tarea : lstTareas) {
+			tarea.get(60, TimeUnit.SECONDS);
+		}
+
+		lstGuardadas = reservaRepository.findAll();
+
+		Assert.assertEquals(NUM_DIAS, lstGuardadas.size());
+		Assert.assertEquals(NUM_HILOS * NUM_DIAS - NUM_DIAS, rechazadas.get());
+		for (int i = 0; i < lstGuardadas.size(); i++) {
+			for (int j = i + 1; j < lstGuardadas.size(); j++) {
+				Assert.assertFalse(haySolape(lstGuardadas.get(i), lstGuardadas.get(j)));
+			}
+		}
+	}
+
+	/**
+	 * Test que comprueba que mientras una transacción tiene bloqueada un aula, las
+	 * reservas de otra aula se guardan sin esperar y las de la misma aula esperan
+	 * a que termine la transacción.
+	 *
+	 * @throws Exception Si alguna reserva no se guarda a tiempo
+	 */
+	@Test
+	public void aulasDistintasEnParalelo() throws Exception {
+		TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+		LocalDate fecha = LocalDate.of(2020, 9, 7);
+		List<Future<?>> lstTareas = new ArrayList<>();
+
+		transaccion.execute(estado -> {
+			bloqueoAulas.bloquear(Collections.singletonList(aula1.getIdAula()));
+
+			lstTareas.add(hilos.submit(() -> reservaService
+					.save(crearReserva(aula1, fecha, LocalTime.of(9, 00), LocalTime.of(10, 00)))));
+			lstTareas.add(hilos.submit(() -> reservaService
+					.save(crearReserva(aula2, fecha, LocalTime.of(9, 00), LocalTime.of(10, 00)))));
+
+			try {
+				lstTareas.get(1).get(10, TimeUnit.SECONDS);
+				Thread.sleep(200);
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+
+			Assert.assertFalse(lstTareas.get(0).isDone());
+			return null;
+		});
+
+		lstTareas.get(0).get(10, TimeUnit.SECONDS);
+		Assert.assertEquals(2, reservaRepository.count());
+	}
+
+	/**
+	 * Función que crea una reserva de prueba del aula, día y horas pasados.
+	 *
+	 * @param aula       Aula de la reserva
+	 * @param fecha      Fecha de la reserva
+	 * @param horaInicio Hora de inicio de la reserva
+	 * @param horaFin    Hora de fin de la reserva
+	 *
+	 * @return Reserva de prueba
+	 */
+	private Reserva crearReserva(Aula aula, LocalDate fecha, LocalTime horaInicio, LocalTime horaFin) {
+		return new Reserva(fecha, horaInicio, horaFin, "Lunes", aula, "Examen", "Persona 1",
+				"Responsable Departamento 1", dpto1);
+	}
+
+	/**
+	 * Función que comprueba si dos reservas de la misma aula se solapan.
+	 *
+	 * @param reserva1 Primera reserva
+	 * @param reserva2 Segunda reserva
+	 *
+	 * @return Si las reservas se solapan o no
+	 */
+	private boolean haySolape(Reserva reserva1, Reserva reserva2) {
+		return reserva1.getFecha().equals(reserva2.getFecha())
+				&& reserva1.getHoraInicio().isBefore(reserva2.getHoraFin())
+				&& reserva2.getHoraInicio().isBefore(reserva1.getHoraFin());
+	}
+}
@@ -0,0 +1,258 @@
+package gestionaulasinformatica.backend;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Assert;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Sort;
+
+import gestionaulasinformatica.backend.cache.CacheConsultasPublicas;
+import gestionaulasinformatica.backend.cache.CacheDatosReferencia;
+import gestionaulasinformatica.backend.conexion.LimiteConsultasPublicas;
+import gestionaulasinformatica.backend.data.Rol;
+import gestionaulasinformatica.backend.data.TipoOperacionHR;
+import gestionaulasinformatica.backend.entity.Aula;
+import gestionaulasinformatica.backend.entity.Centro;
+import gestionaulasinformatica.backend.entity.Departamento;
+import gestionaulasinformatica.backend.entity.HistoricoReservas;
+import gestionaulasinformatica.backend.entity.PropietarioAula;
+import gestionaulasinformatica.backend.entity.Reserva;
+import gestionaulasinformatica.backend.entity.ReservaPeriodica;
+import gestionaulasinformatica.backend.entity.Usuario;
+import gestionaulasinformatica.backend.ocupacion.BloqueoAulas;
+import gestionaulasinformatica.backend.ocupacion.IndiceOcupacionAulas;
+import gestionaulasinformatica.backend.repository.IHistoricoReservasRepository;
+import gestionaulasinformatica.backend.repository.IReservaPeriodicaRepository;
+import gestionaulasinformatica.backend.repository.IReservaRepository;
+import gestionaulasinformatica.backend.service.AulaService;
+import gestionaulasinformatica.backend.service.HistoricoReservasService;
+import gestionaulasinformatica.backend.service.ReservaService;
+import gestionaulasinformatica.exceptions.UserFriendlyDataException;
+
+/**
+ * Clase para testear el guardado de las reservas periódicas y la eliminación
+ * de las reservas.
+ *
+ * @author Lisa
+ *
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({ ReservaService.class, HistoricoReservasService.class, IndiceOcupacionAulas.class, BloqueoAulas.class,
+		AulaService.class, CacheDatosReferencia.class, CacheConsultasPublicas.class, LimiteConsultasPublicas.class })
+public class ReservaRangoTest {
+	private static final int NUM_RESERVAS = 100;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private ReservaService reservaService;
+
+	@Autowired
+	private IReservaRepository reservaRepository;
+
+	@Autowired
+	private IHistoricoReservasRepository historicoReservasRepository;
+
+	@Autowired
+	private IReservaPeriodicaRepository reservaPeriodicaRepository;
+
+	@Autowired
+	private IndiceOcupacionAulas indiceOcupacion;
+
+	private Usuario responsable;
+	private PropietarioAula dpto1;
+	private Aula aula1;
+	private List<Reserva> lstReservas;
+
+	/**
+	 * Se crean los datos de prueba, que se revierten y se recrean para cada test.
+	 */
+	@BeforeEach
+	public void establecerDatos() {
+		PropietarioAula centro1;
+		LocalDate fecha = LocalDate.of(2020, 9, 7);
+
+		responsable = new Usuario("rspDpto1@gmail.com", "12345", "Responsable", "Departamento 1", "247863221",
+				Rol.RESPONSABLE);
+		entityManager.persist(responsable);
+
+		centro1 = new Centro("Centro 1", "Centro 1", responsable);
+		dpto1 = new Departamento("DPTO 1", "Departamento 1", responsable);
+		entityManager.persist(centro1);
+		entityManager.persist(dpto1);
+
+		aula1 = new Aula("Aula 1", 50, 25, centro1, dpto1);
+		entityManager.persist(aula1);
+		entityManager.flush();
+
+		lstReservas = new ArrayList<>();
+		for (int i = 0; i < NUM_RESERVAS; i++) {
+			lstReservas.add(new Reserva(fecha.plusWeeks(i), LocalTime.of(9, 00), LocalTime.of(11, 00), "Lunes", aula1,
+					"Curso", "Persona 1", responsable.getNombreApellidosUsuario(), dpto1));
+		}
+	}
+
+	/**
+	 * Test que comprueba que una reserva periódica se guarda en una sola fila y
+	 * que sus ocurrencias se obtienen al consultar las reservas.
+	 */
+	@Test
+	public void guardarReservaPeriodica() {
+		LocalDate desde = LocalDate.of(2020, 9, 7);
+		LocalDate hasta = LocalDate.of(2020, 12, 18);
+		ReservaPeriodica reservaPeriodica = new ReservaPeriodica(desde, hasta,
+				ReservaPeriodica.getMascaraDiaSemana("Lunes") | ReservaPeriodica.getMascaraDiaSemana("Jueves"),
+				LocalTime.of(9, 00), LocalTime.of(11, 00), aula1, "Curso", "Persona 1",
+				responsable.getNombreApellidosUsuario(), dpto1);
+		List<Reserva> lstConsulta;
+
+		reservaService.savePeriodica(reservaPeriodica, responsable);
+		entityManager.flush();
+
+		lstConsulta = reservaService.findAllReservasFiltros(desde, hasta, null, null, null,
+				Collections.singletonList(dpto1));
+
+		Assert.assertEquals(0, reservaRepository.count());
+		Assert.assertEquals(1, reservaPeriodicaRepository.count());
+		Assert.assertEquals(30, lstConsulta.size());
+		Assert.assertEquals(30, historicoReservasRepository.count());
+		Assert.assertTrue(lstConsulta.stream().allMatch(Reserva::isOcurrencia));
+		Assert.assertEquals(15, reservaService
+				.findAllReservasFiltros(desde, hasta, null, null, "Jueves", Collections.singletonList(dpto1)).size());
+	}
+
+	/**
+	 * Test que comprueba que al eliminar una ocurrencia se cancela ese día y que
+	 * al modificarla se guarda como una reserva de un solo día.
+	 */
+	@Test
+	public void cancelarYModificarOcurrencias() {
+		LocalDate desde = LocalDate.of(2020, 9, 7);
+		LocalDate hasta = LocalDate.of(2020, 9, 27);
+		ReservaPeriodica reservaPeriodica = new ReservaPeriodica(desde, hasta,
+				ReservaPeriodica.getMascaraDiaSemana("Lunes"), LocalTime.of(9, 00), LocalTime.of(11, 00), aula1,
+				"Curso", "Persona 1", responsable.getNombreApellidosUsuario(), dpto1);
+		List<Reserva> lstOcurrencias;
+		Reserva modificada;
+
+		reservaService.savePeriodica(reservaPeriodica, responsable);
+		lstOcurrencias = reservaService.findAllReservasFiltros(desde, hasta, null, null, null,
+				Collections.singletonList(dpto1));
+		Assert.assertEquals(3, lstOcurrencias.size());
+
+		reservaService.delete(lstOcurrencias.get(0));
+
+		modificada = lstOcurrencias.get(1);
+		modificada.setHoraInicio(LocalTime.of(12, 00));
+		modificada.setHoraFin(LocalTime.of(13, 00));
+		reservaService.save(modificada);
+		entityManager.flush();
+
+		lstOcurrencias = reservaService.findAllReservasFiltros(desde, hasta, null, null, null,
+				Collections.singletonList(dpto1));
+
+		Assert.assertEquals(2, lstOcurrencias.size());
+		Assert.assertEquals(1, reservaRepository.count());
+		Assert.assertFalse(lstOcurrencias.get(0).isOcurrencia());
+		Assert.assertEquals(LocalTime.of(12, 00), lstOcurrencias.get(0).getHoraInicio());
+		Assert.assertTrue(lstOcurrencias.get(1).isOcurrencia());
+		Assert.assertEquals(2, reservaPeriodicaRepository.findAll().get(0).getExcepciones().size());
+	}
+
+	/**
+	 * Test que comprueba que al crear, modificar y eliminar una reserva se guarda
+	 * la operación en el histórico, y que no se guarda si el aula no está
+	 * disponible.
+	 */
+	@Test
+	public void operacionesHistoricoReserva() {
+		Reserva reserva = lstReservas.get(0);
+		Reserva solapada = new Reserva(reserva.getFecha(), LocalTime.of(10, 00), LocalTime.of(12, 00), "Lunes", aula1,
+				"Examen", "Persona 2", responsable.getNombreApellidosUsuario(), dpto1);
+		List<HistoricoReservas> lstOperaciones;
+
+		reservaService.save(reserva, TipoOperacionHR.CREACIÓN, responsable);
+		// El índice de ocupación se actualiza al confirmar la transacción, que en
+		// el test no se confirma
+		entityManager.flush();
+		indiceOcupacion.invalidar();
+		try {
+			reservaService.save(solapada, TipoOperacionHR.CREACIÓN, responsable);
+			Assert.fail("El aula no está disponible");
+		} catch (UserFriendlyDataException e) {
+			// El aula ya está reservada a esa hora
+		}
+
+		reserva.setMotivo("Curso modificado");
+		reservaService.save(reserva, TipoOperacionHR.MODIFICACIÓN, responsable);
+		reservaService.delete(reserva, responsable);
+		entityManager.flush();
+
+		// La reserva eliminada sigue ocupando el aula en el índice hasta que se
+		// confirme la transacción
+		Assert.assertFalse(indiceOcupacion.isDisponible(aula1.getIdAula(), reserva.getFecha(), reserva.getFecha(),
+				reserva.getHoraInicio(), reserva.getHoraFin(), null, null));
+
+		lstOperaciones = historicoReservasRepository.findAll(Sort.by("idOperacion"));
+
+		Assert.assertEquals(0, reservaRepository.count());
+		Assert.assertEquals(3, lstOperaciones.size());
+		Assert.assertEquals(TipoOperacionHR.CREACIÓN, lstOperaciones.get(0).getTipoOperacion());
+		Assert.assertEquals(TipoOperacionHR.MODIFICACIÓN, lstOperaciones.get(1).getTipoOperacion());
+		Assert.assertEquals("Curso modificado", lstOperaciones.get(1).getMotivoReserva());
+		Assert.assertEquals(TipoOperacionHR.ELIMINACIÓN, lstOperaciones.get(2).getTipoOperacion());
+		Assert.assertEquals(responsable.getNombreApellidosUsuario(),
+				lstOperaciones.get(2).getUsuarioResponsableOperacion());
+	}
+
+	/**
+	 * Test que comprueba que las reservas seleccionadas, de un solo día y
+	 * ocurrencias de reservas periódicas, se eliminan todas juntas con su
+	 * operación en el histórico, sin una sentencia por reserva.
+	 */
+	@Test
+	public void eliminarReservas() {
+		Statistics estadisticas = entityManager.getEntityManager().getEntityManagerFactory()
+				.unwrap(SessionFactory.class).getStatistics();
+		LocalDate desde = LocalDate.of(2020, 9, 7);
+		LocalDate hasta = LocalDate.of(2020, 9, 27);
+		ReservaPeriodica reservaPeriodica = new ReservaPeriodica(desde, hasta,
+				ReservaPeriodica.getMascaraDiaSemana("Lunes"), LocalTime.of(12, 00), LocalTime.of(13, 00), aula1,
+				"Curso", "Persona 1", responsable.getNombreApellidosUsuario(), dpto1);
+		List<Reserva> lstSeleccion;
+
+		reservaRepository.saveAll(lstReservas);
+		reservaPeriodicaRepository.save(reservaPeriodica);
+		entityManager.flush();
+		entityManager.clear();
+
+		lstSeleccion = lstReservas.stream().limit(NUM_RESERVAS / 2).collect(Collectors.toList());
+		lstSeleccion.addAll(reservaPeriodica.getOcurrencias(desde, hasta).subList(0, 2));
+
+		estadisticas.clear();
+		reservaService.deleteAll(lstSeleccion, responsable);
+		entityManager.flush();
+
+		// Dos consultas, un DELETE, las excepciones y las inserciones del histórico
+		// en lotes de 50
+		Assert.assertTrue(estadisticas.getPrepareStatementCount() < 15);
+
+		Assert.assertEquals(NUM_RESERVAS - NUM_RESERVAS / 2, reservaRepository.count());
+		Assert.assertEquals(2, reservaPeriodicaRepository.findAll().get(0).getExcepciones().size());
+		Assert.assertEquals(lstSeleccion.size(), historicoReservasRepository.findAll().stream()
+				.filter(o -> o.getTipoOperacion() == TipoOperacionHR.ELIMINACIÓN).count());
+	}
+}
@@ -0,0 +1,106 @@
+package gestionaulasinformatica.backend;
+
+import java.util.Collections;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+
+import gestionaulasinformatica.app.security.UsuarioSesion;
+import gestionaulasinformatica.backend.busqueda.BusquedaTexto;
+import gestionaulasinformatica.backend.cache.CacheConsultasPublicas;
+import gestionaulasinformatica.backend.cache.CacheDatosReferencia;
+import gestionaulasinformatica.backend.data.Rol;
+import gestionaulasinformatica.backend.entity.Centro;
+import gestionaulasinformatica.backend.entity.Departamento;
+import gestionaulasinformatica.backend.entity.Usuario;
+import gestionaulasinformatica.backend.ocupacion.IndiceOcupacionAulas;
+import gestionaulasinformatica.backend.service.HistoricoReservasService;
+import gestionaulasinformatica.backend.service.PropietarioAulaService;
+import gestionaulasinformatica.backend.service.UsuarioService;
+
+/**
+ * Clase para testear los datos del usuario logeado guardados en la sesión.
+ *
+ * @author Lisa
+ *
+ */
+@DataJpaTest
+@Import({ UsuarioService.class, PropietarioAulaService.class, CacheDatosReferencia.class,
+		CacheConsultasPublicas.class, IndiceOcupacionAulas.class, BusquedaTexto.class, HistoricoReservasService.class })
+public class UsuarioSesionTest {
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private UsuarioService usuarioService;
+
+	@Autowired
+	private PropietarioAulaService propietarioAulaService;
+
+	@Autowired
+	private CacheDatosReferencia cacheDatosReferencia;
+
+	private Usuario responsable;
+	private UsuarioSesion usuarioSesion;
+
+	/**
+	 * Se crean los datos de prueba, que se revierten y se recrean para cada test.
+	 */
+	@BeforeEach
+	public void establecerDatos() {
+		responsable = new Usuario("rspCentro1@gmail.com", "12345", "Responsable", "Centro 1", "547854126",
+				Rol.RESPONSABLE);
+		entityManager.persist(responsable);
+		entityManager.persist(new Centro("Centro 1", "Centro 1", responsable));
+
+		SecurityContextHolder.getContext()
+				.setAuthentication(new UsernamePasswordAuthenticationToken(
+						new User(responsable.getCorreoUsuario(), "12345", Collections.emptyList()), null,
+						Collections.emptyList()));
+
+		usuarioSesion = new UsuarioSesion(usuarioService, propietarioAulaService, cacheDatosReferencia);
+	}
+
+	/**
+	 * Se elimina el usuario del contexto de seguridad.
+	 */
+	@AfterEach
+	public void eliminarDatos() {
+		SecurityContextHolder.clearContext();
+	}
+
+	/**
+	 * Test que comprueba que el usuario y sus propietarios se consultan una sola
+	 * vez mientras no se modifican.
+	 */
+	@Test
+	public void usuarioConsultadoUnaVez() {
+		Assert.assertEquals(responsable, usuarioSesion.getUser());
+		Assert.assertEquals(1, usuarioSesion.getPropietarios().size());
+
+		Assert.assertSame(usuarioSesion.getPropietarios(), usuarioSesion.getPropietarios());
+	}
+
+	/**
+	 * Test que comprueba que los propietarios se recargan al asignar un nuevo
+	 * propietario al usuario.
+	 */
+	@Test
+	public void recargaAlModificarPropietarios() {
+		Assert.assertEquals(1, usuarioSesion.getPropietarios().size());
+
+		propietarioAulaService.save(new Departamento("DPTO 1", "Departamento 1", responsable));
+
+		Assert.assertEquals(2, usuarioSesion.getPropietarios().size());
+	}
+}